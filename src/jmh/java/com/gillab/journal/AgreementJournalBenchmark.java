@@ -0,0 +1,60 @@
+package com.gillab.journal;
+
+import com.gillab.model.RentalAgreement;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measure the agreements appended per second to the {@link AgreementJournal} in every {@link DurabilityModeEnum}, from
+ * many threads at once, so the appends are group-committed. The journal is written to the temporary directory, which
+ * should be on the disk to measure, e.g. with -Djava.io.tmpdir=/mnt/ssd/tmp.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class AgreementJournalBenchmark {
+
+    private static final LocalDate CHECKOUT_DATE = LocalDate.of(2024, Month.JULY, 1);
+    private static final RentalAgreement AGREEMENT = new RentalAgreement("LADW", "Ladder", "Werner", 3,
+            CHECKOUT_DATE, CHECKOUT_DATE.plusDays(3), 199, 3, 597, 10, 60, 537);
+
+    @Param({"SYNC", "BATCHED", "ASYNC"})
+    private DurabilityModeEnum durabilityMode;
+
+    private Path directory;
+    private AgreementJournal journal;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("agreement-journal");
+        journal = AgreementJournal.open(directory, JournalOptions.of(durabilityMode), (agreement, sequence) -> {});
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public long append() {
+        return journal.append(AGREEMENT);
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.gillab.journal;
+
+import com.gillab.model.RentalAgreement;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measure the restart of a {@link RentalLedger} with a long history: from a snapshot taken before the last
+ * {@value #TAIL_RECORDS} records, against replaying the whole journal. Every restart is a single shot, like a startup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RentalLedgerBenchmark {
+
+    private static final int TAIL_RECORDS = 10_000;
+    private static final Duration NO_BACKGROUND_SNAPSHOT = Duration.ofDays(1);
+    private static final String[] TOOL_CODES = {"CHNS", "LADW", "JAKD", "JAKR"};
+    private static final LocalDate CHECKOUT_DATE = LocalDate.of(2024, Month.JULY, 1);
+
+    @Param({"1000000", "5000000"})
+    private int history;
+
+    @Param({"true", "false"})
+    private boolean withSnapshot;
+
+    private Path directory;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("rental-ledger");
+        try (RentalLedger ledger = RentalLedger.open(directory, JournalOptions.of(DurabilityModeEnum.ASYNC), NO_BACKGROUND_SNAPSHOT)) {
+            for (int index = 0; index < history; index++) {
+                if (index == history - TAIL_RECORDS && withSnapshot) {
+                    ledger.getJournal().flush();
+                    ledger.snapshot();
+                }
+                long sequence = ledger.record(agreement(index));
+                // Most of the history is returned, as it would be after years of rentals
+                if (index < history - TAIL_RECORDS) {
+                    ledger.recordReturn(sequence);
+                }
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public RentalState restart() {
+        try (RentalLedger ledger = RentalLedger.open(directory, JournalOptions.of(DurabilityModeEnum.ASYNC), NO_BACKGROUND_SNAPSHOT)) {
+            return ledger.getState();
+        }
+    }
+
+    private static RentalAgreement agreement(final int index) {
+        LocalDate checkoutDate = CHECKOUT_DATE.plusDays(index % 3_650);
+        return new RentalAgreement(TOOL_CODES[index % TOOL_CODES.length], "Ladder", "Werner", 3,
+                checkoutDate, checkoutDate.plusDays(3), 199, 3, 597, 0, 0, 597);
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.gillab.load;
+
+import com.gillab.service.CheckoutService;
+import com.gillab.service.HolidayService;
+import com.gillab.service.ToolService;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.gillab.BenchmarkConstants.TOOL_STOCK;
+
+/**
+ * Run the {@link LoadGenerator} with the default {@link LoadProfile}, and print the report. The options are key=value
+ * pairs: mode (open or closed), threads (platform or virtual), rate (requests per second of an open loop), concurrency
+ * (workers of a closed loop, or platform threads of an open loop), duration and warmup (in seconds), and invalidRate
+ * (between 0 and 1), e.g.:
+ * mode=open rate=20000 threads=virtual duration=30 warmup=10 invalidRate=0.05
+ */
+public class LoadGeneratorMain {
+
+    public static void main(final String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String argument : args) {
+            String[] keyValue = argument.split("=", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("The option " + argument + " should be a key=value pair.");
+            }
+            options.put(keyValue[0], keyValue[1]);
+        }
+        boolean openLoop = options.getOrDefault("mode", "open").equalsIgnoreCase("open");
+        ThreadKindEnum threadKind = ThreadKindEnum.valueOf(options.getOrDefault("threads", "virtual").toUpperCase());
+        double rate = Double.parseDouble(options.getOrDefault("rate", "10000"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        LoadProfile profile = LoadProfile.defaultProfile(Double.parseDouble(options.getOrDefault("invalidRate", "0.02")));
+
+        LoadGenerator loadGenerator = new LoadGenerator(
+                CheckoutService.getInstance(ToolService.getInstance(TOOL_STOCK), HolidayService.getInstance()), profile);
+        if (!warmup.isZero()) {
+            loadGenerator.run(openLoop ? LoadOptions.openLoop(rate, warmup, threadKind, concurrency) : LoadOptions.closedLoop(concurrency, warmup, threadKind));
+        }
+        LoadReport report = loadGenerator.run(openLoop
+                ? LoadOptions.openLoop(rate, duration, threadKind, concurrency)
+                : LoadOptions.closedLoop(concurrency, duration, threadKind));
+        System.out.print(report);
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.gillab.metrics;
+
+import com.gillab.model.ToolTypeEnum;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording the metrics on the checkout hot path, from 4 threads at once, so the contention on the histogram
+ * buckets and the striped counters is measured too.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class CheckoutMetricsBenchmark {
+
+    private final CheckoutMetrics metrics = new CheckoutMetrics();
+
+    @Benchmark
+    public void recordLatency() {
+        metrics.getCheckoutHistogram().recordSince(System.nanoTime());
+    }
+
+    @Benchmark
+    public void recordCheckout() {
+        metrics.recordCheckout(ToolTypeEnum.LADDER.name());
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.gillab.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the agreement rendering against the formatter based rendering it replaced. Run with the GC profiler to see
+ * the allocation per operation: -Djmh.args="RentalAgreementBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RentalAgreementBenchmark {
+
+    private RentalAgreement rentalAgreement;
+    private final StringBuilder buffer = new StringBuilder(512);
+
+    @Setup
+    public void setup() {
+        rentalAgreement = new RentalAgreement("LADW", ToolTypeEnum.LADDER.getDisplayName(), "Werner", 3,
+                LocalDate.of(2020, Month.JULY, 2), LocalDate.of(2020, Month.JULY, 5),
+                199, 2, 398, 10, 40, 358);
+    }
+
+    @Benchmark
+    public String toStringAgreement() {
+        return rentalAgreement.toString();
+    }
+
+    @Benchmark
+    public StringBuilder renderReusedBuffer() {
+        buffer.setLength(0);
+        return RentalAgreementRenderer.render(rentalAgreement, buffer);
+    }
+
+    @Benchmark
+    public String toStringWithFormatters() {
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MM/dd/yy");
+        NumberFormat currencyFormatter = NumberFormat.getCurrencyInstance(Locale.US);
+        NumberFormat percentFormatter = NumberFormat.getPercentInstance(Locale.US);
+        percentFormatter.setMinimumFractionDigits(0);
+
+        return "Rental Agreement:\n" +
+                "Tool Code: " + rentalAgreement.getToolCode() + "\n" +
+                "Tool Type: " + rentalAgreement.getToolType() + "\n" +
+                "Tool Brand: " + rentalAgreement.getToolBrand() + "\n" +
+                "Rental Days: " + rentalAgreement.getRentalDays() + "\n" +
+                "Checkout Date: " + rentalAgreement.getCheckoutDate().format(dateFormatter) + "\n" +
+                "Due Date: " + rentalAgreement.getDueDate().format(dateFormatter) + "\n" +
+                "Daily Rental Charge: " + currencyFormatter.format(rentalAgreement.getDailyRentalCharge()) + "\n" +
+                "Charge Days: " + rentalAgreement.getChargeDays() + "\n" +
+                "Pre-discount Charge: " + currencyFormatter.format(rentalAgreement.getPreDiscountCharge()) + "\n" +
+                "Discount Percent: " + percentFormatter.format(rentalAgreement.getDiscountPercent() / 100.0) + "\n" +
+                "Discount Amount: " + currencyFormatter.format(rentalAgreement.getDiscountAmount()) + "\n" +
+                "Final Charge: " + currencyFormatter.format(rentalAgreement.getFinalCharge());
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.gillab.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.gillab.BenchmarkConstants.*;
+
+/**
+ * Measure the availability queries of a tool with a growing number of reservations: 3 days reserved out of every 4,
+ * so every query has to look past the reservations in its way.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvailabilityServiceBenchmark {
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(1900, Month.JANUARY, 1);
+
+    @Param({"1000", "1000000"})
+    private int reservations;
+
+    private AvailabilityService availabilityService;
+
+    @Setup
+    public void setup() {
+        availabilityService = new AvailabilityService(TOOL_STOCK);
+        for (int i = 0; i < reservations; i++) {
+            availabilityService.reserve(TOOL_CODE_JAKR, FIRST_DATE.plusDays(4L * i), FIRST_DATE.plusDays(4L * i + 3), CORRELATION_ID);
+        }
+    }
+
+    @Benchmark
+    public boolean isAvailable() {
+        LocalDate startDate = FIRST_DATE.plusDays(ThreadLocalRandom.current().nextInt(4 * reservations));
+        return availabilityService.isAvailable(TOOL_CODE_JAKR, startDate, startDate.plusDays(7));
+    }
+
+    @Benchmark
+    public Optional<LocalDate> findFirstAvailableDate() {
+        LocalDate fromDate = FIRST_DATE.plusDays(ThreadLocalRandom.current().nextInt(4 * reservations));
+        return availabilityService.findFirstAvailableDate(TOOL_CODE_JAKR, fromDate, 1);
+    }
+
+}
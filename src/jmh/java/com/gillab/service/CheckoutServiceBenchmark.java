@@ -0,0 +1,55 @@
+package com.gillab.service;
+
+import com.gillab.exception.ApplicationException;
+import com.gillab.model.RentalAgreement;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.concurrent.TimeUnit;
+
+import static com.gillab.BenchmarkConstants.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckoutServiceBenchmark {
+
+    private static final LocalDate CHECKOUT_DATE = LocalDate.of(2015, Month.JULY, 2);
+
+    @Param({"5", "30", "365"})
+    private int rentalDays;
+
+    private CheckoutService checkoutService;
+    private LocalDate dueDate;
+
+    @Setup
+    public void setup() {
+        checkoutService = CheckoutService.getInstance(ToolService.getInstance(TOOL_STOCK), HolidayService.getInstance());
+        dueDate = CHECKOUT_DATE.plusDays(rentalDays);
+    }
+
+    @Benchmark
+    public RentalAgreement checkout() {
+        return checkoutService.checkout(TOOL_CODE_JAKR, rentalDays, 10, CHECKOUT_DATE, CORRELATION_ID);
+    }
+
+    @Benchmark
+    public int calculateChargeableDays() {
+        return checkoutService.calculateChargeableDays(CHECKOUT_DATE, dueDate, true, false, false);
+    }
+
+    @Benchmark
+    public ApplicationException checkoutInvalidToolCode() {
+        try {
+            checkoutService.checkout(INVALID_TOOL_CODE, rentalDays, 10, CHECKOUT_DATE, CORRELATION_ID);
+            throw new IllegalStateException("The tool code " + INVALID_TOOL_CODE + " should not exist.");
+        } catch (ApplicationException exception) {
+            return exception;
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.gillab.service;
+
+import com.gillab.model.Tool;
+import com.gillab.model.ToolTypeEnum;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.gillab.BenchmarkConstants.CORRELATION_ID;
+
+/**
+ * Measure the search of the tools of a type free for a week, in a catalog where every tool is reserved for about half
+ * of the days of a year, against checking the availability of the tools one by one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FleetSearchBenchmark {
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(2025, Month.JANUARY, 1);
+    private static final String[] BRANDS = {"DeWalt", "Makita", "Ridgid", "Stihl", "Werner"};
+
+    @Param({"10000", "300000"})
+    private int tools;
+
+    private AvailabilityService availabilityService;
+    private List<Tool> jackhammers;
+
+    @Setup
+    public void setup() {
+        Map<String, Tool> toolStock = new HashMap<>();
+        for (int i = 0; i < tools; i++) {
+            String toolCode = "T" + i;
+            toolStock.put(toolCode, new Tool(ToolTypeEnum.values()[i % ToolTypeEnum.values().length], toolCode, BRANDS[i % BRANDS.length]));
+        }
+        availabilityService = new AvailabilityService(toolStock);
+        jackhammers = toolStock.values().stream().filter(tool -> tool.getType().equals(ToolTypeEnum.JACKHAMMER.name())).toList();
+
+        Random random = new Random(42);
+        for (String toolCode : toolStock.keySet()) {
+            for (LocalDate startDate = FIRST_DATE.plusDays(random.nextInt(7)); startDate.getYear() == 2025; startDate = startDate.plusDays(14)) {
+                availabilityService.reserve(toolCode, startDate, startDate.plusDays(1 + random.nextInt(7)), CORRELATION_ID);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Tool> findAvailableTools() {
+        LocalDate startDate = FIRST_DATE.plusDays(ThreadLocalRandom.current().nextInt(350));
+        return availabilityService.findAvailableTools(ToolTypeEnum.JACKHAMMER.name(), startDate, startDate.plusDays(7));
+    }
+
+    @Benchmark
+    public List<Tool> findAvailableToolsByBrand() {
+        LocalDate startDate = FIRST_DATE.plusDays(ThreadLocalRandom.current().nextInt(350));
+        return availabilityService.findAvailableTools(ToolTypeEnum.JACKHAMMER.name(), "Ridgid", startDate, startDate.plusDays(7));
+    }
+
+    @Benchmark
+    public List<Tool> findAvailableToolsOneByOne() {
+        LocalDate startDate = FIRST_DATE.plusDays(ThreadLocalRandom.current().nextInt(350));
+        LocalDate endDate = startDate.plusDays(7);
+        return jackhammers.stream()
+                .filter(tool -> availabilityService.isAvailable(tool.getCode(), startDate, endDate))
+                .toList();
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.gillab.service;
+
+import com.gillab.model.HolidayObservanceEnum;
+import com.gillab.model.HolidayRule;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HolidayServiceBenchmark {
+
+    private static final LocalDate HOLIDAY = LocalDate.of(2020, Month.JULY, 3);
+    private static final LocalDate NON_HOLIDAY = LocalDate.of(2020, Month.JULY, 23);
+    private static final int REGIONS = 100;
+
+    private HolidayService holidayService;
+
+    @Setup
+    public void setup() {
+        holidayService = HolidayService.getInstance();
+        for (int region = 0; region < REGIONS; region++) {
+            holidayService.registerCalendar("REGION-" + region, List.of(
+                    HolidayRule.fixedDate("Region Day", Month.of(region % 12 + 1), region % 28 + 1, HolidayObservanceEnum.NEXT_WEEKDAY)));
+        }
+        holidayService.prewarm(HOLIDAY.getYear(), HOLIDAY.getYear());
+    }
+
+    @Benchmark
+    public boolean isHolidayWarm() {
+        return holidayService.isHoliday(HOLIDAY) ^ holidayService.isHoliday(NON_HOLIDAY);
+    }
+
+    /**
+     * The lookup of a named calendar, with {@value #REGIONS} more calendars registered.
+     */
+    @Benchmark
+    public boolean isHolidayRegionalCalendar() {
+        return holidayService.isHoliday("CA", HOLIDAY) ^ holidayService.isHoliday("REGION-7", NON_HOLIDAY);
+    }
+
+    /**
+     * Every invocation starts with a new service, so it includes calculating the holidays of the year.
+     */
+    @Benchmark
+    public boolean isHolidayCold(ColdCache coldCache) {
+        return coldCache.holidayService.isHoliday(HOLIDAY);
+    }
+
+    @State(Scope.Thread)
+    public static class ColdCache {
+
+        private HolidayService holidayService;
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            holidayService = new HolidayService();
+        }
+    }
+
+}
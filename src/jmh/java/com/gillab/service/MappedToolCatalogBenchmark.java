@@ -0,0 +1,65 @@
+package com.gillab.service;
+
+import com.gillab.model.Tool;
+import com.gillab.model.ToolTypeEnum;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the startup with a {@link MappedToolCatalog}, which only reads the header of the file whatever the size of
+ * the catalog, and its lookups by tool code against the ones of the stock map.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MappedToolCatalogBenchmark {
+
+    private static final String[] BRANDS = {"DeWalt", "Makita", "Ridgid", "Stihl", "Werner"};
+
+    @Param({"10000", "5000000"})
+    private int tools;
+
+    private Path file;
+    private Map<String, Tool> toolStock;
+    private MappedToolCatalog catalog;
+
+    @Setup
+    public void setup() throws IOException {
+        toolStock = new HashMap<>();
+        for (int i = 0; i < tools; i++) {
+            String toolCode = "T" + i;
+            toolStock.put(toolCode, new Tool(ToolTypeEnum.values()[i % ToolTypeEnum.values().length], toolCode, BRANDS[i % BRANDS.length]));
+        }
+        file = Files.createTempFile("tool-catalog", ".bin");
+        file.toFile().deleteOnExit();
+        MappedToolCatalog.write(toolStock, file);
+        catalog = MappedToolCatalog.open(file);
+    }
+
+    @Benchmark
+    public MappedToolCatalog open() {
+        return MappedToolCatalog.open(file);
+    }
+
+    @Benchmark
+    public Optional<Tool> findToolMapped() {
+        return catalog.findTool("T" + ThreadLocalRandom.current().nextInt(tools));
+    }
+
+    @Benchmark
+    public Tool findToolInMap() {
+        return toolStock.get("T" + ThreadLocalRandom.current().nextInt(tools));
+    }
+
+}
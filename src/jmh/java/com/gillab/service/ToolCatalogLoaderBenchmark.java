@@ -0,0 +1,72 @@
+package com.gillab.service;
+
+import com.gillab.model.Tool;
+import com.gillab.model.ToolTypeEnum;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the load of a large tool catalog with the streaming {@link ToolCatalogLoader}, against reading the lines and
+ * splitting them. Every load is a single shot, like the load of the stock at startup; run with -prof gc to compare the
+ * allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ToolCatalogLoaderBenchmark {
+
+    private static final String[] BRANDS = {"DeWalt", "Makita", "Ridgid", "Stihl", "Werner"};
+
+    @Param({"5000000"})
+    private int tools;
+
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("tool-catalog", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < tools; i++) {
+                writer.append("T").append(String.valueOf(i)).append(',')
+                        .append(ToolTypeEnum.values()[i % ToolTypeEnum.values().length].name()).append(',')
+                        .append(BRANDS[i % BRANDS.length]).append('\n');
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Map<String, Tool> loadStreaming() {
+        return new ToolCatalogLoader().load(file).toolStock();
+    }
+
+    @Benchmark
+    public Map<String, Tool> loadWithSplit() throws IOException {
+        Map<String, Tool> toolStock = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                toolStock.put(fields[0], new Tool(ToolTypeEnum.valueOf(fields[1]), fields[0], fields[2]));
+            }
+        }
+        return toolStock;
+    }
+
+}
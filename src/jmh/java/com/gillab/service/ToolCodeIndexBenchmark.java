@@ -0,0 +1,71 @@
+package com.gillab.service;
+
+import com.gillab.model.Tool;
+import com.gillab.model.ToolTypeEnum;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.gillab.BenchmarkConstants.TOOL_STOCK;
+
+/**
+ * Compare the lookups by tool code in a {@link ToolCodeIndex} against the ones of the {@link HashMap} of the stock,
+ * from the 4 tools of the demo stock to 10M. The codes looked up are equal copies of the ones of the stock, as if they
+ * came from a request, and are visited in a random order so the large catalogs do not fit in the caches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ToolCodeIndexBenchmark {
+
+    private static final int LOOKUPS = 1 << 20;
+
+    @Param({"4", "10000", "1000000", "10000000"})
+    private int tools;
+
+    private Map<String, Tool> toolStock;
+    private ToolCodeIndex index;
+    private String[] toolCodes;
+    private int next;
+
+    @Setup
+    public void setup() {
+        if (tools == TOOL_STOCK.size()) {
+            toolStock = new HashMap<>(TOOL_STOCK);
+        } else {
+            toolStock = new HashMap<>();
+            for (int i = 0; i < tools; i++) {
+                String toolCode = "T" + i;
+                toolStock.put(toolCode, new Tool(ToolTypeEnum.values()[i % ToolTypeEnum.values().length], toolCode, "Werner"));
+            }
+        }
+        index = ToolCodeIndex.of(toolStock);
+        String[] stockCodes = toolStock.keySet().toArray(String[]::new);
+        toolCodes = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            toolCodes[i] = new String(stockCodes[ThreadLocalRandom.current().nextInt(stockCodes.length)].toCharArray());
+        }
+    }
+
+    private String nextToolCode() {
+        next = (next + 1) & (LOOKUPS - 1);
+        return toolCodes[next];
+    }
+
+    @Benchmark
+    public Tool getFromIndex() {
+        return index.get(nextToolCode());
+    }
+
+    @Benchmark
+    public Tool getFromMap() {
+        return toolStock.get(nextToolCode());
+    }
+
+}
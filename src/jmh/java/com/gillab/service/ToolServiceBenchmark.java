@@ -0,0 +1,37 @@
+package com.gillab.service;
+
+import com.gillab.model.Tool;
+import com.gillab.model.ToolTypeEnum;
+import com.gillab.model.ToolTypePolicy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.gillab.BenchmarkConstants.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ToolServiceBenchmark {
+
+    private ToolService toolService;
+
+    @Setup
+    public void setup() {
+        toolService = ToolService.getInstance(TOOL_STOCK);
+    }
+
+    @Benchmark
+    public Tool getToolByCode() {
+        return toolService.getToolByCode(TOOL_CODE_LADW, CORRELATION_ID);
+    }
+
+    @Benchmark
+    public ToolTypePolicy getToolTypePolicy() {
+        return toolService.getToolTypePolicy(ToolTypeEnum.LADDER);
+    }
+
+}
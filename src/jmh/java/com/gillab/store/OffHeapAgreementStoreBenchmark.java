@@ -0,0 +1,85 @@
+package com.gillab.store;
+
+import com.gillab.model.RentalAgreement;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the scans of the agreements of a period kept in an {@link OffHeapAgreementStore} against the ones of a list
+ * of {@link RentalAgreement}, both in parallel, and the cost of creating an agreement from the store. Run with the GC
+ * profiler to see the pauses of the heap holding the agreements: -Djmh.args="OffHeapAgreementStoreBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class OffHeapAgreementStoreBenchmark {
+
+    private static final String[] TOOL_CODES = {"CHNS", "LADW", "JAKD", "JAKR"};
+    private static final String[] BRANDS = {"Stihl", "Werner", "DeWalt", "Ridgid"};
+    private static final LocalDate FIRST_CHECKOUT_DATE = LocalDate.of(2020, Month.JANUARY, 1);
+    private static final LocalDate PERIOD_START = LocalDate.of(2022, Month.JANUARY, 1);
+    private static final LocalDate PERIOD_END = LocalDate.of(2023, Month.JANUARY, 1);
+
+    @Param({"1000000", "10000000"})
+    private int agreements;
+
+    private List<RentalAgreement> agreementList;
+    private OffHeapAgreementStore store;
+
+    @Setup
+    public void setup() {
+        agreementList = new ArrayList<>(agreements);
+        store = new OffHeapAgreementStore();
+        for (int index = 0; index < agreements; index++) {
+            LocalDate checkoutDate = FIRST_CHECKOUT_DATE.plusDays(index % 1_500);
+            RentalAgreement agreement = new RentalAgreement(TOOL_CODES[index % TOOL_CODES.length], "Ladder",
+                    BRANDS[index % BRANDS.length], 3, checkoutDate, checkoutDate.plusDays(3), 199, 2, 398, 10, 40, 358 + index % 100);
+            agreementList.add(agreement);
+            store.add(agreement);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.close();
+    }
+
+    @Benchmark
+    public long sumPeriodOffHeap() {
+        long start = PERIOD_START.toEpochDay();
+        long end = PERIOD_END.toEpochDay();
+        return store.collect(
+                () -> new long[1],
+                (total, view) -> {
+                    if (view.getCheckoutEpochDay() >= start && view.getCheckoutEpochDay() < end) {
+                        total[0] += view.getFinalChargeCents();
+                    }
+                },
+                (left, right) -> new long[]{left[0] + right[0]}
+        )[0];
+    }
+
+    @Benchmark
+    public long sumPeriodOnHeap() {
+        return agreementList.parallelStream()
+                .filter(agreement -> !agreement.getCheckoutDate().isBefore(PERIOD_START) && agreement.getCheckoutDate().isBefore(PERIOD_END))
+                .mapToLong(RentalAgreement::getFinalChargeCents)
+                .sum();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public RentalAgreement getOffHeap() {
+        return store.get(ThreadLocalRandom.current().nextInt(agreements)).orElseThrow();
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.gillab.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the pricing of a checkout (daily charge by days, minus a percentage discount) with doubles, long cents and
+ * {@link BigDecimal}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+
+    @Param({"3", "365"})
+    private int chargeDays;
+
+    @Param({"10"})
+    private int discountPercentage;
+
+    @Param({"149"})
+    private long dailyChargeCents;
+
+    // Not final, so the JIT can not fold the prices as constants
+    private double dailyCharge;
+    private BigDecimal dailyChargeDecimal;
+
+    @Setup
+    public void setup() {
+        dailyCharge = dailyChargeCents / 100.0;
+        dailyChargeDecimal = BigDecimal.valueOf(dailyChargeCents, 2);
+    }
+
+    @Benchmark
+    public double priceWithDouble() {
+        double preDiscountCharge = dailyCharge * chargeDays;
+        double discountAmount = preDiscountCharge * (discountPercentage / 100.0);
+        return preDiscountCharge - discountAmount;
+    }
+
+    @Benchmark
+    public long priceWithCents() {
+        long preDiscountCharge = Money.multiply(dailyChargeCents, chargeDays);
+        return preDiscountCharge - Money.percentOf(preDiscountCharge, discountPercentage);
+    }
+
+    @Benchmark
+    public BigDecimal priceWithBigDecimal() {
+        BigDecimal preDiscountCharge = dailyChargeDecimal.multiply(BigDecimal.valueOf(chargeDays));
+        BigDecimal discountAmount = preDiscountCharge.multiply(BigDecimal.valueOf(discountPercentage))
+                .divide(ONE_HUNDRED, 2, RoundingMode.HALF_UP);
+        return preDiscountCharge.subtract(discountAmount);
+    }
+
+}
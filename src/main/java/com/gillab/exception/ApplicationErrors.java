@@ -2,8 +2,7 @@ package com.gillab.exception;
 
 import lombok.Getter;
 
-import java.text.MessageFormat;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
 
 public class ApplicationErrors {
@@ -12,7 +11,10 @@ public class ApplicationErrors {
     public enum ErrorCodesEnum {
         INVALID_TOOL_CODE("ERR-001"),
         INVALID_DISCOUNT("ERR-002"),
-        INVALID_RENTAL_DAYS("ERR-003");
+        INVALID_RENTAL_DAYS("ERR-003"),
+        TOOL_NOT_AVAILABLE("ERR-004"),
+        TOOL_NOT_RENTED("ERR-005"),
+        UNEXPECTED_ERROR("ERR-006");
 
         private final String displayName;
 
@@ -22,27 +24,38 @@ public class ApplicationErrors {
 
     }
 
-    protected static final Map<ErrorCodesEnum, String> ERROR_SUMMARIES = new HashMap<>();
-    protected static final Map<ErrorCodesEnum, String> ERROR_MESSAGES = new HashMap<>();
+    protected static final Map<ErrorCodesEnum, String> ERROR_SUMMARIES = new EnumMap<>(ErrorCodesEnum.class);
+    protected static final Map<ErrorCodesEnum, String> ERROR_MESSAGES = new EnumMap<>(ErrorCodesEnum.class);
+    /** The error messages, parsed once, so they don't need to be parsed every time an exception is built. */
+    private static final Map<ErrorCodesEnum, MessageTemplate> ERROR_MESSAGE_TEMPLATES = new EnumMap<>(ErrorCodesEnum.class);
 
     static {
         ERROR_SUMMARIES.put(ErrorCodesEnum.INVALID_TOOL_CODE, "Invalid tool code.");
         ERROR_SUMMARIES.put(ErrorCodesEnum.INVALID_DISCOUNT, "Invalid discount percentage.");
         ERROR_SUMMARIES.put(ErrorCodesEnum.INVALID_RENTAL_DAYS, "Invalid rental days.");
+        ERROR_SUMMARIES.put(ErrorCodesEnum.TOOL_NOT_AVAILABLE, "Tool not available.");
+        ERROR_SUMMARIES.put(ErrorCodesEnum.TOOL_NOT_RENTED, "Tool not rented.");
+        ERROR_SUMMARIES.put(ErrorCodesEnum.UNEXPECTED_ERROR, "Unexpected error.");
 
         ERROR_MESSAGES.put(ErrorCodesEnum.INVALID_TOOL_CODE, "The tool code {0} does not exist in the stock.");
         ERROR_MESSAGES.put(ErrorCodesEnum.INVALID_DISCOUNT, "The discount percentage {0} is not valid. Discount should be between {1} and {2}.");
         ERROR_MESSAGES.put(ErrorCodesEnum.INVALID_RENTAL_DAYS, "The number of rental days, {0}, is not valid. Rental days should be between {1} and {2}.");
+        ERROR_MESSAGES.put(ErrorCodesEnum.TOOL_NOT_AVAILABLE, "The tool code {0} is not available, all of its units are already rented.");
+        ERROR_MESSAGES.put(ErrorCodesEnum.TOOL_NOT_RENTED, "The tool code {0} has no rented units to return.");
+        ERROR_MESSAGES.put(ErrorCodesEnum.UNEXPECTED_ERROR, "The checkout of the tool code {0} failed unexpectedly. Please contact Support team.");
+
+        ERROR_MESSAGES.forEach((errorCode, message) -> ERROR_MESSAGE_TEMPLATES.put(errorCode, new MessageTemplate(message)));
     }
 
     private static final String NOT_ERROR_SUMMARY_CODE_DEFINED = "No error summary has been defined for this error code. Please contact Support team.";
     private static final String NOT_ERROR_MESSAGE_DEFINED = "No error message has been defined for this error code. Please contact Support team.";
+    private static final MessageTemplate NOT_ERROR_MESSAGE_DEFINED_TEMPLATE = new MessageTemplate(NOT_ERROR_MESSAGE_DEFINED);
 
     public static String getErrorSummary(ErrorCodesEnum errorCode) {
         return ERROR_SUMMARIES.getOrDefault(errorCode, NOT_ERROR_SUMMARY_CODE_DEFINED);
     }
 
     public static String getFormattedErrorMessage(ErrorCodesEnum errorCode, String... args) {
-        return MessageFormat.format(ERROR_MESSAGES.getOrDefault(errorCode, NOT_ERROR_MESSAGE_DEFINED), args);
+        return ERROR_MESSAGE_TEMPLATES.getOrDefault(errorCode, NOT_ERROR_MESSAGE_DEFINED_TEMPLATE).format((Object[]) args);
     }
 }
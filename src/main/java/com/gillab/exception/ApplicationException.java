@@ -1,21 +1,71 @@
 package com.gillab.exception;
 
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.ToString;
 
 import java.util.UUID;
 
-@AllArgsConstructor @ToString @Getter
+import static com.gillab.exception.ApplicationErrors.getFormattedErrorMessage;
+import static java.util.Objects.isNull;
+
+@Getter
 public class ApplicationException extends RuntimeException {
 
-    private UUID correlationId;
-    private String errorCode;
-    private String errorSummary;
+    private final UUID correlationId;
+    private final String errorCode;
+    private final String errorSummary;
+    @Getter(AccessLevel.NONE)
+    private final ApplicationErrors.ErrorCodesEnum errorCodeEnum;
+    @Getter(AccessLevel.NONE)
+    private final String[] messageArgs;
+    @Getter(AccessLevel.NONE)
     private String errorMessage;
 
+    public ApplicationException(UUID correlationId, String errorCode, String errorSummary, String errorMessage) {
+        super();
+        this.correlationId = correlationId;
+        this.errorCode = errorCode;
+        this.errorSummary = errorSummary;
+        this.errorCodeEnum = null;
+        this.messageArgs = null;
+        this.errorMessage = errorMessage;
+    }
+
+    /**
+     * Build an exception whose message is formatted only when it is requested, from the template of the error code.
+     * @param stackless when true, the stack trace is not filled in (and suppressed exceptions are disabled), which
+     *                  makes the exception much cheaper to build for expected business errors.
+     */
+    ApplicationException(UUID correlationId, ApplicationErrors.ErrorCodesEnum errorCode, String errorSummary, String[] messageArgs, boolean stackless) {
+        super(null, null, !stackless, !stackless);
+        this.correlationId = correlationId;
+        this.errorCode = errorCode.getDisplayName();
+        this.errorSummary = errorSummary;
+        this.errorCodeEnum = errorCode;
+        this.messageArgs = messageArgs;
+    }
+
+    /**
+     * @return the error message, formatted on the first call.
+     */
+    public String getErrorMessage() {
+        String message = errorMessage;
+        if (isNull(message) && !isNull(errorCodeEnum)) {
+            // Formatting is idempotent, so threads racing here end up with equal messages.
+            message = getFormattedErrorMessage(errorCodeEnum, messageArgs);
+            errorMessage = message;
+        }
+        return message;
+    }
+
     public String getMessage() {
-        return errorMessage;
+        return getErrorMessage();
+    }
+
+    @Override
+    public String toString() {
+        return "ApplicationException(correlationId=" + correlationId + ", errorCode=" + errorCode
+                + ", errorSummary=" + errorSummary + ", errorMessage=" + getErrorMessage() + ")";
     }
 
 }
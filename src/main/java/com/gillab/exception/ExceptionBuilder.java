@@ -1,28 +1,48 @@
 package com.gillab.exception;
 
 
+import com.gillab.metrics.CheckoutMetrics;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.UUID;
 
 import static com.gillab.exception.ApplicationErrors.getErrorSummary;
-import static com.gillab.exception.ApplicationErrors.getFormattedErrorMessage;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class ExceptionBuilder {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExceptionBuilder.class);
+
+    /**
+     * System property to build the business exceptions without stack trace, e.g. -Dcom.gillab.exception.stackless=true
+     * The stack trace of a business error (invalid input) is rarely useful, and filling it in is the most expensive
+     * part of building the exception.
+     */
+    public static final String STACKLESS_PROPERTY = "com.gillab.exception.stackless";
+    private static final boolean STACKLESS = Boolean.getBoolean(STACKLESS_PROPERTY);
+
     /**
      * Build an Application Exception object with details about the
+     * The error message is formatted from the pre-compiled template of the error code, only when it is requested
+     * (e.g. by {@link ApplicationException#getMessage()}, or by the logger when the log level is enabled).
      * @param correlationId ID to track the request.
      * @param errorCode ErrorCodesEnum.
      * @param args the arguments for interpolation in the error message.
      * @return
      */
     public static ApplicationException buildBusinessApplicationException(@NonNull final UUID correlationId, @NonNull final ApplicationErrors.ErrorCodesEnum errorCode, String... args) {
-        ApplicationException exception = new ApplicationException(correlationId, errorCode.getDisplayName(), getErrorSummary(errorCode), getFormattedErrorMessage(errorCode, args));
-        System.out.println(exception.getErrorMessage());
+        ApplicationException exception = new ApplicationException(correlationId, errorCode, getErrorSummary(errorCode), args, STACKLESS);
+        CheckoutMetrics.getInstance().recordError(errorCode);
+        LOGGER.atInfo()
+                .setMessage("[{}] {}: {}")
+                .addArgument(correlationId)
+                .addArgument(exception.getErrorCode())
+                .addArgument(exception::getErrorMessage)
+                .log();
         return exception;
     }
 
@@ -0,0 +1,77 @@
+package com.gillab.exception;
+
+import lombok.NonNull;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Error message pattern, parsed once, with {0}, {1}... placeholders like {@link MessageFormat}.
+ * Unlike {@link MessageFormat}, it is immutable and safe to share between threads, and formatting does not parse the
+ * pattern again. Only plain placeholders are supported: patterns with quotes or formatted placeholders (e.g.
+ * {0,number}) are delegated to {@link MessageFormat}.
+ * As in {@link MessageFormat}, a placeholder without argument is kept as is, and a null argument is written as "null".
+ */
+class MessageTemplate {
+
+    private final String pattern;
+    /** Literal text, followed by the index of the argument to write after it (-1 for the last literal). */
+    private final String[] literals;
+    private final int[] argumentIndexes;
+    private final boolean plain;
+
+    MessageTemplate(@NonNull final String pattern) {
+        this.pattern = pattern;
+        List<String> literalList = new ArrayList<>();
+        List<Integer> indexList = new ArrayList<>();
+        boolean isPlain = pattern.indexOf('\'') < 0;
+
+        int start = 0;
+        int open = pattern.indexOf('{');
+        while (isPlain && open >= 0) {
+            int close = pattern.indexOf('}', open);
+            String index = close < 0 ? "" : pattern.substring(open + 1, close);
+            if (index.isEmpty() || !index.chars().allMatch(Character::isDigit)) {
+                isPlain = false;
+                break;
+            }
+            literalList.add(pattern.substring(start, open));
+            indexList.add(Integer.parseInt(index));
+            start = close + 1;
+            open = pattern.indexOf('{', start);
+        }
+        literalList.add(pattern.substring(start));
+        indexList.add(-1);
+
+        this.plain = isPlain;
+        this.literals = literalList.toArray(String[]::new);
+        this.argumentIndexes = indexList.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Replace the placeholders with the given arguments.
+     * @param args the arguments, may be null.
+     * @return the formatted message.
+     */
+    String format(final Object... args) {
+        if (!plain) {
+            return MessageFormat.format(pattern, args);
+        }
+        StringBuilder message = new StringBuilder(pattern.length() + 32);
+        for (int i = 0; i < literals.length; i++) {
+            message.append(literals[i]);
+            int index = argumentIndexes[i];
+            if (index < 0) {
+                continue;
+            }
+            if (args == null || index >= args.length) {
+                message.append('{').append(index).append('}');
+            } else {
+                message.append(args[index]);
+            }
+        }
+        return message.toString();
+    }
+
+}
@@ -0,0 +1,231 @@
+package com.gillab.http;
+
+import com.gillab.exception.ApplicationErrors.ErrorCodesEnum;
+import com.gillab.exception.ApplicationException;
+import com.gillab.model.RentalAgreement;
+import com.gillab.service.CheckoutService;
+import com.gillab.service.InventoryService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Embedded HTTP front end for the {@link CheckoutService}, based on the JDK HTTP server.
+ * Every request is handled on its own virtual thread, so thousands of terminals can wait on the network at the same
+ * time without holding a platform thread each.
+ * Endpoints:
+ * - POST /checkout: checkout a tool, reserving a unit in the inventory, and returning the rental agreement.
+ * - GET /quote: price a checkout without finalizing it, returning the rental agreement.
+ * - POST /return: return a checked out tool, releasing its unit in the inventory.
+ * The checkout and quote endpoints take the query parameters toolCode, rentalDays, discount and checkoutDate
+ * (yyyy-MM-dd); the return endpoint takes the query parameter toolCode. The
+ * correlation ID is read from the {@value #CORRELATION_ID_HEADER} header (a new one is generated when missing) and
+ * returned in the same header. Business errors are returned with the status mapped from their error code, and the
+ * error code in the {@value #ERROR_CODE_HEADER} header.
+ */
+public class CheckoutHttpServer {
+
+    public static final String CHECKOUT_PATH = "/checkout";
+    public static final String QUOTE_PATH = "/quote";
+    public static final String RETURN_PATH = "/return";
+    public static final String CORRELATION_ID_HEADER = "X-Correlation-Id";
+    public static final String ERROR_CODE_HEADER = "X-Error-Code";
+
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_BAD_REQUEST = 400;
+    private static final int HTTP_NOT_FOUND = 404;
+    private static final int HTTP_METHOD_NOT_ALLOWED = 405;
+    private static final int HTTP_CONFLICT = 409;
+    private static final int HTTP_UNPROCESSABLE_CONTENT = 422;
+    private static final int HTTP_INTERNAL_ERROR = 500;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CheckoutHttpServer.class);
+
+    private static final Map<String, Integer> STATUS_BY_ERROR_CODE = new HashMap<>();
+
+    static {
+        STATUS_BY_ERROR_CODE.put(ErrorCodesEnum.INVALID_TOOL_CODE.getDisplayName(), HTTP_NOT_FOUND);
+        STATUS_BY_ERROR_CODE.put(ErrorCodesEnum.INVALID_DISCOUNT.getDisplayName(), HTTP_UNPROCESSABLE_CONTENT);
+        STATUS_BY_ERROR_CODE.put(ErrorCodesEnum.INVALID_RENTAL_DAYS.getDisplayName(), HTTP_UNPROCESSABLE_CONTENT);
+        STATUS_BY_ERROR_CODE.put(ErrorCodesEnum.TOOL_NOT_AVAILABLE.getDisplayName(), HTTP_CONFLICT);
+        STATUS_BY_ERROR_CODE.put(ErrorCodesEnum.TOOL_NOT_RENTED.getDisplayName(), HTTP_CONFLICT);
+    }
+
+    private final CheckoutService checkoutService;
+    private final InventoryService inventoryService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private CheckoutHttpServer(CheckoutService checkoutService, InventoryService inventoryService, HttpServer server, ExecutorService executor) {
+        this.checkoutService = checkoutService;
+        this.inventoryService = inventoryService;
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Create and start a server listening on the given address.
+     * @param checkoutService the service that prices and checks out the tools.
+     * @param inventoryService where the units of the tools are reserved at checkout, and released at return.
+     * @param address where the server listens; use port 0 for an ephemeral port.
+     * @param backlog maximum number of pending connections; 0 for the system default.
+     * @return the started server.
+     * @throws IOException when the server can not bind to the address.
+     */
+    public static CheckoutHttpServer start(
+            @NonNull final CheckoutService checkoutService,
+            @NonNull final InventoryService inventoryService,
+            @NonNull final InetSocketAddress address,
+            final int backlog
+    ) throws IOException {
+        HttpServer server = HttpServer.create(address, backlog);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        CheckoutHttpServer checkoutServer = new CheckoutHttpServer(checkoutService, inventoryService, server, executor);
+
+        server.createContext(CHECKOUT_PATH, exchange -> checkoutServer.handle(exchange, "POST", checkoutServer::checkout));
+        server.createContext(QUOTE_PATH, exchange -> checkoutServer.handle(exchange, "GET", checkoutServer::quote));
+        server.createContext(RETURN_PATH, exchange -> checkoutServer.handle(exchange, "POST", checkoutServer::returnTool));
+        server.setExecutor(executor);
+        server.start();
+        return checkoutServer;
+    }
+
+    /**
+     * @return the address where the server is listening, including the actual port.
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Stop the server, waiting up to the given seconds for the exchanges in progress to finish.
+     * @param delaySeconds maximum time to wait for the exchanges in progress.
+     */
+    public void stop(final int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    private void handle(final HttpExchange exchange, final String expectedMethod, final Endpoint endpoint) throws IOException {
+        try (exchange) {
+            UUID correlationId = readCorrelationId(exchange);
+            exchange.getResponseHeaders().set(CORRELATION_ID_HEADER, correlationId.toString());
+
+            if (!expectedMethod.equals(exchange.getRequestMethod())) {
+                send(exchange, HTTP_METHOD_NOT_ALLOWED, "Method " + exchange.getRequestMethod() + " is not allowed, use " + expectedMethod + ".");
+                return;
+            }
+
+            try {
+                Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+                send(exchange, HTTP_OK, endpoint.handle(parameters, correlationId));
+            } catch (ApplicationException exception) {
+                exchange.getResponseHeaders().set(ERROR_CODE_HEADER, exception.getErrorCode());
+                send(exchange, STATUS_BY_ERROR_CODE.getOrDefault(exception.getErrorCode(), HTTP_BAD_REQUEST),
+                        exception.getErrorSummary() + "\n" + exception.getErrorMessage());
+            } catch (IllegalArgumentException | DateTimeParseException exception) {
+                send(exchange, HTTP_BAD_REQUEST, exception.getMessage());
+            } catch (RuntimeException exception) {
+                LOGGER.error("[{}] Unexpected error handling {} {}", correlationId, exchange.getRequestMethod(), exchange.getRequestURI(), exception);
+                send(exchange, HTTP_INTERNAL_ERROR, "Unexpected error. Please contact Support team.");
+            }
+        }
+    }
+
+    private String checkout(final Map<String, String> parameters, final UUID correlationId) {
+        RentalAgreement rentalAgreement = checkoutService.checkout(
+                requireParameter(parameters, "toolCode"),
+                Integer.parseInt(requireParameter(parameters, "rentalDays")),
+                Integer.parseInt(parameters.getOrDefault("discount", "0")),
+                LocalDate.parse(requireParameter(parameters, "checkoutDate")),
+                correlationId,
+                inventoryService);
+        return rentalAgreement.toString();
+    }
+
+    private String quote(final Map<String, String> parameters, final UUID correlationId) {
+        RentalAgreement rentalAgreement = checkoutService.checkout(
+                requireParameter(parameters, "toolCode"),
+                Integer.parseInt(requireParameter(parameters, "rentalDays")),
+                Integer.parseInt(parameters.getOrDefault("discount", "0")),
+                LocalDate.parse(requireParameter(parameters, "checkoutDate")),
+                correlationId);
+        return rentalAgreement.toString();
+    }
+
+    private String returnTool(final Map<String, String> parameters, final UUID correlationId) {
+        String toolCode = requireParameter(parameters, "toolCode");
+        inventoryService.release(toolCode, correlationId);
+        return "Tool " + toolCode + " returned.";
+    }
+
+    /**
+     * The handling of an endpoint, from the query parameters to the body of a successful response.
+     */
+    @FunctionalInterface
+    private interface Endpoint {
+        String handle(Map<String, String> parameters, UUID correlationId);
+    }
+
+    private static UUID readCorrelationId(final HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst(CORRELATION_ID_HEADER);
+        if (!isNull(header)) {
+            try {
+                return UUID.fromString(header);
+            } catch (IllegalArgumentException ignored) {
+                // An invalid correlation ID is replaced with a new one, the request can still be tracked.
+            }
+        }
+        return UUID.randomUUID();
+    }
+
+    private static Map<String, String> parseQuery(final String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (isNull(rawQuery) || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        Arrays.stream(rawQuery.split("&")).forEach(pair -> {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        });
+        return parameters;
+    }
+
+    private static String requireParameter(final Map<String, String> parameters, final String name) {
+        String value = parameters.get(name);
+        if (isNull(value) || value.isEmpty()) {
+            throw new IllegalArgumentException("The query parameter " + name + " is required.");
+        }
+        return value;
+    }
+
+    private static void send(final HttpExchange exchange, final int status, final String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+
+}
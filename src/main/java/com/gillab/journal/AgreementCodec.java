@@ -0,0 +1,103 @@
+package com.gillab.journal;
+
+import com.gillab.model.RentalAgreement;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * The binary form of the records of the journal, in the byte order of the buffer. Every record starts with its
+ * sequence (8 bytes) and record type (1 byte). The return of a tool is followed by the sequence of its agreement (8).
+ * A {@link RentalAgreement} is followed by its tool code, tool type and brand (each as its length in 2 bytes and its
+ * UTF-8 bytes), rental days (4), checkout date and due date (epoch days, 8 each), daily charge in cents (8), charge days
+ * (4), pre-discount charge in cents (8), discount percent (4), discount amount in cents (8) and final charge in cents (8).
+ */
+final class AgreementCodec {
+
+    static final byte AGREEMENT_RECORD = 1;
+    static final byte RETURN_RECORD = 2;
+    static final int RETURN_PAYLOAD_BYTES = Long.BYTES + 1 + Long.BYTES;
+
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+    private static final int FIXED_BYTES = Long.BYTES + 1 + 3 * Short.BYTES + Integer.BYTES + 2 * Long.BYTES + Long.BYTES
+            + Integer.BYTES + Long.BYTES + Integer.BYTES + Long.BYTES + Long.BYTES;
+    static final int MIN_PAYLOAD_BYTES = RETURN_PAYLOAD_BYTES;
+    static final int MAX_PAYLOAD_BYTES = FIXED_BYTES + 3 * MAX_STRING_BYTES;
+
+    private AgreementCodec() {
+    }
+
+    /**
+     * Encode a text of the agreement, before the buffer is locked.
+     */
+    static byte[] utf8(final String value, final String name) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("The " + name + " of the agreement should be shorter than 64 KB.");
+        }
+        return bytes;
+    }
+
+    static int payloadBytes(final byte[] toolCode, final byte[] toolType, final byte[] toolBrand) {
+        return FIXED_BYTES + toolCode.length + toolType.length + toolBrand.length;
+    }
+
+    static void encode(
+            final ByteBuffer out,
+            final long sequence,
+            final RentalAgreement agreement,
+            final byte[] toolCode,
+            final byte[] toolType,
+            final byte[] toolBrand
+    ) {
+        out.putLong(sequence).put(AGREEMENT_RECORD);
+        putString(out, toolCode);
+        putString(out, toolType);
+        putString(out, toolBrand);
+        out.putInt(agreement.getRentalDays())
+                .putLong(agreement.getCheckoutDate().toEpochDay())
+                .putLong(agreement.getDueDate().toEpochDay())
+                .putLong(agreement.getDailyRentalChargeCents())
+                .putInt(agreement.getChargeDays())
+                .putLong(agreement.getPreDiscountChargeCents())
+                .putInt(agreement.getDiscountPercent())
+                .putLong(agreement.getDiscountAmountCents())
+                .putLong(agreement.getFinalChargeCents());
+    }
+
+    static void encodeReturn(final ByteBuffer out, final long sequence, final long agreementSequence) {
+        out.putLong(sequence).put(RETURN_RECORD).putLong(agreementSequence);
+    }
+
+    /**
+     * Decode the agreement at the position of the buffer, after its sequence and record type.
+     */
+    static RentalAgreement decode(final ByteBuffer in) {
+        return new RentalAgreement(
+                getString(in),
+                getString(in),
+                getString(in),
+                in.getInt(),
+                LocalDate.ofEpochDay(in.getLong()),
+                LocalDate.ofEpochDay(in.getLong()),
+                in.getLong(),
+                in.getInt(),
+                in.getLong(),
+                in.getInt(),
+                in.getLong(),
+                in.getLong()
+        );
+    }
+
+    private static void putString(final ByteBuffer out, final byte[] bytes) {
+        out.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String getString(final ByteBuffer in) {
+        byte[] bytes = new byte[Short.toUnsignedInt(in.getShort())];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
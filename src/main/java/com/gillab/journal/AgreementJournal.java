@@ -0,0 +1,668 @@
+package com.gillab.journal;
+
+import com.gillab.model.RentalAgreement;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ObjLongConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Durable history of the {@link RentalAgreement}s: every agreement, and every return of its tool, is appended with the
+ * next sequence number to a journal of segment files in a directory, and read back when the journal is opened again.
+ * The state derived from the records can be restored from a snapshot instead, replaying only the records after it.
+ * The appends are group-committed: they are encoded into a shared buffer while a single writer thread writes the
+ * previous buffer to the file, so all the agreements appended while the file was being written or forced share the
+ * next write and the next force. When the appends wait for the force ({@link DurabilityModeEnum#SYNC}), the more
+ * concurrent appends there are, the more agreements a force covers.
+ * A segment is named by the sequence of its first agreement, and a new one is started once it reaches the segment size
+ * of the {@link JournalOptions}. Layout, little-endian:
+ * - Header: magic, format version (4 bytes each) and sequence of the first agreement (8 bytes).
+ * - Records: the length of the payload and its CRC32C (4 bytes each), then the payload, see {@link AgreementCodec}.
+ * Since the segments are named by sequence, the records after a sequence are read without opening the older segments.
+ * The segment being written when the process stopped may end with a torn record, which fails its CRC or is cut short:
+ * it is truncated when the journal is opened. Any other invalid record is a corruption, and the journal is not opened.
+ */
+public class AgreementJournal implements AutoCloseable {
+
+    public static final int MAGIC = 0x524A4E4C;
+    public static final int FORMAT_VERSION = 1;
+
+    static final int SEGMENT_HEADER_BYTES = 16;
+    static final int RECORD_HEADER_BYTES = 8;
+    /** The largest record, with the longest texts. The buffers of the appends can not be smaller. */
+    public static final int MAX_RECORD_BYTES = RECORD_HEADER_BYTES + AgreementCodec.MAX_PAYLOAD_BYTES;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("journal-(\\d{20})\\.log");
+
+    private final Path directory;
+    private final JournalOptions options;
+    private final Recovery recovery;
+    private final long flushIntervalNanos;
+    private final Thread writer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Signalled when the writer takes the buffer of the appends, so the appends waiting for room can go on. */
+    private final Condition notFull = lock.newCondition();
+    /** Signalled when the first agreement of a buffer is appended, a flush is requested, or the journal is closed. */
+    private final Condition pendingOrClosed = lock.newCondition();
+    /** Guarded by the lock. */
+    private final CRC32C crc = new CRC32C();
+    /** The group the appends are written to. Guarded by the lock, as the next sequence and the state of the journal. */
+    private Group current;
+    private long nextSequence;
+    private boolean closed;
+    private RuntimeException failure;
+
+    /** The state of the writer thread, only read and written by it once the journal is open. */
+    private FileChannel channel;
+    private ByteBuffer spareBuffer;
+    private boolean unforced;
+    private long lastForceNanos;
+    private long writtenSequence;
+    /** Only written by the writer thread, as the force count: the sequence of the last record forced to the disk. */
+    private volatile long durableSequence;
+    private volatile long forceCount;
+
+    private AgreementJournal(final Path directory, final JournalOptions options, final Recovery recovery, final FileChannel channel) {
+        this.directory = directory;
+        this.options = options;
+        this.recovery = recovery;
+        this.flushIntervalNanos = options.getFlushInterval().toNanos();
+        this.channel = channel;
+        this.nextSequence = recovery.lastSequence() + 1;
+        this.writtenSequence = recovery.lastSequence();
+        this.durableSequence = recovery.lastSequence();
+        this.current = new Group(ByteBuffer.allocateDirect(options.getBufferBytes()).order(ByteOrder.LITTLE_ENDIAN));
+        this.spareBuffer = ByteBuffer.allocateDirect(options.getBufferBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        this.lastForceNanos = System.nanoTime();
+        this.writer = Thread.ofPlatform().name("agreement-journal-writer").daemon(true).unstarted(this::writeGroups);
+    }
+
+    /**
+     * Open the journal of a directory, creating it if it does not exist. The agreements already in the journal are read
+     * first, in the order of their sequence, so the state derived from them can be rebuilt before the next checkout;
+     * a torn record at the end of the last segment is truncated.
+     * @param directory the directory of the segments.
+     * @param options the {@link JournalOptions}
+     * @param recovered called with every agreement in the journal, and its sequence.
+     * @return the {@link AgreementJournal}, ready to append the next agreements.
+     */
+    public static AgreementJournal open(
+            @NonNull final Path directory,
+            @NonNull final JournalOptions options,
+            @NonNull final ObjLongConsumer<RentalAgreement> recovered
+    ) {
+        return open(directory, options, 0, (sequence, agreement) -> recovered.accept(agreement, sequence));
+    }
+
+    /**
+     * Open the journal of a directory, creating it if it does not exist, reading only the records after a sequence,
+     * e.g. the one of the last snapshot of the derived state. The segments that end before it are not opened.
+     * @param directory the directory of the segments.
+     * @param options the {@link JournalOptions}
+     * @param afterSequence the sequence of the last record already applied, or 0 to read every record.
+     * @param listener called with every record after the sequence.
+     * @return the {@link AgreementJournal}, ready to append the next records.
+     */
+    public static AgreementJournal open(
+            @NonNull final Path directory,
+            @NonNull final JournalOptions options,
+            final long afterSequence,
+            @NonNull final JournalListener listener
+    ) {
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = listSegments(directory);
+            Recovery recovery = scan(directory, segments, afterSequence, Long.MAX_VALUE, listener, true);
+            Path lastSegment = segments.isEmpty() ? null : segments.getLast();
+            FileChannel channel = isNull(lastSegment) || Files.notExists(lastSegment)
+                    ? createSegment(directory, recovery.lastSequence() + 1)
+                    : FileChannel.open(lastSegment, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            AgreementJournal journal = new AgreementJournal(directory, options, recovery, channel);
+            journal.writer.start();
+            return journal;
+        } catch (IOException exception) {
+            throw new UncheckedIOException("The journal in " + directory + " could not be opened.", exception);
+        }
+    }
+
+    /**
+     * Append an agreement to the journal. It returns when the agreement is as durable as the
+     * {@link DurabilityModeEnum} of the journal says, sharing the write and the force with the concurrent appends.
+     * @param agreement the {@link RentalAgreement} to keep.
+     * @return the sequence of the agreement in the journal.
+     */
+    public long append(@NonNull final RentalAgreement agreement) {
+        // The texts are encoded before taking the lock, so the concurrent appends only wait for the copy of the bytes
+        byte[] toolCode = AgreementCodec.utf8(agreement.getToolCode(), "tool code");
+        byte[] toolType = AgreementCodec.utf8(agreement.getToolType(), "tool type");
+        byte[] toolBrand = AgreementCodec.utf8(agreement.getToolBrand(), "tool brand");
+        return append(AgreementCodec.payloadBytes(toolCode, toolType, toolBrand),
+                (buffer, sequence) -> AgreementCodec.encode(buffer, sequence, agreement, toolCode, toolType, toolBrand));
+    }
+
+    /**
+     * Append the return of the tool of an agreement, so the rental is closed when the journal is read again. It returns
+     * when the record is as durable as the {@link DurabilityModeEnum} of the journal says.
+     * @param agreementSequence the sequence of the agreement.
+     * @return the sequence of the return in the journal.
+     */
+    public long appendReturn(final long agreementSequence) {
+        return append(AgreementCodec.RETURN_PAYLOAD_BYTES, (buffer, sequence) -> AgreementCodec.encodeReturn(buffer, sequence, agreementSequence));
+    }
+
+    private long append(final int payloadBytes, final ObjLongConsumer<ByteBuffer> encoder) {
+        Group group;
+        long sequence;
+        lock.lock();
+        try {
+            checkOpen();
+            while (current.buffer.remaining() < RECORD_HEADER_BYTES + payloadBytes) {
+                notFull.awaitUninterruptibly();
+                checkOpen();
+            }
+            group = current;
+            sequence = nextSequence++;
+            group.lastSequence = sequence;
+            ByteBuffer buffer = group.buffer;
+            int start = buffer.position();
+            buffer.position(start + RECORD_HEADER_BYTES);
+            encoder.accept(buffer, sequence);
+            crc.reset();
+            crc.update(buffer.slice(start + RECORD_HEADER_BYTES, payloadBytes));
+            buffer.putInt(start, payloadBytes).putInt(start + Integer.BYTES, (int) crc.getValue());
+            if (start == 0) {
+                pendingOrClosed.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (options.getDurabilityMode() != DurabilityModeEnum.ASYNC) {
+            await(group);
+        }
+        return sequence;
+    }
+
+    /**
+     * Wait until every record appended so far is forced to the disk, whatever the {@link DurabilityModeEnum}.
+     */
+    public void flush() {
+        Group group;
+        lock.lock();
+        try {
+            checkOpen();
+            group = current;
+            group.forceRequested = true;
+            pendingOrClosed.signal();
+        } finally {
+            lock.unlock();
+        }
+        await(group);
+    }
+
+    /**
+     * Write and force the agreements appended so far, and stop the writer. Appending afterwards fails.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pendingOrClosed.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException exception) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return what was read from the journal when it was opened.
+     */
+    public Recovery getRecovery() {
+        return recovery;
+    }
+
+    /**
+     * Read the records forced to the disk after a sequence, while the next ones keep being appended, e.g. to bring a
+     * copy of the derived state up to date. Only the forced records are read, so a crash of the host can not lose a
+     * record that was read.
+     * @param afterSequence the sequence of the last record already applied.
+     * @param listener called with every record read.
+     * @return the sequence of the last record read, or the given sequence when there was none.
+     */
+    public long readDurable(final long afterSequence, @NonNull final JournalListener listener) {
+        long upToSequence = durableSequence;
+        if (upToSequence <= afterSequence) {
+            return afterSequence;
+        }
+        try {
+            // The segments are listed once the sequence is read, so the segment of its record is listed
+            return scan(directory, listSegments(directory), afterSequence, upToSequence, listener, false).lastSequence();
+        } catch (IOException exception) {
+            throw new UncheckedIOException("The journal in " + directory + " could not be read.", exception);
+        }
+    }
+
+    /**
+     * @return the sequence of the last record forced to the disk.
+     */
+    public long getDurableSequence() {
+        return durableSequence;
+    }
+
+    /**
+     * @return the sequence of the last record appended, or 0 when the journal is empty.
+     */
+    public long getLastSequence() {
+        lock.lock();
+        try {
+            return nextSequence - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of times the file was forced to the disk since the journal was opened; with concurrent
+     * appends, it is lower than the number of agreements.
+     */
+    public long getForceCount() {
+        return forceCount;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public JournalOptions getOptions() {
+        return options;
+    }
+
+    private void checkOpen() {
+        if (!isNull(failure)) {
+            throw new IllegalStateException("The journal in " + directory + " failed, and can not be appended to.", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("The journal in " + directory + " is closed.");
+        }
+    }
+
+    private void await(final Group group) {
+        try {
+            group.done.join();
+        } catch (CompletionException exception) {
+            throw new IllegalStateException("The agreement could not be written to the journal in " + directory + ".", exception.getCause());
+        }
+    }
+
+    /**
+     * The loop of the writer thread: take the buffer of the appends, giving them the spare one, write it to the file
+     * and force it when the {@link DurabilityModeEnum} requires it. When nothing is appended, the file is still forced
+     * at the end of the flush interval.
+     */
+    private void writeGroups() {
+        while (true) {
+            Group group;
+            boolean last;
+            lock.lock();
+            try {
+                awaitPending();
+                group = current;
+                last = closed;
+                current = new Group(spareBuffer);
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                write(group, last);
+            } catch (IOException | RuntimeException exception) {
+                fail(group, exception);
+                return;
+            }
+            if (last) {
+                closeChannel();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Wait, holding the lock, until there is a group to write, the file has to be forced, or the journal is closed.
+     */
+    private void awaitPending() {
+        while (current.buffer.position() == 0 && !current.forceRequested && !closed) {
+            if (!unforced) {
+                pendingOrClosed.awaitUninterruptibly();
+                continue;
+            }
+            long remainingNanos = lastForceNanos + flushIntervalNanos - System.nanoTime();
+            if (remainingNanos <= 0) {
+                return;
+            }
+            try {
+                pendingOrClosed.awaitNanos(remainingNanos);
+            } catch (InterruptedException exception) {
+                // The writer is never interrupted, the journal is stopped by close
+            }
+        }
+    }
+
+    private void write(final Group group, final boolean last) throws IOException {
+        ByteBuffer buffer = group.buffer.flip();
+        boolean written = buffer.hasRemaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (written) {
+            unforced = true;
+            writtenSequence = group.lastSequence;
+        }
+        boolean force = last || group.forceRequested || options.getDurabilityMode() == DurabilityModeEnum.SYNC
+                || System.nanoTime() - lastForceNanos >= flushIntervalNanos;
+        if (force) {
+            force();
+        }
+        if (written && channel.position() >= options.getSegmentBytes()) {
+            roll(group.lastSequence + 1);
+        }
+        spareBuffer = buffer.clear();
+        group.done.complete(null);
+    }
+
+    /**
+     * Force the content of the segment. The size of the file is forced with it, as the data would not be readable
+     * without it.
+     */
+    private void force() throws IOException {
+        if (unforced) {
+            channel.force(false);
+            forceCount++;
+            unforced = false;
+            durableSequence = writtenSequence;
+        }
+        lastForceNanos = System.nanoTime();
+    }
+
+    /**
+     * Close the segment, forced, and start the next one with the given sequence.
+     */
+    private void roll(final long firstSequence) throws IOException {
+        force();
+        channel.close();
+        channel = createSegment(directory, firstSequence);
+    }
+
+    private void fail(final Group group, final Exception exception) {
+        RuntimeException cause = exception instanceof IOException ioException
+                ? new UncheckedIOException("The journal in " + directory + " could not be written.", ioException)
+                : (RuntimeException) exception;
+        lock.lock();
+        try {
+            failure = cause;
+            current.done.completeExceptionally(cause);
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        group.done.completeExceptionally(cause);
+        closeChannel();
+    }
+
+    private void closeChannel() {
+        try {
+            channel.close();
+        } catch (IOException exception) {
+            // Everything written was forced, or the journal already failed
+        }
+    }
+
+    private static FileChannel createSegment(final Path directory, final long firstSequence) throws IOException {
+        Path segment = directory.resolve(segmentName(firstSequence));
+        FileChannel channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(MAGIC).putInt(FORMAT_VERSION).putLong(firstSequence).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        channel.force(true);
+        forceDirectory(directory);
+        return channel;
+    }
+
+    /**
+     * Force the directory, so a new segment is still there after a crash of the host. A directory can not be opened on
+     * every platform, where this is left to the file system.
+     */
+    static void forceDirectory(final Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException exception) {
+            // Not supported on this platform
+        }
+    }
+
+    static String segmentName(final long firstSequence) {
+        return String.format("journal-%020d.log", firstSequence);
+    }
+
+    private static List<Path> listSegments(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            // The sequences have a fixed width, so the order of the names is the order of the segments
+            return files.filter(file -> SEGMENT_NAME.matcher(file.getFileName().toString()).matches()).sorted().toList();
+        }
+    }
+
+    /**
+     * Read the segments in order from the one of the record after the given sequence, checking that the sequences follow
+     * each other, and give the records after the sequence to the listener. When the journal is opened, the torn tail of
+     * the last segment is truncated, and a last segment without a complete header, which was being created, is deleted.
+     * @param upToSequence the sequence of the last record to read.
+     * @param opening whether the journal is being opened, so nothing is appended to the segments while they are read.
+     */
+    private static Recovery scan(
+            final Path directory,
+            final List<Path> segments,
+            final long afterSequence,
+            final long upToSequence,
+            final JournalListener listener,
+            final boolean opening
+    ) throws IOException {
+        long startNanos = System.nanoTime();
+        int firstIndex = 0;
+        while (firstIndex + 1 < segments.size() && firstSequenceOf(segments.get(firstIndex + 1)) <= afterSequence + 1) {
+            firstIndex++;
+        }
+        long sequence = segments.isEmpty() ? afterSequence + 1 : firstSequenceOf(segments.get(firstIndex));
+        if (sequence > afterSequence + 1) {
+            throw new IllegalStateException("The journal in " + directory + " has no record after the sequence " + afterSequence + ".");
+        }
+        int segmentCount = 0;
+        long agreementCount = 0;
+        long returnCount = 0;
+        long truncatedBytes = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(0);
+        CRC32C crc = new CRC32C();
+
+        for (int index = firstIndex; index < segments.size() && sequence <= upToSequence; index++) {
+            Path segment = segments.get(index);
+            boolean lastSegment = index == segments.size() - 1;
+            long firstSequence = firstSequenceOf(segment);
+            if (firstSequence != sequence) {
+                throw new IllegalStateException("The journal segment " + segment + " should start with the sequence " + sequence + ".");
+            }
+
+            segmentCount++;
+            long size;
+            int position = SEGMENT_HEADER_BYTES;
+            try (FileChannel channel = opening
+                    ? FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                    : FileChannel.open(segment, StandardOpenOption.READ)) {
+                size = channel.size();
+                if (size > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("The journal segment " + segment + " is larger than 2 GB.");
+                }
+                if (size < SEGMENT_HEADER_BYTES && lastSegment && opening) {
+                    truncatedBytes += size;
+                    position = -1;
+                } else {
+                    buffer = read(channel, (int) size, buffer);
+                    if (size < SEGMENT_HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION
+                            || buffer.getLong(8) != firstSequence) {
+                        throw new IllegalStateException("The journal segment " + segment + " has no valid header.");
+                    }
+                    while (position < size && sequence <= upToSequence) {
+                        int payloadBytes = validPayloadBytes(buffer, position, sequence, crc);
+                        if (payloadBytes < 0) {
+                            break;
+                        }
+                        int payloadPosition = position + RECORD_HEADER_BYTES;
+                        if (sequence > afterSequence) {
+                            if (buffer.get(payloadPosition + Long.BYTES) == AgreementCodec.AGREEMENT_RECORD) {
+                                buffer.position(payloadPosition + Long.BYTES + 1);
+                                listener.onAgreement(sequence, AgreementCodec.decode(buffer));
+                                agreementCount++;
+                            } else {
+                                listener.onReturn(sequence, buffer.getLong(payloadPosition + Long.BYTES + 1));
+                                returnCount++;
+                            }
+                        }
+                        sequence++;
+                        position += RECORD_HEADER_BYTES + payloadBytes;
+                    }
+                    if (position < size && sequence <= upToSequence) {
+                        if (!lastSegment || !opening) {
+                            throw new IllegalStateException("The journal segment " + segment + " is corrupted at the position " + position + ".");
+                        }
+                        channel.truncate(position);
+                        channel.force(true);
+                        truncatedBytes += size - position;
+                    }
+                }
+            }
+            if (position < 0) {
+                Files.delete(segment);
+            }
+        }
+        if (sequence - 1 < Math.min(afterSequence, upToSequence)) {
+            throw new IllegalStateException("The journal in " + directory + " ends before the sequence " + afterSequence + ".");
+        }
+        return new Recovery(segmentCount, agreementCount, returnCount, sequence - 1, truncatedBytes, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @return the length of the payload of the record at the position, or -1 when it is cut short, fails its CRC, or
+     * does not have the expected sequence.
+     */
+    private static int validPayloadBytes(final ByteBuffer buffer, final int position, final long expectedSequence, final CRC32C crc) {
+        int limit = buffer.limit();
+        if (limit - position < RECORD_HEADER_BYTES) {
+            return -1;
+        }
+        int payloadBytes = buffer.getInt(position);
+        int payloadPosition = position + RECORD_HEADER_BYTES;
+        if (payloadBytes < AgreementCodec.MIN_PAYLOAD_BYTES || payloadBytes > AgreementCodec.MAX_PAYLOAD_BYTES
+                || limit - payloadPosition < payloadBytes) {
+            return -1;
+        }
+        crc.reset();
+        crc.update(buffer.slice(payloadPosition, payloadBytes));
+        byte recordType = buffer.get(payloadPosition + Long.BYTES);
+        if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)
+                || buffer.getLong(payloadPosition) != expectedSequence
+                || recordType != AgreementCodec.AGREEMENT_RECORD && recordType != AgreementCodec.RETURN_RECORD) {
+            return -1;
+        }
+        return payloadBytes;
+    }
+
+    private static long firstSequenceOf(final Path segment) {
+        Matcher matcher = SEGMENT_NAME.matcher(segment.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("The file " + segment + " is not a journal segment.");
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    /**
+     * Read a whole segment, reusing the buffer of the previous one when it is large enough.
+     */
+    private static ByteBuffer read(final FileChannel channel, final int size, final ByteBuffer reusable) throws IOException {
+        ByteBuffer buffer = reusable.capacity() >= size ? reusable.clear() : ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.limit(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * What was read from the journal.
+     * @param segmentCount the segments read.
+     * @param agreementCount the agreements read.
+     * @param returnCount the returns read.
+     * @param lastSequence the sequence of the last record, or 0 when the journal was empty.
+     * @param truncatedBytes the bytes of the torn tail that were truncated.
+     * @param elapsedNanos how long reading the journal took.
+     */
+    public record Recovery(int segmentCount, long agreementCount, long returnCount, long lastSequence, long truncatedBytes, long elapsedNanos) {
+
+        public double getElapsedMillis() {
+            return (double) elapsedNanos / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+
+    /**
+     * The agreements appended to a buffer, written to the file together. The appends waiting for them are released
+     * when the group is done: written, or forced, depending on the {@link DurabilityModeEnum}.
+     */
+    private static final class Group {
+
+        private final ByteBuffer buffer;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        /** Guarded by the lock of the journal, as the last sequence. */
+        private boolean forceRequested;
+        private long lastSequence;
+
+        private Group(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.gillab.journal;
+
+/**
+ * When {@link AgreementJournal#append} returns, and which crash can lose an appended agreement.
+ */
+public enum DurabilityModeEnum {
+    /** The append returns once the agreement is forced to the disk; the appends waiting together share one force. */
+    SYNC,
+    /**
+     * The append returns once the agreement is written to the file, so it survives a crash of the JVM; the file is
+     * forced every flush interval, so a crash of the host loses at most that interval.
+     */
+    BATCHED,
+    /**
+     * The append returns once the agreement is in the buffer of the journal, so a crash of the JVM loses the agreements
+     * not written yet; the file is forced every flush interval.
+     */
+    ASYNC
+}
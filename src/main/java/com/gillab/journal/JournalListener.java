@@ -0,0 +1,24 @@
+package com.gillab.journal;
+
+import com.gillab.model.RentalAgreement;
+
+/**
+ * Receives the records of the {@link AgreementJournal} when it is read, in the order of their sequence.
+ */
+@FunctionalInterface
+public interface JournalListener {
+
+    /**
+     * @param sequence the sequence of the record.
+     * @param agreement the {@link RentalAgreement} appended.
+     */
+    void onAgreement(long sequence, RentalAgreement agreement);
+
+    /**
+     * @param sequence the sequence of the record.
+     * @param agreementSequence the sequence of the agreement whose tool was returned.
+     */
+    default void onReturn(final long sequence, final long agreementSequence) {
+    }
+
+}
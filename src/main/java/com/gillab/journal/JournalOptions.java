@@ -0,0 +1,63 @@
+package com.gillab.journal;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+import java.time.Duration;
+
+/**
+ * How the {@link AgreementJournal} writes the agreements: the {@link DurabilityModeEnum}, the size of its segments and
+ * buffers, and how often the file is forced when the appends do not wait for it.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE) @Getter @ToString
+public class JournalOptions {
+
+    public static final int DEFAULT_SEGMENT_BYTES = 64 * 1024 * 1024;
+    public static final int DEFAULT_BUFFER_BYTES = 1024 * 1024;
+    public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMillis(10);
+
+    private final DurabilityModeEnum durabilityMode;
+    /** The size from which a segment is closed, and the next agreements are written to a new one. */
+    private final int segmentBytes;
+    /** The size of the buffer the concurrent appends are written to while the previous group is written to the file. */
+    private final int bufferBytes;
+    /** How often the file is forced in the {@link DurabilityModeEnum#BATCHED} and {@link DurabilityModeEnum#ASYNC} modes. */
+    private final Duration flushInterval;
+
+    /**
+     * @param durabilityMode the {@link DurabilityModeEnum}
+     * @return the {@link JournalOptions}, with the default sizes and flush interval.
+     */
+    public static JournalOptions of(@NonNull final DurabilityModeEnum durabilityMode) {
+        return of(durabilityMode, DEFAULT_SEGMENT_BYTES, DEFAULT_BUFFER_BYTES, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    /**
+     * @param durabilityMode the {@link DurabilityModeEnum}
+     * @param segmentBytes the size from which a new segment is started.
+     * @param bufferBytes the size of the buffers of the appends, large enough for the largest agreement.
+     * @param flushInterval how often the file is forced when the appends do not wait for it.
+     * @return the {@link JournalOptions}
+     */
+    public static JournalOptions of(
+            @NonNull final DurabilityModeEnum durabilityMode,
+            final int segmentBytes,
+            final int bufferBytes,
+            @NonNull final Duration flushInterval
+    ) {
+        if (bufferBytes < AgreementJournal.MAX_RECORD_BYTES) {
+            throw new IllegalArgumentException("The buffer of the journal should hold at least " + AgreementJournal.MAX_RECORD_BYTES + " bytes.");
+        }
+        if (segmentBytes < bufferBytes) {
+            throw new IllegalArgumentException("The segments of the journal should not be smaller than its buffer.");
+        }
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("The flush interval should be greater than 0.");
+        }
+        return new JournalOptions(durabilityMode, segmentBytes, bufferBytes, flushInterval);
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.gillab.journal;
+
+import java.time.LocalDate;
+
+/**
+ * A rental whose tool was not returned yet, with what is needed to track it: the agreement it was checked out with,
+ * the tool code, the dates and the final charge.
+ * @param agreementSequence the sequence of the agreement in the {@link AgreementJournal}.
+ */
+public record OpenRental(long agreementSequence, String toolCode, LocalDate checkoutDate, LocalDate dueDate, long finalChargeCents) {}
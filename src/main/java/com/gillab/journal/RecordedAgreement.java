@@ -0,0 +1,10 @@
+package com.gillab.journal;
+
+import com.gillab.model.RentalAgreement;
+
+/**
+ * The agreement of a checkout recorded in a {@link RentalLedger}.
+ * @param sequence the sequence of the agreement in the {@link AgreementJournal}, which identifies its rental, e.g. to
+ *                 record its return with {@link RentalLedger#recordReturn}.
+ */
+public record RecordedAgreement(long sequence, RentalAgreement agreement) {}
@@ -0,0 +1,388 @@
+package com.gillab.journal;
+
+import com.gillab.model.RentalAgreement;
+import com.gillab.service.InventoryService;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * The rentals kept in an {@link AgreementJournal}, with the {@link RentalState} derived from them.
+ * Snapshots of the state are written in the background at a fixed interval, next to the segments of the journal, so
+ * the startup reads the latest snapshot and only replays the records after it: the restart time depends on the snapshot
+ * interval, not on the history kept in the journal.
+ * The snapshots never stop the checkouts: they are not taken from the live state, but from a replica that the snapshot
+ * thread brings up to date by reading the records forced to the disk since the previous snapshot. A snapshot is written
+ * to a temporary file, forced, then renamed, so a crash leaves the previous one; the latest {@value #SNAPSHOTS_KEPT}
+ * are kept, and one that can not be read is skipped for the one before it.
+ * A ledger opened with an {@link InventoryService} keeps it in line with the open rentals: the units of the open
+ * rentals are reserved when the ledger is opened, a unit is reserved by every agreement recorded, and released by its
+ * return.
+ * A snapshot file is named by the sequence of its last record. Layout, big-endian as written by a
+ * {@link DataOutputStream}: magic, format version, the state (see {@link RentalState#writeSnapshot}) and the CRC32C of
+ * all the previous bytes.
+ */
+public class RentalLedger implements AutoCloseable {
+
+    public static final int SNAPSHOT_MAGIC = 0x52534E50;
+    public static final int SNAPSHOT_FORMAT_VERSION = 1;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RentalLedger.class);
+    private static final int SNAPSHOTS_KEPT = 2;
+    private static final int SNAPSHOT_BUFFER_BYTES = 64 * 1024;
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("snapshot-(\\d{20})\\.bin");
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final AgreementJournal journal;
+    private final RentalState state;
+    /** Where the units of the rentals are reserved, or null when the ledger does not track them. */
+    private final InventoryService inventoryService;
+    private final Restart restart;
+    private final ScheduledExecutorService snapshotExecutor;
+    /** The agreement sequences of the rentals whose return is being recorded. */
+    private final Set<Long> returning = ConcurrentHashMap.newKeySet();
+    /** The state the snapshots are written from, loaded by the first one. Guarded by the lock of the ledger. */
+    private RentalState replica;
+    private volatile long snapshotSequence;
+
+    private RentalLedger(final Path directory, final AgreementJournal journal, final RentalState state, final InventoryService inventoryService, final Restart restart, final Duration snapshotInterval) {
+        this.directory = directory;
+        this.journal = journal;
+        this.state = state;
+        this.inventoryService = inventoryService;
+        this.restart = restart;
+        this.snapshotSequence = restart.snapshotSequence();
+        this.snapshotExecutor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("rental-ledger-snapshot").daemon(true).factory());
+        long intervalNanos = snapshotInterval.toNanos();
+        snapshotExecutor.scheduleWithFixedDelay(this::snapshotInBackground, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Open the ledger of a directory, creating it if it does not exist: the state is read from the latest snapshot,
+     * then the records of the journal after it are applied. The ledger does not reserve the units of its rentals.
+     * @param directory the directory of the journal and the snapshots.
+     * @param options the {@link JournalOptions} of the journal.
+     * @param snapshotInterval how often a snapshot is written.
+     * @return the {@link RentalLedger}, ready to record the next rentals.
+     */
+    public static RentalLedger open(@NonNull final Path directory, @NonNull final JournalOptions options, @NonNull final Duration snapshotInterval) {
+        return open(directory, options, snapshotInterval, null);
+    }
+
+    /**
+     * Open the ledger of a directory, like {@link #open(Path, JournalOptions, Duration)}, then reserve the units of its
+     * open rentals in the inventory, so the units rented before the restart are not checked out again.
+     * @param inventoryService where the units of the rentals are reserved, with every unit available.
+     * @return the {@link RentalLedger}, ready to record the next rentals.
+     */
+    public static RentalLedger open(
+            @NonNull final Path directory,
+            @NonNull final JournalOptions options,
+            @NonNull final Duration snapshotInterval,
+            final InventoryService inventoryService
+    ) {
+        if (snapshotInterval.isNegative() || snapshotInterval.isZero()) {
+            throw new IllegalArgumentException("The snapshot interval should be greater than 0.");
+        }
+        long startNanos = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+            deleteTemporarySnapshots(directory);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("The rental ledger in " + directory + " could not be opened.", exception);
+        }
+        RentalState state = readLatestSnapshot(directory).orElseGet(RentalState::new);
+        long snapshotSequence = state.getLastSequence();
+        AgreementJournal journal = AgreementJournal.open(directory, options, snapshotSequence, state);
+        if (nonNull(inventoryService)) {
+            try {
+                inventoryService.reserveRentedUnits(state);
+            } catch (RuntimeException exception) {
+                journal.close();
+                throw exception;
+            }
+        }
+        Restart restart = new Restart(snapshotSequence, journal.getRecovery(), System.nanoTime() - startNanos);
+        return new RentalLedger(directory, journal, state, inventoryService, restart, snapshotInterval);
+    }
+
+    /**
+     * Record the agreement of a checkout in a ledger that does not reserve the units of its rentals: it is appended to
+     * the journal, then its rental is opened.
+     * @param agreement the {@link RentalAgreement}
+     * @return the sequence of the agreement, which identifies its rental.
+     */
+    public long record(@NonNull final RentalAgreement agreement) {
+        if (nonNull(inventoryService)) {
+            throw new IllegalStateException("The ledger reserves the units of its rentals: the agreement should be recorded with a correlation ID.");
+        }
+        long sequence = journal.append(agreement);
+        state.onAgreement(sequence, agreement);
+        return sequence;
+    }
+
+    /**
+     * Record the agreement of a checkout: a unit of its tool code is reserved, when the ledger has an inventory, then
+     * the agreement is appended to the journal and its rental is opened. The unit is released if the append fails, so
+     * a checkout that is not journaled never holds a unit.
+     * @param agreement the {@link RentalAgreement}
+     * @param correlationId ID to track the request.
+     * @return the sequence of the agreement, which identifies its rental.
+     */
+    public long record(@NonNull final RentalAgreement agreement, @NonNull final UUID correlationId) {
+        if (isNull(inventoryService)) {
+            return record(agreement);
+        }
+        inventoryService.reserve(agreement.getToolCode(), correlationId);
+        long sequence;
+        try {
+            sequence = journal.append(agreement);
+        } catch (RuntimeException exception) {
+            inventoryService.release(agreement.getToolCode(), correlationId);
+            throw exception;
+        }
+        state.onAgreement(sequence, agreement);
+        return sequence;
+    }
+
+    /**
+     * Record the return of the tool of an open rental: it is appended to the journal, then the rental is closed and its
+     * unit released, when the ledger has an inventory. The rental is claimed before the append, so of two concurrent
+     * returns of the same rental only one is journaled.
+     * @param agreementSequence the sequence of the agreement of the rental.
+     * @return the {@link OpenRental} that was closed.
+     */
+    public OpenRental recordReturn(final long agreementSequence) {
+        if (!returning.add(agreementSequence)) {
+            throw new IllegalArgumentException("The rental of the agreement " + agreementSequence + " is already being returned.");
+        }
+        try {
+            OpenRental openRental = state.findOpenRental(agreementSequence)
+                    .orElseThrow(() -> new IllegalArgumentException("The rental of the agreement " + agreementSequence + " is not open."));
+            long sequence = journal.appendReturn(agreementSequence);
+            state.onReturn(sequence, agreementSequence);
+            if (nonNull(inventoryService) && !inventoryService.tryRelease(openRental.toolCode())) {
+                // A tool code removed from the inventory since the rental was opened
+                LOGGER.warn("The unit of the tool code {} returned by the agreement {} is not in the inventory.", openRental.toolCode(), agreementSequence);
+            }
+            return openRental;
+        } finally {
+            // Released once the rental is closed, or left open when the append failed, so it can be returned again
+            returning.remove(agreementSequence);
+        }
+    }
+
+    /**
+     * Write a snapshot now, with the records forced to the disk so far. Nothing is written when there is no new record
+     * since the previous snapshot.
+     * @return the sequence of the last record in the snapshot.
+     */
+    public synchronized long snapshot() {
+        if (isNull(replica)) {
+            replica = readLatestSnapshot(directory).orElseGet(RentalState::new);
+        }
+        long sequence = journal.readDurable(replica.getLastSequence(), replica);
+        if (sequence > snapshotSequence) {
+            writeSnapshot(directory, replica, sequence);
+            snapshotSequence = sequence;
+        }
+        return sequence;
+    }
+
+    /**
+     * Stop the snapshots, once the one being written is done, and close the journal. No snapshot is written: the next
+     * startup replays the records after the last one, at most a snapshot interval of them.
+     */
+    @Override
+    public void close() {
+        snapshotExecutor.shutdown();
+        synchronized (this) {
+            journal.close();
+        }
+    }
+
+    /**
+     * @return the live state, updated by every record.
+     */
+    public RentalState getState() {
+        return state;
+    }
+
+    /**
+     * @return where the units of the rentals are reserved, or empty when the ledger does not track them.
+     */
+    public Optional<InventoryService> getInventoryService() {
+        return Optional.ofNullable(inventoryService);
+    }
+
+    public AgreementJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * @return what was read when the ledger was opened.
+     */
+    public Restart getRestart() {
+        return restart;
+    }
+
+    /**
+     * @return the sequence of the last record in the latest snapshot, or 0 when there is none.
+     */
+    public long getSnapshotSequence() {
+        return snapshotSequence;
+    }
+
+    private void snapshotInBackground() {
+        try {
+            snapshot();
+        } catch (RuntimeException exception) {
+            // The next snapshot is tried at the next interval; the journal still has every record
+            LOGGER.warn("The snapshot of the rental ledger in {} could not be written.", directory, exception);
+        }
+    }
+
+    private static void writeSnapshot(final Path directory, final RentalState state, final long sequence) {
+        Path snapshot = directory.resolve(snapshotName(sequence));
+        Path temporary = directory.resolve(snapshotName(sequence) + TEMPORARY_SUFFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                CRC32C crc = new CRC32C();
+                BufferedOutputStream buffered = new BufferedOutputStream(Channels.newOutputStream(channel), SNAPSHOT_BUFFER_BYTES);
+                DataOutputStream out = new DataOutputStream(new CheckedOutputStream(buffered, crc));
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_FORMAT_VERSION);
+                state.writeSnapshot(out);
+                out.flush();
+                new DataOutputStream(buffered).writeInt((int) crc.getValue());
+                buffered.flush();
+                channel.force(true);
+            }
+            Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            AgreementJournal.forceDirectory(directory);
+
+            List<Path> snapshots = listSnapshots(directory);
+            for (Path older : snapshots.subList(0, Math.max(0, snapshots.size() - SNAPSHOTS_KEPT))) {
+                Files.delete(older);
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("The snapshot " + snapshot + " could not be written.", exception);
+        }
+    }
+
+    /**
+     * Read the latest snapshot that is valid, skipping the ones that can not be read.
+     */
+    private static Optional<RentalState> readLatestSnapshot(final Path directory) {
+        List<Path> snapshots;
+        try {
+            snapshots = listSnapshots(directory);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("The snapshots in " + directory + " could not be listed.", exception);
+        }
+        for (Path snapshot : snapshots.reversed()) {
+            try {
+                return Optional.of(readSnapshot(snapshot));
+            } catch (IOException | RuntimeException exception) {
+                LOGGER.warn("The snapshot {} could not be read, the one before it is used.", snapshot, exception);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static RentalState readSnapshot(final Path snapshot) throws IOException {
+        try (InputStream buffered = new BufferedInputStream(Files.newInputStream(snapshot), SNAPSHOT_BUFFER_BYTES)) {
+            CRC32C crc = new CRC32C();
+            DataInputStream in = new DataInputStream(new CheckedInputStream(buffered, crc));
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_FORMAT_VERSION) {
+                throw new IllegalStateException("The file " + snapshot + " is not a snapshot of the supported format version.");
+            }
+            RentalState state = RentalState.readSnapshot(in);
+            if ((int) crc.getValue() != new DataInputStream(buffered).readInt()) {
+                throw new IllegalStateException("The snapshot " + snapshot + " fails its CRC.");
+            }
+            if (state.getLastSequence() != sequenceOf(snapshot)) {
+                throw new IllegalStateException("The snapshot " + snapshot + " does not end with the sequence of its name.");
+            }
+            return state;
+        }
+    }
+
+    static String snapshotName(final long sequence) {
+        return String.format("snapshot-%020d.bin", sequence);
+    }
+
+    private static long sequenceOf(final Path snapshot) {
+        Matcher matcher = SNAPSHOT_NAME.matcher(snapshot.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("The file " + snapshot + " is not a snapshot.");
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    /**
+     * @return the snapshots, from the oldest to the latest.
+     */
+    private static List<Path> listSnapshots(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> SNAPSHOT_NAME.matcher(file.getFileName().toString()).matches())
+                    .sorted(Comparator.comparing(Path::getFileName))
+                    .toList();
+        }
+    }
+
+    /**
+     * Delete the snapshots that were being written when the process stopped.
+     */
+    private static void deleteTemporarySnapshots(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(file -> file.getFileName().toString().endsWith(TEMPORARY_SUFFIX)).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * What was read when the ledger was opened.
+     * @param snapshotSequence the sequence of the last record of the snapshot read, or 0 when there was none.
+     * @param journalRecovery the records of the journal replayed after the snapshot.
+     * @param elapsedNanos how long the restart took.
+     */
+    public record Restart(long snapshotSequence, AgreementJournal.Recovery journalRecovery, long elapsedNanos) {}
+
+}
@@ -0,0 +1,186 @@
+package com.gillab.journal;
+
+import com.gillab.model.RentalAgreement;
+import lombok.NonNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.isNull;
+
+/**
+ * The state derived from the records of the {@link AgreementJournal}: the open rentals, the rented units of every tool
+ * code, and the agreements and revenue of every checkout day. The records can be applied from many threads at once:
+ * every part of the state is a concurrent map of counters, so applying a record takes no lock.
+ * The state can be written to a snapshot and read back, see {@link RentalLedger}.
+ */
+public class RentalState implements JournalListener {
+
+    private final Map<Long, OpenRental> openRentals = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> rentedUnitsByToolCode = new ConcurrentHashMap<>();
+    private final Map<LocalDate, DailyRevenue> revenueByDay = new ConcurrentHashMap<>();
+    private final LongAccumulator lastSequence = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Open the rental of an agreement: a unit of its tool code is rented, and its final charge is added to the revenue
+     * of its checkout date.
+     */
+    @Override
+    public void onAgreement(final long sequence, @NonNull final RentalAgreement agreement) {
+        openRentals.put(sequence, new OpenRental(sequence, agreement.getToolCode(), agreement.getCheckoutDate(),
+                agreement.getDueDate(), agreement.getFinalChargeCents()));
+        rentedUnitsByToolCode.computeIfAbsent(agreement.getToolCode(), toolCode -> new AtomicInteger()).incrementAndGet();
+        revenueByDay.computeIfAbsent(agreement.getCheckoutDate(), checkoutDate -> new DailyRevenue()).add(agreement.getFinalChargeCents());
+        lastSequence.accumulate(sequence);
+    }
+
+    /**
+     * Close the rental of an agreement, so its unit is no longer rented. The revenue is kept. Closing a rental that is
+     * not open does nothing.
+     */
+    @Override
+    public void onReturn(final long sequence, final long agreementSequence) {
+        OpenRental openRental = openRentals.remove(agreementSequence);
+        if (!isNull(openRental)) {
+            rentedUnitsByToolCode.get(openRental.toolCode()).decrementAndGet();
+        }
+        lastSequence.accumulate(sequence);
+    }
+
+    /**
+     * @param agreementSequence the sequence of the agreement of the rental.
+     * @return the {@link OpenRental}, or empty when the rental does not exist or was closed.
+     */
+    public Optional<OpenRental> findOpenRental(final long agreementSequence) {
+        return Optional.ofNullable(openRentals.get(agreementSequence));
+    }
+
+    /**
+     * @return a copy of the open rentals, in no particular order.
+     */
+    public List<OpenRental> getOpenRentals() {
+        return List.copyOf(openRentals.values());
+    }
+
+    public int getOpenRentalCount() {
+        return openRentals.size();
+    }
+
+    /**
+     * @param toolCode the tool code to look for.
+     * @return the units of the tool code in open rentals.
+     */
+    public int getRentedUnits(@NonNull final String toolCode) {
+        AtomicInteger rentedUnits = rentedUnitsByToolCode.get(toolCode);
+        return isNull(rentedUnits) ? 0 : rentedUnits.get();
+    }
+
+    /**
+     * @param checkoutDate the day to look for.
+     * @return the agreements checked out on the day, and the sum of their final charges.
+     */
+    public Revenue getRevenue(@NonNull final LocalDate checkoutDate) {
+        DailyRevenue dailyRevenue = revenueByDay.get(checkoutDate);
+        return isNull(dailyRevenue) ? new Revenue(0, 0) : new Revenue(dailyRevenue.agreements.sum(), dailyRevenue.chargeCents.sum());
+    }
+
+    /**
+     * @return the sequence of the last record applied, or 0 when none was.
+     */
+    public long getLastSequence() {
+        return lastSequence.get();
+    }
+
+    /**
+     * Write the state: the last sequence, the open rentals, the rented units of every tool code and the revenue of every
+     * day, each part preceded by its number of entries. No record should be applied in the meantime, so it is consistent.
+     * @param out where the state is written.
+     */
+    public void writeSnapshot(@NonNull final DataOutput out) throws IOException {
+        out.writeLong(lastSequence.get());
+        out.writeInt(openRentals.size());
+        for (OpenRental openRental : openRentals.values()) {
+            out.writeLong(openRental.agreementSequence());
+            out.writeUTF(openRental.toolCode());
+            out.writeLong(openRental.checkoutDate().toEpochDay());
+            out.writeLong(openRental.dueDate().toEpochDay());
+            out.writeLong(openRental.finalChargeCents());
+        }
+        List<Map.Entry<String, AtomicInteger>> rentedUnits = rentedUnitsByToolCode.entrySet().stream()
+                .filter(entry -> entry.getValue().get() > 0)
+                .toList();
+        out.writeInt(rentedUnits.size());
+        for (Map.Entry<String, AtomicInteger> entry : rentedUnits) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().get());
+        }
+        out.writeInt(revenueByDay.size());
+        for (Map.Entry<LocalDate, DailyRevenue> entry : revenueByDay.entrySet()) {
+            out.writeLong(entry.getKey().toEpochDay());
+            out.writeLong(entry.getValue().agreements.sum());
+            out.writeLong(entry.getValue().chargeCents.sum());
+        }
+    }
+
+    /**
+     * Read a state written by {@link #writeSnapshot}.
+     * @param in where the state is read.
+     * @return the {@link RentalState}
+     */
+    public static RentalState readSnapshot(@NonNull final DataInput in) throws IOException {
+        RentalState state = new RentalState();
+        state.lastSequence.accumulate(in.readLong());
+        for (int index = readCount(in); index > 0; index--) {
+            OpenRental openRental = new OpenRental(in.readLong(), in.readUTF(), LocalDate.ofEpochDay(in.readLong()),
+                    LocalDate.ofEpochDay(in.readLong()), in.readLong());
+            state.openRentals.put(openRental.agreementSequence(), openRental);
+        }
+        for (int index = readCount(in); index > 0; index--) {
+            state.rentedUnitsByToolCode.put(in.readUTF(), new AtomicInteger(in.readInt()));
+        }
+        for (int index = readCount(in); index > 0; index--) {
+            DailyRevenue dailyRevenue = new DailyRevenue();
+            state.revenueByDay.put(LocalDate.ofEpochDay(in.readLong()), dailyRevenue);
+            dailyRevenue.agreements.add(in.readLong());
+            dailyRevenue.chargeCents.add(in.readLong());
+        }
+        return state;
+    }
+
+    private static int readCount(final DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IllegalStateException("The snapshot of the rental state has a negative number of entries.");
+        }
+        return count;
+    }
+
+    /**
+     * The agreements checked out on a day, and the sum of their final charges.
+     */
+    public record Revenue(long agreementCount, long chargeCents) {}
+
+    /**
+     * The counters of a day, striped so the checkouts of the same day rarely contend.
+     */
+    private static final class DailyRevenue {
+
+        private final LongAdder agreements = new LongAdder();
+        private final LongAdder chargeCents = new LongAdder();
+
+        private void add(final long finalChargeCents) {
+            agreements.increment();
+            chargeCents.add(finalChargeCents);
+        }
+    }
+
+}
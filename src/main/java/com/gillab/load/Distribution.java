@@ -0,0 +1,105 @@
+package com.gillab.load;
+
+import lombok.NonNull;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
+
+/**
+ * A distribution of the values of a request field, e.g. the tool codes or the rental days, sampled with the random
+ * generator of the thread that builds the request.
+ * @param <T> the type of the values.
+ */
+@FunctionalInterface
+public interface Distribution<T> {
+
+    T sample(RandomGenerator random);
+
+    /**
+     * @return a distribution of the values of this one, converted with the given function.
+     */
+    default <R> Distribution<R> map(@NonNull final Function<T, R> mapper) {
+        return random -> mapper.apply(sample(random));
+    }
+
+    /**
+     * @return a distribution that always returns the given value.
+     */
+    static <T> Distribution<T> constant(@NonNull final T value) {
+        return random -> value;
+    }
+
+    /**
+     * @param min the lowest value (inclusive).
+     * @param max the highest value (inclusive).
+     * @return a distribution of the integers in the range, all equally likely.
+     */
+    static Distribution<Integer> uniform(final int min, final int max) {
+        if (max < min) {
+            throw new IllegalArgumentException("The highest value of the distribution can not be lower than the lowest value.");
+        }
+        return random -> random.nextInt(min, max + 1);
+    }
+
+    /**
+     * A distribution of integers where the low values are the most likely, e.g. the rental days, where most rentals
+     * are short and a few are long. The values are drawn from an exponential distribution, shifted to start at the
+     * lowest value, and limited to the range.
+     * @param min the lowest value (inclusive).
+     * @param max the highest value (inclusive).
+     * @param mean the mean of the values, before they are limited to the range.
+     * @return the distribution.
+     */
+    static Distribution<Integer> exponential(final int min, final int max, final double mean) {
+        if (max < min || mean < min) {
+            throw new IllegalArgumentException("The mean of the distribution should be within its range.");
+        }
+        double scale = mean - min;
+        return random -> (int) Math.min(max, min + Math.round(random.nextExponential() * scale));
+    }
+
+    /**
+     * @param firstDate the first date (inclusive).
+     * @param lastDate the last date (inclusive).
+     * @return a distribution of the dates in the range, all equally likely.
+     */
+    static Distribution<LocalDate> uniformDates(@NonNull final LocalDate firstDate, @NonNull final LocalDate lastDate) {
+        return uniform(0, (int) (lastDate.toEpochDay() - firstDate.toEpochDay())).map(firstDate::plusDays);
+    }
+
+    /**
+     * @param weights the relative weight of every value, e.g. {CHNS: 3, LADW: 1} returns CHNS 3 times out of 4.
+     * @return a distribution of the given values.
+     */
+    static <T> Distribution<T> weighted(@NonNull final Map<T, ? extends Number> weights) {
+        List<T> values = new ArrayList<>(weights.size());
+        double[] cumulativeWeights = new double[weights.size()];
+        double totalWeight = 0;
+        for (Map.Entry<T, ? extends Number> weight : weights.entrySet()) {
+            if (weight.getValue().doubleValue() < 0) {
+                throw new IllegalArgumentException("The weight of " + weight.getKey() + " can not be negative.");
+            }
+            totalWeight += weight.getValue().doubleValue();
+            cumulativeWeights[values.size()] = totalWeight;
+            values.add(weight.getKey());
+        }
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("The distribution should have at least a value with a positive weight.");
+        }
+        double sum = totalWeight;
+        return random -> {
+            double point = random.nextDouble(sum);
+            for (int index = 0; index < cumulativeWeights.length - 1; index++) {
+                if (point < cumulativeWeights[index]) {
+                    return values.get(index);
+                }
+            }
+            return values.get(cumulativeWeights.length - 1);
+        };
+    }
+
+}
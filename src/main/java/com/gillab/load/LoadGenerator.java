@@ -0,0 +1,142 @@
+package com.gillab.load;
+
+import com.gillab.exception.ApplicationException;
+import com.gillab.metrics.LatencyHistogram;
+import com.gillab.model.CheckoutRequest;
+import com.gillab.service.CheckoutService;
+import lombok.NonNull;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Synthetic load for the {@link CheckoutService}, to reproduce a production-like load locally. The requests are built
+ * from a {@link LoadProfile} and sent as described by the {@link LoadOptions}, and the outcome is a {@link LoadReport}.
+ * The checkouts are priced only: no unit is reserved in the inventory.
+ */
+public class LoadGenerator {
+
+    /** How long the requests in flight are waited for, once the run is over. */
+    private static final long DRAIN_TIMEOUT_SECONDS = 60;
+
+    private final CheckoutService checkoutService;
+    private final LoadProfile profile;
+
+    public LoadGenerator(@NonNull final CheckoutService checkoutService, @NonNull final LoadProfile profile) {
+        this.checkoutService = checkoutService;
+        this.profile = profile;
+    }
+
+    /**
+     * Send the requests, and wait for the last of them to complete.
+     * @param options how the requests are sent.
+     * @return the {@link LoadReport}
+     */
+    public LoadReport run(@NonNull final LoadOptions options) {
+        Run run = new Run();
+        long startNanos = System.nanoTime();
+        ExecutorService executor = newExecutor(options);
+        try {
+            if (options.getMode() == LoadModeEnum.OPEN_LOOP) {
+                sendAtFixedRate(run, executor, startNanos, options);
+            } else {
+                long endNanos = startNanos + options.getDuration().toNanos();
+                for (int worker = 0; worker < options.getConcurrency(); worker++) {
+                    executor.execute(() -> sendUntil(run, endNanos));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        try {
+            if (!executor.awaitTermination(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException exception) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        LatencyHistogram responseTime = options.getMode() == LoadModeEnum.OPEN_LOOP
+                ? run.responseTime
+                : run.serviceTime.copyCorrectedForCoordinatedOmission(run.serviceTime.getValueAtPercentile(50));
+        return new LoadReport(options, elapsedNanos, run.succeeded.sum(), run.rejected.sum(), run.failed.sum(), run.serviceTime, responseTime);
+    }
+
+    /**
+     * Schedule a request every interval from this thread, each one sent from the executor. The response time of a
+     * request is measured from the moment it was scheduled for, so the time it waited for a thread, or for this thread
+     * to catch up, is counted.
+     */
+    private void sendAtFixedRate(final Run run, final ExecutorService executor, final long startNanos, final LoadOptions options) {
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.getRequestsPerSecond();
+        long durationNanos = options.getDuration().toNanos();
+        for (long request = 0; ; request++) {
+            long intendedOffsetNanos = (long) (request * intervalNanos);
+            if (intendedOffsetNanos >= durationNanos) {
+                return;
+            }
+            long intendedStartNanos = startNanos + intendedOffsetNanos;
+            long waitNanos;
+            while ((waitNanos = intendedStartNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+            executor.execute(() -> {
+                CheckoutRequest checkoutRequest = profile.nextRequest(ThreadLocalRandom.current());
+                long sendNanos = System.nanoTime();
+                send(run, checkoutRequest);
+                long endNanos = System.nanoTime();
+                run.serviceTime.record(endNanos - sendNanos);
+                run.responseTime.record(endNanos - intendedStartNanos);
+            });
+        }
+    }
+
+    /**
+     * Send the requests one after the other from a worker of a closed loop.
+     */
+    private void sendUntil(final Run run, final long endNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long sendNanos;
+        while ((sendNanos = System.nanoTime()) - endNanos < 0) {
+            send(run, profile.nextRequest(random));
+            run.serviceTime.recordSince(sendNanos);
+        }
+    }
+
+    private void send(final Run run, final CheckoutRequest request) {
+        try {
+            checkoutService.checkout(request.getToolCode(), request.getRentalDays(), request.getDiscountPercentage(),
+                    request.getCheckoutDate(), request.getCorrelationId());
+            run.succeeded.increment();
+        } catch (ApplicationException exception) {
+            run.rejected.increment();
+        } catch (RuntimeException exception) {
+            run.failed.increment();
+        }
+    }
+
+    private static ExecutorService newExecutor(final LoadOptions options) {
+        if (options.getThreadKind() == ThreadKindEnum.VIRTUAL) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("load-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(options.getConcurrency(), Thread.ofPlatform().name("load-", 0).daemon().factory());
+    }
+
+    /**
+     * The counters and histograms of a run, shared by all its threads.
+     */
+    private static final class Run {
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LatencyHistogram serviceTime = new LatencyHistogram();
+        private final LatencyHistogram responseTime = new LatencyHistogram();
+    }
+
+}
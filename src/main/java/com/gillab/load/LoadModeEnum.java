@@ -0,0 +1,11 @@
+package com.gillab.load;
+
+/**
+ * How the {@link LoadGenerator} sends the requests.
+ */
+public enum LoadModeEnum {
+    /** The requests are sent at a fixed rate, whatever the latency of the previous ones, like independent customers. */
+    OPEN_LOOP,
+    /** A fixed number of workers send the requests, each one waiting for its response before sending the next. */
+    CLOSED_LOOP
+}
@@ -0,0 +1,63 @@
+package com.gillab.load;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+import java.time.Duration;
+
+/**
+ * How the {@link LoadGenerator} sends the requests: the {@link LoadModeEnum}, the {@link ThreadKindEnum}, and how long.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE) @Getter @ToString
+public class LoadOptions {
+
+    private final LoadModeEnum mode;
+    private final ThreadKindEnum threadKind;
+    /** The workers of a closed loop, or the platform threads that serve the requests of an open loop. */
+    private final int concurrency;
+    /** The arrival rate of an open loop. */
+    private final double requestsPerSecond;
+    private final Duration duration;
+
+    /**
+     * Send the requests at a fixed rate. With virtual threads, every request is sent from a new thread, so the number
+     * of requests in flight is not limited; with platform threads, the requests wait for one of the given threads.
+     * @param requestsPerSecond the arrival rate.
+     * @param duration how long the requests are sent.
+     * @param threadKind the threads the requests are sent from.
+     * @param platformThreads the platform threads that serve the requests; ignored with virtual threads.
+     * @return the {@link LoadOptions}
+     */
+    public static LoadOptions openLoop(final double requestsPerSecond, @NonNull final Duration duration, @NonNull final ThreadKindEnum threadKind, final int platformThreads) {
+        if (!(requestsPerSecond > 0)) {
+            throw new IllegalArgumentException("The arrival rate should be greater than 0.");
+        }
+        validate(platformThreads, duration);
+        return new LoadOptions(LoadModeEnum.OPEN_LOOP, threadKind, platformThreads, requestsPerSecond, duration);
+    }
+
+    /**
+     * Send the requests from a fixed number of workers, each one waiting for its response before sending the next.
+     * @param concurrency the number of workers.
+     * @param duration how long the requests are sent.
+     * @param threadKind the threads of the workers.
+     * @return the {@link LoadOptions}
+     */
+    public static LoadOptions closedLoop(final int concurrency, @NonNull final Duration duration, @NonNull final ThreadKindEnum threadKind) {
+        validate(concurrency, duration);
+        return new LoadOptions(LoadModeEnum.CLOSED_LOOP, threadKind, concurrency, 0, duration);
+    }
+
+    private static void validate(final int concurrency, final Duration duration) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("There should be at least 1 thread.");
+        }
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("The duration should be greater than 0.");
+        }
+    }
+
+}
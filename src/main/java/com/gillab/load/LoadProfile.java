@@ -0,0 +1,102 @@
+package com.gillab.load;
+
+import com.gillab.model.CheckoutRequest;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.random.RandomGenerator;
+
+import static com.gillab.util.Constants.MAX_DISCOUNT_PERCENTAGE;
+import static com.gillab.util.Constants.MAX_RENTAL_DAYS;
+import static com.gillab.util.Constants.MIN_RENTAL_DAYS;
+
+/**
+ * The mix of checkout requests sent by the {@link LoadGenerator}: a {@link Distribution} for every field of the
+ * request, and the rate of requests with an invalid input, which are rejected by the checkout. An invalid request has
+ * one invalid field: an unknown tool code, rental days out of range, or a discount out of range.
+ */
+@Getter @ToString
+public class LoadProfile {
+
+    /** A tool code that is not in the inventory. */
+    public static final String UNKNOWN_TOOL_CODE = "NONE";
+
+    private final Distribution<String> toolCodes;
+    private final Distribution<Integer> rentalDays;
+    private final Distribution<Integer> discountPercentages;
+    private final Distribution<LocalDate> checkoutDates;
+    private final double invalidRate;
+
+    /**
+     * @param invalidRate the fraction of the requests with an invalid input, between 0 and 1.
+     */
+    public LoadProfile(
+            @NonNull final Distribution<String> toolCodes,
+            @NonNull final Distribution<Integer> rentalDays,
+            @NonNull final Distribution<Integer> discountPercentages,
+            @NonNull final Distribution<LocalDate> checkoutDates,
+            final double invalidRate
+    ) {
+        if (!(invalidRate >= 0 && invalidRate <= 1)) {
+            throw new IllegalArgumentException("The rate of invalid requests should be between 0 and 1.");
+        }
+        this.toolCodes = toolCodes;
+        this.rentalDays = rentalDays;
+        this.discountPercentages = discountPercentages;
+        this.checkoutDates = checkoutDates;
+        this.invalidRate = invalidRate;
+    }
+
+    /**
+     * A mix close to the one seen in the stores: ladders and chainsaws are rented the most, most rentals last about a
+     * week, most checkouts have no discount, and the checkouts are spread over a few years.
+     * @param invalidRate the fraction of the requests with an invalid input, between 0 and 1.
+     * @return the {@link LoadProfile}
+     */
+    public static LoadProfile defaultProfile(final double invalidRate) {
+        Map<String, Integer> toolCodes = new LinkedHashMap<>();
+        toolCodes.put("LADW", 40);
+        toolCodes.put("CHNS", 30);
+        toolCodes.put("JAKD", 20);
+        toolCodes.put("JAKR", 10);
+        Map<Integer, Integer> discounts = new LinkedHashMap<>();
+        discounts.put(0, 70);
+        discounts.put(10, 20);
+        discounts.put(25, 8);
+        discounts.put(50, 2);
+        return new LoadProfile(
+                Distribution.weighted(toolCodes),
+                Distribution.exponential(MIN_RENTAL_DAYS, MAX_RENTAL_DAYS, 7),
+                Distribution.weighted(discounts),
+                Distribution.uniformDates(LocalDate.of(2024, Month.JANUARY, 1), LocalDate.of(2026, Month.DECEMBER, 31)),
+                invalidRate
+        );
+    }
+
+    /**
+     * Build the next request of the mix, with a correlation ID drawn from the same random generator, which is much
+     * cheaper than {@link UUID#randomUUID()}.
+     * @param random the random generator of the calling thread.
+     * @return the {@link CheckoutRequest}
+     */
+    public CheckoutRequest nextRequest(@NonNull final RandomGenerator random) {
+        String toolCode = toolCodes.sample(random);
+        int days = rentalDays.sample(random);
+        int discountPercentage = discountPercentages.sample(random);
+        if (invalidRate > 0 && random.nextDouble() < invalidRate) {
+            switch (random.nextInt(3)) {
+                case 0 -> toolCode = UNKNOWN_TOOL_CODE;
+                case 1 -> days = random.nextBoolean() ? MIN_RENTAL_DAYS - 1 : MAX_RENTAL_DAYS + 1;
+                default -> discountPercentage = MAX_DISCOUNT_PERCENTAGE + 1;
+            }
+        }
+        return new CheckoutRequest(toolCode, days, discountPercentage, checkoutDates.sample(random), new UUID(random.nextLong(), random.nextLong()));
+    }
+
+}
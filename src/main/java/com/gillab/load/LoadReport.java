@@ -0,0 +1,82 @@
+package com.gillab.load;
+
+import com.gillab.metrics.LatencyHistogram;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outcome of a run of the {@link LoadGenerator}: the requests sent, the throughput, and two latency histograms.
+ * The service time is measured from the moment a request is actually sent. The response time is corrected for the
+ * coordinated omission: a load generator that falls behind sends its requests late, and the service time hides the
+ * time they waited. In an open loop the response time is measured from the moment the request should have been sent;
+ * in a closed loop the requests a stalled worker did not send are added with
+ * {@link LatencyHistogram#copyCorrectedForCoordinatedOmission}, with the median service time as the expected interval.
+ */
+@AllArgsConstructor @Getter
+public class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99, 100};
+
+    private final LoadOptions options;
+    private final long elapsedNanos;
+    private final long succeeded;
+    /** The requests rejected with a business error, e.g. the invalid requests of the {@link LoadProfile}. */
+    private final long rejected;
+    /** The requests that failed with an unexpected exception. */
+    private final long failed;
+    private final LatencyHistogram serviceTime;
+    private final LatencyHistogram responseTime;
+
+    /**
+     * @return the number of requests sent and completed.
+     */
+    public long getCompleted() {
+        return succeeded + rejected + failed;
+    }
+
+    /**
+     * @return the completed requests per second.
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : getCompleted() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * Write the report as text: the options, the counts and the throughput, and a table with the latency percentiles
+     * in microseconds.
+     * @param out where the report is written.
+     */
+    public void writeTo(@NonNull final Appendable out) {
+        try {
+            boolean openLoop = options.getMode() == LoadModeEnum.OPEN_LOOP;
+            out.append(String.format(Locale.ROOT, "Mode: %s, %s threads, concurrency %s%s%n", options.getMode(), options.getThreadKind(),
+                    openLoop && options.getThreadKind() == ThreadKindEnum.VIRTUAL ? "unbounded" : String.valueOf(options.getConcurrency()),
+                    openLoop ? String.format(Locale.ROOT, ", %.1f requests/s", options.getRequestsPerSecond()) : ""));
+            out.append(String.format(Locale.ROOT, "Elapsed: %.3f s%n", elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1)));
+            out.append(String.format(Locale.ROOT, "Requests: %d (succeeded: %d, rejected: %d, failed: %d)%n", getCompleted(), succeeded, rejected, failed));
+            out.append(String.format(Locale.ROOT, "Throughput: %.1f requests/s%n", getThroughput()));
+            out.append(String.format(Locale.ROOT, "%-12s%20s%20s%n", "Percentile", "Service time (us)", "Response time (us)"));
+            for (double percentile : PERCENTILES) {
+                out.append(String.format(Locale.ROOT, "%-12s%20.1f%20.1f%n", percentile == 100 ? "max" : String.valueOf(percentile),
+                        serviceTime.getValueAtPercentile(percentile, TimeUnit.MICROSECONDS),
+                        responseTime.getValueAtPercentile(percentile, TimeUnit.MICROSECONDS)));
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("The load report could not be written.", exception);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        writeTo(out);
+        return out.toString();
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.gillab.load;
+
+/**
+ * The threads the {@link LoadGenerator} sends the requests from.
+ */
+public enum ThreadKindEnum {
+    PLATFORM,
+    VIRTUAL
+}
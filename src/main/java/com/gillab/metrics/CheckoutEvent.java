@@ -0,0 +1,28 @@
+package com.gillab.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A successful checkout, from the validation of the request to its rental agreement.
+ */
+@Name(CheckoutEvent.NAME)
+@Label("Checkout")
+@Description("A successful checkout of a tool")
+public class CheckoutEvent extends RentalEvent {
+
+    public static final String NAME = "com.gillab.Checkout";
+
+    @Label("Discount Percentage")
+    private int discountPercentage;
+
+    @Label("Final Charge Cents")
+    private long finalChargeCents;
+
+    public void setCharge(final int discountPercentage, final long finalChargeCents) {
+        this.discountPercentage = discountPercentage;
+        this.finalChargeCents = finalChargeCents;
+    }
+
+}
@@ -0,0 +1,215 @@
+package com.gillab.metrics;
+
+import com.gillab.exception.ApplicationErrors.ErrorCodesEnum;
+import com.gillab.model.ToolTypeEnum;
+import lombok.NonNull;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.isNull;
+
+/**
+ * The latencies and counters of the checkout: a {@link LatencyHistogram} for the checkout, the tool lookup and the
+ * calculation of the chargeable days, and striped counters ({@link LongAdder}) of the checkouts by tool type and of
+ * the business errors by error code. The error counters are kept in an array indexed by the ordinal of the error code,
+ * and the checkout counters in a concurrent map by tool type name, since tool types can be registered at runtime; the
+ * built-in tool types are counted from the start. So recording is a lookup without lock and an increment of a cell
+ * that is rarely shared between threads.
+ * The metrics are exposed through JMX, once {@link #registerMBean()} is called, and in the OpenMetrics text format.
+ */
+public class CheckoutMetrics implements CheckoutMetricsMXBean {
+
+    public static final String OBJECT_NAME = "com.gillab:type=CheckoutMetrics";
+
+    private static final String METRIC_PREFIX = "tool_rental_";
+    private static final double[] PERCENTILES = {50, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p99", "p999"};
+    private static final String[] QUANTILES = {"0.5", "0.99", "0.999"};
+
+    private static final CheckoutMetrics INSTANCE = new CheckoutMetrics();
+
+    private final LatencyHistogram checkoutHistogram = new LatencyHistogram();
+    private final LatencyHistogram toolLookupHistogram = new LatencyHistogram();
+    private final LatencyHistogram chargeableDaysHistogram = new LatencyHistogram();
+    private final ConcurrentMap<String, LongAdder> checkoutsByToolType = new ConcurrentHashMap<>();
+    private final LongAdder[] errorsByCode = newCounters(ErrorCodesEnum.values().length);
+
+    CheckoutMetrics() {
+        for (ToolTypeEnum toolType : ToolTypeEnum.values()) {
+            checkoutsByToolType.put(toolType.name(), new LongAdder());
+        }
+    }
+
+    public static CheckoutMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    public LatencyHistogram getCheckoutHistogram() {
+        return checkoutHistogram;
+    }
+
+    public LatencyHistogram getToolLookupHistogram() {
+        return toolLookupHistogram;
+    }
+
+    public LatencyHistogram getChargeableDaysHistogram() {
+        return chargeableDaysHistogram;
+    }
+
+    /**
+     * Count a successful checkout.
+     * @param toolType the name of the tool type, as in {@link com.gillab.model.Tool#getType()}.
+     */
+    public void recordCheckout(@NonNull final String toolType) {
+        LongAdder counter = checkoutsByToolType.get(toolType);
+        if (isNull(counter)) {
+            counter = checkoutsByToolType.computeIfAbsent(toolType, name -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /**
+     * Count a business error.
+     * @param errorCode {@link ErrorCodesEnum}
+     */
+    public void recordError(@NonNull final ErrorCodesEnum errorCode) {
+        errorsByCode[errorCode.ordinal()].increment();
+    }
+
+    /**
+     * Register the metrics in the platform MBean server, under {@value #OBJECT_NAME}. Registering them again does nothing.
+     */
+    public synchronized void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException ignored) {
+            // Already registered, there is a single instance of the metrics.
+        } catch (JMException exception) {
+            throw new IllegalStateException("The checkout metrics could not be registered in JMX.", exception);
+        }
+    }
+
+    @Override
+    public Map<String, Long> getCheckoutLatency() {
+        return toStatistics(checkoutHistogram);
+    }
+
+    @Override
+    public Map<String, Long> getToolLookupLatency() {
+        return toStatistics(toolLookupHistogram);
+    }
+
+    @Override
+    public Map<String, Long> getChargeableDaysLatency() {
+        return toStatistics(chargeableDaysHistogram);
+    }
+
+    @Override
+    public Map<String, Long> getCheckoutsByToolType() {
+        Map<String, Long> checkouts = new TreeMap<>();
+        checkoutsByToolType.forEach((toolType, counter) -> checkouts.put(toolType, counter.sum()));
+        return checkouts;
+    }
+
+    @Override
+    public Map<String, Long> getErrorsByCode() {
+        Map<String, Long> errors = new LinkedHashMap<>();
+        for (ErrorCodesEnum errorCode : ErrorCodesEnum.values()) {
+            errors.put(errorCode.getDisplayName(), errorsByCode[errorCode.ordinal()].sum());
+        }
+        return errors;
+    }
+
+    @Override
+    public String getOpenMetrics() {
+        StringBuilder out = new StringBuilder();
+        writeOpenMetrics(out);
+        return out.toString();
+    }
+
+    /**
+     * Write every metric in the OpenMetrics text format: the latencies as summaries in seconds, and the counters with
+     * the tool type or error code as label.
+     * @param out where the metrics are written.
+     */
+    public void writeOpenMetrics(@NonNull final Appendable out) {
+        try {
+            writeSummary(out, "checkout_latency_seconds", "Latency of the checkouts.", checkoutHistogram);
+            writeSummary(out, "tool_lookup_latency_seconds", "Latency of the tool lookups.", toolLookupHistogram);
+            writeSummary(out, "chargeable_days_latency_seconds", "Latency of the calculation of the chargeable days.", chargeableDaysHistogram);
+
+            writeHeader(out, "checkouts", "counter", "Successful checkouts, by tool type.");
+            for (Map.Entry<String, Long> checkouts : getCheckoutsByToolType().entrySet()) {
+                out.append(METRIC_PREFIX).append("checkouts_total{tool_type=\"").append(checkouts.getKey()).append("\"} ")
+                        .append(String.valueOf(checkouts.getValue())).append('\n');
+            }
+            writeHeader(out, "errors", "counter", "Business errors, by error code.");
+            for (ErrorCodesEnum errorCode : ErrorCodesEnum.values()) {
+                out.append(METRIC_PREFIX).append("errors_total{code=\"").append(errorCode.getDisplayName())
+                        .append("\",name=\"").append(errorCode.name()).append("\"} ")
+                        .append(String.valueOf(errorsByCode[errorCode.ordinal()].sum())).append('\n');
+            }
+            out.append("# EOF\n");
+        } catch (IOException exception) {
+            throw new UncheckedIOException("The metrics could not be written.", exception);
+        }
+    }
+
+    @Override
+    public void reset() {
+        checkoutHistogram.reset();
+        toolLookupHistogram.reset();
+        chargeableDaysHistogram.reset();
+        checkoutsByToolType.values().forEach(LongAdder::reset);
+        for (LongAdder counter : errorsByCode) {
+            counter.reset();
+        }
+    }
+
+    private static void writeSummary(final Appendable out, final String name, final String help, final LatencyHistogram histogram) throws IOException {
+        writeHeader(out, name, "summary", help);
+        out.append("# UNIT ").append(METRIC_PREFIX).append(name).append(" seconds\n");
+        for (int index = 0; index < PERCENTILES.length; index++) {
+            out.append(METRIC_PREFIX).append(name).append("{quantile=\"").append(QUANTILES[index]).append("\"} ")
+                    .append(String.valueOf(histogram.getValueAtPercentile(PERCENTILES[index], TimeUnit.SECONDS))).append('\n');
+        }
+        out.append(METRIC_PREFIX).append(name).append("_sum ")
+                .append(String.valueOf((double) histogram.getTotalNanos() / TimeUnit.SECONDS.toNanos(1))).append('\n');
+        out.append(METRIC_PREFIX).append(name).append("_count ").append(String.valueOf(histogram.getCount())).append('\n');
+    }
+
+    private static void writeHeader(final Appendable out, final String name, final String type, final String help) throws IOException {
+        out.append("# TYPE ").append(METRIC_PREFIX).append(name).append(' ').append(type).append('\n');
+        out.append("# HELP ").append(METRIC_PREFIX).append(name).append(' ').append(help).append('\n');
+    }
+
+    private static Map<String, Long> toStatistics(final LatencyHistogram histogram) {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("count", histogram.getCount());
+        for (int index = 0; index < PERCENTILES.length; index++) {
+            statistics.put(PERCENTILE_NAMES[index], histogram.getValueAtPercentile(PERCENTILES[index]));
+        }
+        return statistics;
+    }
+
+    private static LongAdder[] newCounters(final int count) {
+        LongAdder[] counters = new LongAdder[count];
+        for (int index = 0; index < count; index++) {
+            counters[index] = new LongAdder();
+        }
+        return counters;
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.gillab.metrics;
+
+import java.util.Map;
+
+/**
+ * The checkout metrics, as exposed through JMX under {@value CheckoutMetrics#OBJECT_NAME}.
+ * The latencies are in nanoseconds, by statistic: count, p50, p99 and p999.
+ */
+public interface CheckoutMetricsMXBean {
+
+    Map<String, Long> getCheckoutLatency();
+
+    Map<String, Long> getToolLookupLatency();
+
+    Map<String, Long> getChargeableDaysLatency();
+
+    /**
+     * @return the number of successful checkouts, by tool type.
+     */
+    Map<String, Long> getCheckoutsByToolType();
+
+    /**
+     * @return the number of business errors, by error code.
+     */
+    Map<String, Long> getErrorsByCode();
+
+    /**
+     * @return every metric, in the OpenMetrics text format.
+     */
+    String getOpenMetrics();
+
+    /**
+     * Discard every recorded value.
+     */
+    void reset();
+
+}
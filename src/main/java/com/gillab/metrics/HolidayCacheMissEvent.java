@@ -0,0 +1,31 @@
+package com.gillab.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A pricing whose dates were not covered by the chargeable day calendar, which had to be grown with the holidays of
+ * the new years. The duration of the event is the time spent counting the chargeable days, growth included.
+ */
+@Name(HolidayCacheMissEvent.NAME)
+@Label("Holiday Cache Miss")
+@Description("A pricing that had to grow the chargeable day calendar")
+public class HolidayCacheMissEvent extends RentalEvent {
+
+    public static final String NAME = "com.gillab.HolidayCacheMiss";
+
+    @Label("First Year")
+    @Description("The first year covered by the calendar, after growing")
+    private int firstYear;
+
+    @Label("Last Year")
+    @Description("The last year covered by the calendar, after growing")
+    private int lastYear;
+
+    public void setYears(final int firstYear, final int lastYear) {
+        this.firstYear = firstYear;
+        this.lastYear = lastYear;
+    }
+
+}
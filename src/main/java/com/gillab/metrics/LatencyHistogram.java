@@ -0,0 +1,177 @@
+package com.gillab.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds, with the log-linear buckets of an HdrHistogram: the values below
+ * {@value #SUB_BUCKETS} have a bucket each, and every power of 2 above is split in {@value #SUB_BUCKETS} buckets, so
+ * any value is kept with a relative error below 1%, in a fixed number of buckets.
+ * Recording a value is a few shifts to find its bucket and an atomic increment, so it can be done on every call of
+ * the hot path. The percentiles are read from a copy of the counts, while other threads keep recording.
+ * Values above {@link #getHighestTrackableValue()} (about 18 minutes) are recorded in the last bucket.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** The highest value is 2^40 - 1 nanoseconds, about 18 minutes. */
+    private static final int HIGHEST_VALUE_BITS = 40;
+    private static final int BUCKET_COUNT = (HIGHEST_VALUE_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalNanos = new LongAdder();
+
+    /**
+     * Record the time elapsed since the given start.
+     * @param startNanos the start of the call, read with {@link System#nanoTime()}.
+     */
+    public void recordSince(final long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @param nanos the latency to record; negative values are recorded as 0.
+     */
+    public void record(final long nanos) {
+        long value = Math.max(nanos, 0);
+        counts.incrementAndGet(indexOf(value));
+        totalNanos.add(value);
+    }
+
+    /**
+     * Record a latency measured by a caller that waits for every response before sending the next request, correcting
+     * the coordinated omission the way HdrHistogram does: when the latency is longer than the expected interval between
+     * requests, the requests that would have been sent, and delayed, in the meantime are recorded too, with the
+     * latencies they would have seen (the latency minus 1, 2, ... intervals).
+     * @param nanos the latency to record.
+     * @param expectedIntervalNanos the expected interval between requests; 0 or less records the latency alone.
+     */
+    public void record(final long nanos, final long expectedIntervalNanos) {
+        recordCount(Math.max(nanos, 0), 1, expectedIntervalNanos);
+    }
+
+    /**
+     * Copy the histogram, correcting every recorded value as {@link #record(long, long)} does.
+     * @param expectedIntervalNanos the expected interval between requests, e.g. the median latency of a closed loop.
+     * @return a new histogram, with the recorded values and those that were omitted.
+     */
+    public LatencyHistogram copyCorrectedForCoordinatedOmission(final long expectedIntervalNanos) {
+        LatencyHistogram corrected = new LatencyHistogram();
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            long count = counts.get(index);
+            if (count > 0) {
+                corrected.recordCount(highestValueOf(index), count, expectedIntervalNanos);
+            }
+        }
+        return corrected;
+    }
+
+    /**
+     * @return the number of recorded values.
+     */
+    public long getCount() {
+        long count = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            count += counts.get(index);
+        }
+        return count;
+    }
+
+    /**
+     * @return the sum of the recorded values, in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Find the value below which the given percentage of the recorded values fall.
+     * @param percentile the percentage, e.g. 99.9.
+     * @return the highest value of the bucket of the percentile, in nanoseconds, or 0 when nothing was recorded.
+     */
+    public long getValueAtPercentile(final double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("The percentile should be between 0 and 100.");
+        }
+        long[] snapshot = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            snapshot[index] = counts.get(index);
+            count += snapshot[index];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            seen += snapshot[index];
+            if (seen >= rank) {
+                return highestValueOf(index);
+            }
+        }
+        return highestValueOf(BUCKET_COUNT - 1);
+    }
+
+    /**
+     * @return the percentile in the given unit, e.g. to report it in seconds.
+     */
+    public double getValueAtPercentile(final double percentile, final TimeUnit unit) {
+        return (double) getValueAtPercentile(percentile) / unit.toNanos(1);
+    }
+
+    /**
+     * Discard the recorded values. Values recorded at the same time may be kept.
+     */
+    public void reset() {
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            counts.set(index, 0);
+        }
+        totalNanos.reset();
+    }
+
+    private void recordCount(final long value, final long count, final long expectedIntervalNanos) {
+        counts.addAndGet(indexOf(value), count);
+        totalNanos.add(value * count);
+        if (expectedIntervalNanos > 0) {
+            for (long missing = value - expectedIntervalNanos; missing >= expectedIntervalNanos; missing -= expectedIntervalNanos) {
+                counts.addAndGet(indexOf(missing), count);
+                totalNanos.add(missing * count);
+            }
+        }
+    }
+
+    public static long getHighestTrackableValue() {
+        return (1L << HIGHEST_VALUE_BITS) - 1;
+    }
+
+    /**
+     * The values below {@value #SUB_BUCKETS} are their own index. Above, the position of the highest bit gives the
+     * power of 2 (the bucket), and the next {@value #SUB_BUCKET_BITS} bits give the sub bucket.
+     */
+    static int indexOf(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        if (value > getHighestTrackableValue()) {
+            return BUCKET_COUNT - 1;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * @return the highest value recorded in the bucket with the given index.
+     */
+    static long highestValueOf(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long lowestValue = (long) ((index & (SUB_BUCKETS - 1)) + SUB_BUCKETS) << shift;
+        return lowestValue + (1L << shift) - 1;
+    }
+
+}
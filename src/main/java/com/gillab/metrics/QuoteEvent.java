@@ -0,0 +1,28 @@
+package com.gillab.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The pricing of a checkout, either read from the quote cache or computed.
+ */
+@Name(QuoteEvent.NAME)
+@Label("Quote")
+@Description("The pricing of a checkout")
+public class QuoteEvent extends RentalEvent {
+
+    public static final String NAME = "com.gillab.Quote";
+
+    @Label("Cached")
+    @Description("Whether the quote was read from the quote cache")
+    private boolean cached = true;
+
+    /**
+     * Mark the quote as computed, rather than read from the cache.
+     */
+    public void setComputed() {
+        this.cached = false;
+    }
+
+}
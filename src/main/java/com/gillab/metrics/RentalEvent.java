@@ -0,0 +1,46 @@
+package com.gillab.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+import java.util.UUID;
+
+/**
+ * The fields shared by the flight recorder events of a rental request: what was asked, and the days it was charged.
+ * The events follow the usual pattern of the flight recorder: they are created and begun on every call, but their
+ * fields are only set, and the events committed, when {@link #shouldCommit()} is true. With no recording of the event
+ * running, begin, end and shouldCommit do nothing, so the JIT removes the event altogether.
+ */
+@Category({"Tool Rental"})
+@StackTrace(false)
+abstract class RentalEvent extends jdk.jfr.Event {
+
+    // The flight recorder skips the private fields of the superclasses of an event, so these are protected.
+
+    @Label("Correlation Id")
+    protected String correlationId;
+
+    @Label("Tool Code")
+    protected String toolCode;
+
+    @Label("Rental Days")
+    protected int rentalDays;
+
+    @Label("Charge Days")
+    protected int chargeDays;
+
+    /**
+     * @param correlationId ID to track the request.
+     * @param toolCode the tool code of the request.
+     * @param rentalDays the rental days of the request.
+     * @param chargeDays the days charged, or 0 when the request was not priced.
+     */
+    public void setRental(final UUID correlationId, final String toolCode, final int rentalDays, final int chargeDays) {
+        this.correlationId = String.valueOf(correlationId);
+        this.toolCode = toolCode;
+        this.rentalDays = rentalDays;
+        this.chargeDays = chargeDays;
+    }
+
+}
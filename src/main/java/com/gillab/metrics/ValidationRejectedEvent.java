@@ -0,0 +1,24 @@
+package com.gillab.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A checkout rejected with a business error, e.g. an invalid tool code or discount.
+ */
+@Name(ValidationRejectedEvent.NAME)
+@Label("Validation Rejected")
+@Description("A checkout rejected with a business error")
+public class ValidationRejectedEvent extends RentalEvent {
+
+    public static final String NAME = "com.gillab.ValidationRejected";
+
+    @Label("Error Code")
+    private String errorCode;
+
+    public void setErrorCode(final String errorCode) {
+        this.errorCode = errorCode;
+    }
+
+}
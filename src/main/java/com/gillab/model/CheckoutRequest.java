@@ -0,0 +1,21 @@
+package com.gillab.model;
+
+import lombok.Data;
+import lombok.NonNull;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+public class CheckoutRequest {
+
+    @NonNull
+    private final String toolCode;
+    private final int rentalDays;
+    private final int discountPercentage;
+    @NonNull
+    private final LocalDate checkoutDate;
+    @NonNull
+    private final UUID correlationId;
+
+}
@@ -0,0 +1,35 @@
+package com.gillab.model;
+
+import com.gillab.exception.ApplicationException;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Outcome of one item of a checkout batch: either the {@link RentalAgreement} or the {@link ApplicationException}
+ * that rejected the request.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE) @Getter @ToString
+public class CheckoutResult {
+
+    private final CheckoutRequest request;
+    private final RentalAgreement rentalAgreement;
+    private final ApplicationException exception;
+
+    public static CheckoutResult success(@NonNull final CheckoutRequest request, @NonNull final RentalAgreement rentalAgreement) {
+        return new CheckoutResult(request, rentalAgreement, null);
+    }
+
+    public static CheckoutResult failure(@NonNull final CheckoutRequest request, @NonNull final ApplicationException exception) {
+        return new CheckoutResult(request, null, exception);
+    }
+
+    public boolean isSuccess() {
+        return nonNull(rentalAgreement);
+    }
+
+}
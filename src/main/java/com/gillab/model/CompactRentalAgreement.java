@@ -0,0 +1,142 @@
+package com.gillab.model;
+
+import com.gillab.util.Money;
+import lombok.NonNull;
+
+import java.time.LocalDate;
+
+import static com.gillab.util.Money.toDouble;
+
+/**
+ * An immutable {@link RentalAgreement} for large working sets, e.g. the agreements of years of rentals kept in memory.
+ * The tool and the pricing policy of its tool type are referenced instead of copied: they are the flyweights shared by
+ * every agreement of the stock and of the {@link com.gillab.service.ToolTypePolicyRegistry}, and the policy is
+ * immutable, so its daily charge is the one of the checkout. The checkout date is an epoch day, and the amounts that
+ * follow from the others are computed by their getters, the way the checkout computes them:
+ * - The due date is the checkout date plus the rental days.
+ * - The pre-discount charge is the daily charge times the charge days.
+ * - The final charge is the pre-discount charge minus the discount amount.
+ * So an agreement takes 48 bytes of the heap with compressed references and class pointers, the default of a heap
+ * under 32 GB, against 128 for a {@link RentalAgreement} and its two {@link LocalDate}s, and has the same getters.
+ * @param tool the tool rented.
+ * @param policy the pricing policy of the tool type at the checkout.
+ * @param checkoutEpochDay the checkout date, as an epoch day.
+ * @param rentalDays the number of days of the rental.
+ * @param chargeDays the number of days charged.
+ * @param discountPercent the discount, as a whole number, e.g. 20 = 20%.
+ * @param discountAmountCents the discount amount rounded to cents, in cents.
+ */
+public record CompactRentalAgreement(
+        @NonNull Tool tool,
+        @NonNull ToolTypePolicy policy,
+        int checkoutEpochDay,
+        int rentalDays,
+        int chargeDays,
+        int discountPercent,
+        long discountAmountCents
+) {
+
+    /**
+     * Compact an agreement created by the checkout.
+     * @param agreement the agreement to compact.
+     * @param tool the tool of the stock with the tool code of the agreement.
+     * @param policy the pricing policy used by the checkout of the agreement.
+     * @return the {@link CompactRentalAgreement}
+     * @throws IllegalArgumentException when the agreement does not match the tool or the policy, or one of its amounts
+     * does not follow from the others.
+     */
+    public static CompactRentalAgreement of(
+            @NonNull final RentalAgreement agreement,
+            @NonNull final Tool tool,
+            @NonNull final ToolTypePolicy policy
+    ) {
+        CompactRentalAgreement compact = new CompactRentalAgreement(tool, policy,
+                Math.toIntExact(agreement.getCheckoutDate().toEpochDay()), agreement.getRentalDays(),
+                agreement.getChargeDays(), agreement.getDiscountPercent(), agreement.getDiscountAmountCents());
+        if (!compact.getToolCode().equals(agreement.getToolCode())
+                || !compact.getToolType().equals(agreement.getToolType())
+                || !compact.getToolBrand().equals(agreement.getToolBrand())
+                || compact.getDailyRentalChargeCents() != agreement.getDailyRentalChargeCents()
+                || !compact.getDueDate().equals(agreement.getDueDate())
+                || compact.getPreDiscountChargeCents() != agreement.getPreDiscountChargeCents()
+                || compact.getFinalChargeCents() != agreement.getFinalChargeCents()) {
+            throw new IllegalArgumentException("The agreement of the tool " + agreement.getToolCode()
+                    + " does not match its tool and pricing policy, or its amounts do not follow from each other.");
+        }
+        return compact;
+    }
+
+    public String getToolCode() {
+        return tool.getCode();
+    }
+
+    public String getToolType() {
+        return policy.getDisplayName();
+    }
+
+    public String getToolBrand() {
+        return tool.getBrand();
+    }
+
+    public int getRentalDays() {
+        return rentalDays;
+    }
+
+    public LocalDate getCheckoutDate() {
+        return LocalDate.ofEpochDay(checkoutEpochDay);
+    }
+
+    public LocalDate getDueDate() {
+        return LocalDate.ofEpochDay((long) checkoutEpochDay + rentalDays);
+    }
+
+    public long getDailyRentalChargeCents() {
+        return policy.getDailyRentalChargeCents();
+    }
+
+    public int getChargeDays() {
+        return chargeDays;
+    }
+
+    public long getPreDiscountChargeCents() {
+        return Money.multiply(policy.getDailyRentalChargeCents(), chargeDays);
+    }
+
+    public int getDiscountPercent() {
+        return discountPercent;
+    }
+
+    public long getDiscountAmountCents() {
+        return discountAmountCents;
+    }
+
+    public long getFinalChargeCents() {
+        return getPreDiscountChargeCents() - discountAmountCents;
+    }
+
+    public double getDailyRentalCharge() {
+        return toDouble(getDailyRentalChargeCents());
+    }
+
+    public double getPreDiscountCharge() {
+        return toDouble(getPreDiscountChargeCents());
+    }
+
+    public double getDiscountAmount() {
+        return toDouble(discountAmountCents);
+    }
+
+    public double getFinalCharge() {
+        return toDouble(getFinalChargeCents());
+    }
+
+    /**
+     * @return a {@link RentalAgreement} with the same values, e.g. to render it.
+     */
+    public RentalAgreement toRentalAgreement() {
+        return new RentalAgreement(getToolCode(), getToolType(), getToolBrand(), rentalDays, getCheckoutDate(),
+                getDueDate(), getDailyRentalChargeCents(), chargeDays, getPreDiscountChargeCents(), discountPercent,
+                discountAmountCents, getFinalChargeCents());
+    }
+
+}
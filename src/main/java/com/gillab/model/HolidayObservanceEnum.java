@@ -0,0 +1,30 @@
+package com.gillab.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * How a holiday that falls on a weekend is observed.
+ */
+public enum HolidayObservanceEnum {
+    /** The holiday is observed on its date, even on a weekend. */
+    NONE,
+    /** On a Saturday, the holiday is observed the Friday before; on a Sunday, the Monday after. */
+    NEAREST_WEEKDAY,
+    /** On a Saturday or a Sunday, the holiday is observed the Monday after. */
+    NEXT_WEEKDAY;
+
+    /**
+     * @param date the date of the holiday.
+     * @return the date when the holiday is observed.
+     */
+    public LocalDate observe(final LocalDate date) {
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+        return switch (this) {
+            case NONE -> date;
+            case NEAREST_WEEKDAY -> dayOfWeek == DayOfWeek.SATURDAY ? date.minusDays(1) : dayOfWeek == DayOfWeek.SUNDAY ? date.plusDays(1) : date;
+            case NEXT_WEEKDAY -> dayOfWeek == DayOfWeek.SATURDAY ? date.plusDays(2) : dayOfWeek == DayOfWeek.SUNDAY ? date.plusDays(1) : date;
+        };
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.gillab.model;
+
+import lombok.Data;
+import lombok.NonNull;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Optional;
+
+/**
+ * The rule that gives the date of a holiday every year: either a fixed date (e.g. July 4th), or the nth weekday of a
+ * month (e.g. the first Monday in September, or the last Monday in May), in both cases shifted by its
+ * {@link HolidayObservanceEnum} when it falls on a weekend.
+ */
+@Data
+public class HolidayRule {
+
+    /** The value of {@link #getOrdinal()} for the last weekday of the month. */
+    public static final int LAST = -1;
+
+    @NonNull
+    private final String name;
+    @NonNull
+    private final Month month;
+    /** The day of the month of a fixed date, or 0 for the nth weekday of the month. */
+    private final int dayOfMonth;
+    /** The weekday of the nth weekday of the month, or null for a fixed date. */
+    private final DayOfWeek dayOfWeek;
+    /** The occurrence of the weekday in the month (1 to 5, or {@link #LAST}), or 0 for a fixed date. */
+    private final int ordinal;
+    @NonNull
+    private final HolidayObservanceEnum observance;
+
+    private HolidayRule(String name, Month month, int dayOfMonth, DayOfWeek dayOfWeek, int ordinal, HolidayObservanceEnum observance) {
+        this.name = name;
+        this.month = month;
+        this.dayOfMonth = dayOfMonth;
+        this.dayOfWeek = dayOfWeek;
+        this.ordinal = ordinal;
+        this.observance = observance;
+    }
+
+    /**
+     * @param name the name of the holiday, e.g. Independence Day.
+     * @param month the month of the holiday.
+     * @param dayOfMonth the day of the month of the holiday.
+     * @param observance how the holiday is observed when it falls on a weekend.
+     * @return the rule of a holiday on the same date every year.
+     */
+    public static HolidayRule fixedDate(@NonNull final String name, @NonNull final Month month, final int dayOfMonth, @NonNull final HolidayObservanceEnum observance) {
+        MonthDay.of(month, dayOfMonth);
+        return new HolidayRule(name, month, dayOfMonth, null, 0, observance);
+    }
+
+    /**
+     * @param name the name of the holiday, e.g. Labor Day.
+     * @param month the month of the holiday.
+     * @param ordinal the occurrence of the weekday in the month (1 to 5, or {@link #LAST}).
+     * @param dayOfWeek the weekday of the holiday.
+     * @return the rule of a holiday on the nth weekday of a month, which is never shifted.
+     */
+    public static HolidayRule nthWeekday(@NonNull final String name, @NonNull final Month month, final int ordinal, @NonNull final DayOfWeek dayOfWeek) {
+        if (ordinal != LAST && (ordinal < 1 || ordinal > 5)) {
+            throw new IllegalArgumentException("The occurrence of the weekday of the holiday " + name + " should be 1 to 5, or " + LAST + " for the last one.");
+        }
+        return new HolidayRule(name, month, 0, dayOfWeek, ordinal, HolidayObservanceEnum.NONE);
+    }
+
+    /**
+     * Find the date when the holiday is observed in the given year. The observed date can fall in the year before or
+     * after, e.g. January 1st observed on the Friday before.
+     * @param year the year of the holiday.
+     * @return the observed date, or empty when the holiday does not happen that year (e.g. February 29th, or the 5th
+     * Monday of a month that has only 4).
+     */
+    public Optional<LocalDate> getObservedDate(final int year) {
+        if (dayOfWeek == null) {
+            MonthDay monthDay = MonthDay.of(month, dayOfMonth);
+            return monthDay.isValidYear(year) ? Optional.of(observance.observe(monthDay.atYear(year))) : Optional.empty();
+        }
+        LocalDate firstOfMonth = LocalDate.of(year, month, 1);
+        if (ordinal == LAST) {
+            return Optional.of(firstOfMonth.with(TemporalAdjusters.lastInMonth(dayOfWeek)));
+        }
+        LocalDate date = firstOfMonth.with(TemporalAdjusters.dayOfWeekInMonth(ordinal, dayOfWeek));
+        return date.getMonth() == month ? Optional.of(date) : Optional.empty();
+    }
+
+}
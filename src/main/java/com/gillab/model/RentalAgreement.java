@@ -5,47 +5,53 @@ import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.text.NumberFormat;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.Locale;
+
+import static com.gillab.util.Money.toDouble;
 
 @Data
 @AllArgsConstructor @Getter @Setter
 public class RentalAgreement {
+
+    /** Enough characters for a rendered agreement with the usual tool names and amounts. */
+    private static final int RENDERED_CAPACITY = 320;
+
     private String toolCode;
     private String toolType;
     private String toolBrand;
     private int rentalDays;
     private LocalDate checkoutDate;
     private LocalDate dueDate;
-    private double dailyRentalCharge;
+    private long dailyRentalChargeCents;
     private int chargeDays;
-    private double preDiscountCharge;
+    private long preDiscountChargeCents;
     private int discountPercent;
-    private double discountAmount;
-    private double finalCharge;
+    private long discountAmountCents;
+    private long finalChargeCents;
+
+    public double getDailyRentalCharge() {
+        return toDouble(dailyRentalChargeCents);
+    }
+
+    public double getPreDiscountCharge() {
+        return toDouble(preDiscountChargeCents);
+    }
+
+    public double getDiscountAmount() {
+        return toDouble(discountAmountCents);
+    }
+
+    public double getFinalCharge() {
+        return toDouble(finalChargeCents);
+    }
 
-   @Override
+    /**
+     * Render the agreement as text with {@link RentalAgreementRenderer}. To reuse a buffer, or write directly to the
+     * output, use {@link RentalAgreementRenderer#render} instead.
+     */
+    @Override
     public String toString() {
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MM/dd/yy");
-        NumberFormat currencyFormatter = NumberFormat.getCurrencyInstance(Locale.US);
-        NumberFormat percentFormatter = NumberFormat.getPercentInstance(Locale.US);
-        percentFormatter.setMinimumFractionDigits(0);
-
-        return "Rental Agreement:\n" +
-                "Tool Code: " + toolCode + "\n" +
-                "Tool Type: " + toolType + "\n" +
-                "Tool Brand: " + toolBrand + "\n" +
-                "Rental Days: " + rentalDays + "\n" +
-                "Checkout Date: " + checkoutDate.format(dateFormatter) + "\n" +
-                "Due Date: " + dueDate.format(dateFormatter) + "\n" +
-                "Daily Rental Charge: " + currencyFormatter.format(dailyRentalCharge) + "\n" +
-                "Charge Days: " + chargeDays + "\n" +
-                "Pre-discount Charge: " + currencyFormatter.format(preDiscountCharge) + "\n" +
-                "Discount Percent: " + percentFormatter.format(discountPercent / 100.0) + "\n" +
-                "Discount Amount: " + currencyFormatter.format(discountAmount) + "\n" +
-                "Final Charge: " + currencyFormatter.format(finalCharge);
+        return RentalAgreementRenderer.render(this, new StringBuilder(RENDERED_CAPACITY)).toString();
     }
 
 }
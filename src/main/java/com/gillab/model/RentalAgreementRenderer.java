@@ -0,0 +1,132 @@
+package com.gillab.model;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+
+/**
+ * Writes a {@link RentalAgreement} as text into a caller supplied buffer, with the format of
+ * {@link RentalAgreement#toString()}:
+ * - Dates as MM/dd/yy.
+ * - Amounts as US currency, e.g. $1,234.56, from the exact amounts in cents.
+ * - Discount as a whole percentage, e.g. 10%.
+ * The values are written digit by digit, without formatters or intermediate strings, so rendering into a reused
+ * {@link StringBuilder} does not allocate. Safe to use from multiple threads.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class RentalAgreementRenderer {
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    /**
+     * Render the agreement into a {@link StringBuilder}.
+     * @param rentalAgreement the agreement to render.
+     * @param out where the text is appended.
+     * @return the same {@link StringBuilder}, for chaining.
+     */
+    public static StringBuilder render(@NonNull final RentalAgreement rentalAgreement, @NonNull final StringBuilder out) {
+        try {
+            render(rentalAgreement, (Appendable) out);
+        } catch (IOException exception) {
+            // StringBuilder does not throw IOException
+            throw new UncheckedIOException(exception);
+        }
+        return out;
+    }
+
+    /**
+     * Render the agreement into any {@link Appendable}, e.g. a Writer of a receipt printer.
+     * @param rentalAgreement the agreement to render.
+     * @param out where the text is appended.
+     * @throws IOException when the {@link Appendable} fails.
+     */
+    public static void render(@NonNull final RentalAgreement rentalAgreement, @NonNull final Appendable out) throws IOException {
+        out.append("Rental Agreement:\n");
+        out.append("Tool Code: ").append(String.valueOf(rentalAgreement.getToolCode())).append('\n');
+        out.append("Tool Type: ").append(String.valueOf(rentalAgreement.getToolType())).append('\n');
+        out.append("Tool Brand: ").append(String.valueOf(rentalAgreement.getToolBrand())).append('\n');
+        out.append("Rental Days: ");
+        appendInteger(out, rentalAgreement.getRentalDays(), false);
+        out.append('\n').append("Checkout Date: ");
+        appendDate(out, rentalAgreement.getCheckoutDate());
+        out.append('\n').append("Due Date: ");
+        appendDate(out, rentalAgreement.getDueDate());
+        out.append('\n').append("Daily Rental Charge: ");
+        appendCurrency(out, rentalAgreement.getDailyRentalChargeCents());
+        out.append('\n').append("Charge Days: ");
+        appendInteger(out, rentalAgreement.getChargeDays(), false);
+        out.append('\n').append("Pre-discount Charge: ");
+        appendCurrency(out, rentalAgreement.getPreDiscountChargeCents());
+        out.append('\n').append("Discount Percent: ");
+        appendInteger(out, rentalAgreement.getDiscountPercent(), true);
+        out.append('%').append('\n').append("Discount Amount: ");
+        appendCurrency(out, rentalAgreement.getDiscountAmountCents());
+        out.append('\n').append("Final Charge: ");
+        appendCurrency(out, rentalAgreement.getFinalChargeCents());
+    }
+
+    /**
+     * Append a date as MM/dd/yy, where yy are the last two digits of the year.
+     */
+    static void appendDate(final Appendable out, final LocalDate date) throws IOException {
+        appendTwoDigits(out, date.getMonthValue());
+        out.append('/');
+        appendTwoDigits(out, date.getDayOfMonth());
+        out.append('/');
+        appendTwoDigits(out, Math.abs(date.getYear()) % 100);
+    }
+
+    /**
+     * Append an amount as US currency, like {@link NumberFormat#getCurrencyInstance} does for the same value.
+     * @param cents the amount, in cents.
+     */
+    static void appendCurrency(final Appendable out, final long cents) throws IOException {
+        if (cents < 0) {
+            out.append('-');
+        }
+        out.append('$');
+        appendInteger(out, Math.abs(cents / 100), true);
+        out.append('.');
+        appendTwoDigits(out, (int) Math.abs(cents % 100));
+    }
+
+    /**
+     * Append an integer, optionally grouping the thousands with commas.
+     */
+    static void appendInteger(final Appendable out, final long value, final boolean grouping) throws IOException {
+        if (value < 0) {
+            out.append('-');
+            if (value == Long.MIN_VALUE) {
+                out.append(grouping ? "9,223,372,036,854,775,808" : "9223372036854775808");
+                return;
+            }
+        }
+        long remaining = Math.abs(value);
+        int digits = 1;
+        while (digits < POWERS_OF_TEN.length && remaining >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        for (int position = digits - 1; position >= 0; position--) {
+            long power = POWERS_OF_TEN[position];
+            out.append((char) ('0' + remaining / power));
+            remaining %= power;
+            if (grouping && position > 0 && position % 3 == 0) {
+                out.append(',');
+            }
+        }
+    }
+
+    private static void appendTwoDigits(final Appendable out, final int value) throws IOException {
+        out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+}
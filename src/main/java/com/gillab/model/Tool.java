@@ -1,12 +1,53 @@
 package com.gillab.model;
 
+import com.gillab.service.ToolTypePolicyRegistry;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NonNull;
 
+/**
+ * A tool of the stock. Its type is the name of a tool type of the {@link ToolTypePolicyRegistry}, e.g. LADDER, so a
+ * tool type registered at runtime needs no constant in {@link ToolTypeEnum}. The tool also carries the dense id of its
+ * tool type, so the checkout reads its policy from the array of the registry instead of looking the name up.
+ */
 @Data
+@AllArgsConstructor
 public class Tool {
 
-    private final ToolTypeEnum type;
+    /** The id of a tool type that is not registered: the policy of such a tool is looked up by name. */
+    public static final int UNKNOWN_TYPE_ID = -1;
+
+    private final String type;
+    private final int typeId;
     private final String code;
     private final String brand;
 
+    /**
+     * @param policy the policy of the tool type, whose name and id the tool carries.
+     * @param code the tool code.
+     * @param brand the brand of the tool.
+     */
+    public Tool(@NonNull final ToolTypePolicy policy, final String code, final String brand) {
+        this(policy.getName(), policy.getId(), code, brand);
+    }
+
+    /**
+     * @param type one of the built-in tool types, with its id in the default {@link ToolTypePolicyRegistry}.
+     * @param code the tool code.
+     * @param brand the brand of the tool.
+     */
+    public Tool(@NonNull final ToolTypeEnum type, final String code, final String brand) {
+        this(ToolTypePolicyRegistry.getInstance().getPolicy(type), code, brand);
+    }
+
+    /**
+     * @param type the name of the tool type, with its id in the default {@link ToolTypePolicyRegistry}, or
+     *             {@value #UNKNOWN_TYPE_ID} when it is not registered there.
+     * @param code the tool code.
+     * @param brand the brand of the tool.
+     */
+    public Tool(@NonNull final String type, final String code, final String brand) {
+        this(type, ToolTypePolicyRegistry.getInstance().findPolicy(type).map(ToolTypePolicy::getId).orElse(UNKNOWN_TYPE_ID), code, brand);
+    }
+
 }
@@ -0,0 +1,23 @@
+package com.gillab.model;
+
+import lombok.Data;
+import lombok.NonNull;
+
+/**
+ * The pricing policy of a tool type: the daily rental charge, and the days when it applies.
+ * The id is dense (0, 1, 2...) in the order the tool types were registered, so the policies can be kept in a flat array.
+ */
+@Data
+public class ToolTypePolicy {
+
+    private final int id;
+    @NonNull
+    private final String name;
+    @NonNull
+    private final String displayName;
+    private final long dailyRentalChargeCents;
+    private final boolean weekdayChargeable;
+    private final boolean weekendChargeable;
+    private final boolean holidayChargeable;
+
+}
@@ -0,0 +1,186 @@
+package com.gillab.service;
+
+import com.gillab.model.Tool;
+import lombok.NonNull;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.INVALID_TOOL_CODE;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.TOOL_NOT_AVAILABLE;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.TOOL_NOT_RENTED;
+import static com.gillab.exception.ExceptionBuilder.buildBusinessApplicationException;
+import static com.gillab.util.Constants.MAX_RESERVATION_DAYS;
+import static java.util.Objects.isNull;
+
+/**
+ * Keeps the past and future reservations of every tool as date ranges [checkoutDate, dueDate): the tool is rented
+ * from the checkout date, and available again on the due date. A tool can not have two reservations on the same day.
+ * Every tool has its own {@link ReservationCalendar}, so the queries cost the same with a handful or with millions of
+ * reservations, and reservations of different tools never contend with each other.
+ * The tools of every type are also indexed together in a {@link FleetAvailabilityIndex}, updated with every reservation
+ * and release, to search the tools of a type (and brand) free for a range without checking them one by one.
+ */
+public class AvailabilityService {
+
+    private final Map<String, ReservationCalendar> calendarsByToolCode;
+    private final Map<String, FleetAvailabilityIndex> fleetIndexesByToolType = new HashMap<>();
+    private final Map<String, FleetAvailabilityIndex> fleetIndexesByToolCode = new HashMap<>();
+
+    /**
+     * @param toolStock the tools that can be reserved, by tool code.
+     */
+    public AvailabilityService(@NonNull final Map<String, Tool> toolStock) {
+        Map<String, ReservationCalendar> calendars = new HashMap<>();
+        Map<String, List<Tool>> toolsByType = new HashMap<>();
+        toolStock.forEach((toolCode, tool) -> {
+            calendars.put(toolCode, new ReservationCalendar());
+            toolsByType.computeIfAbsent(tool.getType(), toolType -> new ArrayList<>()).add(tool);
+        });
+        this.calendarsByToolCode = Map.copyOf(calendars);
+        toolsByType.forEach((toolType, tools) -> {
+            FleetAvailabilityIndex fleetIndex = new FleetAvailabilityIndex(tools);
+            fleetIndexesByToolType.put(toolType, fleetIndex);
+            tools.forEach(tool -> fleetIndexesByToolCode.put(tool.getCode(), fleetIndex));
+        });
+    }
+
+    /**
+     * Reserve a tool for a date range, failing when it is already reserved on any of the days. A reservation is at most
+     * {@link com.gillab.util.Constants#MAX_RESERVATION_DAYS} days.
+     * @param toolCode the tool code to reserve.
+     * @param startDate the first day of the reservation (inclusive), i.e. the checkout date.
+     * @param endDate the last day of the reservation (exclusive), i.e. the due date.
+     * @param correlationId ID to track the request.
+     */
+    public void reserve(@NonNull final String toolCode, @NonNull final LocalDate startDate, @NonNull final LocalDate endDate, @NonNull final UUID correlationId) {
+        validateReservationRange(startDate, endDate);
+        ReservationCalendar calendar = getCalendar(toolCode, correlationId);
+        // The fleet index is updated while holding the lock of the calendar, so it sees the changes of a tool in order
+        synchronized (calendar) {
+            if (!calendar.tryReserve(startDate.toEpochDay(), endDate.toEpochDay())) {
+                throw buildBusinessApplicationException(correlationId, TOOL_NOT_AVAILABLE, toolCode);
+            }
+            updateFleetIndex(toolCode, startDate, endDate, true);
+        }
+    }
+
+    /**
+     * Release a reservation, e.g. when it is cancelled. The range must match the one that was reserved.
+     * @param toolCode the tool code of the reservation.
+     * @param startDate the first day of the reservation (inclusive).
+     * @param endDate the last day of the reservation (exclusive).
+     * @param correlationId ID to track the request.
+     */
+    public void release(@NonNull final String toolCode, @NonNull final LocalDate startDate, @NonNull final LocalDate endDate, @NonNull final UUID correlationId) {
+        validateReservationRange(startDate, endDate);
+        ReservationCalendar calendar = getCalendar(toolCode, correlationId);
+        synchronized (calendar) {
+            if (!calendar.release(startDate.toEpochDay(), endDate.toEpochDay())) {
+                throw buildBusinessApplicationException(correlationId, TOOL_NOT_RENTED, toolCode);
+            }
+            updateFleetIndex(toolCode, startDate, endDate, false);
+        }
+    }
+
+    /**
+     * @param toolCode the tool code to look for.
+     * @param startDate the first day of the range (inclusive).
+     * @param endDate the last day of the range (exclusive).
+     * @return whether the tool is not reserved on any day of the range; false when the tool code does not exist.
+     */
+    public boolean isAvailable(@NonNull final String toolCode, @NonNull final LocalDate startDate, @NonNull final LocalDate endDate) {
+        validateRange(startDate, endDate);
+        ReservationCalendar calendar = calendarsByToolCode.get(toolCode);
+        return !isNull(calendar) && calendar.isFree(startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    /**
+     * Find the first date, on or after the given one, when the tool can be rented for the given number of days.
+     * @param toolCode the tool code to look for.
+     * @param fromDate the earliest date of the checkout.
+     * @param days the number of consecutive days the tool is needed.
+     * @return the first checkout date, or empty when the tool code does not exist.
+     */
+    public Optional<LocalDate> findFirstAvailableDate(@NonNull final String toolCode, @NonNull final LocalDate fromDate, final int days) {
+        if (days < 1) {
+            throw new IllegalArgumentException("The number of days should be at least 1.");
+        }
+        ReservationCalendar calendar = calendarsByToolCode.get(toolCode);
+        return isNull(calendar)
+                ? Optional.empty()
+                : Optional.of(LocalDate.ofEpochDay(calendar.findFirstFreeDay(fromDate.toEpochDay(), days)));
+    }
+
+    /**
+     * Find the tools of a type that are not reserved on any day of the range.
+     * The result is a snapshot: a tool can still be reserved by someone else before it is reserved from the result.
+     * @param toolType the name of the tool type, as in {@link Tool#getType()}.
+     * @param startDate the first day of the range (inclusive).
+     * @param endDate the last day of the range (exclusive).
+     * @return the available tools, sorted by brand and tool code.
+     */
+    public List<Tool> findAvailableTools(@NonNull final String toolType, @NonNull final LocalDate startDate, @NonNull final LocalDate endDate) {
+        return findAvailableTools(toolType, null, startDate, endDate);
+    }
+
+    /**
+     * Find the tools of a type and brand that are not reserved on any day of the range.
+     * The result is a snapshot: a tool can still be reserved by someone else before it is reserved from the result.
+     * @param toolType the name of the tool type, as in {@link Tool#getType()}.
+     * @param brand the brand of the tools, or null for every brand.
+     * @param startDate the first day of the range (inclusive).
+     * @param endDate the last day of the range (exclusive).
+     * @return the available tools, sorted by brand and tool code.
+     */
+    public List<Tool> findAvailableTools(@NonNull final String toolType, final String brand, @NonNull final LocalDate startDate, @NonNull final LocalDate endDate) {
+        validateRange(startDate, endDate);
+        FleetAvailabilityIndex fleetIndex = fleetIndexesByToolType.get(toolType);
+        return isNull(fleetIndex) ? List.of() : fleetIndex.findFreeTools(brand, startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    /**
+     * @param toolCode the tool code to look for.
+     * @return the number of reservations of the tool, past and future, or 0 when the tool code does not exist.
+     */
+    public int getReservationCount(@NonNull final String toolCode) {
+        ReservationCalendar calendar = calendarsByToolCode.get(toolCode);
+        return isNull(calendar) ? 0 : calendar.getReservationCount();
+    }
+
+    private ReservationCalendar getCalendar(final String toolCode, final UUID correlationId) {
+        ReservationCalendar calendar = calendarsByToolCode.get(toolCode);
+        if (isNull(calendar)) {
+            throw buildBusinessApplicationException(correlationId, INVALID_TOOL_CODE, toolCode);
+        }
+        return calendar;
+    }
+
+    private void updateFleetIndex(final String toolCode, final LocalDate startDate, final LocalDate endDate, final boolean reserved) {
+        FleetAvailabilityIndex fleetIndex = fleetIndexesByToolCode.get(toolCode);
+        fleetIndex.update(fleetIndex.getSlot(toolCode), startDate.toEpochDay(), endDate.toEpochDay(), reserved);
+    }
+
+    private static void validateRange(final LocalDate startDate, final LocalDate endDate) {
+        if (!endDate.isAfter(startDate)) {
+            throw new IllegalArgumentException("The end date of the range should be after the start date.");
+        }
+    }
+
+    /**
+     * Check the range of a reservation before it reaches the calendar, so the calendar and the fleet index never
+     * disagree on a reservation that only one of them accepted.
+     */
+    private static void validateReservationRange(final LocalDate startDate, final LocalDate endDate) {
+        validateRange(startDate, endDate);
+        if (endDate.toEpochDay() - startDate.toEpochDay() > MAX_RESERVATION_DAYS) {
+            throw new IllegalArgumentException("A reservation should be at most " + MAX_RESERVATION_DAYS + " days.");
+        }
+    }
+
+}
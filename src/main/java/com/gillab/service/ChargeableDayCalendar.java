@@ -0,0 +1,269 @@
+package com.gillab.service;
+
+import lombok.NonNull;
+
+import java.time.LocalDate;
+
+import static com.gillab.util.Constants.CALENDAR_INDEX_MAX_YEARS;
+
+/**
+ * Precomputed index of chargeable days, used to answer "how many chargeable days are in this range" with two array
+ * reads and a subtraction.
+ * For every combination of weekday/weekend/holiday charge there is a cumulative (prefix sum) array, where the value at
+ * position i is the number of chargeable days between the first day of the span and the i-th day (exclusive).
+ * The span covers whole years. When a date falls outside the span, the index is rebuilt to cover the new years, and
+ * published to the readers as a new immutable {@link Span}, so the lookups never block. The span never grows beyond a
+ * maximum number of years: a range that would grow it further, e.g. a date far in the past or the future, is counted
+ * in closed form instead, with the weekend days counted arithmetically and the holidays of the range looked up.
+ */
+public class ChargeableDayCalendar {
+
+    /** One prefix array for each combination of the weekday (1), weekend (2) and holiday (4) charge flags. */
+    private static final int CHARGE_COMBINATIONS = 8;
+    /** The epoch (January 1st 1970) was a Thursday, 3 days after a Monday. */
+    private static final long EPOCH_DAY_OFFSET_TO_MONDAY = 3;
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    private final HolidayService holidayService;
+    private final int initialFirstYear;
+    private final int initialLastYear;
+    private final int maxYears;
+    private volatile Span span;
+
+    /**
+     * @param holidayService used to find the holidays within the span.
+     * @param firstYear first year covered by the index.
+     * @param lastYear last year covered by the index (inclusive).
+     */
+    public ChargeableDayCalendar(@NonNull final HolidayService holidayService, final int firstYear, final int lastYear) {
+        this(holidayService, firstYear, lastYear, CALENDAR_INDEX_MAX_YEARS);
+    }
+
+    /**
+     * @param holidayService used to find the holidays within the span.
+     * @param firstYear first year covered by the index.
+     * @param lastYear last year covered by the index (inclusive).
+     * @param maxYears the most years the index grows to cover.
+     */
+    public ChargeableDayCalendar(@NonNull final HolidayService holidayService, final int firstYear, final int lastYear, final int maxYears) {
+        if (lastYear < firstYear) {
+            throw new IllegalArgumentException("The last year of the calendar can not be before the first year.");
+        }
+        if ((long) lastYear - firstYear >= maxYears) {
+            throw new IllegalArgumentException("The calendar can not cover more than " + maxYears + " years.");
+        }
+        this.holidayService = holidayService;
+        this.initialFirstYear = firstYear;
+        this.initialLastYear = lastYear;
+        this.maxYears = maxYears;
+    }
+
+    /**
+     * Count the chargeable days between the given dates, growing the index first if the range is not covered by it,
+     * or in closed form when the index can not grow that far.
+     * @param startDate the first date of the range (inclusive).
+     * @param endDate the last date of the range (exclusive).
+     * @param hasWeekdayCharge whether the tool has a rental charge on a non-holiday weekday or not.
+     * @param hasWeekendCharge whether the tool has a rental charge on a non-holiday weekend or not.
+     * @param hasHolidayCharge whether the tool has a rental charge on holiday or not.
+     * @return number of days subject to rental charge.
+     */
+    public int countChargeableDays(
+            @NonNull final LocalDate startDate,
+            @NonNull final LocalDate endDate,
+            final boolean hasWeekdayCharge,
+            final boolean hasWeekendCharge,
+            final boolean hasHolidayCharge
+    ) {
+        long startDay = startDate.toEpochDay();
+        long endDay = endDate.toEpochDay();
+        if (endDay <= startDay) {
+            return 0;
+        }
+
+        Span current = span;
+        if (current == null || !current.covers(startDay, endDay)) {
+            current = grow(startDate, endDate.minusDays(1));
+            if (current == null || !current.covers(startDay, endDay)) {
+                return countChargeableDaysClosedForm(startDate, endDate, hasWeekdayCharge, hasWeekendCharge, hasHolidayCharge);
+            }
+        }
+        int[] prefix = current.prefixSums[toCombination(hasWeekdayCharge, hasWeekendCharge, hasHolidayCharge)];
+        return prefix[(int) (endDay - current.firstDay)] - prefix[(int) (startDay - current.firstDay)];
+    }
+
+    /**
+     * Build the index for the configured span of years, if it has not been built yet.
+     */
+    public void build() {
+        if (span == null) {
+            grow(LocalDate.of(initialFirstYear, 1, 1), LocalDate.of(initialLastYear, 12, 31));
+        }
+    }
+
+    /**
+     * Rebuild the index for the years it covers, e.g. when the holidays change. The lookups keep reading the previous
+     * span until the new one is published.
+     */
+    public synchronized void rebuild() {
+        Span current = span;
+        if (current != null) {
+            span = buildSpan(current.firstYear, current.lastYear);
+        }
+    }
+
+    /**
+     * Make sure the index covers the given range, growing it if needed, so the lookups of that range never rebuild it.
+     * A range that the index can not grow to cover is left to the closed-form count.
+     * @param startDate the first date of the range (inclusive).
+     * @param endDate the last date of the range (exclusive).
+     */
+    public void prewarm(@NonNull final LocalDate startDate, @NonNull final LocalDate endDate) {
+        if (endDate.isAfter(startDate)) {
+            Span current = span;
+            if (current == null || !current.covers(startDate.toEpochDay(), endDate.toEpochDay())) {
+                grow(startDate, endDate.minusDays(1));
+            }
+        }
+    }
+
+    /**
+     * @param startDate the first date of the range (inclusive).
+     * @param endDate the last date of the range (exclusive).
+     * @return true if the index covers the range, so counting its chargeable days will not grow the index.
+     */
+    public boolean covers(@NonNull final LocalDate startDate, @NonNull final LocalDate endDate) {
+        Span current = span;
+        return !endDate.isAfter(startDate) || (current != null && current.covers(startDate.toEpochDay(), endDate.toEpochDay()));
+    }
+
+    /**
+     * Estimate the memory used by the prefix arrays of the index.
+     * @return the footprint in bytes, or 0 when the index has not been built yet.
+     */
+    public long getMemoryFootprintBytes() {
+        Span current = span;
+        if (current == null) {
+            return 0;
+        }
+        long perArray = ARRAY_HEADER_BYTES + (long) Integer.BYTES * current.prefixSums[0].length;
+        return ARRAY_HEADER_BYTES + (long) CHARGE_COMBINATIONS * (Integer.BYTES + perArray);
+    }
+
+    /**
+     * @return the first year covered by the index, or the configured first year when it has not been built yet.
+     */
+    public int getFirstYear() {
+        Span current = span;
+        return current == null ? initialFirstYear : current.firstYear;
+    }
+
+    /**
+     * @return the last year covered by the index, or the configured last year when it has not been built yet.
+     */
+    public int getLastYear() {
+        Span current = span;
+        return current == null ? initialLastYear : current.lastYear;
+    }
+
+    /**
+     * Rebuild the index so it covers both the current span and the given dates, unless it would cover more than the
+     * maximum years: then the current span is returned as it is, or null when the index has not been built yet. Only
+     * one thread rebuilds at a time, while the others keep reading the previous span.
+     */
+    private synchronized Span grow(final LocalDate firstDate, final LocalDate lastDate) {
+        Span current = span;
+        int firstYear = Math.min(firstDate.getYear(), current == null ? initialFirstYear : current.firstYear);
+        int lastYear = Math.max(lastDate.getYear(), current == null ? initialLastYear : current.lastYear);
+        if ((long) lastYear - firstYear >= maxYears
+                || (current != null && current.firstYear == firstYear && current.lastYear == lastYear)) {
+            return current;
+        }
+        span = buildSpan(firstYear, lastYear);
+        return span;
+    }
+
+    /**
+     * Count the chargeable days without the index: weekdays and weekend days are counted arithmetically over the epoch
+     * days of the range, and then each holiday in the range replaces its weekday/weekend charge with the holiday charge.
+     */
+    private int countChargeableDaysClosedForm(
+            final LocalDate startDate,
+            final LocalDate endDate,
+            final boolean hasWeekdayCharge,
+            final boolean hasWeekendCharge,
+            final boolean hasHolidayCharge
+    ) {
+        long startDay = startDate.toEpochDay();
+        long endDay = endDate.toEpochDay();
+        long weekendDays = countWeekendDaysBefore(endDay) - countWeekendDaysBefore(startDay);
+        long weekdays = (endDay - startDay) - weekendDays;
+        long chargeableDays = (hasWeekdayCharge ? weekdays : 0) + (hasWeekendCharge ? weekendDays : 0);
+
+        for (LocalDate holiday : holidayService.getHolidaysBetween(startDate, endDate)) {
+            boolean hasRegularCharge = isWeekend(holiday.toEpochDay()) ? hasWeekendCharge : hasWeekdayCharge;
+            chargeableDays += (hasHolidayCharge ? 1 : 0) - (hasRegularCharge ? 1 : 0);
+        }
+        return Math.toIntExact(chargeableDays);
+    }
+
+    private Span buildSpan(final int firstYear, final int lastYear) {
+        LocalDate firstDate = LocalDate.of(firstYear, 1, 1);
+        LocalDate endDate = LocalDate.of(lastYear + 1, 1, 1);
+        long firstDay = firstDate.toEpochDay();
+        int days = (int) (endDate.toEpochDay() - firstDay);
+
+        boolean[] holidays = new boolean[days];
+        for (LocalDate holiday : holidayService.getHolidaysBetween(firstDate, endDate)) {
+            holidays[(int) (holiday.toEpochDay() - firstDay)] = true;
+        }
+
+        int[][] prefixSums = new int[CHARGE_COMBINATIONS][days + 1];
+        for (int day = 0; day < days; day++) {
+            int chargeFlag = holidays[day] ? 4 : isWeekend(firstDay + day) ? 2 : 1;
+            for (int combination = 0; combination < CHARGE_COMBINATIONS; combination++) {
+                prefixSums[combination][day + 1] = prefixSums[combination][day] + ((combination & chargeFlag) != 0 ? 1 : 0);
+            }
+        }
+        return new Span(firstYear, lastYear, firstDay, prefixSums);
+    }
+
+    private static int toCombination(final boolean hasWeekdayCharge, final boolean hasWeekendCharge, final boolean hasHolidayCharge) {
+        return (hasWeekdayCharge ? 1 : 0) | (hasWeekendCharge ? 2 : 0) | (hasHolidayCharge ? 4 : 0);
+    }
+
+    /**
+     * Count the weekend days from Monday, December 29th 1969 (the Monday before the epoch) up to the given epoch day,
+     * excluding it. Every whole week contributes 2 days, and the partial week at the end contributes the days past Friday.
+     */
+    private static long countWeekendDaysBefore(final long epochDay) {
+        long daysSinceMonday = epochDay + EPOCH_DAY_OFFSET_TO_MONDAY;
+        return Math.floorDiv(daysSinceMonday, 7) * 2 + Math.max(0, Math.floorMod(daysSinceMonday, 7) - 5);
+    }
+
+    private static boolean isWeekend(final long epochDay) {
+        return Math.floorMod(epochDay + EPOCH_DAY_OFFSET_TO_MONDAY, 7) >= 5;
+    }
+
+    /**
+     * Immutable snapshot of the index for a span of whole years.
+     */
+    private static final class Span {
+        private final int firstYear;
+        private final int lastYear;
+        private final long firstDay;
+        private final int[][] prefixSums;
+
+        private Span(int firstYear, int lastYear, long firstDay, int[][] prefixSums) {
+            this.firstYear = firstYear;
+            this.lastYear = lastYear;
+            this.firstDay = firstDay;
+            this.prefixSums = prefixSums;
+        }
+
+        private boolean covers(long startDay, long endDay) {
+            return startDay >= firstDay && endDay - firstDay < prefixSums[0].length;
+        }
+    }
+
+}
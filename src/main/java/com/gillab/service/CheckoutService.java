@@ -1,29 +1,72 @@
 package com.gillab.service;
 
+import com.gillab.exception.ApplicationErrors;
+import com.gillab.exception.ApplicationException;
+import com.gillab.journal.DurabilityModeEnum;
+import com.gillab.journal.RecordedAgreement;
+import com.gillab.journal.RentalLedger;
+import com.gillab.metrics.CheckoutEvent;
+import com.gillab.metrics.CheckoutMetrics;
+import com.gillab.metrics.HolidayCacheMissEvent;
+import com.gillab.metrics.QuoteEvent;
+import com.gillab.metrics.ValidationRejectedEvent;
+import com.gillab.model.CheckoutRequest;
+import com.gillab.model.CheckoutResult;
 import com.gillab.model.RentalAgreement;
 import com.gillab.model.Tool;
+import com.gillab.model.ToolTypePolicy;
+import com.gillab.util.Money;
 import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.INVALID_DISCOUNT;
 import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.INVALID_RENTAL_DAYS;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.INVALID_TOOL_CODE;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.UNEXPECTED_ERROR;
 import static com.gillab.exception.ExceptionBuilder.buildBusinessApplicationException;
 import static com.gillab.util.Constants.*;
 import static java.util.Objects.isNull;
 
 public class CheckoutService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(CheckoutService.class);
+
     private static CheckoutService INSTANCE;
 
     private final ToolService toolService;
     private final HolidayService holidayService;
+    private final ChargeableDayCalendar chargeableDayCalendar;
+    private final QuoteCache quoteCache;
+    private final CheckoutMetrics metrics = CheckoutMetrics.getInstance();
+    /**
+     * The version of the default holiday calendar the chargeable day calendar was built with, or 0 until the first
+     * quote reads it.
+     */
+    private volatile long holidayVersion;
 
-    private CheckoutService(ToolService toolService, HolidayService holidayService) {
+    /**
+     * Create a service with its own chargeable day calendar and quote cache. Outside of the tests, use the shared
+     * instance of {@link #getInstance}. Nothing is read from the services until the first checkout: the chargeable day
+     * calendar is built by the first range it counts.
+     */
+    CheckoutService(@NonNull final ToolService toolService, @NonNull final HolidayService holidayService) {
         this.toolService = toolService;
         this.holidayService = holidayService;
+        this.chargeableDayCalendar = new ChargeableDayCalendar(holidayService, CALENDAR_INDEX_FIRST_YEAR, CALENDAR_INDEX_LAST_YEAR);
+        this.quoteCache = new QuoteCache(QUOTE_CACHE_CAPACITY);
     }
 
     public static CheckoutService getInstance(@NonNull final ToolService toolService, @NonNull final HolidayService holidayService) {
@@ -33,6 +76,20 @@ public class CheckoutService {
         return INSTANCE;
     }
 
+    /**
+     * @return the index used to count chargeable days, e.g. to report its memory footprint.
+     */
+    public ChargeableDayCalendar getChargeableDayCalendar() {
+        return chargeableDayCalendar;
+    }
+
+    /**
+     * @return the cache of the pricing of the checkouts, e.g. to report its hits and misses.
+     */
+    public QuoteCache getQuoteCache() {
+        return quoteCache;
+    }
+
     public RentalAgreement checkout(
             final String toolCode,
             final int rentalDays,
@@ -40,36 +97,295 @@ public class CheckoutService {
             @NonNull final LocalDate checkoutDate,
             @NonNull final UUID correlationId
     ) {
-        validateRentalDays(rentalDays, correlationId);
-        validateDiscountPercentage(discountPercentage, correlationId);
-        Tool tool = toolService.getToolByCode(toolCode, correlationId);
-
-        LocalDate dueDate = checkoutDate.plusDays(rentalDays);
-        int chargeDays = calculateChargeableDays(checkoutDate, dueDate,
-                toolService.isToolTypeWeekdayChargeable(tool.getType()),
-                toolService.isToolTypeWeekendChargeable(tool.getType()),
-                toolService.isToolTypeHolidayChargeable(tool.getType()));
-        double dailyRentalCharge = toolService.getDailyRentalChargeByToolType(tool.getType());
-        double preDiscountCharge = chargeDays * dailyRentalCharge;
-        double discountAmount = preDiscountCharge * (discountPercentage / 100.0);
-        double finalCharge = preDiscountCharge - discountAmount;
+        return checkout(toolCode, rentalDays, discountPercentage, checkoutDate, correlationId, Function.identity());
+    }
+
+    /**
+     * Checkout a tool, reserving one of its units in the inventory.
+     * The agreement is built before the unit is reserved, so a rejected request never holds a unit. The unit stays
+     * reserved until the tool is returned with {@link InventoryService#release}.
+     * @param inventoryService where the unit of the tool is reserved.
+     * @return the {@link RentalAgreement}
+     */
+    public RentalAgreement checkout(
+            final String toolCode,
+            final int rentalDays,
+            final int discountPercentage,
+            @NonNull final LocalDate checkoutDate,
+            @NonNull final UUID correlationId,
+            @NonNull final InventoryService inventoryService
+    ) {
+        return checkout(toolCode, rentalDays, discountPercentage, checkoutDate, correlationId, rentalAgreement -> {
+            inventoryService.reserve(toolCode, correlationId);
+            return rentalAgreement;
+        });
+    }
+
+    /**
+     * Checkout a tool, recording its agreement in the ledger, so it is kept once the JVM exits and its rental is open
+     * until the tool is returned with {@link RentalLedger#recordReturn}. A ledger opened with an inventory reserves a
+     * unit of the tool, released by the return.
+     * The agreement is built before it is recorded, so a rejected request is never journaled. The checkout returns when
+     * the agreement is as durable as the {@link DurabilityModeEnum} of the journal of the ledger says.
+     * @param rentalLedger where the agreement is recorded.
+     * @return the {@link RecordedAgreement}, with the sequence that identifies the rental.
+     */
+    public RecordedAgreement checkout(
+            final String toolCode,
+            final int rentalDays,
+            final int discountPercentage,
+            @NonNull final LocalDate checkoutDate,
+            @NonNull final UUID correlationId,
+            @NonNull final RentalLedger rentalLedger
+    ) {
+        return checkout(toolCode, rentalDays, discountPercentage, checkoutDate, correlationId,
+                rentalAgreement -> new RecordedAgreement(rentalLedger.record(rentalAgreement, correlationId), rentalAgreement));
+    }
+
+    /**
+     * Book a tool for a future checkout, reserving it from the checkout date until the due date (exclusive).
+     * The agreement is built before the dates are reserved, so a rejected request never holds a reservation. The
+     * reservation can be cancelled with {@link AvailabilityService#release}.
+     * @param availabilityService where the dates of the tool are reserved.
+     * @return the {@link RentalAgreement}
+     */
+    public RentalAgreement book(
+            final String toolCode,
+            final int rentalDays,
+            final int discountPercentage,
+            @NonNull final LocalDate checkoutDate,
+            @NonNull final UUID correlationId,
+            @NonNull final AvailabilityService availabilityService
+    ) {
+        return checkout(toolCode, rentalDays, discountPercentage, checkoutDate, correlationId, rentalAgreement -> {
+            availabilityService.reserve(toolCode, checkoutDate, rentalAgreement.getDueDate(), correlationId);
+            return rentalAgreement;
+        });
+    }
+
+    /**
+     * Checkout a tool, then complete the checkout with the agreement, e.g. by reserving a unit of the tool. The checkout
+     * only counts as a success, in the metrics and the flight recorder, once it is completed: a business error of the
+     * completion (e.g. no unit available) is recorded as a rejection, like the errors of the validation.
+     * @param completion what the checkout does with the agreement before it succeeds; its result is returned.
+     */
+    private <T> T checkout(
+            final String toolCode,
+            final int rentalDays,
+            final int discountPercentage,
+            final LocalDate checkoutDate,
+            final UUID correlationId,
+            final Function<RentalAgreement, T> completion
+    ) {
+        long startNanos = System.nanoTime();
+        CheckoutEvent event = new CheckoutEvent();
+        event.begin();
+        try {
+            validateRentalDays(rentalDays, correlationId);
+            validateDiscountPercentage(discountPercentage, correlationId);
+            Tool tool = toolService.getToolByCode(toolCode, correlationId);
+            RentalAgreement rentalAgreement = buildRentalAgreement(tool, toolService.getToolTypePolicy(tool), rentalDays, discountPercentage, checkoutDate, correlationId);
+            T result = completion.apply(rentalAgreement);
+            metrics.recordCheckout(tool.getType());
+            commitCheckoutEvent(event, rentalAgreement, correlationId);
+            return result;
+        } catch (ApplicationException exception) {
+            commitValidationRejectedEvent(exception, toolCode, rentalDays);
+            throw exception;
+        } finally {
+            metrics.getCheckoutHistogram().recordSince(startNanos);
+        }
+    }
+
+    /**
+     * Checkout a batch of tools, validating and pricing the requests in parallel on the common fork-join pool.
+     * @param requests the checkout requests.
+     * @return one {@link CheckoutResult} per request, in the same order as the requests.
+     * @see #checkoutBatch(List, Executor)
+     */
+    public List<CheckoutResult> checkoutBatch(@NonNull final List<CheckoutRequest> requests) {
+        return checkoutBatch(requests, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Checkout a batch of tools, validating and pricing the requests in parallel on the given executor.
+     * The reference data is resolved once for the whole batch, before pricing: the tools of the distinct tool codes,
+     * and the chargeable days of the dates covered by the batch, unless they span more years than the chargeable day
+     * calendar grows to, e.g. with a request dated far in the future. The policy of a tool is a single array read, at
+     * the id of its tool type.
+     * A rejected request does not affect the others: its {@link ApplicationException} is returned in its result, and
+     * an unexpected error of a request is returned as an {@link ApplicationErrors.ErrorCodesEnum#UNEXPECTED_ERROR}.
+     * @param requests the checkout requests.
+     * @param executor where the requests are validated and priced.
+     * @return one {@link CheckoutResult} per request, in the same order as the requests.
+     */
+    public List<CheckoutResult> checkoutBatch(@NonNull final List<CheckoutRequest> requests, @NonNull final Executor executor) {
+        Map<String, Optional<Tool>> tools = new HashMap<>();
+        long firstDay = Long.MAX_VALUE;
+        long lastDay = Long.MIN_VALUE;
+
+        for (CheckoutRequest request : requests) {
+            tools.computeIfAbsent(request.getToolCode(), toolService::findToolByCode);
+            if (IS_VALID_RENTAL_DAYS.test(request.getRentalDays())) {
+                long checkoutDay = request.getCheckoutDate().toEpochDay();
+                firstDay = Math.min(firstDay, checkoutDay);
+                lastDay = Math.max(lastDay, checkoutDay + request.getRentalDays());
+            }
+        }
+        // A due date after LocalDate.MAX fails its own request, not the batch
+        if (firstDay < lastDay && lastDay <= LocalDate.MAX.toEpochDay()) {
+            chargeableDayCalendar.prewarm(LocalDate.ofEpochDay(firstDay), LocalDate.ofEpochDay(lastDay));
+        }
+
+        List<CompletableFuture<CheckoutResult>> results = requests.stream()
+                .map(request -> CompletableFuture.supplyAsync(() -> checkoutBatchItem(request, tools), executor))
+                .toList();
+        return results.stream()
+                .map(CompletableFuture::join)
+                .toList();
+    }
+
+    private CheckoutResult checkoutBatchItem(
+            final CheckoutRequest request,
+            final Map<String, Optional<Tool>> tools
+    ) {
+        long startNanos = System.nanoTime();
+        CheckoutEvent event = new CheckoutEvent();
+        event.begin();
+        try {
+            validateRentalDays(request.getRentalDays(), request.getCorrelationId());
+            validateDiscountPercentage(request.getDiscountPercentage(), request.getCorrelationId());
+            Tool tool = tools.get(request.getToolCode())
+                    .orElseThrow(() -> buildBusinessApplicationException(request.getCorrelationId(), INVALID_TOOL_CODE, request.getToolCode()));
+            RentalAgreement rentalAgreement = buildRentalAgreement(tool, toolService.getToolTypePolicy(tool),
+                    request.getRentalDays(), request.getDiscountPercentage(), request.getCheckoutDate(), request.getCorrelationId());
+            metrics.recordCheckout(tool.getType());
+            commitCheckoutEvent(event, rentalAgreement, request.getCorrelationId());
+            return CheckoutResult.success(request, rentalAgreement);
+        } catch (ApplicationException exception) {
+            commitValidationRejectedEvent(exception, request.getToolCode(), request.getRentalDays());
+            return CheckoutResult.failure(request, exception);
+        } catch (RuntimeException exception) {
+            // Returned in the result of the request, so it does not fail the join of the whole batch
+            LOGGER.error("[{}] Unexpected error in the checkout of the tool code {}", request.getCorrelationId(), request.getToolCode(), exception);
+            return CheckoutResult.failure(request, buildBusinessApplicationException(request.getCorrelationId(), UNEXPECTED_ERROR, request.getToolCode()));
+        } finally {
+            metrics.getCheckoutHistogram().recordSince(startNanos);
+        }
+    }
+
+    /**
+     * Commit the flight recorder event of a successful checkout, if a recording of it is running.
+     */
+    private static void commitCheckoutEvent(final CheckoutEvent event, final RentalAgreement rentalAgreement, final UUID correlationId) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.setRental(correlationId, rentalAgreement.getToolCode(), rentalAgreement.getRentalDays(), rentalAgreement.getChargeDays());
+            event.setCharge(rentalAgreement.getDiscountPercent(), rentalAgreement.getFinalChargeCents());
+            event.commit();
+        }
+    }
+
+    /**
+     * Commit the flight recorder event of a rejected checkout, if a recording of it is running.
+     */
+    private static void commitValidationRejectedEvent(final ApplicationException exception, final String toolCode, final int rentalDays) {
+        ValidationRejectedEvent event = new ValidationRejectedEvent();
+        if (event.shouldCommit()) {
+            event.setRental(exception.getCorrelationId(), toolCode, rentalDays, 0);
+            event.setErrorCode(exception.getErrorCode());
+            event.commit();
+        }
+    }
+
+    /**
+     * Build the agreement of a tool with the pricing of the {@link QuoteCache}, which only depends on the policy of the
+     * tool type and the inputs of the checkout, not on the tool itself.
+     */
+    private RentalAgreement buildRentalAgreement(
+            final Tool tool,
+            final ToolTypePolicy policy,
+            final int rentalDays,
+            final int discountPercentage,
+            final LocalDate checkoutDate,
+            final UUID correlationId
+    ) {
+        QuoteEvent event = new QuoteEvent();
+        event.begin();
+        // Priced here rather than by getOrCompute, whose pricing function would capture the event on every checkout
+        QuoteCache.Key key = new QuoteCache.Key(policy, checkoutDate, rentalDays, discountPercentage);
+        long pricingVersion = getPricingVersion();
+        QuoteCache.Quote quote = quoteCache.get(key, pricingVersion);
+        if (isNull(quote)) {
+            event.setComputed();
+            quote = price(key, tool.getCode(), correlationId);
+            quoteCache.put(key, pricingVersion, quote);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.setRental(correlationId, tool.getCode(), rentalDays, quote.chargeDays());
+            event.commit();
+        }
 
         return new RentalAgreement(
                 tool.getCode(),
-                tool.getType().getDisplayName(),
+                policy.getDisplayName(),
                 tool.getBrand(),
                 rentalDays,
                 checkoutDate,
-                dueDate,
-                dailyRentalCharge,
-                chargeDays,
-                preDiscountCharge,
+                quote.dueDate(),
+                policy.getDailyRentalChargeCents(),
+                quote.chargeDays(),
+                quote.preDiscountChargeCents(),
                 discountPercentage,
-                discountAmount,
-                finalCharge
+                quote.discountAmountCents(),
+                quote.finalChargeCents()
         );
     }
 
+    /**
+     * Price a checkout. When its dates are not covered by the chargeable day calendar, which then has to grow, a
+     * {@link HolidayCacheMissEvent} is committed, if a recording of it is running.
+     */
+    private QuoteCache.Quote price(final QuoteCache.Key key, final String toolCode, final UUID correlationId) {
+        ToolTypePolicy policy = key.policy();
+        LocalDate dueDate = key.checkoutDate().plusDays(key.rentalDays());
+        HolidayCacheMissEvent event = new HolidayCacheMissEvent();
+        boolean holidayCacheMiss = event.isEnabled() && !chargeableDayCalendar.covers(key.checkoutDate(), dueDate);
+        event.begin();
+        int chargeDays = calculateChargeableDays(key.checkoutDate(), dueDate,
+                policy.isWeekdayChargeable(), policy.isWeekendChargeable(), policy.isHolidayChargeable());
+        event.end();
+        if (holidayCacheMiss && event.shouldCommit()) {
+            event.setRental(correlationId, toolCode, key.rentalDays(), chargeDays);
+            event.setYears(chargeableDayCalendar.getFirstYear(), chargeableDayCalendar.getLastYear());
+            event.commit();
+        }
+        long preDiscountCharge = Money.multiply(policy.getDailyRentalChargeCents(), chargeDays);
+        long discountAmount = Money.percentOf(preDiscountCharge, key.discountPercentage());
+        return new QuoteCache.Quote(dueDate, chargeDays, preDiscountCharge, discountAmount, preDiscountCharge - discountAmount);
+    }
+
+    /**
+     * The version of the data the prices depend on: the tool type policies and the default holiday calendar, the only
+     * one the checkout uses, so registering another calendar does not drop the quotes. Both versions only grow, so
+     * their sum grows whenever any of them does. When the holidays change, the chargeable day calendar is rebuilt
+     * before the new version is returned, so nothing is priced with the new version and the old holidays. The first
+     * quote only records the version: a calendar that was not built yet has nothing to rebuild.
+     */
+    private long getPricingVersion() {
+        long currentHolidayVersion = holidayService.getVersion();
+        if (currentHolidayVersion != holidayVersion) {
+            synchronized (chargeableDayCalendar) {
+                if (currentHolidayVersion != holidayVersion) {
+                    chargeableDayCalendar.rebuild();
+                    holidayVersion = currentHolidayVersion;
+                }
+            }
+        }
+        return toolService.getToolTypePolicyVersion() + currentHolidayVersion;
+    }
+
     /**
      * Calculate the number of days subject to rental charge, based on the checkout date and due date.
      * Assumption: We are charging for the checkout date, and not charging for the due date. For example:
@@ -77,6 +393,8 @@ public class CheckoutService {
      * - Checkout date is 06/28/2024
      * - Due date is 06/29/2024
      * - We are charging only for 1 day, that is the Friday, June 28th (assuming the tool has a charge on weekday and 06/28 is not a holiday).
+     * The days are not visited one by one: the count is read from the prefix sums of the {@link ChargeableDayCalendar},
+     * which grows when the range falls outside the years it covers.
      *
      * @param checkoutDate the date when the tool was rented.
      * @param dueDate  the date when the tool will be returned.
@@ -92,14 +410,12 @@ public class CheckoutService {
             final boolean hasWeekendCharge,
             final boolean hasHolidayCharge
     ) {
-        int chargeableDays = 0;
-        LocalDate currentDate = checkoutDate;
-
-        while (currentDate.isBefore(dueDate)) {
-            chargeableDays = ( isChargeableDay(currentDate, hasHolidayCharge, hasWeekdayCharge, hasWeekendCharge) ) ? chargeableDays+1:chargeableDays;
-            currentDate = currentDate.plusDays(1);
+        long startNanos = System.nanoTime();
+        try {
+            return chargeableDayCalendar.countChargeableDays(checkoutDate, dueDate, hasWeekdayCharge, hasWeekendCharge, hasHolidayCharge);
+        } finally {
+            metrics.getChargeableDaysHistogram().recordSince(startNanos);
         }
-        return chargeableDays;
     }
 
     /**
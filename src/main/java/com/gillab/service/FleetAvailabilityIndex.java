@@ -0,0 +1,215 @@
+package com.gillab.service;
+
+import com.gillab.model.Tool;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.gillab.util.Constants.MAX_RESERVATION_DAYS;
+
+/**
+ * The reserved days of all the tools of a type, transposed from the {@link ReservationCalendar} of every tool, to find
+ * the tools that are free for a range without visiting the tools one by one.
+ * Every tool has a slot, and the slots are grouped in blocks of 64 tools. For every day, a block has a word with one
+ * bit per tool, set when the tool is reserved on that day. The tools free for a range are the clear bits of the words
+ * of the range OR'ed together, so a search reads one word per block and day, whatever the number of reservations.
+ * The tools are sorted by brand before they get their slots, so the tools of a brand are in consecutive blocks, and a
+ * search by brand only reads those.
+ * Like the calendars, the words of a block are split in pages of {@value #PAGE_DAYS} days, allocated only when a tool
+ * of the block is reserved on a day of the page, and released once no tool of the block is reserved on any of its days.
+ * The pages are kept in a map by page number, so reservations years apart cost two pages, not the pages between them.
+ * Every block is guarded by its own lock.
+ */
+final class FleetAvailabilityIndex {
+
+    private static final int PAGE_SHIFT = 9;
+    private static final int PAGE_DAYS = 1 << PAGE_SHIFT;
+    private static final long MIN_DAY = LocalDate.MIN.toEpochDay();
+    private static final long MAX_DAY = LocalDate.MAX.toEpochDay() + 1;
+    private static final int[] NO_SLOTS = {0, 0};
+
+    private final Tool[] tools;
+    private final Block[] blocks;
+    private final Map<String, Integer> slotsByToolCode = new HashMap<>();
+    /** The first slot (inclusive) and last slot (exclusive) of every brand. */
+    private final Map<String, int[]> slotsByBrand = new HashMap<>();
+
+    /**
+     * @param tools the tools of the type.
+     */
+    FleetAvailabilityIndex(final List<Tool> tools) {
+        this.tools = tools.stream()
+                .sorted(Comparator.comparing(Tool::getBrand).thenComparing(Tool::getCode))
+                .toArray(Tool[]::new);
+        this.blocks = new Block[(this.tools.length + Long.SIZE - 1) / Long.SIZE];
+        for (int block = 0; block < blocks.length; block++) {
+            blocks[block] = new Block();
+        }
+        for (int slot = 0; slot < this.tools.length; slot++) {
+            Tool tool = this.tools[slot];
+            slotsByToolCode.put(tool.getCode(), slot);
+            if (!slotsByBrand.containsKey(tool.getBrand())) {
+                slotsByBrand.put(tool.getBrand(), new int[]{slot, slot});
+            }
+            slotsByBrand.get(tool.getBrand())[1] = slot + 1;
+        }
+    }
+
+    /**
+     * @return the slot of the tool in the index.
+     */
+    int getSlot(final String toolCode) {
+        return slotsByToolCode.get(toolCode);
+    }
+
+    /**
+     * Mark the days in [startDay, endDay) of the tool in the given slot as reserved, or free.
+     * @throws IllegalArgumentException when the range is not valid, or longer than {@link com.gillab.util.Constants#MAX_RESERVATION_DAYS}.
+     */
+    void update(final int slot, final long startDay, final long endDay, final boolean reserved) {
+        validateRange(startDay, endDay);
+        if (endDay - startDay > MAX_RESERVATION_DAYS) {
+            throw new IllegalArgumentException("A reservation should be at most " + MAX_RESERVATION_DAYS + " days.");
+        }
+        blocks[slot / Long.SIZE].update(1L << slot, startDay, endDay, reserved);
+    }
+
+    /**
+     * Find the tools free on every day in [startDay, endDay).
+     * @param brand the brand of the tools, or null for every brand.
+     * @return the tools, sorted by brand and tool code.
+     * @throws IllegalArgumentException when the range is not valid.
+     */
+    List<Tool> findFreeTools(final String brand, final long startDay, final long endDay) {
+        validateRange(startDay, endDay);
+        int[] slots = brand == null ? new int[]{0, tools.length} : slotsByBrand.getOrDefault(brand, NO_SLOTS);
+        List<Tool> freeTools = new ArrayList<>();
+        for (int block = slots[0] / Long.SIZE; block * Long.SIZE < slots[1]; block++) {
+            long free = ~blocks[block].reservedOnAnyDay(startDay, endDay) & slotMask(block, slots[0], slots[1]);
+            while (free != 0) {
+                freeTools.add(tools[block * Long.SIZE + Long.numberOfTrailingZeros(free)]);
+                free &= free - 1;
+            }
+        }
+        return freeTools;
+    }
+
+    /**
+     * @return the pages allocated by all the blocks.
+     */
+    int getPageCount() {
+        int pageCount = 0;
+        for (Block block : blocks) {
+            pageCount += block.getPageCount();
+        }
+        return pageCount;
+    }
+
+    /**
+     * Check that the range is not empty, and that its days are the epoch days of a {@link LocalDate}.
+     */
+    private static void validateRange(final long startDay, final long endDay) {
+        if (startDay >= endDay || startDay < MIN_DAY || endDay > MAX_DAY) {
+            throw new IllegalArgumentException("The range of days [" + startDay + ", " + endDay + ") is not valid.");
+        }
+    }
+
+    /**
+     * @return the bits of the slots in [fromSlot, toSlot) that are part of the given block.
+     */
+    private static long slotMask(final int block, final int fromSlot, final int toSlot) {
+        int blockStart = block * Long.SIZE;
+        long mask = -1L;
+        if (fromSlot > blockStart) {
+            mask &= -1L << (fromSlot - blockStart);
+        }
+        if (toSlot < blockStart + Long.SIZE) {
+            mask &= -1L >>> (blockStart + Long.SIZE - toSlot);
+        }
+        return mask;
+    }
+
+    /**
+     * The reserved days of 64 tools: one word per day, with one bit per tool.
+     */
+    private static final class Block {
+
+        /** The pages with a reserved day, by page number. */
+        private final Map<Long, long[]> pages = new HashMap<>();
+
+        private synchronized long reservedOnAnyDay(final long startDay, final long endDay) {
+            long firstPage = startDay >> PAGE_SHIFT;
+            long lastPage = (endDay - 1) >> PAGE_SHIFT;
+            long reserved = 0;
+            if (lastPage - firstPage >= pages.size()) {
+                // A range wider than the pages allocated: only those are read
+                for (Map.Entry<Long, long[]> entry : pages.entrySet()) {
+                    long page = entry.getKey();
+                    if (page >= firstPage && page <= lastPage) {
+                        reserved |= reservedOnAnyDay(entry.getValue(), page, startDay, endDay);
+                    }
+                }
+                return reserved;
+            }
+            for (long page = firstPage; page <= lastPage; page++) {
+                long[] words = pages.get(page);
+                if (words != null) {
+                    reserved |= reservedOnAnyDay(words, page, startDay, endDay);
+                }
+            }
+            return reserved;
+        }
+
+        private synchronized void update(final long toolBit, final long startDay, final long endDay, final boolean reserved) {
+            for (long page = startDay >> PAGE_SHIFT; page <= (endDay - 1) >> PAGE_SHIFT; page++) {
+                long[] words = pages.get(page);
+                if (words == null) {
+                    if (!reserved) {
+                        continue;
+                    }
+                    words = new long[PAGE_DAYS];
+                    pages.put(page, words);
+                }
+                long pageStart = page << PAGE_SHIFT;
+                int toDay = (int) (Math.min(endDay, pageStart + PAGE_DAYS) - pageStart);
+                for (int day = (int) (Math.max(startDay, pageStart) - pageStart); day < toDay; day++) {
+                    words[day] = reserved ? words[day] | toolBit : words[day] & ~toolBit;
+                }
+                if (!reserved && isEmpty(words)) {
+                    pages.remove(page);
+                }
+            }
+        }
+
+        private synchronized int getPageCount() {
+            return pages.size();
+        }
+
+        /**
+         * @return the tools of the page reserved on any day of the page in [startDay, endDay).
+         */
+        private static long reservedOnAnyDay(final long[] words, final long page, final long startDay, final long endDay) {
+            long pageStart = page << PAGE_SHIFT;
+            int toDay = (int) (Math.min(endDay, pageStart + PAGE_DAYS) - pageStart);
+            long reserved = 0;
+            for (int day = (int) (Math.max(startDay, pageStart) - pageStart); day < toDay; day++) {
+                reserved |= words[day];
+            }
+            return reserved;
+        }
+
+        private static boolean isEmpty(final long[] words) {
+            for (long word : words) {
+                if (word != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+}
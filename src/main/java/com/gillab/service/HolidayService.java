@@ -1,70 +1,365 @@
 package com.gillab.service;
 
-import lombok.AccessLevel;
-import lombok.NoArgsConstructor;
+import com.gillab.model.HolidayObservanceEnum;
+import com.gillab.model.HolidayRule;
 import lombok.NonNull;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.Month;
-import java.time.temporal.TemporalAdjusters;
+import java.time.Year;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-@NoArgsConstructor(access = AccessLevel.PRIVATE)
+import static java.util.Objects.isNull;
+
+/**
+ * The holidays of the store regions. Every region has a named calendar, defined by a list of {@link HolidayRule}, and
+ * compiled into a bitset of epoch days for the years looked up so far, so a lookup is a bit test.
+ * The calendars are loaded from {@value #DEFAULT_CALENDARS_RESOURCE}; more can be registered at any time. The map of
+ * calendars is never modified once published, so adding a calendar does not slow down, nor lock, the lookups.
+ * Every calendar has its own version, so the data derived from one calendar (e.g. the prices of the checkout, from
+ * the default calendar) is not refreshed when another calendar is registered.
+ */
 public class HolidayService {
 
+    /** The calendar of the lookups that don't name one, e.g. the checkout. */
+    public static final String DEFAULT_CALENDAR_ID = "US";
+    /** The config file with the holiday calendars, in the classpath. */
+    public static final String DEFAULT_CALENDARS_RESOURCE = "holiday-calendars.csv";
+
+    private static final int FIELD_COUNT = 6;
+    /**
+     * The most years a holiday table covers. The holidays of a lookup that would grow the table beyond them, e.g. of a
+     * date far in the past or the future, are calculated for that lookup only, so such a date can not grow the table
+     * without bound.
+     */
+    private static final int MAX_TABLE_YEARS = 1_000;
+
     private static final HolidayService INSTANCE = new HolidayService();
-    private static final Map<Integer, Set<LocalDate>> holidaysPerYear = new HashMap<>();
+
+    private volatile Map<String, HolidayCalendar> calendarsById = Map.of();
+    /** Incremented every time a calendar is registered, and given to the calendar as its version, so it only grows. */
+    private long lastVersion;
+
+    /**
+     * Create a service with the calendars of {@value #DEFAULT_CALENDARS_RESOURCE}. Outside of the tests and the
+     * benchmarks, use the shared instance of {@link #getInstance()}.
+     */
+    HolidayService() {
+        InputStream definitions = HolidayService.class.getClassLoader().getResourceAsStream(DEFAULT_CALENDARS_RESOURCE);
+        if (isNull(definitions)) {
+            throw new IllegalStateException("The holiday calendars file " + DEFAULT_CALENDARS_RESOURCE + " is not in the classpath.");
+        }
+        registerCalendars(new InputStreamReader(definitions, StandardCharsets.UTF_8));
+    }
 
     public static HolidayService getInstance() {
         return INSTANCE;
     }
 
     /**
-     * Determine if the given date is a holiday, considering that there are only two (2) holidays in the calendar:
+     * Determine if the given date is a holiday in the default calendar, which has two (2) holidays:
      * 1. Independence Day, July 4th - If falls on weekend, it is observed on the closest weekday (if Sat, then Friday before, if Sunday, then Monday after).
      * 2. Labor Day - First Monday in September
-     * A HashMap in this class is used to store the calculated holiday dates, to reduce computing.
+     * The calculated holiday dates are stored in a bitset indexed by epoch day, to reduce computing. Once the year of
+     * the date has been calculated, the lookup is a bit test that takes no locks and does not allocate.
      *
      * @param date the date to validate
      * @return true if the date is a holiday, otherwise false.
      */
     public boolean isHoliday(@NonNull final LocalDate date) {
-        return holidaysPerYear.computeIfAbsent(date.getYear(),
-                        year -> Set.of(getIndependenceDay(year), getLaborDay(year)))
-                .contains(date);
+        return isHoliday(DEFAULT_CALENDAR_ID, date);
+    }
+
+    /**
+     * Determine if the given date is a holiday in the given calendar, with the same bit test as {@link #isHoliday(LocalDate)}.
+     * @param calendarId the id of the calendar, e.g. US.
+     * @param date the date to validate
+     * @return true if the date is a holiday, otherwise false.
+     */
+    public boolean isHoliday(@NonNull final String calendarId, @NonNull final LocalDate date) {
+        int year = date.getYear();
+        HolidayCalendar calendar = getCalendar(calendarId);
+        HolidayTable table = calendar.holidayTable;
+        if (!table.covers(year, year)) {
+            table = calendar.tableFor(year, year);
+        }
+        return table.isHoliday(date.toEpochDay());
+    }
+
+    /**
+     * Find all the holidays of the default calendar that fall within the given range, using the same cached holiday
+     * dates as {@link #isHoliday}.
+     * Only the days of the range are scanned in the bitset, a word (64 days) at a time.
+     *
+     * @param startDate the first date of the range (inclusive).
+     * @param endDate the last date of the range (exclusive).
+     * @return the holidays in the range, in chronological order.
+     */
+    public List<LocalDate> getHolidaysBetween(@NonNull final LocalDate startDate, @NonNull final LocalDate endDate) {
+        return getHolidaysBetween(DEFAULT_CALENDAR_ID, startDate, endDate);
     }
 
     /**
-     * Find the exact date when the Independence day will be celebrated, for the given year:
-     * Independence Day, July 4th - If falls on weekend, it is observed on the closest weekday (if Sat, then Friday before, if Sunday, then Monday after).
-     * @param year used to find the holiday.
-     * @return the exact date when the holiday is celebrated.
+     * Find all the holidays of the given calendar that fall within the given range.
+     *
+     * @param calendarId the id of the calendar, e.g. US.
+     * @param startDate the first date of the range (inclusive).
+     * @param endDate the last date of the range (exclusive).
+     * @return the holidays in the range, in chronological order.
      */
-    private static LocalDate getIndependenceDay(int year) {
-        LocalDate independenceDay = LocalDate.of(year, Month.JULY, 4);
-        DayOfWeek dayOfWeek = independenceDay.getDayOfWeek();
+    public List<LocalDate> getHolidaysBetween(@NonNull final String calendarId, @NonNull final LocalDate startDate, @NonNull final LocalDate endDate) {
+        HolidayCalendar calendar = getCalendar(calendarId);
+        List<LocalDate> holidays = new ArrayList<>();
+        if (!endDate.isAfter(startDate)) {
+            return holidays;
+        }
+        HolidayTable table = calendar.holidayTable;
+        if (!table.covers(startDate.getYear(), endDate.getYear())) {
+            table = calendar.tableFor(startDate.getYear(), endDate.getYear());
+        }
+        for (long day = table.nextHoliday(startDate.toEpochDay()); day < endDate.toEpochDay(); day = table.nextHoliday(day + 1)) {
+            holidays.add(LocalDate.ofEpochDay(day));
+        }
+        return holidays;
+    }
 
-        if (dayOfWeek == DayOfWeek.SATURDAY) {
-            independenceDay = independenceDay.minusDays(1);
-        } else if (dayOfWeek == DayOfWeek.SUNDAY) {
-            independenceDay = independenceDay.plusDays(1);
+    /**
+     * Calculate the holidays of every calendar for the given years in advance, so the first lookups of those years
+     * don't pay for it. Years that would grow a table beyond {@value #MAX_TABLE_YEARS} years are not kept.
+     * @param fromYear the first year to calculate.
+     * @param toYear the last year to calculate (inclusive).
+     */
+    public void prewarm(final int fromYear, final int toYear) {
+        if (toYear < fromYear) {
+            throw new IllegalArgumentException("The last year to prewarm can not be before the first year.");
         }
+        for (HolidayCalendar calendar : calendarsById.values()) {
+            if (!calendar.holidayTable.covers(fromYear, toYear)) {
+                calendar.tableFor(fromYear, toYear);
+            }
+        }
+    }
+
+    /**
+     * Register a calendar, replacing the one with the same id.
+     * @param calendarId the id of the calendar, e.g. US.
+     * @param rules the rules of the holidays of the calendar.
+     */
+    public synchronized void registerCalendar(@NonNull final String calendarId, @NonNull final List<HolidayRule> rules) {
+        Map<String, HolidayCalendar> calendars = new HashMap<>(calendarsById);
+        calendars.put(calendarId, new HolidayCalendar(List.copyOf(rules), ++lastVersion));
+        calendarsById = Map.copyOf(calendars);
+    }
 
-        return independenceDay;
+    /**
+     * Register the calendars of a definitions file, with one holiday rule per line:
+     * calendarId,name,FIXED_DATE,month,dayOfMonth,observance or calendarId,name,NTH_WEEKDAY,month,ordinal,dayOfWeek.
+     * The month, observance and day of week are the names of their constants, e.g. JULY, NEAREST_WEEKDAY or MONDAY.
+     * Blank lines and lines starting with # are ignored. A calendar of the file replaces the one with the same id.
+     * @param definitions the content of the definitions file; it is closed once read.
+     */
+    public void registerCalendars(@NonNull final Reader definitions) {
+        Map<String, List<HolidayRule>> rulesByCalendarId = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(definitions)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",", -1);
+                if (fields.length != FIELD_COUNT) {
+                    throw new IllegalArgumentException("The holiday rule in line " + lineNumber + " should have " + FIELD_COUNT + " fields.");
+                }
+                rulesByCalendarId.computeIfAbsent(fields[0].strip(), calendarId -> new ArrayList<>()).add(parse(fields, line, lineNumber));
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("The holiday calendars could not be read.", exception);
+        }
+        rulesByCalendarId.forEach(this::registerCalendar);
     }
 
     /**
-     * Find the exact date when the Independence day will be celebrated, for the given year:
-     * Labor Day - First Monday in September
-     * @param year used to find the holiday.
-     * @return the exact date when the holiday is celebrated.
+     * @return the ids of the registered calendars.
      */
-    private static LocalDate getLaborDay(int year) {
-        return LocalDate.of(year, Month.SEPTEMBER, 1)
-                .with(TemporalAdjusters.firstInMonth(DayOfWeek.MONDAY));
+    public Set<String> getCalendarIds() {
+        return calendarsById.keySet();
+    }
+
+    /**
+     * @return the version of the default calendar, which grows every time the default calendar is registered.
+     */
+    public long getVersion() {
+        return getVersion(DEFAULT_CALENDAR_ID);
+    }
+
+    /**
+     * @param calendarId the id of the calendar, e.g. US.
+     * @return the version of the calendar, which grows every time the calendar is registered, and only then.
+     */
+    public long getVersion(@NonNull final String calendarId) {
+        return getCalendar(calendarId).version;
+    }
+
+    private HolidayCalendar getCalendar(final String calendarId) {
+        HolidayCalendar calendar = calendarsById.get(calendarId);
+        if (isNull(calendar)) {
+            throw new IllegalArgumentException("The holiday calendar " + calendarId + " does not exist.");
+        }
+        return calendar;
+    }
+
+    private static HolidayRule parse(final String[] fields, final String line, final int lineNumber) {
+        try {
+            String name = fields[1].strip();
+            Month month = Month.valueOf(fields[3].strip());
+            int day = Integer.parseInt(fields[4].strip());
+            return switch (fields[2].strip()) {
+                case "FIXED_DATE" -> HolidayRule.fixedDate(name, month, day, HolidayObservanceEnum.valueOf(fields[5].strip()));
+                case "NTH_WEEKDAY" -> HolidayRule.nthWeekday(name, month, day, DayOfWeek.valueOf(fields[5].strip()));
+                default -> throw new IllegalArgumentException("The type of the holiday rule should be FIXED_DATE or NTH_WEEKDAY.");
+            };
+        } catch (RuntimeException exception) {
+            throw new IllegalArgumentException("The holiday rule in line " + lineNumber + " is not valid: " + line, exception);
+        }
+    }
+
+    /**
+     * The rules of a calendar, and the holidays of the years calculated so far. The table is never modified once
+     * published: a lookup outside of its years builds a bigger table, which replaces this one, so readers never need
+     * a lock.
+     */
+    private static final class HolidayCalendar {
+
+        private final List<HolidayRule> rules;
+        private final long version;
+        private volatile HolidayTable holidayTable = HolidayTable.EMPTY;
+
+        private HolidayCalendar(final List<HolidayRule> rules, final long version) {
+            this.rules = rules;
+            this.version = version;
+        }
+
+        /**
+         * Return a table that covers the given years. When the current table does not, a table that covers both is
+         * built and published, unless it would span more than {@value #MAX_TABLE_YEARS} years: then a table of the
+         * given years only is built for the lookup, and not kept. Only one thread builds at a time; the others keep
+         * reading the previous table until the new one is published.
+         * @throws IllegalArgumentException when the given years alone span more than {@value #MAX_TABLE_YEARS} years.
+         */
+        private synchronized HolidayTable tableFor(final int fromYear, final int toYear) {
+            HolidayTable current = holidayTable;
+            if (current.covers(fromYear, toYear)) {
+                return current;
+            }
+            int firstYear = current == HolidayTable.EMPTY ? fromYear : Math.min(fromYear, current.firstYear);
+            int lastYear = current == HolidayTable.EMPTY ? toYear : Math.max(toYear, current.lastYear);
+            if ((long) lastYear - firstYear >= MAX_TABLE_YEARS) {
+                if ((long) toYear - fromYear >= MAX_TABLE_YEARS) {
+                    throw new IllegalArgumentException("The holidays of more than " + MAX_TABLE_YEARS + " years can not be looked up at once.");
+                }
+                return build(fromYear, toYear);
+            }
+            HolidayTable table = build(firstYear, lastYear);
+            holidayTable = table;
+            return table;
+        }
+
+        /**
+         * Build the table of the given years. The rules are also applied to the years around, since a holiday can be
+         * observed in the year before or after.
+         */
+        private HolidayTable build(final int firstYear, final int lastYear) {
+            long firstDay = LocalDate.of(firstYear, Month.JANUARY, 1).toEpochDay();
+            long endDay = LocalDate.of(lastYear, Month.DECEMBER, 31).toEpochDay() + 1;
+            long[] bits = new long[(int) ((endDay - firstDay + 63) >>> 6)];
+            for (int year = Math.max(Year.MIN_VALUE, firstYear - 1); year <= Math.min(Year.MAX_VALUE, lastYear + 1); year++) {
+                for (HolidayRule rule : rules) {
+                    long day = observedDay(rule, year, endDay);
+                    if (day >= firstDay && day < endDay) {
+                        long offset = day - firstDay;
+                        bits[(int) (offset >>> 6)] |= 1L << offset;
+                    }
+                }
+            }
+            return new HolidayTable(firstYear, lastYear, firstDay, endDay, bits);
+        }
+
+        /**
+         * @return the epoch day the rule is observed on in the year, or the given default when it is not observed that
+         * year, or on a date that {@link LocalDate} can not represent, e.g. moved before {@link LocalDate#MIN}.
+         */
+        private static long observedDay(final HolidayRule rule, final int year, final long defaultDay) {
+            try {
+                return rule.getObservedDate(year).map(LocalDate::toEpochDay).orElse(defaultDay);
+            } catch (DateTimeException exception) {
+                return defaultDay;
+            }
+        }
+    }
+
+    /**
+     * Immutable bitset of holidays for a span of whole years, where bit i represents the i-th day of the span.
+     */
+    private static final class HolidayTable {
+        private static final HolidayTable EMPTY = new HolidayTable(0, -1, 0, 0, new long[0]);
+
+        private final int firstYear;
+        private final int lastYear;
+        private final long firstDay;
+        private final long endDay;
+        private final long[] bits;
+
+        private HolidayTable(int firstYear, int lastYear, long firstDay, long endDay, long[] bits) {
+            this.firstYear = firstYear;
+            this.lastYear = lastYear;
+            this.firstDay = firstDay;
+            this.endDay = endDay;
+            this.bits = bits;
+        }
+
+        private boolean covers(int fromYear, int toYear) {
+            return fromYear >= firstYear && toYear <= lastYear;
+        }
+
+        private boolean isHoliday(long epochDay) {
+            long offset = epochDay - firstDay;
+            return (bits[(int) (offset >>> 6)] & (1L << offset)) != 0;
+        }
+
+        /**
+         * @return the first holiday on or after the given epoch day, or the end of the span if there are no more.
+         */
+        private long nextHoliday(long epochDay) {
+            long offset = Math.max(epochDay, firstDay) - firstDay;
+            if (offset >= endDay - firstDay) {
+                return endDay;
+            }
+            int wordIndex = (int) (offset >>> 6);
+            long word = bits[wordIndex] & (-1L << offset);
+            while (word == 0) {
+                if (++wordIndex == bits.length) {
+                    return endDay;
+                }
+                word = bits[wordIndex];
+            }
+            return firstDay + ((long) wordIndex << 6) + Long.numberOfTrailingZeros(word);
+        }
     }
 
 }
@@ -0,0 +1,180 @@
+package com.gillab.service;
+
+import com.gillab.journal.RentalState;
+import com.gillab.model.Tool;
+import lombok.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.INVALID_TOOL_CODE;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.TOOL_NOT_AVAILABLE;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.TOOL_NOT_RENTED;
+import static com.gillab.exception.ExceptionBuilder.buildBusinessApplicationException;
+import static java.util.Objects.isNull;
+
+/**
+ * Tracks the units of every tool code that are available to rent, so the same unit can not be checked out twice.
+ * Every tool code has its own counter, reserved and released with compare-and-set: there is no lock, and checkouts of
+ * different tool codes never contend with each other. The tool codes are fixed when the inventory is created, so the
+ * lookup of the counters is a read of an immutable map.
+ */
+public class InventoryService {
+
+    private final Map<String, ToolUnits> unitsByToolCode;
+
+    /**
+     * @param unitsByToolCode the number of units in stock of every tool code.
+     */
+    public InventoryService(@NonNull final Map<String, Integer> unitsByToolCode) {
+        Map<String, ToolUnits> units = new HashMap<>();
+        unitsByToolCode.forEach((toolCode, totalUnits) -> {
+            if (totalUnits < 0) {
+                throw new IllegalArgumentException("The units of the tool code " + toolCode + " can not be negative.");
+            }
+            units.put(toolCode, new ToolUnits(totalUnits));
+        });
+        this.unitsByToolCode = Map.copyOf(units);
+    }
+
+    /**
+     * Create an inventory with a single unit of every tool in the stock.
+     * @param toolStock the tools, by tool code.
+     * @return the inventory, with every unit available.
+     */
+    public static InventoryService withOneUnitPerTool(@NonNull final Map<String, Tool> toolStock) {
+        Map<String, Integer> units = new HashMap<>();
+        toolStock.keySet().forEach(toolCode -> units.put(toolCode, 1));
+        return new InventoryService(units);
+    }
+
+    /**
+     * Reserve a unit of a tool code, failing when all of them are rented.
+     * @param toolCode the tool code to reserve.
+     * @param correlationId ID to track the request.
+     */
+    public void reserve(@NonNull final String toolCode, @NonNull final UUID correlationId) {
+        if (!getToolUnits(toolCode, correlationId).tryReserve()) {
+            throw buildBusinessApplicationException(correlationId, TOOL_NOT_AVAILABLE, toolCode);
+        }
+    }
+
+    /**
+     * Reserve a unit of a tool code, without failing when all of them are rented.
+     * @param toolCode the tool code to reserve.
+     * @return whether a unit was reserved; false when the tool code does not exist, or all of its units are rented.
+     */
+    public boolean tryReserve(@NonNull final String toolCode) {
+        ToolUnits toolUnits = unitsByToolCode.get(toolCode);
+        return !isNull(toolUnits) && toolUnits.tryReserve();
+    }
+
+    /**
+     * Release a reserved unit of a tool code when it is returned, so it can be rented again.
+     * @param toolCode the tool code to release.
+     * @param correlationId ID to track the request.
+     */
+    public void release(@NonNull final String toolCode, @NonNull final UUID correlationId) {
+        if (!getToolUnits(toolCode, correlationId).tryRelease()) {
+            throw buildBusinessApplicationException(correlationId, TOOL_NOT_RENTED, toolCode);
+        }
+    }
+
+    /**
+     * Release a reserved unit of a tool code, without failing when none is reserved.
+     * @param toolCode the tool code to release.
+     * @return whether a unit was released; false when the tool code does not exist, or none of its units are rented.
+     */
+    public boolean tryRelease(@NonNull final String toolCode) {
+        ToolUnits toolUnits = unitsByToolCode.get(toolCode);
+        return !isNull(toolUnits) && toolUnits.tryRelease();
+    }
+
+    /**
+     * Reserve the units of the open rentals of a {@link RentalState}, e.g. the state read when a rental ledger is
+     * opened, so they can not be checked out again until they are returned. The open rentals of a tool code that is not
+     * in the inventory are ignored.
+     * @param rentalState the state with the rented units of every tool code.
+     */
+    public void reserveRentedUnits(@NonNull final RentalState rentalState) {
+        unitsByToolCode.forEach((toolCode, toolUnits) -> {
+            int rentedUnits = rentalState.getRentedUnits(toolCode);
+            if (rentedUnits > 0 && !toolUnits.tryReserve(rentedUnits)) {
+                throw new IllegalStateException("The " + rentedUnits + " rented units of the tool code " + toolCode
+                        + " exceed its " + toolUnits.availableUnits.get() + " available units.");
+            }
+        });
+    }
+
+    /**
+     * @param toolCode the tool code to look for.
+     * @return the units of the tool code that are not rented, or 0 when the tool code does not exist.
+     */
+    public int getAvailableUnits(@NonNull final String toolCode) {
+        ToolUnits toolUnits = unitsByToolCode.get(toolCode);
+        return isNull(toolUnits) ? 0 : toolUnits.availableUnits.get();
+    }
+
+    /**
+     * @param toolCode the tool code to look for.
+     * @return the units of the tool code in stock, rented or not, or 0 when the tool code does not exist.
+     */
+    public int getTotalUnits(@NonNull final String toolCode) {
+        ToolUnits toolUnits = unitsByToolCode.get(toolCode);
+        return isNull(toolUnits) ? 0 : toolUnits.totalUnits;
+    }
+
+    private ToolUnits getToolUnits(final String toolCode, final UUID correlationId) {
+        ToolUnits toolUnits = unitsByToolCode.get(toolCode);
+        if (isNull(toolUnits)) {
+            throw buildBusinessApplicationException(correlationId, INVALID_TOOL_CODE, toolCode);
+        }
+        return toolUnits;
+    }
+
+    /**
+     * The units of a tool code. The available units are only changed with compare-and-set, so they never go below 0
+     * or above the total units, whatever the number of threads.
+     */
+    private static final class ToolUnits {
+
+        private final int totalUnits;
+        private final AtomicInteger availableUnits;
+
+        private ToolUnits(final int totalUnits) {
+            this.totalUnits = totalUnits;
+            this.availableUnits = new AtomicInteger(totalUnits);
+        }
+
+        private boolean tryReserve() {
+            return tryReserve(1);
+        }
+
+        private boolean tryReserve(final int units) {
+            int available = availableUnits.get();
+            while (available >= units) {
+                int witness = availableUnits.compareAndExchange(available, available - units);
+                if (witness == available) {
+                    return true;
+                }
+                available = witness;
+            }
+            return false;
+        }
+
+        private boolean tryRelease() {
+            int available = availableUnits.get();
+            while (available < totalUnits) {
+                int witness = availableUnits.compareAndExchange(available, available + 1);
+                if (witness == available) {
+                    return true;
+                }
+                available = witness;
+            }
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,313 @@
+package com.gillab.service;
+
+import com.gillab.model.Tool;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Read-only tool stock in a compact binary file, memory-mapped instead of loaded, so opening it only reads its header:
+ * the startup does not depend on the size of the catalog, and the JVMs of a host that open the same file share its
+ * pages in the page cache.
+ * The tools are found by tool code through an open-addressing hash table stored in the file, and a {@link Tool} is
+ * only built when it is looked up. Its tool type and brand are decoded the first time they are needed, and shared
+ * afterwards. The tool type is stored by name, so the tool types registered at runtime can be stored too.
+ * The file is written by {@link #write}. Layout, little-endian:
+ * - Header: magic, format version, tool count, slot count, text count, position of the text offsets, position of the
+ *   records (4 bytes each), and 4 reserved bytes.
+ * - Slots: slot count x (hash of the tool code, position of the record), where the position 0 marks an empty slot.
+ * - Texts (the tool types and the brands): text count x position of the text; then every text as its length (2 bytes)
+ *   and its UTF-8 bytes.
+ * - Records: every tool as its tool type index (4 bytes), brand index (4 bytes), code length (2 bytes) and code bytes.
+ * The tool codes must be ASCII, so a code is compared with the bytes of a record without encoding it. The file can not
+ * be larger than 2 GB, the limit of a mapped buffer.
+ */
+public class MappedToolCatalog {
+
+    public static final int MAGIC = 0x54434154;
+    public static final int FORMAT_VERSION = 2;
+
+    private static final int HEADER_BYTES = 32;
+    private static final int SLOT_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 10;
+    private static final int CODE_LENGTH_OFFSET = 8;
+
+    private final ByteBuffer buffer;
+    private final int toolCount;
+    private final int slotMask;
+    private final int textOffsetsPosition;
+    /** The texts decoded so far. Threads racing to decode a text store equal Strings, which are safe to publish. */
+    private final String[] texts;
+
+    private MappedToolCatalog(final ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("The file is not a tool catalog.");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalArgumentException("The tool catalog has the format version " + buffer.getInt(4)
+                    + ", but only the version " + FORMAT_VERSION + " is supported.");
+        }
+        this.toolCount = buffer.getInt(8);
+        this.slotMask = buffer.getInt(12) - 1;
+        this.texts = new String[buffer.getInt(16)];
+        this.textOffsetsPosition = buffer.getInt(20);
+    }
+
+    /**
+     * Map a tool catalog written by {@link #write}. Only the header is read; the rest of the file is read by the lookups.
+     * @param file the tool catalog.
+     * @return the {@link MappedToolCatalog}
+     */
+    public static MappedToolCatalog open(@NonNull final Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("The tool catalog " + file + " is larger than 2 GB.");
+            }
+            // The mapping stays valid once the channel is closed
+            return new MappedToolCatalog(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN));
+        } catch (IOException exception) {
+            throw new UncheckedIOException("The tool catalog " + file + " could not be opened.", exception);
+        }
+    }
+
+    /**
+     * Write the tool stock in the format of the catalog.
+     * @param toolStock the tools, by tool code.
+     * @param file where the catalog is written; it is replaced if it exists.
+     */
+    public static void write(@NonNull final Map<String, Tool> toolStock, @NonNull final Path file) {
+        List<Tool> tools = new ArrayList<>(toolStock.values());
+        Map<String, Integer> textIndexes = new HashMap<>();
+        List<byte[]> textBytes = new ArrayList<>();
+        long textsSize = 0;
+        long recordsSize = 0;
+        for (Tool tool : tools) {
+            if (!tool.getCode().chars().allMatch(character -> character < 0x80) || tool.getCode().length() > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("The tool code " + tool.getCode() + " should be ASCII, and shorter than 32 KB.");
+            }
+            for (String text : new String[]{tool.getType(), tool.getBrand()}) {
+                if (!textIndexes.containsKey(text)) {
+                    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                    if (bytes.length > Short.MAX_VALUE) {
+                        throw new IllegalArgumentException("The tool type and brand of the tool " + tool.getCode() + " should be shorter than 32 KB.");
+                    }
+                    textIndexes.put(text, textBytes.size());
+                    textBytes.add(bytes);
+                    textsSize += Integer.BYTES + Short.BYTES + bytes.length;
+                }
+            }
+            recordsSize += RECORD_HEADER_BYTES + tool.getCode().length();
+        }
+        // The table is at most two thirds full, so a lookup probes few slots
+        int slotCount = Math.max(2, Integer.highestOneBit(Math.max(1, tools.size() * 3 / 2)) << 1);
+        long textOffsetsPosition = HEADER_BYTES + (long) slotCount * SLOT_BYTES;
+        long recordsPosition = textOffsetsPosition + textsSize;
+        if (recordsPosition + recordsSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The tool catalog would be larger than 2 GB.");
+        }
+
+        ByteBuffer out = ByteBuffer.allocate((int) (recordsPosition + recordsSize)).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(tools.size()).putInt(slotCount).putInt(textBytes.size())
+                .putInt((int) textOffsetsPosition).putInt((int) recordsPosition).putInt(0);
+
+        int textPosition = (int) textOffsetsPosition + Integer.BYTES * textBytes.size();
+        for (int index = 0; index < textBytes.size(); index++) {
+            out.putInt((int) textOffsetsPosition + Integer.BYTES * index, textPosition);
+            out.putShort(textPosition, (short) textBytes.get(index).length);
+            out.put(textPosition + Short.BYTES, textBytes.get(index));
+            textPosition += Short.BYTES + textBytes.get(index).length;
+        }
+
+        int recordPosition = (int) recordsPosition;
+        for (Tool tool : tools) {
+            int hash = spread(tool.getCode().hashCode());
+            int slot = hash & (slotCount - 1);
+            while (out.getInt(HEADER_BYTES + slot * SLOT_BYTES + Integer.BYTES) != 0) {
+                slot = (slot + 1) & (slotCount - 1);
+            }
+            out.putInt(HEADER_BYTES + slot * SLOT_BYTES, hash);
+            out.putInt(HEADER_BYTES + slot * SLOT_BYTES + Integer.BYTES, recordPosition);
+
+            out.putInt(recordPosition, textIndexes.get(tool.getType()));
+            out.putInt(recordPosition + Integer.BYTES, textIndexes.get(tool.getBrand()));
+            out.putShort(recordPosition + CODE_LENGTH_OFFSET, (short) tool.getCode().length());
+            out.put(recordPosition + RECORD_HEADER_BYTES, tool.getCode().getBytes(StandardCharsets.US_ASCII));
+            recordPosition += RECORD_HEADER_BYTES + tool.getCode().length();
+        }
+
+        out.clear();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("The tool catalog " + file + " could not be written.", exception);
+        }
+    }
+
+    /**
+     * Find a tool by its code, in the hash table of the file.
+     * @param toolCode the tool code to look for.
+     * @return the {@link Tool}, or empty when the tool code is not in the catalog.
+     */
+    public Optional<Tool> findTool(@NonNull final String toolCode) {
+        int position = findRecord(toolCode);
+        return position == 0 ? Optional.empty() : Optional.of(toolAt(position, toolCode));
+    }
+
+    /**
+     * @return the number of tools in the catalog.
+     */
+    public int size() {
+        return toolCount;
+    }
+
+    /**
+     * A read-only map view of the catalog, e.g. for {@link ToolService#getInstance}. The lookups by tool code use the
+     * hash table of the file; iterating the map builds every tool.
+     * @return the map of the tools, by tool code.
+     */
+    public Map<String, Tool> asToolStock() {
+        return new ToolStockView();
+    }
+
+    private int findRecord(final String toolCode) {
+        int hash = spread(toolCode.hashCode());
+        for (int slot = hash & slotMask; ; slot = (slot + 1) & slotMask) {
+            int slotPosition = HEADER_BYTES + slot * SLOT_BYTES;
+            int recordPosition = buffer.getInt(slotPosition + Integer.BYTES);
+            if (recordPosition == 0) {
+                return 0;
+            }
+            if (buffer.getInt(slotPosition) == hash && codeEquals(recordPosition, toolCode)) {
+                return recordPosition;
+            }
+        }
+    }
+
+    private boolean codeEquals(final int recordPosition, final String toolCode) {
+        int length = buffer.getShort(recordPosition + CODE_LENGTH_OFFSET);
+        if (length != toolCode.length()) {
+            return false;
+        }
+        int codePosition = recordPosition + RECORD_HEADER_BYTES;
+        for (int index = 0; index < length; index++) {
+            if (buffer.get(codePosition + index) != toolCode.charAt(index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String getText(final int textIndex) {
+        String text = texts[textIndex];
+        if (isNull(text)) {
+            int textPosition = buffer.getInt(textOffsetsPosition + Integer.BYTES * textIndex);
+            text = decode(textPosition + Short.BYTES, buffer.getShort(textPosition), StandardCharsets.UTF_8);
+            texts[textIndex] = text;
+        }
+        return text;
+    }
+
+    private Tool toolAt(final int recordPosition) {
+        return toolAt(recordPosition, decode(recordPosition + RECORD_HEADER_BYTES, buffer.getShort(recordPosition + CODE_LENGTH_OFFSET), StandardCharsets.US_ASCII));
+    }
+
+    private Tool toolAt(final int recordPosition, final String toolCode) {
+        return new Tool(getText(buffer.getInt(recordPosition)), toolCode, getText(buffer.getInt(recordPosition + Integer.BYTES)));
+    }
+
+    private String decode(final int position, final int length, final Charset charset) {
+        byte[] bytes = new byte[length];
+        buffer.get(position, bytes);
+        return new String(bytes, charset);
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * The catalog as a map. Only the absolute reads of the buffer are used, which do not change its state, so the view
+     * can be read by many threads at once.
+     */
+    private final class ToolStockView extends AbstractMap<String, Tool> {
+
+        @Override
+        public Tool get(final Object key) {
+            return key instanceof String toolCode ? findTool(toolCode).orElse(null) : null;
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return key instanceof String toolCode && findRecord(toolCode) != 0;
+        }
+
+        @Override
+        public int size() {
+            return toolCount;
+        }
+
+        @Override
+        public Set<Entry<String, Tool>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Tool>> iterator() {
+                    return new Iterator<>() {
+                        private int slot = nextSlot(0);
+
+                        @Override
+                        public boolean hasNext() {
+                            return slot <= slotMask;
+                        }
+
+                        @Override
+                        public Entry<String, Tool> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Tool tool = toolAt(buffer.getInt(HEADER_BYTES + slot * SLOT_BYTES + Integer.BYTES));
+                            slot = nextSlot(slot + 1);
+                            return new SimpleImmutableEntry<>(tool.getCode(), tool);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return toolCount;
+                }
+            };
+        }
+
+        private int nextSlot(final int from) {
+            int slot = from;
+            while (slot <= slotMask && buffer.getInt(HEADER_BYTES + slot * SLOT_BYTES + Integer.BYTES) == 0) {
+                slot++;
+            }
+            return slot;
+        }
+    }
+
+}
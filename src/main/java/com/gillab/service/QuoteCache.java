@@ -0,0 +1,220 @@
+package com.gillab.service;
+
+import com.gillab.model.ToolTypePolicy;
+import lombok.NonNull;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Bounded cache of the pricing of the checkouts, so a checkout quoted several times with the same inputs is priced once.
+ * The quotes are keyed by everything the price depends on: the {@link ToolTypePolicy}, the checkout date, the rental
+ * days and the discount. The holidays are not part of the key, so every quote is tagged with the version of the
+ * pricing data it was computed with, and a lookup with another version is a miss. The version only moves forward: the
+ * first lookup with a newer version drops the whole cache once, while a lookup with an older version (e.g. from a
+ * thread that read the version before it changed) is priced without being kept, and drops nothing.
+ * The cache is split in segments, each one a least-recently-used map guarded by its own lock, so lookups of different
+ * keys rarely contend. The quotes are computed outside the locks: two threads missing the same key both compute it.
+ */
+public class QuoteCache {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final int capacity;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private volatile long version;
+
+    /**
+     * @param capacity the maximum number of quotes kept.
+     */
+    public QuoteCache(final int capacity) {
+        this(capacity, Math.min(MAX_SEGMENTS, Integer.highestOneBit(Math.max(capacity, 1))));
+    }
+
+    /**
+     * @param capacity the maximum number of quotes kept.
+     * @param segmentCount the number of segments, a power of 2 not greater than the capacity.
+     */
+    QuoteCache(final int capacity, final int segmentCount) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity of the quote cache should be at least 1.");
+        }
+        if (Integer.bitCount(segmentCount) != 1 || segmentCount > capacity) {
+            throw new IllegalArgumentException("The segments of the quote cache should be a power of 2 not greater than its capacity.");
+        }
+        this.capacity = capacity;
+        this.segments = new Segment[segmentCount];
+        for (int segment = 0; segment < segmentCount; segment++) {
+            // The capacity is spread over the segments, the first ones taking the remainder
+            segments[segment] = new Segment(capacity / segmentCount + (segment < capacity % segmentCount ? 1 : 0));
+        }
+    }
+
+    /**
+     * Return the quote of the key, computing and keeping it when it is not in the cache.
+     * @param key the inputs of the pricing.
+     * @param version the current version of the pricing data; it only grows, and only when the data changes.
+     * @param pricing computes the quote of a key that is not in the cache.
+     * @return the {@link Quote}
+     */
+    public Quote getOrCompute(@NonNull final Key key, final long version, @NonNull final Function<Key, Quote> pricing) {
+        Quote quote = get(key, version);
+        if (isNull(quote)) {
+            quote = pricing.apply(key);
+            put(key, version, quote);
+        }
+        return quote;
+    }
+
+    /**
+     * Return the quote of the key, counting the lookup as a hit or a miss. A caller that needs to know whether the quote
+     * was computed, without allocating a pricing function per lookup, prices a miss itself and {@link #put}s the quote.
+     * @param key the inputs of the pricing.
+     * @param version the current version of the pricing data; it only grows, and only when the data changes.
+     * @return the {@link Quote}, or null when it is not in the cache.
+     */
+    public Quote get(@NonNull final Key key, final long version) {
+        if (version > this.version) {
+            invalidateAll(version);
+        }
+        Quote quote = segmentOf(key).get(key, version);
+        if (isNull(quote)) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return quote;
+    }
+
+    /**
+     * Keep the quote of a key that missed, unless the pricing data has moved to a newer version since.
+     * @param key the inputs of the pricing.
+     * @param version the version of the pricing data the quote was computed with.
+     * @param quote the {@link Quote}
+     */
+    public void put(@NonNull final Key key, final long version, @NonNull final Quote quote) {
+        segmentOf(key).put(key, quote, version);
+    }
+
+    /**
+     * Drop every quote, e.g. when the pricing data changes.
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of quotes in the cache.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of quotes dropped to make room for others; the quotes dropped by an invalidation are not counted.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private synchronized void invalidateAll(final long version) {
+        if (version > this.version) {
+            invalidateAll();
+            this.version = version;
+        }
+    }
+
+    private Segment segmentOf(final Key key) {
+        return segments[spread(key.hashCode()) & (segments.length - 1)];
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * The inputs of the pricing of a checkout.
+     */
+    public record Key(ToolTypePolicy policy, LocalDate checkoutDate, int rentalDays, int discountPercentage) {}
+
+    /**
+     * The pricing of a checkout, in cents.
+     */
+    public record Quote(
+            LocalDate dueDate,
+            int chargeDays,
+            long preDiscountChargeCents,
+            long discountAmountCents,
+            long finalChargeCents
+    ) {}
+
+    /**
+     * A least-recently-used map of quotes, with the version of the pricing data of every quote.
+     */
+    private final class Segment {
+
+        private final LinkedHashMap<Key, Entry> entries;
+
+        private Segment(final int capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<Key, Entry> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private synchronized Quote get(final Key key, final long version) {
+            Entry entry = entries.get(key);
+            return entry == null || entry.version != version ? null : entry.quote;
+        }
+
+        private synchronized void put(final Key key, final Quote quote, final long version) {
+            // A quote computed with an older version is never kept
+            if (version == QuoteCache.this.version) {
+                entries.put(key, new Entry(quote, version));
+            }
+        }
+
+        private synchronized void clear() {
+            entries.clear();
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    private record Entry(Quote quote, long version) {}
+
+}
@@ -0,0 +1,184 @@
+package com.gillab.service;
+
+/**
+ * The reservations of a single tool, as bitmaps of epoch days: one bit per day telling whether the tool is booked,
+ * and one bit per day telling whether a reservation starts on that day, so a reservation can be told apart from the
+ * ones next to it.
+ * The bitmaps are split in pages of {@value #PAGE_DAYS} days, allocated only when a day of the page is booked, so a
+ * tool costs memory for the periods where it has reservations, not for the whole calendar. The queries read 64 days at
+ * a time, so their cost depends on the number of days they look at, not on the number of reservations of the tool.
+ * The calendar is guarded by its own lock: operations on different tools never contend.
+ */
+final class ReservationCalendar {
+
+    private static final int PAGE_SHIFT = 9;
+    private static final int PAGE_DAYS = 1 << PAGE_SHIFT;
+    /** Every page has the words of the booked days, followed by the words of the days where a reservation starts. */
+    private static final int WORDS_PER_PAGE = PAGE_DAYS / Long.SIZE;
+    private static final int BOOKED = 0;
+    private static final int STARTS = WORDS_PER_PAGE;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final long[][] NO_PAGES = new long[0][];
+
+    private long firstPage;
+    private long[][] pages = NO_PAGES;
+    private int reservationCount;
+
+    /**
+     * @return whether no day in [startDay, endDay) is booked.
+     */
+    synchronized boolean isFree(final long startDay, final long endDay) {
+        return find(startDay, endDay, BOOKED, true) == endDay;
+    }
+
+    /**
+     * Book the days in [startDay, endDay), when none of them is booked yet.
+     * @return whether the days were booked.
+     */
+    synchronized boolean tryReserve(final long startDay, final long endDay) {
+        if (find(startDay, endDay, BOOKED, true) != endDay) {
+            return false;
+        }
+        ensureCapacity(startDay >> PAGE_SHIFT, (endDay - 1) >> PAGE_SHIFT);
+        update(startDay, endDay, BOOKED, true);
+        update(startDay, startDay + 1, STARTS, true);
+        reservationCount++;
+        return true;
+    }
+
+    /**
+     * Free the days of the reservation [startDay, endDay), when it exists with exactly these days.
+     * @return whether the reservation was released.
+     */
+    synchronized boolean release(final long startDay, final long endDay) {
+        boolean isReservation = isSet(startDay, STARTS)
+                && find(startDay, endDay, BOOKED, false) == endDay
+                && find(startDay + 1, endDay, STARTS, true) == endDay
+                && (!isSet(endDay, BOOKED) || isSet(endDay, STARTS));
+        if (!isReservation) {
+            return false;
+        }
+        update(startDay, endDay, BOOKED, false);
+        update(startDay, startDay + 1, STARTS, false);
+        reservationCount--;
+        return true;
+    }
+
+    /**
+     * Find the first window of free days: every booked run in the way is skipped at once, 64 days at a time.
+     * @return the first day, on or after fromDay, that starts a run of the given number of free days.
+     */
+    synchronized long findFirstFreeDay(final long fromDay, final int days) {
+        long candidate = fromDay;
+        long bookedDay;
+        while ((bookedDay = find(candidate, candidate + days, BOOKED, true)) != candidate + days) {
+            candidate = find(bookedDay, Long.MAX_VALUE, BOOKED, false);
+        }
+        return candidate;
+    }
+
+    synchronized int getReservationCount() {
+        return reservationCount;
+    }
+
+    /**
+     * Estimate the memory used by the pages of the calendar.
+     * @return the footprint in bytes.
+     */
+    synchronized long getMemoryFootprintBytes() {
+        long footprint = ARRAY_HEADER_BYTES + (long) Integer.BYTES * pages.length;
+        for (long[] page : pages) {
+            footprint += page == null ? 0 : ARRAY_HEADER_BYTES + (long) Long.BYTES * page.length;
+        }
+        return footprint;
+    }
+
+    private boolean isSet(final long day, final int words) {
+        return find(day, day + 1, words, true) == day;
+    }
+
+    /**
+     * Find the first day in [fromDay, limit) whose bit in the given words is set (or clear).
+     * @return the day, or limit when there is none.
+     */
+    private long find(final long fromDay, final long limit, final int words, final boolean set) {
+        long day = fromDay;
+        while (day < limit) {
+            long pageIndex = (day >> PAGE_SHIFT) - firstPage;
+            if (pageIndex < 0 || pageIndex >= pages.length || pages[(int) pageIndex] == null) {
+                // Nothing is set outside the pages
+                if (!set) {
+                    return day;
+                }
+                if (pageIndex >= pages.length) {
+                    return limit;
+                }
+                day = pageIndex < 0 ? firstPage << PAGE_SHIFT : ((day >> PAGE_SHIFT) + 1) << PAGE_SHIFT;
+                continue;
+            }
+            long word = pages[(int) pageIndex][words + (int) ((day >> 6) & (WORDS_PER_PAGE - 1))];
+            word = (set ? word : ~word) & (-1L << day);
+            if (word != 0) {
+                return Math.min((day & -Long.SIZE) + Long.numberOfTrailingZeros(word), limit);
+            }
+            day = (day & -Long.SIZE) + Long.SIZE;
+        }
+        return limit;
+    }
+
+    /**
+     * Set (or clear) the bits of the days in [fromDay, endDay) in the given words. Pages left empty are released.
+     */
+    private void update(final long fromDay, final long endDay, final int words, final boolean set) {
+        long day = fromDay;
+        while (day < endDay) {
+            int pageIndex = (int) ((day >> PAGE_SHIFT) - firstPage);
+            long[] page = pages[pageIndex];
+            if (page == null) {
+                page = new long[2 * WORDS_PER_PAGE];
+                pages[pageIndex] = page;
+            }
+            long wordEnd = Math.min((day & -Long.SIZE) + Long.SIZE, endDay);
+            long mask = (-1L << day) & (-1L >>> (Long.SIZE - (wordEnd - (day & -Long.SIZE))));
+            int wordIndex = words + (int) ((day >> 6) & (WORDS_PER_PAGE - 1));
+            page[wordIndex] = set ? page[wordIndex] | mask : page[wordIndex] & ~mask;
+            if (!set && isEmpty(page)) {
+                pages[pageIndex] = null;
+            }
+            day = wordEnd;
+        }
+    }
+
+    private static boolean isEmpty(final long[] page) {
+        for (long word : page) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Grow the table of pages so it covers the given pages. When it grows, half of its size is added as headroom on
+     * the same side, so bookings moving forward in time do not copy the table every time.
+     */
+    private void ensureCapacity(final long fromPage, final long toPage) {
+        if (pages.length == 0) {
+            firstPage = fromPage;
+            pages = new long[(int) (toPage - fromPage + 1)][];
+            return;
+        }
+        long lastPage = firstPage + pages.length - 1;
+        if (fromPage >= firstPage && toPage <= lastPage) {
+            return;
+        }
+        long headroom = pages.length / 2;
+        long newFirstPage = fromPage < firstPage ? fromPage - headroom : firstPage;
+        long newLastPage = toPage > lastPage ? toPage + headroom : lastPage;
+        long[][] newPages = new long[(int) (newLastPage - newFirstPage + 1)][];
+        System.arraycopy(pages, 0, newPages, (int) (firstPage - newFirstPage), pages.length);
+        firstPage = newFirstPage;
+        pages = newPages;
+    }
+
+}
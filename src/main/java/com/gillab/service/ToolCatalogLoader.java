@@ -0,0 +1,294 @@
+package com.gillab.service;
+
+import com.gillab.model.Tool;
+import com.gillab.model.ToolTypePolicy;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Streaming loader of the tool stock from a CSV file with one tool per line: toolCode,toolType,brand, where the tool
+ * type is the name of a tool type of the {@link ToolTypePolicyRegistry}, built-in or registered at runtime. Blank lines
+ * and lines starting with # are ignored.
+ * The file is read through a {@link FileChannel} in chunks, and the fields are found by scanning the bytes of the chunk,
+ * so no line is turned into a String nor split: the only objects built per line are the tool and its code. The brands
+ * are deduplicated in a table keyed by their bytes, so the few brands of a large catalog are decoded once and shared.
+ * The stock map is presized from the number of lines of the first chunk, so it is not rehashed while it grows.
+ * A bad row does not stop the load: it is skipped, and reported with its line number in the {@link Result}.
+ */
+public class ToolCatalogLoader {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    /** The rejected rows kept in the result; the others are only counted. */
+    public static final int MAX_REJECTED_ROWS_KEPT = 1_000;
+
+    private static final int FIELD_COUNT = 3;
+
+    private final int chunkSize;
+    private final ProgressListener progressListener;
+    private final ToolTypePolicyRegistry toolTypePolicyRegistry;
+
+    public ToolCatalogLoader() {
+        this(DEFAULT_CHUNK_SIZE, (bytesRead, totalBytes, toolCount) -> { });
+    }
+
+    /**
+     * @param chunkSize the bytes read from the file at a time, which is also the maximum length of a line.
+     * @param progressListener notified after every chunk.
+     */
+    public ToolCatalogLoader(final int chunkSize, @NonNull final ProgressListener progressListener) {
+        this(chunkSize, progressListener, ToolTypePolicyRegistry.getInstance());
+    }
+
+    /**
+     * @param chunkSize the bytes read from the file at a time, which is also the maximum length of a line.
+     * @param progressListener notified after every chunk.
+     * @param toolTypePolicyRegistry the tool types accepted, as they are when a load starts.
+     */
+    public ToolCatalogLoader(final int chunkSize, @NonNull final ProgressListener progressListener, @NonNull final ToolTypePolicyRegistry toolTypePolicyRegistry) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size should be at least 1 byte.");
+        }
+        this.chunkSize = chunkSize;
+        this.progressListener = progressListener;
+        this.toolTypePolicyRegistry = toolTypePolicyRegistry;
+    }
+
+    /**
+     * Load the tool stock from the given file.
+     * @param file the CSV file, encoded in UTF-8.
+     * @return the {@link Result}, with the stock and the rejected rows.
+     */
+    public Result load(@NonNull final Path file) {
+        ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+        byte[] bytes = buffer.array();
+        Parser parser = new Parser(toolTypePolicyRegistry.getPolicies());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long totalBytes = channel.size();
+            long bytesRead = 0;
+            boolean endOfFile = false;
+            while (!endOfFile) {
+                int read = channel.read(buffer);
+                endOfFile = read < 0;
+                bytesRead += Math.max(read, 0);
+                buffer.flip();
+                int limit = buffer.limit();
+                if (isNull(parser.toolStock)) {
+                    parser.presize(estimateLineCount(bytes, limit, totalBytes));
+                }
+
+                int position = 0;
+                while (position < limit) {
+                    int lineEnd = indexOf(bytes, position, limit, (byte) '\n');
+                    if (lineEnd < 0 && !endOfFile) {
+                        break;
+                    }
+                    lineEnd = lineEnd < 0 ? limit : lineEnd;
+                    parser.parseLine(bytes, position, lineEnd);
+                    position = lineEnd + 1;
+                }
+                buffer.position(Math.min(position, limit));
+                buffer.compact();
+                if (!buffer.hasRemaining()) {
+                    throw new IllegalArgumentException("The line " + (parser.lineNumber + 1) + " of " + file
+                            + " is longer than the chunk size of " + chunkSize + " bytes.");
+                }
+                progressListener.onProgress(bytesRead, totalBytes, parser.toolStock.size());
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("The tool catalog " + file + " could not be read.", exception);
+        }
+        return new Result(parser.toolStock, parser.lineNumber, parser.rejectedCount, parser.rejectedRows);
+    }
+
+    /**
+     * Estimate the lines of the file from the lines of its first chunk, with some room for longer lines further on.
+     */
+    private static int estimateLineCount(final byte[] bytes, final int limit, final long totalBytes) {
+        if (limit == 0) {
+            return 0;
+        }
+        int lines = 1;
+        for (int index = indexOf(bytes, 0, limit, (byte) '\n'); index >= 0; index = indexOf(bytes, index + 1, limit, (byte) '\n')) {
+            lines++;
+        }
+        return (int) Math.min(Integer.MAX_VALUE / 2, (long) (totalBytes * 1.1 * lines / limit));
+    }
+
+    private static int indexOf(final byte[] bytes, final int from, final int to, final byte value) {
+        for (int index = from; index < to; index++) {
+            if (bytes[index] == value) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Notified of the progress of a load.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * @param bytesRead the bytes of the file read so far.
+         * @param totalBytes the size of the file.
+         * @param toolCount the tools loaded so far.
+         */
+        void onProgress(long bytesRead, long totalBytes, long toolCount);
+    }
+
+    /**
+     * The outcome of a load.
+     * @param toolStock the tools, by tool code.
+     * @param lineCount the lines of the file, including the ignored and rejected ones.
+     * @param rejectedCount the rows that were rejected.
+     * @param rejectedRows the first {@value #MAX_REJECTED_ROWS_KEPT} rejected rows.
+     */
+    public record Result(Map<String, Tool> toolStock, long lineCount, long rejectedCount, List<RejectedRow> rejectedRows) {}
+
+    /**
+     * A row that could not be loaded.
+     * @param lineNumber the line of the row in the file, starting at 1.
+     * @param reason why the row was rejected, with its content.
+     */
+    public record RejectedRow(long lineNumber, String reason) {}
+
+    /**
+     * The state of a load: the tool types accepted, the stock built so far, the brands seen, and the rejected rows.
+     */
+    private static final class Parser {
+
+        /** The policies of the tool types, and the bytes of their names, so a tool shares the name of its tool type. */
+        private final ToolTypePolicy[] toolTypes;
+        private final byte[][] toolTypeBytes;
+        private final BrandTable brands = new BrandTable();
+        private final List<RejectedRow> rejectedRows = new ArrayList<>();
+        private Map<String, Tool> toolStock;
+        private long lineNumber;
+        private long rejectedCount;
+
+        private Parser(final List<ToolTypePolicy> policies) {
+            this.toolTypes = policies.toArray(ToolTypePolicy[]::new);
+            this.toolTypeBytes = Arrays.stream(toolTypes).map(policy -> policy.getName().getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
+        }
+
+        private void presize(final int lineCount) {
+            toolStock = HashMap.newHashMap(lineCount);
+        }
+
+        private void parseLine(final byte[] bytes, final int start, final int lineEnd) {
+            lineNumber++;
+            int end = lineEnd > start && bytes[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+            if (start == end || bytes[start] == '#') {
+                return;
+            }
+            int codeEnd = indexOf(bytes, start, end, (byte) ',');
+            int typeEnd = codeEnd < 0 ? -1 : indexOf(bytes, codeEnd + 1, end, (byte) ',');
+            if (typeEnd < 0 || indexOf(bytes, typeEnd + 1, end, (byte) ',') >= 0) {
+                reject(bytes, start, end, "should have " + FIELD_COUNT + " fields");
+                return;
+            }
+            if (codeEnd == start || typeEnd + 1 == end) {
+                reject(bytes, start, end, "should have a tool code and a brand");
+                return;
+            }
+            ToolTypePolicy toolType = toolTypeOf(bytes, codeEnd + 1, typeEnd);
+            if (isNull(toolType)) {
+                reject(bytes, start, end, "has an unknown tool type");
+                return;
+            }
+            String toolCode = new String(bytes, start, codeEnd - start, StandardCharsets.UTF_8);
+            Tool tool = new Tool(toolType, toolCode, brands.intern(bytes, typeEnd + 1, end));
+            if (toolStock.putIfAbsent(toolCode, tool) != null) {
+                reject(bytes, start, end, "has a tool code that is already in the stock");
+            }
+        }
+
+        private ToolTypePolicy toolTypeOf(final byte[] bytes, final int from, final int to) {
+            for (int index = 0; index < toolTypeBytes.length; index++) {
+                if (Arrays.equals(toolTypeBytes[index], 0, toolTypeBytes[index].length, bytes, from, to)) {
+                    return toolTypes[index];
+                }
+            }
+            return null;
+        }
+
+        private void reject(final byte[] bytes, final int start, final int end, final String reason) {
+            rejectedCount++;
+            if (rejectedRows.size() < MAX_REJECTED_ROWS_KEPT) {
+                rejectedRows.add(new RejectedRow(lineNumber, "The tool in line " + lineNumber + " " + reason + ": "
+                        + new String(bytes, start, end - start, StandardCharsets.UTF_8)));
+            }
+        }
+    }
+
+    /**
+     * Open-addressing table of the brands, keyed by their bytes, so a brand is decoded once and its String shared by
+     * all its tools.
+     */
+    private static final class BrandTable {
+
+        private byte[][] keys = new byte[64][];
+        private String[] values = new String[64];
+        private int size;
+
+        private String intern(final byte[] bytes, final int from, final int to) {
+            int mask = keys.length - 1;
+            for (int slot = hash(bytes, from, to) & mask; ; slot = (slot + 1) & mask) {
+                byte[] key = keys[slot];
+                if (isNull(key)) {
+                    String brand = new String(bytes, from, to - from, StandardCharsets.UTF_8);
+                    keys[slot] = Arrays.copyOfRange(bytes, from, to);
+                    values[slot] = brand;
+                    if (++size > keys.length / 2) {
+                        grow();
+                    }
+                    return brand;
+                }
+                if (Arrays.equals(key, 0, key.length, bytes, from, to)) {
+                    return values[slot];
+                }
+            }
+        }
+
+        private void grow() {
+            byte[][] oldKeys = keys;
+            String[] oldValues = values;
+            keys = new byte[oldKeys.length * 2][];
+            values = new String[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int index = 0; index < oldKeys.length; index++) {
+                if (!isNull(oldKeys[index])) {
+                    int slot = hash(oldKeys[index], 0, oldKeys[index].length) & mask;
+                    while (!isNull(keys[slot])) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[index];
+                    values[slot] = oldValues[index];
+                }
+            }
+        }
+
+        private static int hash(final byte[] bytes, final int from, final int to) {
+            int hash = 1;
+            for (int index = from; index < to; index++) {
+                hash = 31 * hash + bytes[index];
+            }
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+}
@@ -0,0 +1,225 @@
+package com.gillab.service;
+
+import com.gillab.model.Tool;
+import lombok.NonNull;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Read-only index of the tool stock by tool code, for the short ASCII codes of the catalog (CHNS, LADW...): a code of up
+ * to 8 ASCII characters is packed into a long, and looked up in an open-addressing table of longs, so a lookup neither
+ * hashes the String nor compares it, and boxes nothing. The packing is exact, so a key found is the tool code itself.
+ * The other codes (longer or non-ASCII) are kept in a {@link HashMap}.
+ * The index is optional: {@link #asToolStock()} is a map view for {@link ToolService#getInstance}, whose lookups by tool
+ * code go through the index.
+ */
+public class ToolCodeIndex {
+
+    /** The key of an empty slot: no tool code packs to 0, since the length of a packed code is at least 1. */
+    private static final long EMPTY = 0;
+    private static final int MAX_PACKED_LENGTH = Long.BYTES;
+    private static final int ASCII_BITS = 7;
+    private static final int LENGTH_SHIFT = Long.SIZE - Byte.SIZE;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+    private static final int MAX_SLOTS = 1 << 30;
+
+    private final long[] keys;
+    private final Tool[] tools;
+    private final int shift;
+    private final Map<String, Tool> otherTools = new HashMap<>();
+    private final int size;
+
+    private ToolCodeIndex(final Map<String, Tool> toolStock) {
+        // The table is at most half full, so a lookup probes few slots, and a missing code soon finds an empty one
+        long slots = Math.max(2, Long.highestOneBit(Math.max(1, toolStock.size())) << 2);
+        if (slots > MAX_SLOTS) {
+            throw new IllegalArgumentException("The tool stock of " + toolStock.size() + " tools is too large to be indexed.");
+        }
+        int slotCount = (int) slots;
+        this.keys = new long[slotCount];
+        this.tools = new Tool[slotCount];
+        this.shift = Long.SIZE - Integer.numberOfTrailingZeros(slotCount);
+        for (Map.Entry<String, Tool> entry : toolStock.entrySet()) {
+            long key = pack(entry.getKey());
+            if (key == EMPTY) {
+                otherTools.put(entry.getKey(), entry.getValue());
+                continue;
+            }
+            int slot = slotOf(key);
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & (slotCount - 1);
+            }
+            keys[slot] = key;
+            tools[slot] = entry.getValue();
+        }
+        this.size = toolStock.size();
+    }
+
+    /**
+     * Index a tool stock. The index is a copy: the tools added to the stock afterwards are not found.
+     * @param toolStock the tools, by tool code.
+     * @return the {@link ToolCodeIndex}
+     */
+    public static ToolCodeIndex of(@NonNull final Map<String, Tool> toolStock) {
+        return new ToolCodeIndex(toolStock);
+    }
+
+    /**
+     * Find a tool by its code.
+     * @param toolCode the tool code to look for.
+     * @return the {@link Tool}, or null when the tool code is not in the stock.
+     */
+    public Tool get(@NonNull final String toolCode) {
+        long key = pack(toolCode);
+        if (key == EMPTY) {
+            return otherTools.isEmpty() ? null : otherTools.get(toolCode);
+        }
+        int mask = keys.length - 1;
+        for (int slot = slotOf(key); ; slot = (slot + 1) & mask) {
+            long slotKey = keys[slot];
+            if (slotKey == key) {
+                return tools[slot];
+            }
+            if (slotKey == EMPTY) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Find a tool by its code.
+     * @param toolCode the tool code to look for.
+     * @return the {@link Tool}, or empty when the tool code is not in the stock.
+     */
+    public Optional<Tool> findTool(@NonNull final String toolCode) {
+        return Optional.ofNullable(get(toolCode));
+    }
+
+    /**
+     * @return the number of tools in the index.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * A read-only map view of the index, e.g. for {@link ToolService#getInstance}. The lookups by tool code use the
+     * index; iterating the map visits the slots of the table, then the tools with the other codes.
+     * @return the map of the tools, by tool code.
+     */
+    public Map<String, Tool> asToolStock() {
+        return new ToolStockView();
+    }
+
+    /**
+     * Pack a tool code in a long: its length in the most significant byte, then 7 bits per ASCII character, so two codes
+     * never pack to the same long. The characters are checked once packed, so the loop does not branch on them.
+     * @param toolCode the tool code.
+     * @return the packed code, or {@link #EMPTY} when the code is empty, longer than 8 characters, or not ASCII.
+     */
+    static long pack(final String toolCode) {
+        int length = toolCode.length();
+        if (length == 0 || length > MAX_PACKED_LENGTH) {
+            return EMPTY;
+        }
+        long key = 0;
+        int characters = 0;
+        for (int index = 0; index < length; index++) {
+            char character = toolCode.charAt(index);
+            key = key << ASCII_BITS | character;
+            characters |= character;
+        }
+        return characters < 0x80 ? key | (long) length << LENGTH_SHIFT : EMPTY;
+    }
+
+    /**
+     * The first slot of a key, from the high bits of its Fibonacci hash, which mix every character of the code.
+     */
+    private int slotOf(final long key) {
+        return (int) ((key * GOLDEN_RATIO) >>> shift);
+    }
+
+    /**
+     * The index as a map. It is never modified once built, so the view can be read by many threads at once.
+     */
+    private final class ToolStockView extends AbstractMap<String, Tool> {
+
+        @Override
+        public Tool get(final Object key) {
+            return key instanceof String toolCode ? ToolCodeIndex.this.get(toolCode) : null;
+        }
+
+        @Override
+        public Tool getOrDefault(final Object key, final Tool defaultValue) {
+            Tool tool = get(key);
+            return isNull(tool) ? defaultValue : tool;
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return nonNull(get(key));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Set<Entry<String, Tool>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Tool>> iterator() {
+                    Iterator<Tool> others = otherTools.values().iterator();
+                    return new Iterator<>() {
+                        private int slot = nextSlot(0);
+
+                        @Override
+                        public boolean hasNext() {
+                            return slot < keys.length || others.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Tool> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Tool tool;
+                            if (slot < keys.length) {
+                                tool = tools[slot];
+                                slot = nextSlot(slot + 1);
+                            } else {
+                                tool = others.next();
+                            }
+                            return new SimpleImmutableEntry<>(tool.getCode(), tool);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+
+        private int nextSlot(final int from) {
+            int slot = from;
+            while (slot < keys.length && keys[slot] == EMPTY) {
+                slot++;
+            }
+            return slot;
+        }
+    }
+
+}
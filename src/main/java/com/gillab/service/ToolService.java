@@ -1,15 +1,18 @@
 package com.gillab.service;
 
+import com.gillab.metrics.CheckoutMetrics;
 import com.gillab.model.Tool;
 import com.gillab.model.ToolTypeEnum;
+import com.gillab.model.ToolTypePolicy;
+import com.gillab.util.Money;
 import lombok.NonNull;
 
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.INVALID_TOOL_CODE;
 import static com.gillab.exception.ExceptionBuilder.buildBusinessApplicationException;
-import static com.gillab.util.Constants.*;
 import static java.util.Objects.isNull;
 
 
@@ -18,9 +21,12 @@ public class ToolService {
     private static ToolService INSTANCE;
 
     private final Map<String, Tool> toolStock;
+    private final ToolTypePolicyRegistry toolTypePolicyRegistry;
+    private final CheckoutMetrics metrics = CheckoutMetrics.getInstance();
 
     private ToolService(@NonNull final Map<String, Tool> toolStock) {
         this.toolStock = toolStock;
+        this.toolTypePolicyRegistry = ToolTypePolicyRegistry.getInstance();
     }
 
     public static ToolService getInstance(@NonNull final Map<String, Tool> toolStock) {
@@ -37,11 +43,57 @@ public class ToolService {
      * @return {@link Tool}
      */
     public Tool getToolByCode(@NonNull final String toolCode, @NonNull final UUID correlationId) {
-        Tool tool = toolStock.getOrDefault(toolCode, null);
-        if ( isNull(tool) ) {
-            throw buildBusinessApplicationException(correlationId, INVALID_TOOL_CODE, toolCode);
+        long startNanos = System.nanoTime();
+        try {
+            return findToolByCode(toolCode)
+                    .orElseThrow(() -> buildBusinessApplicationException(correlationId, INVALID_TOOL_CODE, toolCode));
+        } finally {
+            metrics.getToolLookupHistogram().recordSince(startNanos);
         }
-        return tool;
+    }
+
+    /**
+     * Find a tool in the stock, without failing when it does not exist.
+     * @param toolCode the tool code to look for.
+     * @return the {@link Tool}, or empty when the tool code does not exist in the stock.
+     */
+    public Optional<Tool> findToolByCode(@NonNull final String toolCode) {
+        return Optional.ofNullable(toolStock.getOrDefault(toolCode, null));
+    }
+
+    /**
+     * Determine the pricing policy of a tool: the daily rental charge and the days when it applies, read at once from
+     * the array of the {@link ToolTypePolicyRegistry} at the id of its tool type.
+     * @param tool the {@link Tool}
+     * @return the {@link ToolTypePolicy} of the tool type of the tool.
+     */
+    public ToolTypePolicy getToolTypePolicy(@NonNull final Tool tool) {
+        return toolTypePolicyRegistry.getPolicy(tool);
+    }
+
+    /**
+     * Determine the pricing policy of a given tool type: the daily rental charge and the days when it applies, resolved
+     * at once from the {@link ToolTypePolicyRegistry}.
+     * @param toolType the name of the tool type, as in {@link Tool#getType()}.
+     * @return the {@link ToolTypePolicy} of the tool type.
+     */
+    public ToolTypePolicy getToolTypePolicy(@NonNull final String toolType) {
+        return toolTypePolicyRegistry.getPolicy(toolType);
+    }
+
+    /**
+     * @param toolType {@link ToolTypeEnum}
+     * @return the {@link ToolTypePolicy} of the built-in tool type.
+     */
+    public ToolTypePolicy getToolTypePolicy(@NonNull final ToolTypeEnum toolType) {
+        return getToolTypePolicy(toolType.name());
+    }
+
+    /**
+     * @return the version of the tool type policies, which changes every time a policy is registered.
+     */
+    public long getToolTypePolicyVersion() {
+        return toolTypePolicyRegistry.getVersion();
     }
 
     /**
@@ -50,26 +102,25 @@ public class ToolService {
      * @return a double value representing the daily rental charge.
      */
     public double getDailyRentalChargeByToolType(@NonNull final ToolTypeEnum toolType) {
-        return
-            switch (toolType) {
-                case LADDER -> LADDER_DAILY_CHARGE;
-                case CHAINSAW -> CHAINSAW_DAILY_CHARGE;
-                case JACKHAMMER -> JACKHAMMER_DAILY_CHARGE;
-            };
+        return Money.toDouble(getDailyRentalChargeCentsByToolType(toolType));
+    }
+
+    /**
+     * Determine the exact daily rental charge for a give tool type.
+     * @param toolType {@link ToolTypeEnum}
+     * @return the daily rental charge, in cents.
+     */
+    public long getDailyRentalChargeCentsByToolType(@NonNull final ToolTypeEnum toolType) {
+        return getToolTypePolicy(toolType).getDailyRentalChargeCents();
     }
 
     /**
      * Determine if a tool type generates a charge on a week day.
-     * Note: Currently, the 3 tool types generate a charge, but we can still benefit of this method when weekday-free tools
-     * are introduced, so we don't affect the final charge calculation during checkout.
      * @param toolType {@link ToolTypeEnum}
      * @return true when the tool type generates a charge on a week day, otherwise false.
      */
     public boolean isToolTypeWeekdayChargeable(@NonNull final ToolTypeEnum toolType) {
-        return true;
-//             switch (toolType) {
-//                case LADDER, CHAINSAW, JACKHAMMER -> true;
-//            };
+        return getToolTypePolicy(toolType).isWeekdayChargeable();
     }
 
     /**
@@ -78,11 +129,7 @@ public class ToolService {
      * @return true when the tool type generates a charge during the weekend, otherwise false.
      */
     public boolean isToolTypeWeekendChargeable(@NonNull final ToolTypeEnum toolType) {
-        return
-            switch (toolType) {
-                case LADDER -> true;
-                case CHAINSAW, JACKHAMMER -> false;
-            };
+        return getToolTypePolicy(toolType).isWeekendChargeable();
     }
 
     /**
@@ -91,11 +138,7 @@ public class ToolService {
      * @return true when the tool type generates a charge during a Holiday, otherwise false.
      */
     public boolean isToolTypeHolidayChargeable(@NonNull final ToolTypeEnum toolType) {
-        return
-            switch (toolType) {
-                case CHAINSAW -> true;
-                case LADDER, JACKHAMMER -> false;
-            };
+        return getToolTypePolicy(toolType).isHolidayChargeable();
     }
 
 }
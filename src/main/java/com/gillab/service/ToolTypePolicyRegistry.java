@@ -0,0 +1,251 @@
+package com.gillab.service;
+
+import com.gillab.model.Tool;
+import com.gillab.model.ToolTypeEnum;
+import com.gillab.model.ToolTypePolicy;
+import lombok.NonNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.isNull;
+
+/**
+ * The pricing policies of the tool types, loaded from a config file instead of being hard-coded, so a tool type can be
+ * added, or its charges changed, without recompiling {@link ToolTypeEnum}: the enum only seeds the built-in tool types,
+ * which every config must have, while a {@link com.gillab.model.Tool} refers to its tool type by name.
+ * Every tool type gets a dense id, and the policies are kept in a flat array indexed by that id, and in an immutable
+ * map by name, so a lookup returns the daily charge and all the chargeable days at once. A tool carries the id of its
+ * tool type, so the checkout resolves its policy by id. The array and the map are
+ * never modified once published: registering a tool type builds new ones, which replace them, so readers never need
+ * a lock.
+ */
+public class ToolTypePolicyRegistry {
+
+    /** The config file with the policies of the built-in tool types, in the classpath. */
+    public static final String DEFAULT_POLICIES_RESOURCE = "tool-type-policies.csv";
+
+    private static final int FIELD_COUNT = 6;
+
+    private static ToolTypePolicyRegistry INSTANCE;
+
+    private volatile Policies policies = Policies.EMPTY;
+    /** Incremented every time a policy is registered, so the data derived from the policies knows when to refresh. */
+    private volatile long version;
+
+    private ToolTypePolicyRegistry() {
+    }
+
+    /**
+     * @return the registry loaded from {@value #DEFAULT_POLICIES_RESOURCE}.
+     */
+    public static synchronized ToolTypePolicyRegistry getInstance() {
+        if (isNull(INSTANCE)) {
+            InputStream config = ToolTypePolicyRegistry.class.getClassLoader().getResourceAsStream(DEFAULT_POLICIES_RESOURCE);
+            if (isNull(config)) {
+                throw new IllegalStateException("The tool type policies file " + DEFAULT_POLICIES_RESOURCE + " is not in the classpath.");
+            }
+            INSTANCE = load(new InputStreamReader(config, StandardCharsets.UTF_8));
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Load a registry from a config file with one tool type per line: name,displayName,dailyCharge,weekdayCharge,
+     * weekendCharge,holidayCharge. The daily charge is in dollars, and the charge flags are true or false. Blank lines
+     * and lines starting with # are ignored. Every built-in tool type must have a policy.
+     * @param config the content of the config file; it is closed once read.
+     * @return a new registry, with the ids in the order of the lines.
+     */
+    public static ToolTypePolicyRegistry load(@NonNull final Reader config) {
+        ToolTypePolicyRegistry registry = new ToolTypePolicyRegistry();
+        try (BufferedReader reader = new BufferedReader(config)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                registry.registerFromConfig(parse(line, lineNumber));
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("The tool type policies could not be read.", exception);
+        }
+        for (ToolTypeEnum toolType : ToolTypeEnum.values()) {
+            if (registry.findPolicy(toolType.name()).isEmpty()) {
+                throw new IllegalArgumentException("The tool type " + toolType.name() + " has no policy.");
+            }
+        }
+        return registry;
+    }
+
+    /**
+     * Register the policy of a tool type. A new tool type gets the next id; a tool type that is already registered
+     * keeps its id, and its policy is replaced.
+     * @param name the name of the tool type, e.g. LADDER.
+     * @param displayName the name of the tool type shown in the rental agreement, e.g. Ladder.
+     * @param dailyRentalChargeCents the daily rental charge, in cents.
+     * @param weekdayChargeable whether the tool type generates a charge on a non-holiday weekday.
+     * @param weekendChargeable whether the tool type generates a charge on a non-holiday weekend.
+     * @param holidayChargeable whether the tool type generates a charge on a holiday.
+     * @return the registered {@link ToolTypePolicy}
+     */
+    public synchronized ToolTypePolicy register(
+            @NonNull final String name,
+            @NonNull final String displayName,
+            final long dailyRentalChargeCents,
+            final boolean weekdayChargeable,
+            final boolean weekendChargeable,
+            final boolean holidayChargeable
+    ) {
+        if (dailyRentalChargeCents < 0) {
+            throw new IllegalArgumentException("The daily rental charge of the tool type " + name + " can not be negative.");
+        }
+        Policies current = policies;
+        ToolTypePolicy previous = current.byName.get(name);
+        int id = isNull(previous) ? current.byId.length : previous.getId();
+        ToolTypePolicy policy = new ToolTypePolicy(id, name, displayName, dailyRentalChargeCents,
+                weekdayChargeable, weekendChargeable, holidayChargeable);
+        policies = current.with(policy);
+        version++;
+        return policy;
+    }
+
+    /**
+     * @param toolType {@link ToolTypeEnum}
+     * @return the {@link ToolTypePolicy} of the built-in tool type.
+     */
+    public ToolTypePolicy getPolicy(@NonNull final ToolTypeEnum toolType) {
+        return getPolicy(toolType.name());
+    }
+
+    /**
+     * @param name the name of the tool type, e.g. LADDER.
+     * @return the {@link ToolTypePolicy} of the tool type.
+     * @throws IllegalArgumentException when the tool type is not registered.
+     */
+    public ToolTypePolicy getPolicy(@NonNull final String name) {
+        ToolTypePolicy policy = policies.byName.get(name);
+        if (isNull(policy)) {
+            throw new IllegalArgumentException("There is no tool type with the name " + name + ".");
+        }
+        return policy;
+    }
+
+    /**
+     * @param id the id of the tool type.
+     * @return the {@link ToolTypePolicy} with the given id.
+     */
+    public ToolTypePolicy getPolicy(final int id) {
+        ToolTypePolicy[] byId = policies.byId;
+        if (id < 0 || id >= byId.length) {
+            throw new IllegalArgumentException("There is no tool type with the id " + id + ".");
+        }
+        return byId[id];
+    }
+
+    /**
+     * Return the policy of the tool type of a tool with a single array read at its id. A tool whose id is not the one
+     * of its tool type in this registry, e.g. a tool of another registry, falls back to the lookup by name.
+     * @param tool the tool, with the name and the id of its tool type.
+     * @return the {@link ToolTypePolicy} of the tool type.
+     * @throws IllegalArgumentException when the tool type is not registered.
+     */
+    public ToolTypePolicy getPolicy(@NonNull final Tool tool) {
+        ToolTypePolicy[] byId = policies.byId;
+        int id = tool.getTypeId();
+        if (id >= 0 && id < byId.length && byId[id].getName().equals(tool.getType())) {
+            return byId[id];
+        }
+        return getPolicy(tool.getType());
+    }
+
+    /**
+     * @param name the name of the tool type, e.g. LADDER.
+     * @return the {@link ToolTypePolicy}, or empty when the tool type is not registered.
+     */
+    public Optional<ToolTypePolicy> findPolicy(@NonNull final String name) {
+        return Optional.ofNullable(policies.byName.get(name));
+    }
+
+    /**
+     * @return the policies of every tool type, in the order of their ids.
+     */
+    public List<ToolTypePolicy> getPolicies() {
+        return List.of(policies.byId);
+    }
+
+    /**
+     * @return the version of the policies, which changes every time a policy is registered.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    private static ToolTypePolicy parse(final String line, final int lineNumber) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != FIELD_COUNT) {
+            throw new IllegalArgumentException("The tool type policy in line " + lineNumber + " should have " + FIELD_COUNT + " fields.");
+        }
+        try {
+            return new ToolTypePolicy(-1, fields[0].strip(), fields[1].strip(),
+                    new BigDecimal(fields[2].strip()).movePointRight(2).longValueExact(),
+                    parseFlag(fields[3]), parseFlag(fields[4]), parseFlag(fields[5]));
+        } catch (ArithmeticException | IllegalArgumentException exception) {
+            throw new IllegalArgumentException("The tool type policy in line " + lineNumber + " is not valid: " + line, exception);
+        }
+    }
+
+    private static boolean parseFlag(final String field) {
+        return switch (field.strip()) {
+            case "true" -> true;
+            case "false" -> false;
+            default -> throw new IllegalArgumentException("The charge flag " + field + " should be true or false.");
+        };
+    }
+
+    private void registerFromConfig(final ToolTypePolicy policy) {
+        if (findPolicy(policy.getName()).isPresent()) {
+            throw new IllegalArgumentException("The tool type " + policy.getName() + " has more than one policy.");
+        }
+        register(policy.getName(), policy.getDisplayName(), policy.getDailyRentalChargeCents(),
+                policy.isWeekdayChargeable(), policy.isWeekendChargeable(), policy.isHolidayChargeable());
+    }
+
+    /**
+     * The published policies: by id, and by name.
+     */
+    private static final class Policies {
+
+        private static final Policies EMPTY = new Policies(new ToolTypePolicy[0], Map.of());
+
+        private final ToolTypePolicy[] byId;
+        private final Map<String, ToolTypePolicy> byName;
+
+        private Policies(final ToolTypePolicy[] byId, final Map<String, ToolTypePolicy> byName) {
+            this.byId = byId;
+            this.byName = byName;
+        }
+
+        private Policies with(final ToolTypePolicy policy) {
+            ToolTypePolicy[] newById = Arrays.copyOf(byId, Math.max(byId.length, policy.getId() + 1));
+            newById[policy.getId()] = policy;
+            Map<String, ToolTypePolicy> newByName = new HashMap<>(byName);
+            newByName.put(policy.getName(), policy);
+            return new Policies(newById, Map.copyOf(newByName));
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+package com.gillab.store;
+
+import com.gillab.model.RentalAgreement;
+
+import java.lang.foreign.MemoryLayout.PathElement;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.time.LocalDate;
+
+import static com.gillab.store.OffHeapAgreementStore.RECORD_LAYOUT;
+import static com.gillab.util.Money.toDouble;
+
+/**
+ * A flyweight over the records of an {@link OffHeapAgreementStore}: it is moved from one agreement to another, and
+ * every getter reads its field from the memory of the store, so nothing is copied or allocated. The texts are the ones
+ * of the dictionary of the store, and the dates are available as epoch days to compare them without a {@link LocalDate}.
+ * A view is not thread-safe; every thread should use its own.
+ */
+public final class AgreementView {
+
+    static final long TOOL_CODE = offsetOf("toolCode");
+    static final long TOOL_TYPE = offsetOf("toolType");
+    static final long TOOL_BRAND = offsetOf("toolBrand");
+    static final long RENTAL_DAYS = offsetOf("rentalDays");
+    static final long CHECKOUT_DATE = offsetOf("checkoutDate");
+    static final long DUE_DATE = offsetOf("dueDate");
+    static final long CHARGE_DAYS = offsetOf("chargeDays");
+    static final long DISCOUNT_PERCENT = offsetOf("discountPercent");
+    static final long DAILY_RENTAL_CHARGE_CENTS = offsetOf("dailyRentalChargeCents");
+    static final long PRE_DISCOUNT_CHARGE_CENTS = offsetOf("preDiscountChargeCents");
+    static final long DISCOUNT_AMOUNT_CENTS = offsetOf("discountAmountCents");
+    static final long FINAL_CHARGE_CENTS = offsetOf("finalChargeCents");
+
+    private final OffHeapAgreementStore store;
+    private MemorySegment segment;
+    private long offset;
+    private int index = -1;
+
+    AgreementView(final OffHeapAgreementStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Position the view on an agreement of the store.
+     * @param index the index of the agreement, as returned by {@link OffHeapAgreementStore#add}.
+     * @return this view.
+     */
+    public AgreementView moveTo(final int index) {
+        if (index < 0 || index >= store.size()) {
+            throw new IndexOutOfBoundsException("There is no agreement at the index " + index + " of the store.");
+        }
+        this.segment = store.chunkOf(index);
+        this.offset = OffHeapAgreementStore.offsetOf(index);
+        this.index = index;
+        return this;
+    }
+
+    /**
+     * @return the index of the agreement of the view, or -1 when it was not moved yet.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public String getToolCode() {
+        return store.textOf(getInt(TOOL_CODE));
+    }
+
+    public String getToolType() {
+        return store.textOf(getInt(TOOL_TYPE));
+    }
+
+    public String getToolBrand() {
+        return store.textOf(getInt(TOOL_BRAND));
+    }
+
+    public int getRentalDays() {
+        return getInt(RENTAL_DAYS);
+    }
+
+    public int getCheckoutEpochDay() {
+        return getInt(CHECKOUT_DATE);
+    }
+
+    public LocalDate getCheckoutDate() {
+        return LocalDate.ofEpochDay(getCheckoutEpochDay());
+    }
+
+    public int getDueEpochDay() {
+        return getInt(DUE_DATE);
+    }
+
+    public LocalDate getDueDate() {
+        return LocalDate.ofEpochDay(getDueEpochDay());
+    }
+
+    public int getChargeDays() {
+        return getInt(CHARGE_DAYS);
+    }
+
+    public int getDiscountPercent() {
+        return getInt(DISCOUNT_PERCENT);
+    }
+
+    public long getDailyRentalChargeCents() {
+        return getLong(DAILY_RENTAL_CHARGE_CENTS);
+    }
+
+    public long getPreDiscountChargeCents() {
+        return getLong(PRE_DISCOUNT_CHARGE_CENTS);
+    }
+
+    public long getDiscountAmountCents() {
+        return getLong(DISCOUNT_AMOUNT_CENTS);
+    }
+
+    public long getFinalChargeCents() {
+        return getLong(FINAL_CHARGE_CENTS);
+    }
+
+    public double getFinalCharge() {
+        return toDouble(getFinalChargeCents());
+    }
+
+    /**
+     * Create the {@link RentalAgreement} of the view, which is independent of the store.
+     * @return the {@link RentalAgreement}
+     */
+    public RentalAgreement toAgreement() {
+        return new RentalAgreement(
+                getToolCode(),
+                getToolType(),
+                getToolBrand(),
+                getRentalDays(),
+                getCheckoutDate(),
+                getDueDate(),
+                getDailyRentalChargeCents(),
+                getChargeDays(),
+                getPreDiscountChargeCents(),
+                getDiscountPercent(),
+                getDiscountAmountCents(),
+                getFinalChargeCents()
+        );
+    }
+
+    private int getInt(final long field) {
+        return segment.get(ValueLayout.JAVA_INT, offset + field);
+    }
+
+    private long getLong(final long field) {
+        return segment.get(ValueLayout.JAVA_LONG, offset + field);
+    }
+
+    private static long offsetOf(final String field) {
+        return RECORD_LAYOUT.byteOffset(PathElement.groupElement(field));
+    }
+
+}
@@ -0,0 +1,220 @@
+package com.gillab.store;
+
+import com.gillab.model.RentalAgreement;
+import lombok.NonNull;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Rental agreements kept off the heap, so tens of millions of them do not add to the work of the garbage collector.
+ * Every agreement is a fixed-width record of 64 bytes, in chunks of {@value #CHUNK_RECORDS} records
+ * allocated from a shared {@link Arena} as the store grows, so adding an agreement never copies the older ones:
+ * - The tool code, tool type and brand, as the index of the text in a dictionary of the store (4 bytes each).
+ * - The rental days, checkout date and due date (epoch days), charge days and discount percent (4 bytes each).
+ * - The daily charge, pre-discount charge, discount amount and final charge, in cents (8 bytes each).
+ * The records are read through an {@link AgreementView}, a flyweight that reads the fields in place; a
+ * {@link RentalAgreement} is only created by {@link #get} or {@link AgreementView#toAgreement}.
+ * The agreements are added one at a time, and can be read by many threads at once, e.g. by a parallel {@link #collect}.
+ * The memory is released when the store is closed; reading it afterwards throws an {@link IllegalStateException}.
+ */
+public class OffHeapAgreementStore implements AutoCloseable {
+
+    static final StructLayout RECORD_LAYOUT = MemoryLayout.structLayout(
+            ValueLayout.JAVA_INT.withName("toolCode"),
+            ValueLayout.JAVA_INT.withName("toolType"),
+            ValueLayout.JAVA_INT.withName("toolBrand"),
+            ValueLayout.JAVA_INT.withName("rentalDays"),
+            ValueLayout.JAVA_INT.withName("checkoutDate"),
+            ValueLayout.JAVA_INT.withName("dueDate"),
+            ValueLayout.JAVA_INT.withName("chargeDays"),
+            ValueLayout.JAVA_INT.withName("discountPercent"),
+            ValueLayout.JAVA_LONG.withName("dailyRentalChargeCents"),
+            ValueLayout.JAVA_LONG.withName("preDiscountChargeCents"),
+            ValueLayout.JAVA_LONG.withName("discountAmountCents"),
+            ValueLayout.JAVA_LONG.withName("finalChargeCents")
+    );
+    /** A record is as wide as a cache line, and the chunks are aligned to it, so a record is read from one line. */
+    static final int RECORD_BYTES = (int) RECORD_LAYOUT.byteSize();
+    static final int CHUNK_RECORDS = 1 << 16;
+
+    private static final int CHUNK_SHIFT = Integer.numberOfTrailingZeros(CHUNK_RECORDS);
+    private static final int CHUNK_MASK = CHUNK_RECORDS - 1;
+
+    private final Arena arena = Arena.ofShared();
+    /** The arrays are replaced when they grow, and volatile so the readers see the content of the new ones. */
+    private volatile MemorySegment[] chunks = new MemorySegment[16];
+    private volatile String[] texts = new String[64];
+    private final Map<String, Integer> textIndexes = new HashMap<>();
+    /**
+     * The number of agreements added. It is written after the record and the dictionary, and read before them, so
+     * every agreement below it is seen complete by the readers.
+     */
+    private volatile int size;
+
+    /**
+     * Add an agreement at the end of the store.
+     * @param agreement the agreement to copy in the store.
+     * @return the index of the agreement in the store.
+     */
+    public synchronized int add(@NonNull final RentalAgreement agreement) {
+        int index = size;
+        if (index == Integer.MAX_VALUE) {
+            throw new IllegalStateException("The agreement store is full.");
+        }
+        int chunk = index >>> CHUNK_SHIFT;
+        MemorySegment[] currentChunks = chunks;
+        if (chunk == currentChunks.length) {
+            currentChunks = Arrays.copyOf(currentChunks, currentChunks.length * 2);
+        }
+        if (isNull(currentChunks[chunk])) {
+            currentChunks[chunk] = arena.allocate((long) CHUNK_RECORDS * RECORD_BYTES, RECORD_BYTES);
+            chunks = currentChunks;
+        }
+        MemorySegment segment = currentChunks[chunk];
+        long offset = (long) (index & CHUNK_MASK) * RECORD_BYTES;
+        segment.set(ValueLayout.JAVA_INT, offset + AgreementView.TOOL_CODE, textIndex(agreement.getToolCode()));
+        segment.set(ValueLayout.JAVA_INT, offset + AgreementView.TOOL_TYPE, textIndex(agreement.getToolType()));
+        segment.set(ValueLayout.JAVA_INT, offset + AgreementView.TOOL_BRAND, textIndex(agreement.getToolBrand()));
+        segment.set(ValueLayout.JAVA_INT, offset + AgreementView.RENTAL_DAYS, agreement.getRentalDays());
+        segment.set(ValueLayout.JAVA_INT, offset + AgreementView.CHECKOUT_DATE, Math.toIntExact(agreement.getCheckoutDate().toEpochDay()));
+        segment.set(ValueLayout.JAVA_INT, offset + AgreementView.DUE_DATE, Math.toIntExact(agreement.getDueDate().toEpochDay()));
+        segment.set(ValueLayout.JAVA_INT, offset + AgreementView.CHARGE_DAYS, agreement.getChargeDays());
+        segment.set(ValueLayout.JAVA_INT, offset + AgreementView.DISCOUNT_PERCENT, agreement.getDiscountPercent());
+        segment.set(ValueLayout.JAVA_LONG, offset + AgreementView.DAILY_RENTAL_CHARGE_CENTS, agreement.getDailyRentalChargeCents());
+        segment.set(ValueLayout.JAVA_LONG, offset + AgreementView.PRE_DISCOUNT_CHARGE_CENTS, agreement.getPreDiscountChargeCents());
+        segment.set(ValueLayout.JAVA_LONG, offset + AgreementView.DISCOUNT_AMOUNT_CENTS, agreement.getDiscountAmountCents());
+        segment.set(ValueLayout.JAVA_LONG, offset + AgreementView.FINAL_CHARGE_CENTS, agreement.getFinalChargeCents());
+        size = index + 1;
+        return index;
+    }
+
+    /**
+     * @return the number of agreements in the store.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Create the agreement at an index of the store.
+     * @param index the index of the agreement, as returned by {@link #add}.
+     * @return the {@link RentalAgreement}, or empty when there is no agreement at the index.
+     */
+    public Optional<RentalAgreement> get(final int index) {
+        return index < 0 || index >= size ? Optional.empty() : Optional.of(view().moveTo(index).toAgreement());
+    }
+
+    /**
+     * A flyweight over the agreements of the store, positioned with {@link AgreementView#moveTo}. It can be reused
+     * for any number of agreements, but only by one thread at a time.
+     * @return the {@link AgreementView}
+     */
+    public AgreementView view() {
+        return new AgreementView(this);
+    }
+
+    /**
+     * Visit every agreement in order, through a single flyweight.
+     * @param action what is done with every agreement; the view must not be kept once it returns.
+     */
+    public void forEach(@NonNull final Consumer<AgreementView> action) {
+        int count = size;
+        AgreementView view = view();
+        for (int index = 0; index < count; index++) {
+            action.accept(view.moveTo(index));
+        }
+    }
+
+    /**
+     * Reduce every agreement in parallel, e.g. to sum the charges of a period. Every chunk of the store is scanned by a
+     * task of the common pool with its own flyweight and result, and the results of the chunks are then combined.
+     * The agreements added during the scan are not visited.
+     * @param supplier creates the result of a chunk.
+     * @param accumulator adds an agreement to the result of a chunk; the view must not be kept once it returns.
+     * @param combiner merges the results of two chunks.
+     * @return the result of every agreement.
+     * @param <R> the type of the result.
+     */
+    public <R> R collect(
+            @NonNull final Supplier<R> supplier,
+            @NonNull final BiConsumer<R, AgreementView> accumulator,
+            @NonNull final BinaryOperator<R> combiner
+    ) {
+        int count = size;
+        int chunkCount = (count + CHUNK_MASK) >>> CHUNK_SHIFT;
+        return IntStream.range(0, chunkCount).parallel()
+                .mapToObj(chunk -> {
+                    R result = supplier.get();
+                    AgreementView view = view();
+                    int end = Math.min(count, (chunk + 1) << CHUNK_SHIFT);
+                    for (int index = chunk << CHUNK_SHIFT; index < end; index++) {
+                        accumulator.accept(result, view.moveTo(index));
+                    }
+                    return result;
+                })
+                .reduce(combiner)
+                .orElseGet(supplier);
+    }
+
+    /**
+     * @return the bytes allocated off the heap for the records.
+     */
+    public long getAllocatedBytes() {
+        int count = size;
+        return (long) ((count + CHUNK_MASK) >>> CHUNK_SHIFT) * CHUNK_RECORDS * RECORD_BYTES;
+    }
+
+    /**
+     * Release the memory of the records. The store must not be read by another thread in the meantime.
+     */
+    @Override
+    public synchronized void close() {
+        arena.close();
+    }
+
+    /**
+     * The chunk of an index below the size. The size must be read first, so the chunk is seen.
+     */
+    MemorySegment chunkOf(final int index) {
+        return chunks[index >>> CHUNK_SHIFT];
+    }
+
+    static long offsetOf(final int index) {
+        return (long) (index & CHUNK_MASK) * RECORD_BYTES;
+    }
+
+    /**
+     * The text of an index of the dictionary, below the size of the store.
+     */
+    String textOf(final int textIndex) {
+        return texts[textIndex];
+    }
+
+    private int textIndex(final String text) {
+        Integer textIndex = textIndexes.get(text);
+        if (isNull(textIndex)) {
+            textIndex = textIndexes.size();
+            String[] currentTexts = textIndex == texts.length ? Arrays.copyOf(texts, textIndex * 2) : texts;
+            currentTexts[textIndex] = text;
+            texts = currentTexts;
+            textIndexes.put(text, textIndex);
+        }
+        return textIndex;
+    }
+
+}
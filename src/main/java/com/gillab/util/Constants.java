@@ -16,8 +16,12 @@ public class Constants {
     public static final Integer MAX_RENTAL_DAYS = 365;
     public static final Predicate<Integer> IS_VALID_RENTAL_DAYS = i -> i != null && i >= MIN_RENTAL_DAYS && i <= MAX_RENTAL_DAYS;
 
-    public static final Double LADDER_DAILY_CHARGE = 1.99;
-    public static final Double CHAINSAW_DAILY_CHARGE = 1.49;
-    public static final Double JACKHAMMER_DAILY_CHARGE = 1.99;
+    public static final int MAX_RESERVATION_DAYS = 100 * 366;
+
+    public static final int CALENDAR_INDEX_FIRST_YEAR = 1990;
+    public static final int CALENDAR_INDEX_LAST_YEAR = 2100;
+    public static final int CALENDAR_INDEX_MAX_YEARS = 400;
+
+    public static final int QUOTE_CACHE_CAPACITY = 10_000;
 
 }
@@ -0,0 +1,57 @@
+package com.gillab.util;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point money arithmetic on amounts expressed as a number of cents in a long.
+ * Additions, subtractions and multiplications by a whole quantity are exact; percentages are rounded half up to cents
+ * (ties away from zero, like {@link java.math.RoundingMode#HALF_UP}). Nothing is allocated, so the amounts can be used
+ * in the checkout hot path without boxing or {@link BigDecimal}.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class Money {
+
+    public static final int CENTS_PER_UNIT = 100;
+
+    /**
+     * Calculate a percentage of an amount, rounded half up to cents.
+     * @param cents the amount, in cents.
+     * @param percent the percentage as a whole number, e.g. 20 = 20%.
+     * @return the percentage of the amount, in cents.
+     */
+    public static long percentOf(final long cents, final int percent) {
+        long scaled = Math.multiplyExact(cents, percent);
+        return scaled >= 0 ? (scaled + 50) / 100 : -((-scaled + 50) / 100);
+    }
+
+    /**
+     * Multiply an amount by a whole quantity, e.g. the daily charge by the number of days.
+     * @param cents the amount, in cents.
+     * @param quantity the number of times the amount is charged.
+     * @return the product, in cents.
+     * @throws ArithmeticException when the result does not fit in a long.
+     */
+    public static long multiply(final long cents, final long quantity) {
+        return Math.multiplyExact(cents, quantity);
+    }
+
+    /**
+     * @param cents the amount, in cents.
+     * @return the closest double to the amount in units, e.g. 199 cents = 1.99
+     */
+    public static double toDouble(final long cents) {
+        return cents / (double) CENTS_PER_UNIT;
+    }
+
+    /**
+     * @param cents the amount, in cents.
+     * @return the exact amount in units, with a scale of 2.
+     */
+    public static BigDecimal toBigDecimal(final long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+}
@@ -17,6 +17,13 @@ public class TestConstants {
     public static final String DEMO_TOOL_BRAND = "Cool Brand";
     public static final UUID CORRELATION_ID = UUID.randomUUID();
 
+    public static final long LADDER_DAILY_CHARGE_CENTS = 199;
+    public static final long CHAINSAW_DAILY_CHARGE_CENTS = 149;
+    public static final long JACKHAMMER_DAILY_CHARGE_CENTS = 199;
+    public static final Double LADDER_DAILY_CHARGE = 1.99;
+    public static final Double CHAINSAW_DAILY_CHARGE = 1.49;
+    public static final Double JACKHAMMER_DAILY_CHARGE = 1.99;
+
     public static final Tool TEST_TOOL = new Tool(CHAINSAW, VALID_TEST_TOOL_CODE, DEMO_TOOL_BRAND);
 
     public static final String TOOL_CODE_CHNS = "CHNS";
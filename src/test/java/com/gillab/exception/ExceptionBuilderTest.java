@@ -4,8 +4,12 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.text.MessageFormat;
+
 import static com.gillab.TestConstants.CORRELATION_ID;
 import static com.gillab.TestConstants.INVALID_TEST_TOOL_CODE;
 import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.INVALID_TOOL_CODE;
@@ -64,4 +68,51 @@ class ExceptionBuilderTest {
         }
     }
 
+    @Nested
+    @DisplayName("Deferred and stackless application exceptions")
+    class DeferredApplicationExceptionTests {
+
+        @Test
+        @DisplayName("Should format the message when it is requested")
+        void testApplicationException_DeferredMessage() {
+            ApplicationException exception = new ApplicationException(CORRELATION_ID, INVALID_TOOL_CODE, getErrorSummary(INVALID_TOOL_CODE), new String[]{INVALID_TEST_TOOL_CODE}, false);
+
+            assertEquals(getFormattedErrorMessage(INVALID_TOOL_CODE, INVALID_TEST_TOOL_CODE), exception.getMessage(), "Message should match");
+            assertSame(exception.getMessage(), exception.getErrorMessage(), "Message should be formatted only once");
+            assertTrue(exception.getStackTrace().length > 0, "Stack trace should be filled in");
+        }
+
+        @Test
+        @DisplayName("Should not fill in the stack trace of a stackless exception")
+        void testApplicationException_Stackless() {
+            ApplicationException exception = new ApplicationException(CORRELATION_ID, INVALID_TOOL_CODE, getErrorSummary(INVALID_TOOL_CODE), new String[]{INVALID_TEST_TOOL_CODE}, true);
+
+            assertEquals(0, exception.getStackTrace().length, "Stack trace should be empty");
+            assertEquals(INVALID_TOOL_CODE.getDisplayName(), exception.getErrorCode(), "Error code should match");
+            assertEquals(getFormattedErrorMessage(INVALID_TOOL_CODE, INVALID_TEST_TOOL_CODE), exception.getErrorMessage(), "Error message should match");
+        }
+    }
+
+    @Nested
+    @DisplayName("Message templates")
+    class MessageTemplateTests {
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "The tool code {0} does not exist in the stock.",
+                "{1} before {0}, and {0} again",
+                "Missing {3} argument",
+                "Quoted '{0}' placeholder",
+                "No placeholders"
+        })
+        @DisplayName("Should format like MessageFormat")
+        void testFormat_MatchesMessageFormat(String pattern) {
+            MessageTemplate template = new MessageTemplate(pattern);
+
+            assertEquals(MessageFormat.format(pattern, "A", null, "C"), template.format("A", null, "C"), "Message should match MessageFormat");
+            assertEquals(MessageFormat.format(pattern, new Object[0]), template.format(), "Message without arguments should match MessageFormat");
+            assertEquals(MessageFormat.format(pattern, (Object[]) null), template.format((Object[]) null), "Message with null arguments should match MessageFormat");
+        }
+    }
+
 }
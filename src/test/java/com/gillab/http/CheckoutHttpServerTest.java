@@ -0,0 +1,218 @@
+package com.gillab.http;
+
+import com.gillab.service.CheckoutService;
+import com.gillab.service.HolidayService;
+import com.gillab.service.InventoryService;
+import com.gillab.service.ToolService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.gillab.TestConstants.*;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.INVALID_DISCOUNT;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.INVALID_TOOL_CODE;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.TOOL_NOT_AVAILABLE;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.TOOL_NOT_RENTED;
+import static com.gillab.http.CheckoutHttpServer.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("CheckoutHttpServer Tests")
+class CheckoutHttpServerTest {
+
+    private CheckoutHttpServer server;
+    private HttpClient client;
+    private String baseUrl;
+
+    @BeforeAll
+    void startServer() throws IOException {
+        CheckoutService checkoutService = CheckoutService.getInstance(ToolService.getInstance(TEST_TOOL_STOCK), HolidayService.getInstance());
+        server = CheckoutHttpServer.start(checkoutService, InventoryService.withOneUnitPerTool(TEST_TOOL_STOCK), new InetSocketAddress("127.0.0.1", 0), 16_384);
+        client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterAll
+    void stopServer() {
+        server.stop(0);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder quote(String query) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + QUOTE_PATH + "?" + query));
+    }
+
+    private HttpRequest.Builder post(String path, String query) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path + "?" + query)).POST(HttpRequest.BodyPublishers.noBody());
+    }
+
+    @Nested
+    @DisplayName("Endpoints")
+    class EndpointTests {
+
+        @Test
+        @DisplayName("Quote should return the rental agreement and echo the correlation ID")
+        void testQuote_Valid() throws Exception {
+            HttpResponse<String> response = send(quote("toolCode=JAKR&rentalDays=9&discount=0&checkoutDate=2015-07-02")
+                    .header(CORRELATION_ID_HEADER, CORRELATION_ID.toString()));
+
+            assertEquals(200, response.statusCode(), "Status should be OK");
+            assertEquals(CORRELATION_ID.toString(), response.headers().firstValue(CORRELATION_ID_HEADER).orElse(null), "Correlation ID should be echoed");
+            assertTrue(response.body().contains("Charge Days: 6"), "Body should contain the rental agreement");
+        }
+
+        @Test
+        @DisplayName("Checkout should accept POST and generate a correlation ID when missing")
+        void testCheckout_Valid() throws Exception {
+            HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(baseUrl + CHECKOUT_PATH + "?toolCode=LADW&rentalDays=3&discount=10&checkoutDate=2020-07-02"))
+                    .POST(HttpRequest.BodyPublishers.noBody()));
+
+            assertEquals(200, response.statusCode(), "Status should be OK");
+            assertDoesNotThrow(() -> UUID.fromString(response.headers().firstValue(CORRELATION_ID_HEADER).orElseThrow()), "A correlation ID should be generated");
+            assertTrue(response.body().contains("Charge Days: 2"), "Body should contain the rental agreement");
+        }
+
+        @Test
+        @DisplayName("Checkout should be rejected with Conflict while the only unit is rented, until it is returned")
+        void testCheckout_Return() throws Exception {
+            String checkout = "toolCode=JAKD&rentalDays=3&checkoutDate=2020-07-02";
+            assertEquals(200, send(post(CHECKOUT_PATH, checkout)).statusCode(), "First checkout should be OK");
+
+            HttpResponse<String> rejected = send(post(CHECKOUT_PATH, checkout));
+            assertEquals(409, rejected.statusCode(), "Second checkout should be a Conflict");
+            assertEquals(TOOL_NOT_AVAILABLE.getDisplayName(), rejected.headers().firstValue(ERROR_CODE_HEADER).orElse(null), "Error code should match");
+
+            assertEquals(200, send(post(RETURN_PATH, "toolCode=JAKD")).statusCode(), "Return should be OK");
+            HttpResponse<String> notRented = send(post(RETURN_PATH, "toolCode=JAKD"));
+            assertEquals(409, notRented.statusCode(), "Second return should be a Conflict");
+            assertEquals(TOOL_NOT_RENTED.getDisplayName(), notRented.headers().firstValue(ERROR_CODE_HEADER).orElse(null), "Error code should match");
+            assertEquals(200, send(post(CHECKOUT_PATH, checkout)).statusCode(), "Checkout after the return should be OK");
+        }
+
+        @Test
+        @DisplayName("Checkout should reject GET")
+        void testCheckout_WrongMethod() throws Exception {
+            HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(baseUrl + CHECKOUT_PATH + "?toolCode=LADW&rentalDays=3&checkoutDate=2020-07-02")));
+
+            assertEquals(405, response.statusCode(), "Status should be Method Not Allowed");
+        }
+
+        @Test
+        @DisplayName("Invalid tool code should be mapped to Not Found")
+        void testQuote_InvalidToolCode() throws Exception {
+            HttpResponse<String> response = send(quote("toolCode=" + INVALID_TEST_TOOL_CODE + "&rentalDays=3&checkoutDate=2020-07-02"));
+
+            assertEquals(404, response.statusCode(), "Status should be Not Found");
+            assertEquals(INVALID_TOOL_CODE.getDisplayName(), response.headers().firstValue(ERROR_CODE_HEADER).orElse(null), "Error code should match");
+        }
+
+        @Test
+        @DisplayName("Invalid discount should be mapped to Unprocessable Content")
+        void testQuote_InvalidDiscount() throws Exception {
+            HttpResponse<String> response = send(quote("toolCode=JAKR&rentalDays=5&discount=101&checkoutDate=2015-09-03"));
+
+            assertEquals(422, response.statusCode(), "Status should be Unprocessable Content");
+            assertEquals(INVALID_DISCOUNT.getDisplayName(), response.headers().firstValue(ERROR_CODE_HEADER).orElse(null), "Error code should match");
+        }
+
+        @Test
+        @DisplayName("Malformed parameters should be mapped to Bad Request")
+        void testQuote_MalformedParameters() throws Exception {
+            assertEquals(400, send(quote("toolCode=JAKR&rentalDays=five&checkoutDate=2015-09-03")).statusCode(), "Non numeric rental days should be rejected");
+            assertEquals(400, send(quote("toolCode=JAKR&rentalDays=5&checkoutDate=09/03/15")).statusCode(), "Non ISO date should be rejected");
+            assertEquals(400, send(quote("rentalDays=5&checkoutDate=2015-09-03")).statusCode(), "Missing tool code should be rejected");
+        }
+    }
+
+    /**
+     * Local load test, not run by default: mvn test -Dtest=CheckoutHttpServerTest -DloadTest=true
+     * The number of concurrent connections can be changed with -DloadTest.connections, and may require raising the
+     * open files limit (ulimit -n) of the shell. The throughput is published as a report entry of the test, and should
+     * be at least -DloadTest.minRequestsPerSecond, 250 by default: a floor low enough for a laptop, which a server
+     * that stalls on its connections does not reach.
+     */
+    @Nested
+    @EnabledIfSystemProperty(named = "loadTest", matches = "true")
+    @DisplayName("Load")
+    class LoadTests {
+
+        @Test
+        @DisplayName("Should serve 10k concurrent connections")
+        void testQuote_ConcurrentConnections(TestReporter testReporter) throws Exception {
+            int connections = Integer.getInteger("loadTest.connections", 10_000);
+            int minRequestsPerSecond = Integer.getInteger("loadTest.minRequestsPerSecond", 250);
+            CountDownLatch connected = new CountDownLatch(connections);
+            CountDownLatch send = new CountDownLatch(1);
+            int succeeded = 0;
+            long elapsedNanos;
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<Boolean>> responses = new ArrayList<>(connections);
+                for (int i = 0; i < connections; i++) {
+                    String path = QUOTE_PATH + "?toolCode=JAKR&rentalDays=" + (1 + i % 365) + "&discount=" + (i % 101) + "&checkoutDate=2015-07-02";
+                    responses.add(executor.submit(() -> sendOverNewConnection(path, connected, send)));
+                }
+                // Every connection is open, and held, before the first request is sent
+                assertTrue(connected.await(1, TimeUnit.MINUTES), "Every connection should be opened");
+                long startNanos = System.nanoTime();
+                send.countDown();
+                for (Future<Boolean> response : responses) {
+                    succeeded += response.get() ? 1 : 0;
+                }
+                elapsedNanos = System.nanoTime() - startNanos;
+            }
+            long requestsPerSecond = connections * TimeUnit.SECONDS.toNanos(1) / Math.max(1, elapsedNanos);
+            testReporter.publishEntry(Map.of(
+                    "connections", String.valueOf(connections),
+                    "elapsedMillis", String.valueOf(TimeUnit.NANOSECONDS.toMillis(elapsedNanos)),
+                    "requestsPerSecond", String.valueOf(requestsPerSecond)
+            ));
+
+            assertEquals(connections, succeeded, "Every request should succeed");
+            assertTrue(requestsPerSecond >= minRequestsPerSecond,
+                    "Throughput should be at least " + minRequestsPerSecond + " requests per second, but was " + requestsPerSecond);
+        }
+
+        /**
+         * Open a socket, and wait until every other one is open before sending the request over it, so the server
+         * holds all the connections at the same time.
+         */
+        private boolean sendOverNewConnection(String path, CountDownLatch connected, CountDownLatch send) throws IOException, InterruptedException {
+            InetSocketAddress address = server.getAddress();
+            try (Socket socket = new Socket(address.getAddress(), address.getPort())) {
+                connected.countDown();
+                send.await();
+                socket.getOutputStream().write(("GET " + path + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+                String response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+                return response.startsWith("HTTP/1.1 200");
+            }
+        }
+    }
+
+}
@@ -0,0 +1,316 @@
+package com.gillab.journal;
+
+import com.gillab.model.RentalAgreement;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AgreementJournal Tests")
+class AgreementJournalTest {
+
+    /** Small segments, so a few thousand agreements are spread over several of them. */
+    private static final JournalOptions SMALL_SEGMENTS = JournalOptions.of(DurabilityModeEnum.SYNC,
+            256 * 1024, AgreementJournal.MAX_RECORD_BYTES, Duration.ofMillis(10));
+
+    private static RentalAgreement agreement(final int index) {
+        LocalDate checkoutDate = LocalDate.of(2024, Month.JULY, 1).plusDays(index % 365);
+        int rentalDays = 1 + index % 30;
+        return new RentalAgreement("T" + index, "Ladder", index % 2 == 0 ? "Werner" : "Böker", rentalDays,
+                checkoutDate, checkoutDate.plusDays(rentalDays), 199, rentalDays, 199L * rentalDays, index % 101,
+                index % 101, 199L * rentalDays - index % 101);
+    }
+
+    private static Path newJournalDirectory() throws IOException {
+        return Files.createTempDirectory("agreement-journal");
+    }
+
+    private static void deleteJournalDirectory(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static List<RentalAgreement> appendAll(final Path directory, final JournalOptions options, final int count) {
+        List<RentalAgreement> agreements = new ArrayList<>();
+        try (AgreementJournal journal = AgreementJournal.open(directory, options, (agreement, sequence) -> {})) {
+            for (int index = 0; index < count; index++) {
+                agreements.add(agreement(index));
+                journal.append(agreements.getLast());
+            }
+        }
+        return agreements;
+    }
+
+    private static List<Path> listSegments(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    @Nested
+    @DisplayName("Append and recover")
+    class RecoverTests {
+
+        @Test
+        @DisplayName("Should read back every agreement, in the order of their sequence, when the journal is opened again")
+        void testRecover_AllAgreements() throws IOException {
+            Path directory = newJournalDirectory();
+            try {
+                List<RentalAgreement> appended = appendAll(directory, JournalOptions.of(DurabilityModeEnum.SYNC), 100);
+                List<RentalAgreement> recovered = new ArrayList<>();
+                List<Long> sequences = new ArrayList<>();
+
+                try (AgreementJournal journal = AgreementJournal.open(directory, JournalOptions.of(DurabilityModeEnum.SYNC), (agreement, sequence) -> {
+                    recovered.add(agreement);
+                    sequences.add(sequence);
+                })) {
+                    long nextSequence = journal.append(agreement(100));
+                    assertAll(
+                            ()->{
+                                assertEquals(appended, recovered, "Every agreement should be read back as it was appended");
+                                assertEquals(1L, sequences.getFirst(), "The first sequence should be 1");
+                                assertEquals(100L, sequences.getLast(), "The sequences should follow the appends");
+                                assertEquals(100, journal.getRecovery().agreementCount(), "Every agreement should be counted");
+                                assertEquals(0, journal.getRecovery().truncatedBytes(), "Nothing should be truncated");
+                                assertEquals(101, nextSequence, "The next append should continue the sequence");
+                            }
+                    );
+                }
+            } finally {
+                deleteJournalDirectory(directory);
+            }
+        }
+
+        @Test
+        @DisplayName("Should start a new segment once a segment is full, and read them all back")
+        void testRecover_Segments() throws IOException {
+            Path directory = newJournalDirectory();
+            try {
+                List<RentalAgreement> appended = appendAll(directory, SMALL_SEGMENTS, 5_000);
+                List<RentalAgreement> recovered = new ArrayList<>();
+
+                try (AgreementJournal journal = AgreementJournal.open(directory, SMALL_SEGMENTS, (agreement, sequence) -> recovered.add(agreement))) {
+                    List<Path> segments = listSegments(directory);
+                    assertAll(
+                            ()->{
+                                assertTrue(segments.size() > 1, "The agreements should be spread over several segments");
+                                assertEquals(AgreementJournal.segmentName(1), segments.getFirst().getFileName().toString(), "The first segment should start with the sequence 1");
+                                assertEquals(segments.size(), journal.getRecovery().segmentCount(), "Every segment should be read");
+                                assertEquals(appended, recovered, "The agreements of every segment should be read back in order");
+                                assertEquals(5_000, journal.getLastSequence(), "The last sequence should be the number of agreements");
+                            }
+                    );
+                }
+            } finally {
+                deleteJournalDirectory(directory);
+            }
+        }
+
+        @Test
+        @DisplayName("Should truncate a torn record at the end of the last segment, and keep the agreements before it")
+        void testRecover_TornTail() throws IOException {
+            Path directory = newJournalDirectory();
+            try {
+                List<RentalAgreement> appended = appendAll(directory, JournalOptions.of(DurabilityModeEnum.SYNC), 10);
+                Path segment = listSegments(directory).getLast();
+                long size = Files.size(segment);
+                try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                    channel.truncate(size - 5);
+                }
+                List<RentalAgreement> recovered = new ArrayList<>();
+
+                try (AgreementJournal journal = AgreementJournal.open(directory, JournalOptions.of(DurabilityModeEnum.SYNC), (agreement, sequence) -> recovered.add(agreement))) {
+                    long nextSequence = journal.append(agreement(10));
+                    assertAll(
+                            ()->{
+                                assertEquals(appended.subList(0, 9), recovered, "The agreements before the torn record should be read back");
+                                assertTrue(journal.getRecovery().truncatedBytes() > 0, "The torn record should be truncated");
+                                assertEquals(10, nextSequence, "The next append should take the sequence of the torn record");
+                            }
+                    );
+                }
+                try (AgreementJournal journal = AgreementJournal.open(directory, JournalOptions.of(DurabilityModeEnum.SYNC), (agreement, sequence) -> {})) {
+                    assertEquals(10, journal.getRecovery().agreementCount(), "The agreement appended after the truncation should be read back");
+                }
+            } finally {
+                deleteJournalDirectory(directory);
+            }
+        }
+
+        @Test
+        @DisplayName("Should truncate a last record that fails its CRC")
+        void testRecover_InvalidCrc() throws IOException {
+            Path directory = newJournalDirectory();
+            try {
+                appendAll(directory, JournalOptions.of(DurabilityModeEnum.SYNC), 10);
+                Path segment = listSegments(directory).getLast();
+                try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                    channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), Files.size(segment) - 1);
+                }
+
+                try (AgreementJournal journal = AgreementJournal.open(directory, JournalOptions.of(DurabilityModeEnum.SYNC), (agreement, sequence) -> {})) {
+                    assertAll(
+                            ()->{
+                                assertEquals(9, journal.getRecovery().agreementCount(), "The record that fails its CRC should not be read back");
+                                assertEquals(9, journal.getLastSequence(), "The journal should continue after the last valid record");
+                            }
+                    );
+                }
+            } finally {
+                deleteJournalDirectory(directory);
+            }
+        }
+
+        @Test
+        @DisplayName("Should throw IllegalStateException when a segment other than the last one is corrupted")
+        void testRecover_CorruptedSegment() throws IOException {
+            Path directory = newJournalDirectory();
+            try {
+                appendAll(directory, SMALL_SEGMENTS, 5_000);
+                Path segment = listSegments(directory).getFirst();
+                try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                    channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 0}), 1_000);
+                }
+
+                assertThrows(IllegalStateException.class,
+                        () -> AgreementJournal.open(directory, SMALL_SEGMENTS, (agreement, sequence) -> {}),
+                        "Expected open to throw IllegalStateException for a corrupted segment");
+            } finally {
+                deleteJournalDirectory(directory);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Group commit")
+    class GroupCommitTests {
+
+        @Test
+        @DisplayName("Should give every concurrent append its own sequence, and share the forces between them")
+        void testAppend_Concurrent() throws Exception {
+            int threads = 16;
+            int appends = 500;
+            Path directory = newJournalDirectory();
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                AgreementJournal journal = AgreementJournal.open(directory, JournalOptions.of(DurabilityModeEnum.SYNC), (agreement, sequence) -> {});
+                List<Future<long[]>> results = new ArrayList<>();
+                for (int thread = 0; thread < threads; thread++) {
+                    int offset = thread * appends;
+                    results.add(executor.submit(() -> {
+                        long[] sequences = new long[appends];
+                        for (int append = 0; append < appends; append++) {
+                            sequences[append] = journal.append(agreement(offset + append));
+                        }
+                        return sequences;
+                    }));
+                }
+                boolean[] seen = new boolean[threads * appends + 1];
+                for (Future<long[]> result : results) {
+                    for (long sequence : result.get()) {
+                        assertFalse(seen[(int) sequence], "The sequence " + sequence + " should be given once");
+                        seen[(int) sequence] = true;
+                    }
+                }
+                long forceCount = journal.getForceCount();
+                journal.close();
+
+                long recovered;
+                try (AgreementJournal reopened = AgreementJournal.open(directory, JournalOptions.of(DurabilityModeEnum.SYNC), (agreement, sequence) -> {})) {
+                    recovered = reopened.getRecovery().agreementCount();
+                }
+                assertAll(
+                        ()->{
+                            assertTrue(forceCount < (long) threads * appends, "The concurrent appends should share the forces, but there were " + forceCount);
+                            assertEquals((long) threads * appends, recovered, "Every agreement should be read back");
+                        }
+                );
+            } finally {
+                executor.shutdownNow();
+                deleteJournalDirectory(directory);
+            }
+        }
+
+        @Test
+        @DisplayName("Should keep the agreements appended without waiting once the journal is flushed or closed")
+        void testAppend_AsyncAndBatched() throws IOException {
+            Path directory = newJournalDirectory();
+            try {
+                try (AgreementJournal journal = AgreementJournal.open(directory, JournalOptions.of(DurabilityModeEnum.ASYNC), (agreement, sequence) -> {})) {
+                    for (int index = 0; index < 1_000; index++) {
+                        journal.append(agreement(index));
+                    }
+                    journal.flush();
+                    assertTrue(journal.getForceCount() > 0, "The flush should force the file");
+                }
+                appendAll(directory, JournalOptions.of(DurabilityModeEnum.BATCHED), 1_000);
+
+                try (AgreementJournal journal = AgreementJournal.open(directory, JournalOptions.of(DurabilityModeEnum.SYNC), (agreement, sequence) -> {})) {
+                    assertEquals(2_000, journal.getRecovery().agreementCount(), "Every agreement should be read back");
+                }
+            } finally {
+                deleteJournalDirectory(directory);
+            }
+        }
+
+        @Test
+        @DisplayName("Should throw IllegalStateException when appending to a closed journal")
+        void testAppend_Closed() throws IOException {
+            Path directory = newJournalDirectory();
+            try {
+                AgreementJournal journal = AgreementJournal.open(directory, JournalOptions.of(DurabilityModeEnum.SYNC), (agreement, sequence) -> {});
+                journal.close();
+
+                assertThrows(IllegalStateException.class, () -> journal.append(agreement(0)),
+                        "Expected append to throw IllegalStateException once the journal is closed");
+            } finally {
+                deleteJournalDirectory(directory);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Options")
+    class OptionsTests {
+
+        @Test
+        @DisplayName("Should throw IllegalArgumentException when the options are not valid")
+        void testOptions_Invalid() {
+            assertAll(
+                    ()->{
+                        assertThrows(IllegalArgumentException.class,
+                                () -> JournalOptions.of(DurabilityModeEnum.SYNC, 1 << 20, 1024, Duration.ofMillis(10)),
+                                "Expected of to throw IllegalArgumentException for a buffer smaller than the largest record");
+                        assertThrows(IllegalArgumentException.class,
+                                () -> JournalOptions.of(DurabilityModeEnum.SYNC, 1 << 18, 1 << 20, Duration.ofMillis(10)),
+                                "Expected of to throw IllegalArgumentException for segments smaller than the buffer");
+                        assertThrows(IllegalArgumentException.class,
+                                () -> JournalOptions.of(DurabilityModeEnum.SYNC, 1 << 20, 1 << 20, Duration.ZERO),
+                                "Expected of to throw IllegalArgumentException for an empty flush interval");
+                    }
+            );
+        }
+    }
+
+}
@@ -0,0 +1,325 @@
+package com.gillab.journal;
+
+import com.gillab.exception.ApplicationException;
+import com.gillab.model.RentalAgreement;
+import com.gillab.service.InventoryService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RentalLedger Tests")
+class RentalLedgerTest {
+
+    private static final LocalDate CHECKOUT_DATE = LocalDate.of(2024, Month.JULY, 1);
+    private static final String[] TOOL_CODES = {"CHNS", "LADW", "JAKD", "JAKR"};
+    private static final JournalOptions OPTIONS = JournalOptions.of(DurabilityModeEnum.SYNC);
+    /** Long enough for the snapshots to be only written by the tests. */
+    private static final Duration NO_BACKGROUND_SNAPSHOT = Duration.ofHours(1);
+
+    private static RentalAgreement agreement(final int index) {
+        return new RentalAgreement(TOOL_CODES[index % TOOL_CODES.length], "Ladder", "Werner", 3,
+                CHECKOUT_DATE.plusDays(index % 7), CHECKOUT_DATE.plusDays(index % 7 + 3), 199, 3, 597, 0, 0, 100 + index);
+    }
+
+    private static Path newLedgerDirectory() throws IOException {
+        return Files.createTempDirectory("rental-ledger");
+    }
+
+    private static void deleteLedgerDirectory(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Record the agreements of the given indexes, and return the tools of every third one.
+     */
+    private static void recordRentals(final RentalLedger ledger, final int from, final int to) {
+        for (int index = from; index < to; index++) {
+            long sequence = ledger.record(agreement(index));
+            if (index % 3 == 0) {
+                ledger.recordReturn(sequence);
+            }
+        }
+    }
+
+    private static void assertSameState(final RentalState expected, final RentalState actual) {
+        assertEquals(expected.getLastSequence(), actual.getLastSequence(), "The last sequence should match");
+        assertEquals(expected.getOpenRentalCount(), actual.getOpenRentalCount(), "The number of open rentals should match");
+        for (OpenRental openRental : expected.getOpenRentals()) {
+            assertEquals(openRental, actual.findOpenRental(openRental.agreementSequence()).orElse(null),
+                    "The open rental of the agreement " + openRental.agreementSequence() + " should match");
+        }
+        for (String toolCode : TOOL_CODES) {
+            assertEquals(expected.getRentedUnits(toolCode), actual.getRentedUnits(toolCode), "The rented units of " + toolCode + " should match");
+        }
+        for (int day = 0; day < 7; day++) {
+            assertEquals(expected.getRevenue(CHECKOUT_DATE.plusDays(day)), actual.getRevenue(CHECKOUT_DATE.plusDays(day)),
+                    "The revenue of the day " + day + " should match");
+        }
+    }
+
+    @Nested
+    @DisplayName("Rental state")
+    class RentalStateTests {
+
+        @Test
+        @DisplayName("Should open a rental per agreement, close it on return, and keep the revenue of every day")
+        void testRecord_State() throws IOException {
+            Path directory = newLedgerDirectory();
+            try (RentalLedger ledger = RentalLedger.open(directory, OPTIONS, NO_BACKGROUND_SNAPSHOT)) {
+                long first = ledger.record(agreement(0));
+                long second = ledger.record(agreement(4));
+                OpenRental returned = ledger.recordReturn(first);
+                RentalState state = ledger.getState();
+
+                assertAll(
+                        ()->{
+                            assertEquals(first, returned.agreementSequence(), "The returned rental should be the one of the agreement");
+                            assertTrue(state.findOpenRental(first).isEmpty(), "The returned rental should be closed");
+                            assertEquals(List.of(second), state.getOpenRentals().stream().map(OpenRental::agreementSequence).toList(), "Only the other rental should be open");
+                            assertEquals(1, state.getRentedUnits("CHNS"), "The unit of the open rental should be rented");
+                            assertEquals(new RentalState.Revenue(1, 100), state.getRevenue(CHECKOUT_DATE), "The revenue of the returned rental should be kept");
+                            assertEquals(new RentalState.Revenue(1, 104), state.getRevenue(CHECKOUT_DATE.plusDays(4)), "The revenue of the open rental should be kept");
+                            assertEquals(3, state.getLastSequence(), "The return should have the last sequence");
+                            assertThrows(IllegalArgumentException.class, () -> ledger.recordReturn(first),
+                                    "Expected recordReturn to throw IllegalArgumentException for a closed rental");
+                        }
+                );
+            } finally {
+                deleteLedgerDirectory(directory);
+            }
+        }
+
+        @Test
+        @DisplayName("Should journal a single return when the same rental is returned concurrently")
+        void testRecordReturn_Concurrent() throws Exception {
+            Path directory = newLedgerDirectory();
+            int threads = 8;
+            try (RentalLedger ledger = RentalLedger.open(directory, OPTIONS, NO_BACKGROUND_SNAPSHOT)) {
+                long sequence = ledger.record(agreement(0));
+                CountDownLatch start = new CountDownLatch(1);
+                AtomicInteger returned = new AtomicInteger();
+                ExecutorService executor = Executors.newFixedThreadPool(threads);
+                try {
+                    List<Future<?>> futures = new ArrayList<>();
+                    for (int thread = 0; thread < threads; thread++) {
+                        futures.add(executor.submit(() -> {
+                            start.await();
+                            try {
+                                ledger.recordReturn(sequence);
+                                returned.incrementAndGet();
+                            } catch (IllegalArgumentException exception) {
+                                // Another thread returned the rental
+                            }
+                            return null;
+                        }));
+                    }
+                    start.countDown();
+                    for (Future<?> future : futures) {
+                        future.get();
+                    }
+                } finally {
+                    executor.shutdown();
+                }
+
+                assertAll(
+                        ()->{
+                            assertEquals(1, returned.get(), "Only one return should succeed");
+                            assertEquals(2, ledger.getState().getLastSequence(), "Only one return should be journaled");
+                            assertEquals(0, ledger.getState().getRentedUnits("CHNS"), "The unit should be returned once");
+                        }
+                );
+            } finally {
+                deleteLedgerDirectory(directory);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Inventory")
+    class InventoryTests {
+
+        @Test
+        @DisplayName("Should reserve a unit per agreement recorded, and release it on return")
+        void testRecord_ReserveAndRelease() throws IOException {
+            Path directory = newLedgerDirectory();
+            InventoryService inventoryService = new InventoryService(Map.of("CHNS", 1));
+            try (RentalLedger ledger = RentalLedger.open(directory, OPTIONS, NO_BACKGROUND_SNAPSHOT, inventoryService)) {
+                long sequence = ledger.record(agreement(0), UUID.randomUUID());
+                int availableUnits = inventoryService.getAvailableUnits("CHNS");
+                assertThrows(ApplicationException.class, () -> ledger.record(agreement(4), UUID.randomUUID()),
+                        "Expected record to throw ApplicationException when no unit is available");
+                long lastSequence = ledger.getState().getLastSequence();
+                ledger.recordReturn(sequence);
+
+                assertAll(
+                        ()->{
+                            assertEquals(0, availableUnits, "The unit should be reserved by the agreement");
+                            assertEquals(1, lastSequence, "The rejected agreement should not be journaled");
+                            assertEquals(1, inventoryService.getAvailableUnits("CHNS"), "The unit should be released by the return");
+                            assertThrows(IllegalStateException.class, () -> ledger.record(agreement(0)),
+                                    "Expected record to throw IllegalStateException without a correlation ID");
+                        }
+                );
+            } finally {
+                deleteLedgerDirectory(directory);
+            }
+        }
+
+        @Test
+        @DisplayName("Should reserve the units of the open rentals when the ledger is opened")
+        void testOpen_ReserveRentedUnits() throws IOException {
+            Path directory = newLedgerDirectory();
+            try {
+                try (RentalLedger ledger = RentalLedger.open(directory, OPTIONS, NO_BACKGROUND_SNAPSHOT)) {
+                    recordRentals(ledger, 0, 1_000);
+                    ledger.snapshot();
+                    recordRentals(ledger, 1_000, 1_030);
+                }
+
+                InventoryService inventoryService = new InventoryService(Map.of("CHNS", 1_000, "LADW", 1_000, "JAKD", 1_000, "JAKR", 1_000));
+                try (RentalLedger ledger = RentalLedger.open(directory, OPTIONS, NO_BACKGROUND_SNAPSHOT, inventoryService)) {
+                    assertAll(
+                            ()->{
+                                for (String toolCode : TOOL_CODES) {
+                                    assertEquals(1_000 - ledger.getState().getRentedUnits(toolCode), inventoryService.getAvailableUnits(toolCode),
+                                            "The units of the open rentals of " + toolCode + " should be reserved");
+                                }
+                                assertSame(inventoryService, ledger.getInventoryService().orElseThrow(), "The ledger should keep the inventory");
+                            }
+                    );
+                }
+                InventoryService tooSmall = new InventoryService(Map.of("CHNS", 1));
+                assertThrows(IllegalStateException.class, () -> RentalLedger.open(directory, OPTIONS, NO_BACKGROUND_SNAPSHOT, tooSmall),
+                        "Expected open to throw IllegalStateException when the open rentals exceed the units in stock");
+            } finally {
+                deleteLedgerDirectory(directory);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Restart")
+    class RestartTests {
+
+        @Test
+        @DisplayName("Should restore the state from the latest snapshot, replaying only the records after it")
+        void testOpen_SnapshotAndTail() throws IOException {
+            Path directory = newLedgerDirectory();
+            try {
+                RentalState before;
+                long snapshotSequence;
+                try (RentalLedger ledger = RentalLedger.open(directory, OPTIONS, NO_BACKGROUND_SNAPSHOT)) {
+                    recordRentals(ledger, 0, 1_000);
+                    snapshotSequence = ledger.snapshot();
+                    recordRentals(ledger, 1_000, 1_030);
+                    before = ledger.getState();
+                }
+
+                try (RentalLedger ledger = RentalLedger.open(directory, OPTIONS, NO_BACKGROUND_SNAPSHOT)) {
+                    RentalLedger.Restart restart = ledger.getRestart();
+                    assertAll(
+                            ()->{
+                                assertEquals(snapshotSequence, restart.snapshotSequence(), "The latest snapshot should be read");
+                                assertEquals(30, restart.journalRecovery().agreementCount(), "Only the agreements after the snapshot should be replayed");
+                                assertEquals(10, restart.journalRecovery().returnCount(), "Only the returns after the snapshot should be replayed");
+                                assertSameState(before, ledger.getState());
+                            }
+                    );
+                }
+            } finally {
+                deleteLedgerDirectory(directory);
+            }
+        }
+
+        @Test
+        @DisplayName("Should write the snapshots in the background while rentals are recorded")
+        void testSnapshot_Background() throws Exception {
+            Path directory = newLedgerDirectory();
+            try {
+                RentalState before;
+                try (RentalLedger ledger = RentalLedger.open(directory, OPTIONS, Duration.ofMillis(20))) {
+                    recordRentals(ledger, 0, 500);
+                    long lastSequence = ledger.getJournal().getLastSequence();
+                    long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+                    while (ledger.getSnapshotSequence() < lastSequence && System.nanoTime() < deadline) {
+                        Thread.sleep(10);
+                    }
+                    assertEquals(lastSequence, ledger.getSnapshotSequence(), "A background snapshot should cover every record");
+                    before = ledger.getState();
+                }
+
+                try (RentalLedger ledger = RentalLedger.open(directory, OPTIONS, NO_BACKGROUND_SNAPSHOT)) {
+                    assertAll(
+                            ()->{
+                                assertEquals(0, ledger.getRestart().journalRecovery().agreementCount(), "No agreement should be replayed");
+                                assertSameState(before, ledger.getState());
+                            }
+                    );
+                }
+            } finally {
+                deleteLedgerDirectory(directory);
+            }
+        }
+
+        @Test
+        @DisplayName("Should fall back to the previous snapshot when the latest one is corrupted")
+        void testOpen_CorruptedSnapshot() throws IOException {
+            Path directory = newLedgerDirectory();
+            try {
+                RentalState before;
+                long firstSnapshotSequence;
+                long secondSnapshotSequence;
+                try (RentalLedger ledger = RentalLedger.open(directory, OPTIONS, NO_BACKGROUND_SNAPSHOT)) {
+                    recordRentals(ledger, 0, 100);
+                    firstSnapshotSequence = ledger.snapshot();
+                    recordRentals(ledger, 100, 200);
+                    secondSnapshotSequence = ledger.snapshot();
+                    before = ledger.getState();
+                }
+                try (FileChannel channel = FileChannel.open(directory.resolve(RentalLedger.snapshotName(secondSnapshotSequence)), StandardOpenOption.WRITE)) {
+                    channel.write(ByteBuffer.wrap(new byte[]{0x7F}), 20);
+                }
+
+                try (RentalLedger ledger = RentalLedger.open(directory, OPTIONS, NO_BACKGROUND_SNAPSHOT)) {
+                    assertAll(
+                            ()->{
+                                assertEquals(firstSnapshotSequence, ledger.getRestart().snapshotSequence(), "The previous snapshot should be read");
+                                assertEquals(100, ledger.getRestart().journalRecovery().agreementCount(), "The agreements after it should be replayed");
+                                assertSameState(before, ledger.getState());
+                            }
+                    );
+                }
+            } finally {
+                deleteLedgerDirectory(directory);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.gillab.load;
+
+import com.gillab.model.CheckoutRequest;
+import com.gillab.service.CheckoutService;
+import com.gillab.service.HolidayService;
+import com.gillab.service.ToolService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static com.gillab.TestConstants.*;
+import static com.gillab.util.Constants.IS_VALID_DISCOUNT;
+import static com.gillab.util.Constants.IS_VALID_RENTAL_DAYS;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LoadGenerator Tests")
+class LoadGeneratorTest {
+
+    private static final CheckoutService checkoutService = CheckoutService.getInstance(ToolService.getInstance(TEST_TOOL_STOCK), HolidayService.getInstance());
+
+    @Nested
+    @DisplayName("Load profile")
+    class LoadProfileTests {
+
+        @Test
+        @DisplayName("Should build requests within the ranges of the distributions")
+        void testNextRequest_Distributions() {
+            Map<String, Integer> toolCodes = new LinkedHashMap<>();
+            toolCodes.put(TOOL_CODE_LADW, 3);
+            toolCodes.put(TOOL_CODE_CHNS, 1);
+            toolCodes.put(TOOL_CODE_JAKD, 0);
+            LocalDate firstDate = LocalDate.of(2024, Month.JANUARY, 1);
+            LocalDate lastDate = LocalDate.of(2024, Month.JANUARY, 31);
+            LoadProfile profile = new LoadProfile(Distribution.weighted(toolCodes), Distribution.exponential(1, 365, 7),
+                    Distribution.uniform(0, 20), Distribution.uniformDates(firstDate, lastDate), 0);
+            SplittableRandom random = new SplittableRandom(18);
+
+            int ladders = 0;
+            long totalRentalDays = 0;
+            for (int request = 0; request < 100_000; request++) {
+                CheckoutRequest checkoutRequest = profile.nextRequest(random);
+                if (checkoutRequest.getToolCode().equals(TOOL_CODE_JAKD)
+                        || checkoutRequest.getRentalDays() < 1 || checkoutRequest.getRentalDays() > 365
+                        || checkoutRequest.getDiscountPercentage() < 0 || checkoutRequest.getDiscountPercentage() > 20
+                        || checkoutRequest.getCheckoutDate().isBefore(firstDate) || checkoutRequest.getCheckoutDate().isAfter(lastDate)) {
+                    fail("The request " + checkoutRequest + " is out of the ranges of the distributions");
+                }
+                ladders += checkoutRequest.getToolCode().equals(TOOL_CODE_LADW) ? 1 : 0;
+                totalRentalDays += checkoutRequest.getRentalDays();
+            }
+
+            double meanRentalDays = totalRentalDays / 100_000.0;
+            int ladderCount = ladders;
+            assertAll(
+                    ()->{
+                        assertEquals(0.75, ladderCount / 100_000.0, 0.01, "3 out of 4 requests should be for LADW");
+                        assertEquals(7, meanRentalDays, 0.2, "The mean of the rental days should be 7");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should build invalid requests at the given rate, each one with a single invalid field")
+        void testNextRequest_InvalidRate() {
+            LoadProfile profile = LoadProfile.defaultProfile(0.25);
+            SplittableRandom random = new SplittableRandom(18);
+
+            int invalidRequests = 0;
+            for (int request = 0; request < 100_000; request++) {
+                CheckoutRequest checkoutRequest = profile.nextRequest(random);
+                int invalidFields = (TEST_TOOL_STOCK.containsKey(checkoutRequest.getToolCode()) ? 0 : 1)
+                        + (IS_VALID_RENTAL_DAYS.test(checkoutRequest.getRentalDays()) ? 0 : 1)
+                        + (IS_VALID_DISCOUNT.test(checkoutRequest.getDiscountPercentage()) ? 0 : 1);
+                assertTrue(invalidFields <= 1, "An invalid request should have a single invalid field");
+                invalidRequests += invalidFields;
+            }
+
+            assertEquals(0.25, invalidRequests / 100_000.0, 0.01, "A quarter of the requests should be invalid");
+        }
+
+        @Test
+        @DisplayName("Should throw IllegalArgumentException when the distributions or the invalid rate are not valid")
+        void testLoadProfile_InvalidValues() {
+            assertAll(
+                    ()->{
+                        assertThrows(IllegalArgumentException.class, () -> LoadProfile.defaultProfile(1.5),
+                                "Expected the profile to throw IllegalArgumentException for an invalid rate over 1");
+                        assertThrows(IllegalArgumentException.class, () -> Distribution.uniform(10, 1),
+                                "Expected uniform to throw IllegalArgumentException for an empty range");
+                        assertThrows(IllegalArgumentException.class, () -> Distribution.weighted(Map.of(TOOL_CODE_LADW, 0)),
+                                "Expected weighted to throw IllegalArgumentException when no value has a positive weight");
+                        assertThrows(IllegalArgumentException.class, () -> LoadOptions.closedLoop(0, Duration.ofSeconds(1), ThreadKindEnum.VIRTUAL),
+                                "Expected closedLoop to throw IllegalArgumentException for no workers");
+                        assertThrows(IllegalArgumentException.class, () -> LoadOptions.openLoop(0, Duration.ofSeconds(1), ThreadKindEnum.VIRTUAL, 1),
+                                "Expected openLoop to throw IllegalArgumentException for no arrival rate");
+                    }
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Run")
+    class RunTests {
+
+        @Test
+        @DisplayName("Should send the requests at the given rate in an open loop, and measure the response time from their intended start")
+        void testRun_OpenLoop() {
+            LoadGenerator loadGenerator = new LoadGenerator(checkoutService, LoadProfile.defaultProfile(0.1));
+
+            LoadReport report = loadGenerator.run(LoadOptions.openLoop(2_000, Duration.ofMillis(500), ThreadKindEnum.VIRTUAL, 1));
+
+            assertAll(
+                    ()->{
+                        assertEquals(1_000, report.getCompleted(), "Every scheduled request should be sent");
+                        assertEquals(0, report.getFailed(), "No request should fail");
+                        assertTrue(report.getRejected() > 0, "The invalid requests should be rejected");
+                        assertEquals(report.getCompleted(), report.getServiceTime().getCount(), "The service time of every request should be recorded");
+                        assertEquals(report.getCompleted(), report.getResponseTime().getCount(), "The response time of every request should be recorded");
+                        assertTrue(report.getResponseTime().getValueAtPercentile(99) >= report.getServiceTime().getValueAtPercentile(99),
+                                "The response time should include the service time");
+                        assertTrue(report.toString().contains("Response time (us)"), "The report should have a table of percentiles");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should send the requests from a fixed number of workers in a closed loop")
+        void testRun_ClosedLoop() {
+            LoadGenerator loadGenerator = new LoadGenerator(checkoutService, LoadProfile.defaultProfile(0));
+
+            LoadReport report = loadGenerator.run(LoadOptions.closedLoop(2, Duration.ofMillis(300), ThreadKindEnum.PLATFORM));
+
+            assertAll(
+                    ()->{
+                        assertTrue(report.getSucceeded() > 0, "The workers should send requests");
+                        assertEquals(0, report.getRejected() + report.getFailed(), "No request should be rejected");
+                        assertTrue(report.getThroughput() > 0, "The throughput should be reported");
+                        assertTrue(report.getResponseTime().getCount() >= report.getServiceTime().getCount(),
+                                "The corrected response time should have at least the recorded values");
+                    }
+            );
+        }
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.gillab.metrics;
+
+import com.gillab.model.CheckoutRequest;
+import com.gillab.model.RentalAgreement;
+import com.gillab.service.CheckoutService;
+import com.gillab.service.HolidayService;
+import com.gillab.service.ToolService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+import java.util.UUID;
+
+import static com.gillab.TestConstants.*;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.INVALID_DISCOUNT;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.INVALID_TOOL_CODE;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Checkout Flight Recorder Events Tests")
+class CheckoutEventsTest {
+
+    private static final CheckoutService checkoutService = CheckoutService.getInstance(ToolService.getInstance(TEST_TOOL_STOCK), HolidayService.getInstance());
+
+    /**
+     * Run the action with a recording of the checkout events, and read back the events of the given correlation ID.
+     */
+    private static List<RecordedEvent> record(final UUID correlationId, final Runnable action) throws IOException {
+        Path file = Files.createTempFile("checkout-events", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(CheckoutEvent.class).withoutThreshold();
+            recording.enable(QuoteEvent.class).withoutThreshold();
+            recording.enable(ValidationRejectedEvent.class).withoutThreshold();
+            recording.enable(HolidayCacheMissEvent.class).withoutThreshold();
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.hasField("correlationId") && correlationId.toString().equals(event.getString("correlationId")))
+                    .toList();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<RecordedEvent> ofType(final List<RecordedEvent> events, final String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).toList();
+    }
+
+    @Nested
+    @DisplayName("Checkout")
+    class CheckoutTests {
+
+        @Test
+        @DisplayName("Should record a checkout event and a quote event with the request and the charge days")
+        void testCheckout_Events() throws IOException {
+            UUID correlationId = UUID.randomUUID();
+            LocalDate checkoutDate = LocalDate.of(2041, Month.MARCH, 2);
+            RentalAgreement[] rentalAgreements = new RentalAgreement[2];
+
+            List<RecordedEvent> events = record(correlationId, () -> {
+                rentalAgreements[0] = checkoutService.checkout(TOOL_CODE_LADW, 7, 37, checkoutDate, correlationId);
+                rentalAgreements[1] = checkoutService.checkout(TOOL_CODE_LADW, 7, 37, checkoutDate, correlationId);
+            });
+            List<RecordedEvent> checkouts = ofType(events, CheckoutEvent.NAME);
+            List<RecordedEvent> quotes = ofType(events, QuoteEvent.NAME);
+
+            assertAll(
+                    ()->{
+                        assertEquals(2, checkouts.size(), "There should be an event per checkout");
+                        assertEquals(TOOL_CODE_LADW, checkouts.get(0).getString("toolCode"), "The event should have the tool code");
+                        assertEquals(7, checkouts.get(0).getInt("rentalDays"), "The event should have the rental days");
+                        assertEquals(rentalAgreements[0].getChargeDays(), checkouts.get(0).getInt("chargeDays"), "The event should have the charge days");
+                        assertEquals(37, checkouts.get(0).getInt("discountPercentage"), "The event should have the discount");
+                        assertEquals(rentalAgreements[0].getFinalChargeCents(), checkouts.get(0).getLong("finalChargeCents"), "The event should have the final charge");
+                        assertEquals(2, quotes.size(), "There should be an event per quote");
+                        assertFalse(quotes.get(0).getBoolean("cached"), "The first quote should be computed");
+                        assertTrue(quotes.get(1).getBoolean("cached"), "The second quote should be read from the cache");
+                        assertEquals(rentalAgreements[1].getChargeDays(), quotes.get(1).getInt("chargeDays"), "The quote event should have the charge days");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should record a holiday cache miss when the dates are not covered by the chargeable day calendar")
+        void testCheckout_HolidayCacheMiss() throws IOException {
+            UUID correlationId = UUID.randomUUID();
+            LocalDate checkoutDate = LocalDate.of(checkoutService.getChargeableDayCalendar().getLastYear() + 1, Month.JULY, 1);
+            RentalAgreement[] rentalAgreements = new RentalAgreement[1];
+
+            List<RecordedEvent> events = record(correlationId, () -> {
+                rentalAgreements[0] = checkoutService.checkout(TOOL_CODE_CHNS, 5, 0, checkoutDate, correlationId);
+                checkoutService.checkout(TOOL_CODE_CHNS, 6, 0, checkoutDate, correlationId);
+            });
+            List<RecordedEvent> misses = ofType(events, HolidayCacheMissEvent.NAME);
+
+            assertAll(
+                    ()->{
+                        assertEquals(1, misses.size(), "Only the first checkout should grow the calendar");
+                        assertEquals(TOOL_CODE_CHNS, misses.get(0).getString("toolCode"), "The event should have the tool code");
+                        assertEquals(5, misses.get(0).getInt("rentalDays"), "The event should have the rental days");
+                        assertEquals(rentalAgreements[0].getChargeDays(), misses.get(0).getInt("chargeDays"), "The event should have the charge days");
+                        assertEquals(checkoutDate.getYear(), misses.get(0).getInt("lastYear"), "The calendar should cover the year of the checkout");
+                    }
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Validation rejected")
+    class ValidationRejectedTests {
+
+        @Test
+        @DisplayName("Should record a validation rejected event with the error code, and no checkout event")
+        void testCheckout_ValidationRejected() throws IOException {
+            UUID correlationId = UUID.randomUUID();
+
+            List<RecordedEvent> events = record(correlationId, () -> assertThrows(RuntimeException.class,
+                    () -> checkoutService.checkout(TOOL_CODE_JAKR, 4, 101, LocalDate.of(2041, Month.MARCH, 2), correlationId),
+                    "Expected checkout to throw, but it didn't"));
+            List<RecordedEvent> rejections = ofType(events, ValidationRejectedEvent.NAME);
+
+            assertAll(
+                    ()->{
+                        assertEquals(1, rejections.size(), "There should be an event for the rejection");
+                        assertEquals(INVALID_DISCOUNT.getDisplayName(), rejections.get(0).getString("errorCode"), "The event should have the error code");
+                        assertEquals(TOOL_CODE_JAKR, rejections.get(0).getString("toolCode"), "The event should have the tool code");
+                        assertEquals(4, rejections.get(0).getInt("rentalDays"), "The event should have the rental days");
+                        assertEquals(0, rejections.get(0).getInt("chargeDays"), "A rejected checkout has no charge days");
+                        assertTrue(ofType(events, CheckoutEvent.NAME).isEmpty(), "There should be no checkout event");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should record a validation rejected event for a rejected item of a batch")
+        void testCheckoutBatch_ValidationRejected() throws IOException {
+            UUID correlationId = UUID.randomUUID();
+            List<CheckoutRequest> requests = List.of(
+                    new CheckoutRequest(TOOL_CODE_LADW, 3, 10, LocalDate.of(2041, Month.MARCH, 2), correlationId),
+                    new CheckoutRequest(INVALID_TEST_TOOL_CODE, 3, 10, LocalDate.of(2041, Month.MARCH, 2), correlationId)
+            );
+
+            List<RecordedEvent> events = record(correlationId, () -> checkoutService.checkoutBatch(requests));
+
+            assertAll(
+                    ()->{
+                        assertEquals(1, ofType(events, CheckoutEvent.NAME).size(), "There should be an event for the successful item");
+                        assertEquals(INVALID_TOOL_CODE.getDisplayName(), ofType(events, ValidationRejectedEvent.NAME).get(0).getString("errorCode"),
+                                "There should be an event for the rejected item");
+                    }
+            );
+        }
+    }
+
+}
@@ -0,0 +1,161 @@
+package com.gillab.metrics;
+
+import com.gillab.exception.ApplicationException;
+import com.gillab.service.CheckoutService;
+import com.gillab.service.HolidayService;
+import com.gillab.service.InventoryService;
+import com.gillab.service.ToolService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Map;
+
+import static com.gillab.TestConstants.*;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.INVALID_DISCOUNT;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.INVALID_TOOL_CODE;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.TOOL_NOT_AVAILABLE;
+import static com.gillab.model.ToolTypeEnum.CHAINSAW;
+import static com.gillab.model.ToolTypeEnum.LADDER;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CheckoutMetrics Tests")
+class CheckoutMetricsTest {
+
+    @Nested
+    @DisplayName("Counters")
+    class CounterTests {
+
+        @Test
+        @DisplayName("Should count the checkouts by tool type, and the errors by error code")
+        void testRecord_Counters() {
+            CheckoutMetrics metrics = new CheckoutMetrics();
+
+            metrics.recordCheckout(LADDER.name());
+            metrics.recordCheckout(LADDER.name());
+            metrics.recordCheckout(CHAINSAW.name());
+            metrics.recordCheckout("SANDER");
+            metrics.recordError(INVALID_DISCOUNT);
+
+            assertAll(
+                    ()->{
+                        assertEquals(2, metrics.getCheckoutsByToolType().get("LADDER"), "There should be 2 LADDER checkouts");
+                        assertEquals(1, metrics.getCheckoutsByToolType().get("CHAINSAW"), "There should be 1 CHAINSAW checkout");
+                        assertEquals(0, metrics.getCheckoutsByToolType().get("JACKHAMMER"), "There should be no JACKHAMMER checkout");
+                        assertEquals(1, metrics.getCheckoutsByToolType().get("SANDER"), "A tool type registered at runtime should be counted");
+                        assertEquals(1, metrics.getErrorsByCode().get(INVALID_DISCOUNT.getDisplayName()), "There should be 1 INVALID_DISCOUNT error");
+                        assertEquals(0, metrics.getErrorsByCode().get(INVALID_TOOL_CODE.getDisplayName()), "There should be no INVALID_TOOL_CODE error");
+                    }
+            );
+
+            metrics.reset();
+            assertEquals(0, metrics.getCheckoutsByToolType().get("LADDER"), "The counters should be reset");
+        }
+
+        @Test
+        @DisplayName("Should record the checkouts, tool lookups and business errors of the checkout service")
+        void testRecord_CheckoutService() {
+            CheckoutMetrics metrics = CheckoutMetrics.getInstance();
+            CheckoutService checkoutService = CheckoutService.getInstance(ToolService.getInstance(TEST_TOOL_STOCK), HolidayService.getInstance());
+            long checkouts = metrics.getCheckoutsByToolType().get("LADDER");
+            long checkoutLatencies = metrics.getCheckoutHistogram().getCount();
+            long toolLookupLatencies = metrics.getToolLookupHistogram().getCount();
+            long errors = metrics.getErrorsByCode().get(INVALID_TOOL_CODE.getDisplayName());
+
+            checkoutService.checkout(TOOL_CODE_LADW, 5, 0, LocalDate.of(2033, Month.MARCH, 1), CORRELATION_ID);
+            assertThrows(RuntimeException.class,
+                    () -> checkoutService.checkout(INVALID_TEST_TOOL_CODE, 5, 0, LocalDate.of(2033, Month.MARCH, 1), CORRELATION_ID),
+                    "Expected checkout to throw, but it didn't");
+
+            assertAll(
+                    ()->{
+                        assertEquals(checkouts + 1, metrics.getCheckoutsByToolType().get("LADDER"), "The successful checkout should be counted");
+                        assertEquals(checkoutLatencies + 2, metrics.getCheckoutHistogram().getCount(), "The latency of both checkouts should be recorded");
+                        assertEquals(toolLookupLatencies + 2, metrics.getToolLookupHistogram().getCount(), "The latency of both tool lookups should be recorded");
+                        assertEquals(errors + 1, metrics.getErrorsByCode().get(INVALID_TOOL_CODE.getDisplayName()), "The error should be counted");
+                    }
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Checkout completion")
+    class CompletionTests {
+
+        @Test
+        @DisplayName("Should count a checkout only once its unit is reserved, and the unavailable unit as an error")
+        void testRecord_ReserveFails() {
+            CheckoutMetrics metrics = CheckoutMetrics.getInstance();
+            CheckoutService checkoutService = CheckoutService.getInstance(ToolService.getInstance(TEST_TOOL_STOCK), HolidayService.getInstance());
+            InventoryService inventoryService = new InventoryService(Map.of(TOOL_CODE_LADW, 0));
+            long checkouts = metrics.getCheckoutsByToolType().get("LADDER");
+            long errors = metrics.getErrorsByCode().get(TOOL_NOT_AVAILABLE.getDisplayName());
+
+            assertThrows(ApplicationException.class,
+                    () -> checkoutService.checkout(TOOL_CODE_LADW, 5, 0, LocalDate.of(2033, Month.MARCH, 1), CORRELATION_ID, inventoryService),
+                    "Expected checkout to throw ApplicationException when no unit is available");
+
+            assertAll(
+                    ()->{
+                        assertEquals(checkouts, metrics.getCheckoutsByToolType().get("LADDER"), "The checkout without a unit should not be counted");
+                        assertEquals(errors + 1, metrics.getErrorsByCode().get(TOOL_NOT_AVAILABLE.getDisplayName()), "The unavailable unit should be counted as an error");
+                    }
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Exposition")
+    class ExpositionTests {
+
+        @Test
+        @DisplayName("Should write the metrics in the OpenMetrics text format")
+        void testGetOpenMetrics() {
+            CheckoutMetrics metrics = new CheckoutMetrics();
+            metrics.getCheckoutHistogram().record(2_047);
+            metrics.getCheckoutHistogram().record(4_095);
+            metrics.recordCheckout(LADDER.name());
+            metrics.recordError(INVALID_TOOL_CODE);
+
+            String openMetrics = metrics.getOpenMetrics();
+
+            assertAll(
+                    ()->{
+                        assertTrue(openMetrics.contains("# TYPE tool_rental_checkout_latency_seconds summary\n"), "The latency should be a summary");
+                        assertTrue(openMetrics.contains("# UNIT tool_rental_checkout_latency_seconds seconds\n"), "The latency should be in seconds");
+                        assertTrue(openMetrics.contains("tool_rental_checkout_latency_seconds{quantile=\"0.5\"} 2.047E-6\n"), "The median should be the highest value of its bucket");
+                        assertTrue(openMetrics.contains("tool_rental_checkout_latency_seconds_count 2\n"), "The latency count should be 2");
+                        assertTrue(openMetrics.contains("tool_rental_checkout_latency_seconds_sum 6.142E-6\n"), "The latency sum should be the sum of the values");
+                        assertTrue(openMetrics.contains("tool_rental_checkouts_total{tool_type=\"LADDER\"} 1\n"), "The LADDER checkout should be counted");
+                        assertTrue(openMetrics.contains("tool_rental_errors_total{code=\"ERR-001\",name=\"INVALID_TOOL_CODE\"} 1\n"), "The error should be counted");
+                        assertTrue(openMetrics.endsWith("# EOF\n"), "The metrics should end with EOF");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should expose the metrics through JMX")
+        void testRegisterMBean() throws Exception {
+            CheckoutMetrics metrics = CheckoutMetrics.getInstance();
+            metrics.registerMBean();
+            metrics.registerMBean();
+
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(CheckoutMetrics.OBJECT_NAME);
+
+            assertAll(
+                    ()->{
+                        assertTrue(mBeanServer.isRegistered(objectName), "The metrics should be registered");
+                        assertTrue(((String) mBeanServer.getAttribute(objectName, "OpenMetrics")).endsWith("# EOF\n"), "The OpenMetrics attribute should be readable");
+                        assertNotNull(mBeanServer.getAttribute(objectName, "CheckoutLatency"), "The CheckoutLatency attribute should be readable");
+                    }
+            );
+        }
+    }
+
+}
@@ -0,0 +1,198 @@
+package com.gillab.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LatencyHistogram Tests")
+class LatencyHistogramTest {
+
+    @Nested
+    @DisplayName("Buckets")
+    class BucketTests {
+
+        @Test
+        @DisplayName("Should keep every value in a bucket that contains it, with a relative error below 1%")
+        void testIndexOf_RelativeError() {
+            Random random = new Random(16);
+            for (int sample = 0; sample < 1_000_000; sample++) {
+                long value = random.nextLong(LatencyHistogram.getHighestTrackableValue() >>> random.nextInt(40));
+                long highestValue = LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(value));
+                if (highestValue < value || highestValue - value > value / 100) {
+                    fail("The bucket of " + value + " has the highest value " + highestValue);
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should have consecutive buckets, from 0 to the highest trackable value")
+        void testIndexOf_Consecutive() {
+            long highestValue = LatencyHistogram.getHighestTrackableValue();
+            int lastIndex = LatencyHistogram.indexOf(highestValue);
+
+            assertAll(
+                    ()->{
+                        assertEquals(0, LatencyHistogram.indexOf(0), "0 should be in the first bucket");
+                        assertEquals(highestValue, LatencyHistogram.highestValueOf(lastIndex), "The last bucket should end at the highest trackable value");
+                        assertEquals(lastIndex, LatencyHistogram.indexOf(Long.MAX_VALUE), "Values over the highest trackable value should be in the last bucket");
+                    }
+            );
+            for (int index = 1; index <= lastIndex; index++) {
+                long lowestValue = LatencyHistogram.highestValueOf(index - 1) + 1;
+                if (LatencyHistogram.indexOf(lowestValue) != index || LatencyHistogram.indexOf(LatencyHistogram.highestValueOf(index)) != index) {
+                    fail("The bucket " + index + " should start right after the previous one");
+                }
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Percentiles")
+    class PercentileTests {
+
+        @Test
+        @DisplayName("Should match the percentiles of the sorted values, within the precision of the buckets")
+        void testGetValueAtPercentile_MatchesSortedValues() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            long[] values = new long[100_000];
+            for (int index = 0; index < values.length; index++) {
+                values[index] = (long) Math.exp(ThreadLocalRandom.current().nextDouble(1, 20));
+                histogram.record(values[index]);
+            }
+            Arrays.sort(values);
+
+            for (double percentile : List.of(0.0, 50.0, 90.0, 99.0, 99.9, 100.0)) {
+                long expected = values[Math.max(0, (int) Math.ceil(percentile / 100 * values.length) - 1)];
+                long actual = histogram.getValueAtPercentile(percentile);
+                assertTrue(actual >= expected && actual - expected <= expected / 100,
+                        "The percentile " + percentile + " should be " + expected + " but was " + actual);
+            }
+            assertEquals(values.length, histogram.getCount(), "Every value should be counted");
+            assertEquals(Arrays.stream(values).sum(), histogram.getTotalNanos(), "Every value should be added to the total");
+        }
+
+        @Test
+        @DisplayName("Should report the percentiles in the given unit")
+        void testGetValueAtPercentile_Unit() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(100);
+
+            assertAll(
+                    ()->{
+                        assertEquals(100, histogram.getValueAtPercentile(50), "The only value should be every percentile");
+                        assertEquals(1e-7, histogram.getValueAtPercentile(50, TimeUnit.SECONDS), 1e-12, "The percentile should be in seconds");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should return 0 when nothing was recorded, or after a reset")
+        void testGetValueAtPercentile_Empty() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            assertEquals(0, histogram.getValueAtPercentile(99), "An empty histogram should return 0");
+
+            histogram.record(5000);
+            histogram.reset();
+            assertAll(
+                    ()->{
+                        assertEquals(0, histogram.getValueAtPercentile(99), "A reset histogram should return 0");
+                        assertEquals(0, histogram.getCount(), "A reset histogram should have no values");
+                        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(101),
+                                "Expected getValueAtPercentile to throw IllegalArgumentException for a percentile over 100");
+                    }
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Coordinated omission")
+    class CoordinatedOmissionTests {
+
+        @Test
+        @DisplayName("Should add the values omitted while a latency was longer than the expected interval")
+        void testRecord_ExpectedInterval() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(100, 100);
+            histogram.record(500, 100);
+
+            assertAll(
+                    ()->{
+                        assertEquals(6, histogram.getCount(), "The values 400, 300, 200 and 100 should be added for 500");
+                        assertEquals(1600, histogram.getTotalNanos(), "The added values should be added to the total");
+                        assertEquals(100, histogram.getValueAtPercentile(30), "The added values should be recorded");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should copy the histogram with the omitted values, leaving the original as it was")
+        void testCopyCorrectedForCoordinatedOmission() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (int value = 0; value < 99; value++) {
+                histogram.record(100);
+            }
+            histogram.record(9_983);
+
+            LatencyHistogram corrected = histogram.copyCorrectedForCoordinatedOmission(100);
+
+            assertAll(
+                    ()->{
+                        assertEquals(100, histogram.getCount(), "The original histogram should not change");
+                        assertEquals(100, histogram.getValueAtPercentile(99), "Only 1% of the original values are over 100");
+                        assertEquals(100 + 98, corrected.getCount(), "The stall should add 98 values");
+                        assertTrue(corrected.getValueAtPercentile(99) > 9_000, "Half of the corrected values are over 100");
+                        assertTrue(corrected.getValueAtPercentile(75) > 4_000, "The added values should be spread up to the stall");
+                    }
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrent recording")
+    class ConcurrentRecordingTests {
+
+        @Test
+        @DisplayName("Should count every value recorded by concurrent threads")
+        void testRecord_Concurrent() throws Exception {
+            int threads = 8;
+            int values = 100_000;
+            LatencyHistogram histogram = new LatencyHistogram();
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> results = new ArrayList<>();
+                for (int thread = 0; thread < threads; thread++) {
+                    results.add(executor.submit(() -> {
+                        for (int value = 0; value < values; value++) {
+                            histogram.record(value % 1000);
+                        }
+                    }));
+                }
+                for (Future<?> result : results) {
+                    result.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            assertAll(
+                    ()->{
+                        assertEquals((long) threads * values, histogram.getCount(), "Every value should be counted");
+                        assertEquals((long) threads * (values / 1000) * (999 * 1000 / 2), histogram.getTotalNanos(), "Every value should be added to the total");
+                    }
+            );
+        }
+    }
+
+}
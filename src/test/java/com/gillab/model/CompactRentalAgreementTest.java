@@ -0,0 +1,122 @@
+package com.gillab.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Map;
+
+import static com.gillab.TestConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CompactRentalAgreement Tests")
+class CompactRentalAgreementTest {
+
+    private static final ToolTypePolicy LADDER_POLICY = new ToolTypePolicy(1, "LADDER", "Ladder", LADDER_DAILY_CHARGE_CENTS, true, true, false);
+    private static final Tool LADDER = TEST_TOOL_STOCK.get(TOOL_CODE_LADW);
+    private static final LocalDate CHECKOUT_DATE = LocalDate.of(2020, Month.JULY, 2);
+
+    /**
+     * An agreement as the checkout creates it: 3 days with 2 charge days and 10% discount.
+     */
+    private static RentalAgreement ladderAgreement(final LocalDate checkoutDate) {
+        return new RentalAgreement(TOOL_CODE_LADW, LADDER_POLICY.getDisplayName(), LADDER.getBrand(), 3,
+                checkoutDate, checkoutDate.plusDays(3), LADDER_DAILY_CHARGE_CENTS, 2, 398, 10, 40, 358);
+    }
+
+    @Nested
+    @DisplayName("Getters")
+    class GetterTests {
+
+        @Test
+        @DisplayName("Should have the same getters as the agreement it compacts")
+        void testOf_SameGetters() {
+            RentalAgreement agreement = ladderAgreement(CHECKOUT_DATE);
+            CompactRentalAgreement compact = CompactRentalAgreement.of(agreement, LADDER, LADDER_POLICY);
+
+            assertAll(
+                    ()->{
+                        assertEquals(agreement.getToolCode(), compact.getToolCode(), "The tool code should match");
+                        assertEquals(agreement.getToolType(), compact.getToolType(), "The tool type should match");
+                        assertEquals(agreement.getToolBrand(), compact.getToolBrand(), "The brand should match");
+                        assertEquals(agreement.getCheckoutDate(), compact.getCheckoutDate(), "The checkout date should match");
+                        assertEquals(agreement.getDueDate(), compact.getDueDate(), "The due date should follow from the rental days");
+                        assertEquals(agreement.getDailyRentalCharge(), compact.getDailyRentalCharge(), "The daily charge should be the one of the policy");
+                        assertEquals(agreement.getPreDiscountCharge(), compact.getPreDiscountCharge(), "The pre-discount charge should follow from the charge days");
+                        assertEquals(agreement.getDiscountAmount(), compact.getDiscountAmount(), "The discount amount should match");
+                        assertEquals(agreement.getFinalCharge(), compact.getFinalCharge(), "The final charge should follow from the discount");
+                        assertEquals(agreement, compact.toRentalAgreement(), "The agreement should be created back");
+                        assertSame(LADDER, compact.tool(), "The tool should be shared, not copied");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should reject an agreement that does not match its tool, or with an amount that does not follow")
+        void testOf_Mismatch() {
+            RentalAgreement otherBrand = ladderAgreement(CHECKOUT_DATE);
+            otherBrand.setToolBrand("Louisville");
+            RentalAgreement wrongFinalCharge = ladderAgreement(CHECKOUT_DATE);
+            wrongFinalCharge.setFinalChargeCents(357);
+
+            assertAll(
+                    ()->{
+                        assertThrows(IllegalArgumentException.class, () -> CompactRentalAgreement.of(otherBrand, LADDER, LADDER_POLICY),
+                                "Expected of to throw IllegalArgumentException for another brand");
+                        assertThrows(IllegalArgumentException.class, () -> CompactRentalAgreement.of(wrongFinalCharge, LADDER, LADDER_POLICY),
+                                "Expected of to throw IllegalArgumentException for a final charge that does not follow");
+                    }
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Footprint")
+    class FootprintTests {
+
+        private static final long AGREEMENTS = 10_000_000;
+        private static final long BYTES_PER_MEGABYTE = 1024 * 1024;
+
+        /**
+         * The heap retained by an object, walked by JOL: everything it references, except the tool and the policy, which
+         * are shared by every agreement of the tool, with their texts.
+         */
+        private static long retainedBytes(final Object object) {
+            return GraphLayout.parseInstance(object).subtract(GraphLayout.parseInstance(LADDER, LADDER_POLICY)).totalSize();
+        }
+
+        @Test
+        @DisplayName("Should take at most half of the memory of the agreement it compacts, and retain nothing but itself")
+        void testFootprint(TestReporter testReporter) {
+            RentalAgreement agreement = ladderAgreement(CHECKOUT_DATE);
+            CompactRentalAgreement compact = CompactRentalAgreement.of(agreement, LADDER, LADDER_POLICY);
+            long agreementBytes = retainedBytes(agreement);
+            long compactBytes = retainedBytes(compact);
+            // Shared by every agreement of the tool, so counted once per tool and not per agreement
+            long toolBytes = GraphLayout.parseInstance(LADDER).totalSize();
+            testReporter.publishEntry(Map.of(
+                    "agreementBytes", String.valueOf(agreementBytes),
+                    "compactAgreementBytes", String.valueOf(compactBytes),
+                    "toolBytes", String.valueOf(toolBytes),
+                    "agreements", String.valueOf(AGREEMENTS),
+                    "agreementsMegabytes", String.valueOf(agreementBytes * AGREEMENTS / BYTES_PER_MEGABYTE),
+                    "compactAgreementsMegabytes", String.valueOf(compactBytes * AGREEMENTS / BYTES_PER_MEGABYTE)
+            ));
+
+            assertAll(
+                    ()->{
+                        assertEquals(ClassLayout.parseInstance(compact).instanceSize(), compactBytes,
+                                "A compact agreement should only retain its own fields");
+                        assertTrue(compactBytes * 2 <= agreementBytes,
+                                "A compact agreement (" + compactBytes + " bytes) should take at most half of an agreement (" + agreementBytes + " bytes)");
+                    }
+            );
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.gillab.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RentalAgreementRenderer Tests")
+class RentalAgreementRendererTest {
+
+    private static final RentalAgreement RENTAL_AGREEMENT = new RentalAgreement("LADW", ToolTypeEnum.LADDER.getDisplayName(), "Werner", 3,
+            LocalDate.of(2020, Month.JULY, 2), LocalDate.of(2020, Month.JULY, 5),
+            199, 2, 398, 10, 40, 358);
+
+    private static final String RENDERED_AGREEMENT = """
+            Rental Agreement:
+            Tool Code: LADW
+            Tool Type: Ladder
+            Tool Brand: Werner
+            Rental Days: 3
+            Checkout Date: 07/02/20
+            Due Date: 07/05/20
+            Daily Rental Charge: $1.99
+            Charge Days: 2
+            Pre-discount Charge: $3.98
+            Discount Percent: 10%
+            Discount Amount: $0.40
+            Final Charge: $3.58""";
+
+    @Nested
+    @DisplayName("Render")
+    class RenderTests {
+
+        @Test
+        @DisplayName("Should render the agreement into a StringBuilder")
+        void testRender_StringBuilder() {
+            StringBuilder out = new StringBuilder("Receipt\n");
+            RentalAgreementRenderer.render(RENTAL_AGREEMENT, out);
+            assertEquals("Receipt\n" + RENDERED_AGREEMENT, out.toString(), "Agreement should be appended to the existing content");
+        }
+
+        @Test
+        @DisplayName("Should render the agreement into an Appendable")
+        void testRender_Appendable() throws Exception {
+            StringWriter out = new StringWriter();
+            RentalAgreementRenderer.render(RENTAL_AGREEMENT, (Appendable) out);
+            assertEquals(RENDERED_AGREEMENT, out.toString(), "Rendered agreement should match");
+        }
+
+        @Test
+        @DisplayName("toString should use the renderer")
+        void testToString() {
+            assertEquals(RENDERED_AGREEMENT, RENTAL_AGREEMENT.toString(), "toString should match the rendered agreement");
+        }
+
+        @Test
+        @DisplayName("Should throw NullPointerException when rental agreement is null")
+        void testRender_nullRentalAgreement() {
+            assertThrows(NullPointerException.class,
+                    () -> RentalAgreementRenderer.render(null, new StringBuilder()),
+                    "Expected render to throw NullPointerException for null rental agreement"
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Format values like java.text and java.time formatters")
+    class FormatTests {
+
+        @ParameterizedTest
+        @ValueSource(longs = {0, 1, -1, 5, 99, 100, 199, -199, 123_456, 100_000_000, 123_456_789_012_345_678L, Long.MAX_VALUE, Long.MIN_VALUE})
+        @DisplayName("Should format cents like NumberFormat")
+        void testAppendCurrency_Boundaries(long cents) throws Exception {
+            StringBuilder out = new StringBuilder();
+            RentalAgreementRenderer.appendCurrency(out, cents);
+            assertEquals(NumberFormat.getCurrencyInstance(Locale.US).format(BigDecimal.valueOf(cents, 2)), out.toString(), "Currency should match NumberFormat");
+        }
+
+        @Test
+        @DisplayName("Should format random amounts like NumberFormat")
+        void testAppendCurrency_Random() throws Exception {
+            NumberFormat currencyFormatter = NumberFormat.getCurrencyInstance(Locale.US);
+            Random random = new Random(42);
+            StringBuilder out = new StringBuilder();
+            for (int i = 0; i < 100_000; i++) {
+                long cents = random.nextLong() >> random.nextInt(64);
+                out.setLength(0);
+                RentalAgreementRenderer.appendCurrency(out, cents);
+                assertEquals(currencyFormatter.format(BigDecimal.valueOf(cents, 2)), out.toString(), "Currency should match NumberFormat");
+            }
+        }
+
+        @Test
+        @DisplayName("Should format dates like DateTimeFormatter")
+        void testAppendDate() throws Exception {
+            DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MM/dd/yy");
+            StringBuilder out = new StringBuilder();
+            for (LocalDate date = LocalDate.of(1899, Month.DECEMBER, 25); date.getYear() < 2101; date = date.plusDays(13)) {
+                out.setLength(0);
+                RentalAgreementRenderer.appendDate(out, date);
+                assertEquals(date.format(dateFormatter), out.toString(), "Date should match DateTimeFormatter");
+            }
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = {0, 1, 10, 100, 1000, -25})
+        @DisplayName("Should format the discount like the percent NumberFormat")
+        void testAppendInteger_Percent(int discountPercent) throws Exception {
+            NumberFormat percentFormatter = NumberFormat.getPercentInstance(Locale.US);
+            percentFormatter.setMinimumFractionDigits(0);
+            StringBuilder out = new StringBuilder();
+            RentalAgreementRenderer.appendInteger(out, discountPercent, true);
+            assertEquals(percentFormatter.format(discountPercent / 100.0), out.append('%').toString(), "Percent should match NumberFormat");
+        }
+    }
+
+}
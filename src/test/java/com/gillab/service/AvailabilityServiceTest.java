@@ -0,0 +1,327 @@
+package com.gillab.service;
+
+import com.gillab.exception.ApplicationException;
+import com.gillab.model.Tool;
+import com.gillab.model.ToolTypeEnum;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static com.gillab.TestConstants.*;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.INVALID_TOOL_CODE;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.TOOL_NOT_AVAILABLE;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.TOOL_NOT_RENTED;
+import static com.gillab.model.ToolTypeEnum.JACKHAMMER;
+import static com.gillab.model.ToolTypeEnum.LADDER;
+import static com.gillab.util.Constants.MAX_RESERVATION_DAYS;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AvailabilityService Tests")
+class AvailabilityServiceTest {
+
+    private static final LocalDate JULY_1ST = LocalDate.of(2025, Month.JULY, 1);
+
+    @Nested
+    @DisplayName("Reserve and release")
+    class ReserveAndReleaseTests {
+
+        @Test
+        @DisplayName("Should reserve adjacent ranges, and reject an overlapping one")
+        void testReserve_Overlap() {
+            AvailabilityService availabilityService = new AvailabilityService(TEST_TOOL_STOCK);
+
+            availabilityService.reserve(TOOL_CODE_JAKR, JULY_1ST, JULY_1ST.plusDays(5), CORRELATION_ID);
+            availabilityService.reserve(TOOL_CODE_JAKR, JULY_1ST.plusDays(5), JULY_1ST.plusDays(9), CORRELATION_ID);
+            ApplicationException exception = assertThrows(
+                    ApplicationException.class,
+                    () -> availabilityService.reserve(TOOL_CODE_JAKR, JULY_1ST.minusDays(2), JULY_1ST.plusDays(1), CORRELATION_ID),
+                    "Expected reserve to throw, but it didn't"
+            );
+
+            assertAll(
+                    ()->{
+                        assertEquals(TOOL_NOT_AVAILABLE.getDisplayName(), exception.getErrorCode(), "Error code should match");
+                        assertEquals(2, availabilityService.getReservationCount(TOOL_CODE_JAKR), "The rejected range should not be reserved");
+                        assertTrue(availabilityService.isAvailable(TOOL_CODE_JAKR, JULY_1ST.minusDays(2), JULY_1ST), "The days before should be available");
+                        assertTrue(availabilityService.isAvailable(TOOL_CODE_JAKD, JULY_1ST, JULY_1ST.plusDays(9)), "Other tools should be available");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should release only a range that matches a reservation")
+        void testRelease() {
+            AvailabilityService availabilityService = new AvailabilityService(TEST_TOOL_STOCK);
+            availabilityService.reserve(TOOL_CODE_LADW, JULY_1ST, JULY_1ST.plusDays(3), CORRELATION_ID);
+            availabilityService.reserve(TOOL_CODE_LADW, JULY_1ST.plusDays(3), JULY_1ST.plusDays(6), CORRELATION_ID);
+
+            List<LocalDate[]> invalidRanges = List.of(
+                    new LocalDate[]{JULY_1ST, JULY_1ST.plusDays(2)},
+                    new LocalDate[]{JULY_1ST, JULY_1ST.plusDays(6)},
+                    new LocalDate[]{JULY_1ST.plusDays(1), JULY_1ST.plusDays(3)},
+                    new LocalDate[]{JULY_1ST.plusDays(3), JULY_1ST.plusDays(7)}
+            );
+            for (LocalDate[] range : invalidRanges) {
+                ApplicationException exception = assertThrows(
+                        ApplicationException.class,
+                        () -> availabilityService.release(TOOL_CODE_LADW, range[0], range[1], CORRELATION_ID),
+                        "Expected release to throw for " + range[0] + " - " + range[1]
+                );
+                assertEquals(TOOL_NOT_RENTED.getDisplayName(), exception.getErrorCode(), "Error code should match");
+            }
+
+            availabilityService.release(TOOL_CODE_LADW, JULY_1ST.plusDays(3), JULY_1ST.plusDays(6), CORRELATION_ID);
+            assertTrue(availabilityService.isAvailable(TOOL_CODE_LADW, JULY_1ST.plusDays(3), JULY_1ST.plusDays(6)), "Released range should be available");
+            assertFalse(availabilityService.isAvailable(TOOL_CODE_LADW, JULY_1ST, JULY_1ST.plusDays(1)), "Other reservation should be kept");
+            assertEquals(1, availabilityService.getReservationCount(TOOL_CODE_LADW), "Only one reservation should be left");
+        }
+
+        @Test
+        @DisplayName("Should throw ApplicationException for an invalid tool code")
+        void testReserve_InvalidToolCode() {
+            AvailabilityService availabilityService = new AvailabilityService(TEST_TOOL_STOCK);
+
+            ApplicationException exception = assertThrows(
+                    ApplicationException.class,
+                    () -> availabilityService.reserve(INVALID_TEST_TOOL_CODE, JULY_1ST, JULY_1ST.plusDays(1), CORRELATION_ID),
+                    "Expected reserve to throw, but it didn't"
+            );
+
+            assertEquals(INVALID_TOOL_CODE.getDisplayName(), exception.getErrorCode(), "Error code should match");
+            assertFalse(availabilityService.isAvailable(INVALID_TEST_TOOL_CODE, JULY_1ST, JULY_1ST.plusDays(1)), "An invalid tool code should not be available");
+            assertEquals(Optional.empty(), availabilityService.findFirstAvailableDate(INVALID_TEST_TOOL_CODE, JULY_1ST, 1), "An invalid tool code should have no available date");
+        }
+
+        @Test
+        @DisplayName("Should throw IllegalArgumentException when the range is empty")
+        void testReserve_EmptyRange() {
+            AvailabilityService availabilityService = new AvailabilityService(TEST_TOOL_STOCK);
+            assertThrows(IllegalArgumentException.class,
+                    () -> availabilityService.reserve(TOOL_CODE_JAKR, JULY_1ST, JULY_1ST, CORRELATION_ID),
+                    "Expected reserve to throw IllegalArgumentException for an empty range"
+            );
+        }
+
+        @Test
+        @DisplayName("Should throw IllegalArgumentException when the reservation is too long, and not reserve the tool")
+        void testReserve_TooLong() {
+            AvailabilityService availabilityService = new AvailabilityService(TEST_TOOL_STOCK);
+            LocalDate endDate = JULY_1ST.plusDays(MAX_RESERVATION_DAYS + 1);
+
+            assertAll(
+                    ()->{
+                        assertThrows(IllegalArgumentException.class,
+                                () -> availabilityService.reserve(TOOL_CODE_JAKR, JULY_1ST, endDate, CORRELATION_ID),
+                                "Expected reserve to throw IllegalArgumentException for a reservation too long"
+                        );
+                        assertTrue(availabilityService.isAvailable(TOOL_CODE_JAKR, JULY_1ST, endDate), "The tool should not be reserved");
+                        assertEquals(2, availabilityService.findAvailableTools(JACKHAMMER.name(), JULY_1ST, endDate).size(), "The fleet index should not be updated");
+                    }
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Find first available date")
+    class FindFirstAvailableDateTests {
+
+        @Test
+        @DisplayName("Should skip the gaps that are too short")
+        void testFindFirstAvailableDate_SkipShortGaps() {
+            AvailabilityService availabilityService = new AvailabilityService(TEST_TOOL_STOCK);
+            availabilityService.reserve(TOOL_CODE_JAKR, JULY_1ST, JULY_1ST.plusDays(10), CORRELATION_ID);
+            availabilityService.reserve(TOOL_CODE_JAKR, JULY_1ST.plusDays(12), JULY_1ST.plusDays(20), CORRELATION_ID);
+            availabilityService.reserve(TOOL_CODE_JAKR, JULY_1ST.plusDays(23), JULY_1ST.plusDays(100), CORRELATION_ID);
+
+            assertAll(
+                    ()->{
+                        assertEquals(JULY_1ST.minusDays(5), availabilityService.findFirstAvailableDate(TOOL_CODE_JAKR, JULY_1ST.minusDays(5), 5).orElseThrow(), "The days before the reservations should be available");
+                        assertEquals(JULY_1ST.plusDays(100), availabilityService.findFirstAvailableDate(TOOL_CODE_JAKR, JULY_1ST.minusDays(4), 5).orElseThrow(), "No gap should fit 5 days");
+                        assertEquals(JULY_1ST.plusDays(10), availabilityService.findFirstAvailableDate(TOOL_CODE_JAKR, JULY_1ST, 2).orElseThrow(), "The first gap should fit 2 days");
+                        assertEquals(JULY_1ST.plusDays(20), availabilityService.findFirstAvailableDate(TOOL_CODE_JAKR, JULY_1ST, 3).orElseThrow(), "The second gap should fit 3 days");
+                        assertEquals(JULY_1ST.plusDays(100), availabilityService.findFirstAvailableDate(TOOL_CODE_JAKR, JULY_1ST, 4).orElseThrow(), "Only the days after the reservations should fit 4 days");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should match a day by day search, with random reservations and releases")
+        void testFindFirstAvailableDate_Random() {
+            AvailabilityService availabilityService = new AvailabilityService(TEST_TOOL_STOCK);
+            LocalDate firstDate = LocalDate.of(1965, Month.MARCH, 1);
+            int days = 8_000;
+            boolean[] reserved = new boolean[days + 400];
+            List<int[]> reservations = new ArrayList<>();
+            Random random = new Random(42);
+
+            for (int i = 0; i < 20_000; i++) {
+                int start = random.nextInt(days);
+                int end = start + 1 + random.nextInt(random.nextBoolean() ? 10 : 200);
+                if (random.nextInt(4) == 0 && !reservations.isEmpty()) {
+                    int[] reservation = reservations.remove(random.nextInt(reservations.size()));
+                    availabilityService.release(TOOL_CODE_CHNS, firstDate.plusDays(reservation[0]), firstDate.plusDays(reservation[1]), CORRELATION_ID);
+                    for (int day = reservation[0]; day < reservation[1]; day++) {
+                        reserved[day] = false;
+                    }
+                    continue;
+                }
+
+                boolean isAvailable = true;
+                for (int day = start; day < end; day++) {
+                    isAvailable &= !reserved[day];
+                }
+                assertEquals(isAvailable, availabilityService.isAvailable(TOOL_CODE_CHNS, firstDate.plusDays(start), firstDate.plusDays(end)), "Availability should match");
+                if (isAvailable) {
+                    availabilityService.reserve(TOOL_CODE_CHNS, firstDate.plusDays(start), firstDate.plusDays(end), CORRELATION_ID);
+                    reservations.add(new int[]{start, end});
+                    for (int day = start; day < end; day++) {
+                        reserved[day] = true;
+                    }
+                }
+
+                int windowDays = 1 + random.nextInt(30);
+                int expected = start;
+                while (!isFree(reserved, expected, expected + windowDays)) {
+                    expected++;
+                }
+                assertEquals(firstDate.plusDays(expected), availabilityService.findFirstAvailableDate(TOOL_CODE_CHNS, firstDate.plusDays(start), windowDays).orElseThrow(), "First available date should match");
+            }
+            assertEquals(reservations.size(), availabilityService.getReservationCount(TOOL_CODE_CHNS), "Reservation count should match");
+        }
+
+        @Test
+        @DisplayName("Should answer with a million reservations")
+        void testFindFirstAvailableDate_MillionReservations() {
+            AvailabilityService availabilityService = new AvailabilityService(TEST_TOOL_STOCK);
+            LocalDate firstDate = LocalDate.of(-2000, Month.JANUARY, 1);
+            for (int i = 0; i < 1_000_000; i++) {
+                // 3 days reserved out of every 4, with no gap after one reservation out of every 1000
+                int days = i % 1000 == 999 ? 4 : 3;
+                availabilityService.reserve(TOOL_CODE_JAKD, firstDate.plusDays(4L * i), firstDate.plusDays(4L * i + days), CORRELATION_ID);
+            }
+
+            assertEquals(1_000_000, availabilityService.getReservationCount(TOOL_CODE_JAKD), "Every reservation should be kept");
+            assertTrue(availabilityService.isAvailable(TOOL_CODE_JAKD, firstDate.plusDays(4L * 500_000 + 3), firstDate.plusDays(4L * 500_001)), "The gap between reservations should be available");
+            assertEquals(firstDate.plusDays(3), availabilityService.findFirstAvailableDate(TOOL_CODE_JAKD, firstDate, 1).orElseThrow(), "The first gap should fit 1 day");
+            assertEquals(firstDate.plusDays(4_000_000), availabilityService.findFirstAvailableDate(TOOL_CODE_JAKD, firstDate, 2).orElseThrow(), "Only the days after the reservations should fit 2 days");
+        }
+
+        private boolean isFree(boolean[] reserved, int start, int end) {
+            for (int day = start; day < end; day++) {
+                if (day < reserved.length && reserved[day]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    @Nested
+    @DisplayName("Find available tools")
+    class FindAvailableToolsTests {
+
+        @Test
+        @DisplayName("Should find the tools of a type and brand free for the range")
+        void testFindAvailableTools() {
+            AvailabilityService availabilityService = new AvailabilityService(TEST_TOOL_STOCK);
+            availabilityService.reserve(TOOL_CODE_JAKR, JULY_1ST.plusDays(3), JULY_1ST.plusDays(5), CORRELATION_ID);
+
+            assertAll(
+                    ()->{
+                        assertEquals(List.of(TEST_TOOL_STOCK.get(TOOL_CODE_JAKD)), availabilityService.findAvailableTools(JACKHAMMER.name(), JULY_1ST, JULY_1ST.plusDays(10)), "Only JAKD should be available");
+                        assertEquals(List.of(TEST_TOOL_STOCK.get(TOOL_CODE_JAKD), TEST_TOOL_STOCK.get(TOOL_CODE_JAKR)), availabilityService.findAvailableTools(JACKHAMMER.name(), JULY_1ST, JULY_1ST.plusDays(3)), "Both jackhammers should be available, sorted by brand");
+                        assertEquals(List.of(), availabilityService.findAvailableTools(JACKHAMMER.name(), "Ridgid", JULY_1ST.plusDays(4), JULY_1ST.plusDays(5)), "No Ridgid jackhammer should be available");
+                        assertEquals(List.of(TEST_TOOL_STOCK.get(TOOL_CODE_JAKR)), availabilityService.findAvailableTools(JACKHAMMER.name(), "Ridgid", JULY_1ST.plusDays(5), JULY_1ST.plusDays(6)), "The Ridgid jackhammer should be available on the due date");
+                        assertEquals(List.of(), availabilityService.findAvailableTools(JACKHAMMER.name(), "Stihl", JULY_1ST, JULY_1ST.plusDays(1)), "There are no Stihl jackhammers");
+                        assertEquals(List.of(TEST_TOOL_STOCK.get(TOOL_CODE_LADW)), availabilityService.findAvailableTools(LADDER.name(), JULY_1ST, JULY_1ST.plusDays(10)), "The ladder should be available");
+                    }
+            );
+
+            availabilityService.release(TOOL_CODE_JAKR, JULY_1ST.plusDays(3), JULY_1ST.plusDays(5), CORRELATION_ID);
+            assertEquals(2, availabilityService.findAvailableTools(JACKHAMMER.name(), JULY_1ST, JULY_1ST.plusDays(10)).size(), "Released jackhammer should be available");
+        }
+
+        @Test
+        @DisplayName("Should find the tools free for ranges far apart, and free the pages of the released reservations")
+        void testFindAvailableTools_FarApartDates() {
+            List<Tool> jackhammers = List.of(TEST_TOOL_STOCK.get(TOOL_CODE_JAKD), TEST_TOOL_STOCK.get(TOOL_CODE_JAKR));
+            FleetAvailabilityIndex fleetIndex = new FleetAvailabilityIndex(jackhammers);
+            int slot = fleetIndex.getSlot(TOOL_CODE_JAKR);
+            long minDay = LocalDate.MIN.toEpochDay();
+            long maxDay = LocalDate.MAX.toEpochDay();
+            long july1st = JULY_1ST.toEpochDay();
+            fleetIndex.update(slot, minDay, minDay + 3, true);
+            fleetIndex.update(slot, july1st, july1st + 3, true);
+            fleetIndex.update(slot, maxDay - 2, maxDay + 1, true);
+
+            assertAll(
+                    ()->{
+                        assertEquals(3, fleetIndex.getPageCount(), "Only the pages of the reservations should be allocated");
+                        assertEquals(List.of(jackhammers.get(0)), fleetIndex.findFreeTools(null, minDay, maxDay + 1), "Only JAKD should be free over every day");
+                        assertEquals(List.of(jackhammers.get(0)), fleetIndex.findFreeTools(null, minDay + 2, minDay + 3), "Only JAKD should be free on the first days");
+                        assertEquals(jackhammers, fleetIndex.findFreeTools(null, minDay + 3, july1st), "Both should be free between the reservations");
+                        assertEquals(List.of(), fleetIndex.findFreeTools("Ridgid", july1st + 2, maxDay - 1), "No Ridgid jackhammer should be free");
+                        assertThrows(IllegalArgumentException.class, () -> fleetIndex.findFreeTools(null, july1st, july1st),
+                                "Expected findFreeTools to throw IllegalArgumentException for an empty range");
+                        assertThrows(IllegalArgumentException.class, () -> fleetIndex.update(slot, minDay - 1, minDay + 1, true),
+                                "Expected update to throw IllegalArgumentException for a day before LocalDate.MIN");
+                        assertThrows(IllegalArgumentException.class, () -> fleetIndex.update(slot, july1st, july1st + MAX_RESERVATION_DAYS + 1, true),
+                                "Expected update to throw IllegalArgumentException for a reservation too long");
+                    }
+            );
+
+            fleetIndex.update(slot, minDay, minDay + 3, false);
+            fleetIndex.update(slot, july1st, july1st + 3, false);
+            fleetIndex.update(slot, maxDay - 2, maxDay + 1, false);
+            assertEquals(0, fleetIndex.getPageCount(), "The pages of the released reservations should be freed");
+            assertEquals(jackhammers, fleetIndex.findFreeTools(null, minDay, maxDay + 1), "Both should be free once released");
+        }
+
+        @Test
+        @DisplayName("Should match the availability of every tool, with a large catalog")
+        void testFindAvailableTools_Random() {
+            Map<String, Tool> toolStock = new HashMap<>();
+            List<String> brands = List.of("DeWalt", "Makita", "Ridgid", "Stihl", "Werner");
+            for (int i = 0; i < 5_000; i++) {
+                String toolCode = "T" + i;
+                toolStock.put(toolCode, new Tool(ToolTypeEnum.values()[i % ToolTypeEnum.values().length], toolCode, brands.get(i % 7 % brands.size())));
+            }
+            AvailabilityService availabilityService = new AvailabilityService(toolStock);
+            List<String> toolCodes = new ArrayList<>(toolStock.keySet());
+            Random random = new Random(42);
+            for (int i = 0; i < 50_000; i++) {
+                LocalDate startDate = JULY_1ST.plusDays(random.nextInt(2_000));
+                LocalDate endDate = startDate.plusDays(1 + random.nextInt(14));
+                String toolCode = toolCodes.get(random.nextInt(toolCodes.size()));
+                if (availabilityService.isAvailable(toolCode, startDate, endDate)) {
+                    availabilityService.reserve(toolCode, startDate, endDate, CORRELATION_ID);
+                }
+            }
+
+            for (int i = 0; i < 200; i++) {
+                String toolType = ToolTypeEnum.values()[random.nextInt(ToolTypeEnum.values().length)].name();
+                String brand = random.nextBoolean() ? null : brands.get(random.nextInt(brands.size()));
+                LocalDate startDate = JULY_1ST.plusDays(random.nextInt(2_100) - 50);
+                LocalDate endDate = startDate.plusDays(1 + random.nextInt(30));
+
+                List<Tool> expected = toolStock.values().stream()
+                        .filter(tool -> tool.getType().equals(toolType) && (brand == null || brand.equals(tool.getBrand())))
+                        .filter(tool -> availabilityService.isAvailable(tool.getCode(), startDate, endDate))
+                        .sorted(Comparator.comparing(Tool::getBrand).thenComparing(Tool::getCode))
+                        .toList();
+                assertEquals(expected, availabilityService.findAvailableTools(toolType, brand, startDate, endDate), "Available tools should match");
+            }
+        }
+    }
+
+}
@@ -0,0 +1,198 @@
+package com.gillab.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ChargeableDayCalendar Tests")
+class ChargeableDayCalendarTest {
+
+    private final HolidayService holidayService = HolidayService.getInstance();
+
+    /** The epoch (January 1st 1970) was a Thursday, 3 days after a Monday. */
+    private static final long EPOCH_DAY_OFFSET_TO_MONDAY = 3;
+
+    /**
+     * The closed-form count that the calendar replaced, kept as the oracle of the differential tests: weekdays and
+     * weekend days are counted arithmetically over the epoch days of the range, and then each holiday in the range
+     * replaces its weekday/weekend charge with the holiday charge.
+     */
+    private int countChargeableDaysClosedForm(
+            final LocalDate checkoutDate,
+            final LocalDate dueDate,
+            final boolean hasWeekdayCharge,
+            final boolean hasWeekendCharge,
+            final boolean hasHolidayCharge
+    ) {
+        long startDay = checkoutDate.toEpochDay();
+        long endDay = dueDate.toEpochDay();
+        if (endDay <= startDay) {
+            return 0;
+        }
+
+        long weekendDays = countWeekendDaysBefore(endDay) - countWeekendDaysBefore(startDay);
+        long weekdays = (endDay - startDay) - weekendDays;
+        long chargeableDays = (hasWeekdayCharge ? weekdays : 0) + (hasWeekendCharge ? weekendDays : 0);
+
+        for (LocalDate holiday : holidayService.getHolidaysBetween(checkoutDate, dueDate)) {
+            boolean hasRegularCharge = isWeekend(holiday.toEpochDay()) ? hasWeekendCharge : hasWeekdayCharge;
+            chargeableDays += (hasHolidayCharge ? 1 : 0) - (hasRegularCharge ? 1 : 0);
+        }
+        return (int) chargeableDays;
+    }
+
+    /**
+     * Count the weekend days from Monday, December 29th 1969 (the Monday before the epoch) up to the given epoch day,
+     * excluding it. Every whole week contributes 2 days, and the partial week at the end contributes the days past Friday.
+     */
+    private static long countWeekendDaysBefore(final long epochDay) {
+        long daysSinceMonday = epochDay + EPOCH_DAY_OFFSET_TO_MONDAY;
+        return Math.floorDiv(daysSinceMonday, 7) * 2 + Math.max(0, Math.floorMod(daysSinceMonday, 7) - 5);
+    }
+
+    private static boolean isWeekend(final long epochDay) {
+        return Math.floorMod(epochDay + EPOCH_DAY_OFFSET_TO_MONDAY, 7) >= 5;
+    }
+
+    @Nested
+    @DisplayName("Count chargeable days")
+    class CountChargeableDaysTests {
+
+        @Test
+        @DisplayName("Should count the days of the 4th of July week, 2015")
+        void testCountChargeableDays_IndependenceDayWeek() {
+            ChargeableDayCalendar calendar = new ChargeableDayCalendar(holidayService, 2015, 2015);
+            LocalDate checkoutDate = LocalDate.of(2015, Month.JUNE, 29);
+            LocalDate dueDate = checkoutDate.plusDays(7);
+
+            assertEquals(4, calendar.countChargeableDays(checkoutDate, dueDate, true, false, false), "Only the 4 non-holiday weekdays should be chargeable");
+            assertEquals(2, calendar.countChargeableDays(checkoutDate, dueDate, false, true, false), "Only the weekend should be chargeable");
+            assertEquals(1, calendar.countChargeableDays(checkoutDate, dueDate, false, false, true), "Only Friday, July 3rd should be chargeable");
+            assertEquals(7, calendar.countChargeableDays(checkoutDate, dueDate, true, true, true), "Every day should be chargeable");
+        }
+
+        @Test
+        @DisplayName("Should return 0 when due date is not after checkout date")
+        void testCountChargeableDays_EmptyRange() {
+            ChargeableDayCalendar calendar = new ChargeableDayCalendar(holidayService, 2015, 2015);
+            LocalDate checkoutDate = LocalDate.of(2015, Month.JUNE, 29);
+
+            assertEquals(0, calendar.countChargeableDays(checkoutDate, checkoutDate, true, true, true), "An empty range should not be chargeable");
+            assertEquals(0, calendar.getMemoryFootprintBytes(), "The index should not be built for an empty range");
+        }
+
+        @Test
+        @DisplayName("Should grow the span when the range falls outside of it")
+        void testCountChargeableDays_GrowSpan() {
+            ChargeableDayCalendar calendar = new ChargeableDayCalendar(holidayService, 2015, 2015);
+            calendar.build();
+            long initialFootprint = calendar.getMemoryFootprintBytes();
+
+            LocalDate checkoutDate = LocalDate.of(2016, Month.DECEMBER, 30);
+            int chargeDays = calendar.countChargeableDays(checkoutDate, checkoutDate.plusDays(4), true, false, false);
+
+            assertEquals(2, chargeDays, "Friday, December 30th and Monday, January 2nd should be chargeable");
+            assertEquals(2015, calendar.getFirstYear(), "First year should not change");
+            assertEquals(2017, calendar.getLastYear(), "Last year should cover the due date");
+            assertTrue(calendar.getMemoryFootprintBytes() > initialFootprint, "Footprint should grow with the span");
+        }
+
+        @Test
+        @DisplayName("Should count a range beyond the maximum span in closed form, without growing the index")
+        void testCountChargeableDays_BeyondMaxSpan() {
+            ChargeableDayCalendar calendar = new ChargeableDayCalendar(holidayService, 2015, 2015, 10);
+            calendar.build();
+            long footprint = calendar.getMemoryFootprintBytes();
+            LocalDate[] checkoutDates = {LocalDate.of(1, Month.JULY, 1), LocalDate.of(9999, Month.JULY, 1),
+                    LocalDate.MIN, LocalDate.MAX.minusDays(10)};
+
+            for (LocalDate checkoutDate : checkoutDates) {
+                LocalDate dueDate = checkoutDate.plusDays(10);
+                for (int charges = 0; charges < 8; charges++) {
+                    boolean weekday = (charges & 1) != 0;
+                    boolean weekend = (charges & 2) != 0;
+                    boolean holiday = (charges & 4) != 0;
+                    assertEquals(countChargeableDaysClosedForm(checkoutDate, dueDate, weekday, weekend, holiday),
+                            calendar.countChargeableDays(checkoutDate, dueDate, weekday, weekend, holiday),
+                            "The days from " + checkoutDate + " to " + dueDate + " with the charges " + charges + " should match the closed form");
+                }
+            }
+            calendar.prewarm(LocalDate.of(1, Month.JULY, 1), LocalDate.of(1, Month.JULY, 2));
+
+            assertAll(
+                    ()->{
+                        assertEquals(2015, calendar.getFirstYear(), "First year should not change");
+                        assertEquals(2015, calendar.getLastYear(), "Last year should not change");
+                        assertEquals(footprint, calendar.getMemoryFootprintBytes(), "The index should not grow");
+                        assertFalse(calendar.covers(LocalDate.of(1, Month.JULY, 1), LocalDate.of(1, Month.JULY, 2)), "The prewarm should not grow the index beyond its maximum span");
+                        assertEquals(1, calendar.countChargeableDays(LocalDate.of(9999, Month.JULY, 2), LocalDate.of(9999, Month.JULY, 6), false, false, true),
+                                "Monday, July 5th 9999 should be the observed Independence Day");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should throw IllegalArgumentException when the span is longer than its maximum")
+        void testChargeableDayCalendar_spanTooLong() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new ChargeableDayCalendar(holidayService, 1990, 2100, 100),
+                    "Expected the constructor to throw IllegalArgumentException for a span longer than its maximum"
+            );
+        }
+
+        @Test
+        @DisplayName("Should throw IllegalArgumentException when the span is inverted")
+        void testChargeableDayCalendar_invalidSpan() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new ChargeableDayCalendar(holidayService, 2100, 1990),
+                    "Expected the constructor to throw IllegalArgumentException for an inverted span"
+            );
+        }
+
+        @Test
+        @DisplayName("Should throw NullPointerException when checkout date is null")
+        void testCountChargeableDays_nullCheckoutDate() {
+            ChargeableDayCalendar calendar = new ChargeableDayCalendar(holidayService, 2015, 2015);
+            assertThrows(NullPointerException.class,
+                    () -> calendar.countChargeableDays(null, LocalDate.of(2015, Month.JULY, 4), true, true, true),
+                    "Expected countChargeableDays to throw NullPointerException for null checkout date"
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Differential")
+    class DifferentialTests {
+
+        @Test
+        @DisplayName("Should count the same days as the closed-form count, for random ranges and every charge combination")
+        void testCountChargeableDays_MatchesClosedForm() {
+            ChargeableDayCalendar calendar = new ChargeableDayCalendar(holidayService, 2010, 2030);
+            Random random = new Random(20240704);
+            LocalDate firstDate = LocalDate.of(2010, Month.JANUARY, 1);
+
+            for (int range = 0; range < 2_000; range++) {
+                LocalDate checkoutDate = firstDate.plusDays(random.nextInt(7_000));
+                LocalDate dueDate = checkoutDate.plusDays(random.nextInt(400));
+                for (int charges = 0; charges < 8; charges++) {
+                    boolean weekday = (charges & 1) != 0;
+                    boolean weekend = (charges & 2) != 0;
+                    boolean holiday = (charges & 4) != 0;
+                    assertEquals(countChargeableDaysClosedForm(checkoutDate, dueDate, weekday, weekend, holiday),
+                            calendar.countChargeableDays(checkoutDate, dueDate, weekday, weekend, holiday),
+                            "The days from " + checkoutDate + " to " + dueDate + " with the charges " + charges + " should match the closed form");
+                }
+            }
+        }
+    }
+
+}
@@ -1,8 +1,16 @@
 package com.gillab.service;
 
 import com.gillab.exception.ApplicationException;
+import com.gillab.journal.AgreementJournal;
+import com.gillab.journal.DurabilityModeEnum;
+import com.gillab.journal.JournalOptions;
+import com.gillab.journal.RecordedAgreement;
+import com.gillab.journal.RentalLedger;
+import com.gillab.model.CheckoutRequest;
+import com.gillab.model.CheckoutResult;
 import com.gillab.model.RentalAgreement;
 import com.gillab.model.ToolTypeEnum;
+import com.gillab.util.Money;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -13,12 +21,28 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.Month;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
 
 import static com.gillab.TestConstants.*;
 import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.INVALID_DISCOUNT;
 import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.INVALID_RENTAL_DAYS;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.INVALID_TOOL_CODE;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.TOOL_NOT_AVAILABLE;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.UNEXPECTED_ERROR;
 import static com.gillab.exception.ApplicationErrors.getErrorSummary;
 import static com.gillab.exception.ApplicationErrors.getFormattedErrorMessage;
 import static com.gillab.util.Constants.*;
@@ -277,14 +301,15 @@ class CheckoutServiceTest {
             LocalDate checkoutDate = LocalDate.of(2020, Month.JUNE, 1);
             LocalDate dueDate = LocalDate.of(2020, Month.JUNE, 8);
 
-            when(holidayService.isHoliday(any())).thenReturn(false);
+            when(holidayService.getHolidaysBetween(any(), any())).thenReturn(List.of());
 
             int chargeableDays = checkoutService.calculateChargeableDays(checkoutDate, dueDate, true, false, false);
 
             assertEquals(5, chargeableDays, "Chargeable days should be 5 (only weekdays are chargeable)");
 
             verifyNoInteractions(toolService);
-            verify(holidayService, times(7)).isHoliday(any());
+            verify(holidayService).getHolidaysBetween(any(), any());
+            verifyNoMoreInteractions(holidayService);
         }
 
         @Test
@@ -293,14 +318,15 @@ class CheckoutServiceTest {
             LocalDate checkoutDate = LocalDate.of(2020, Month.JUNE, 1);
             LocalDate dueDate = LocalDate.of(2020, Month.JUNE, 8);
 
-            when(holidayService.isHoliday(any())).thenReturn(false);
+            when(holidayService.getHolidaysBetween(any(), any())).thenReturn(List.of());
 
             int chargeableDays = checkoutService.calculateChargeableDays(checkoutDate, dueDate, false, true, false);
 
             assertEquals(2, chargeableDays, "Chargeable days should be 2 (only weekends are chargeable)");
 
             verifyNoInteractions(toolService);
-            verify(holidayService, times(7)).isHoliday(any());
+            verify(holidayService).getHolidaysBetween(any(), any());
+            verifyNoMoreInteractions(holidayService);
         }
 
         @Test
@@ -308,17 +334,67 @@ class CheckoutServiceTest {
         void testCalculateChargeableDays_HolidayCharges() {
             LocalDate checkoutDate = LocalDate.of(2024, Month.JULY, 3);
             LocalDate independenceDay = LocalDate.of(2024, Month.JULY, 4);
+            LocalDate dueDate = independenceDay.plusDays(1);
 
-            when(holidayService.isHoliday(checkoutDate)).thenReturn(false);
-            when(holidayService.isHoliday(independenceDay)).thenReturn(true);
+            when(holidayService.getHolidaysBetween(any(), any())).thenReturn(List.of(independenceDay));
 
-            int chargeableDays = checkoutService.calculateChargeableDays(checkoutDate, independenceDay.plusDays(1), false, false, true);
+            int chargeableDays = checkoutService.calculateChargeableDays(checkoutDate, dueDate, false, false, true);
 
             assertEquals(1, chargeableDays, "Chargeable days should be 1 (only holiday is chargeable)");
 
             verifyNoInteractions(toolService);
-            verify(holidayService).isHoliday(checkoutDate);
-            verify(holidayService).isHoliday(independenceDay);
+            verify(holidayService).getHolidaysBetween(any(), any());
+            verifyNoMoreInteractions(holidayService);
+        }
+
+        @Test
+        @DisplayName("Should not charge any day when due date is not after checkout date")
+        void testCalculateChargeableDays_EmptyRange() {
+            LocalDate checkoutDate = LocalDate.of(2024, Month.JULY, 3);
+
+            int chargeableDays = checkoutService.calculateChargeableDays(checkoutDate, checkoutDate, true, true, true);
+
+            assertEquals(0, chargeableDays, "Chargeable days should be 0 for an empty range");
+
+            verifyNoInteractions(toolService);
+            verifyNoInteractions(holidayService);
+        }
+
+    }
+
+    @Nested
+    @DisplayName("Calculate chargeable days - Differential")
+    class CalculateChargeableDaysDifferentialTests {
+
+        private static final HolidayService holidayService = HolidayService.getInstance();
+        private static final CheckoutService checkoutService = CheckoutService.getInstance(ToolService.getInstance(TEST_TOOL_STOCK), holidayService);
+
+        @Test
+        @DisplayName("Should match the day by day evaluation for every checkout date and rental length")
+        void testCalculateChargeableDays_MatchesDayByDay() {
+            LocalDate firstCheckoutDate = LocalDate.of(2000, Month.JANUARY, 1);
+            LocalDate lastCheckoutDate = LocalDate.of(2029, Month.DECEMBER, 31);
+
+            for (LocalDate checkoutDate = firstCheckoutDate; !checkoutDate.isAfter(lastCheckoutDate); checkoutDate = checkoutDate.plusDays(1)) {
+                for (int flags = 0; flags < 8; flags++) {
+                    boolean hasWeekdayCharge = (flags & 1) != 0;
+                    boolean hasWeekendCharge = (flags & 2) != 0;
+                    boolean hasHolidayCharge = (flags & 4) != 0;
+
+                    int expectedChargeDays = 0;
+                    for (int rentalDays = MIN_RENTAL_DAYS; rentalDays <= MAX_RENTAL_DAYS; rentalDays++) {
+                        LocalDate lastRentedDate = checkoutDate.plusDays(rentalDays - 1);
+                        if (checkoutService.isChargeableDay(lastRentedDate, hasHolidayCharge, hasWeekdayCharge, hasWeekendCharge)) {
+                            expectedChargeDays++;
+                        }
+                        int chargeDays = checkoutService.calculateChargeableDays(checkoutDate, lastRentedDate.plusDays(1), hasWeekdayCharge, hasWeekendCharge, hasHolidayCharge);
+                        if (chargeDays != expectedChargeDays) {
+                            fail("Chargeable days mismatch for checkout date " + checkoutDate + ", rental days " + rentalDays
+                                    + ", flags " + flags + ": expected " + expectedChargeDays + " but was " + chargeDays);
+                        }
+                    }
+                }
+            }
         }
 
     }
@@ -372,10 +448,10 @@ class CheckoutServiceTest {
             System.out.println(rentalAgreement);
 
             int expectedChargeDays = 2;
-            double expectedDailyRentalCharge = JACKHAMMER_DAILY_CHARGE;
-            double expectedPreDiscountCharge = expectedChargeDays * expectedDailyRentalCharge;
-            double expectedDiscountAmount = expectedPreDiscountCharge * (discount / 100.0);
-            double expectedFinalCharge = expectedPreDiscountCharge - expectedDiscountAmount;
+            long expectedDailyRentalCharge = JACKHAMMER_DAILY_CHARGE_CENTS;
+            long expectedPreDiscountCharge = expectedChargeDays * expectedDailyRentalCharge;
+            long expectedDiscountAmount = BigDecimal.valueOf(expectedPreDiscountCharge * discount).divide(BigDecimal.valueOf(100), 0, RoundingMode.HALF_UP).longValueExact();
+            long expectedFinalCharge = expectedPreDiscountCharge - expectedDiscountAmount;
 
             assertAll(
                     ()->{
@@ -386,12 +462,13 @@ class CheckoutServiceTest {
                         assertEquals(rentalDays, rentalAgreement.getRentalDays(), "Rental days should match");
                         assertEquals(checkoutDate, rentalAgreement.getCheckoutDate(), "Checkout date should match");
                         assertEquals(checkoutDate.plusDays(rentalDays), rentalAgreement.getDueDate(), "Due date should match");
-                        assertEquals(expectedDailyRentalCharge, rentalAgreement.getDailyRentalCharge(), "DailyRentalCharge should match");
+                        assertEquals(expectedDailyRentalCharge, rentalAgreement.getDailyRentalChargeCents(), "DailyRentalCharge should match");
                         assertEquals(expectedChargeDays, rentalAgreement.getChargeDays(), "ChargeDays should match");
-                        assertEquals(expectedPreDiscountCharge, rentalAgreement.getPreDiscountCharge(), "PreDiscountCharge should match");
+                        assertEquals(expectedPreDiscountCharge, rentalAgreement.getPreDiscountChargeCents(), "PreDiscountCharge should match");
                         assertEquals(discount, rentalAgreement.getDiscountPercent(), "DiscountPercent should match");
-                        assertEquals(expectedDiscountAmount, rentalAgreement.getDiscountAmount(), "DiscountAmount should match");
-                        assertEquals(expectedFinalCharge, rentalAgreement.getFinalCharge(), "FinalCharge should match");
+                        assertEquals(expectedDiscountAmount, rentalAgreement.getDiscountAmountCents(), "DiscountAmount should match");
+                        assertEquals(expectedFinalCharge, rentalAgreement.getFinalChargeCents(), "FinalCharge should match");
+                        assertEquals(Money.toDouble(expectedFinalCharge), rentalAgreement.getFinalCharge(), "FinalCharge in dollars should match");
                     }
             );
 
@@ -412,10 +489,10 @@ class CheckoutServiceTest {
             System.out.println(rentalAgreement);
 
             int expectedChargeDays = 3;
-            double expectedDailyRentalCharge = CHAINSAW_DAILY_CHARGE;
-            double expectedPreDiscountCharge = expectedChargeDays * expectedDailyRentalCharge;
-            double expectedDiscountAmount = expectedPreDiscountCharge * (discount / 100.0);
-            double expectedFinalCharge = expectedPreDiscountCharge - expectedDiscountAmount;
+            long expectedDailyRentalCharge = CHAINSAW_DAILY_CHARGE_CENTS;
+            long expectedPreDiscountCharge = expectedChargeDays * expectedDailyRentalCharge;
+            long expectedDiscountAmount = BigDecimal.valueOf(expectedPreDiscountCharge * discount).divide(BigDecimal.valueOf(100), 0, RoundingMode.HALF_UP).longValueExact();
+            long expectedFinalCharge = expectedPreDiscountCharge - expectedDiscountAmount;
 
             assertAll(
                     ()->{
@@ -426,12 +503,13 @@ class CheckoutServiceTest {
                         assertEquals(rentalDays, rentalAgreement.getRentalDays(), "Rental days should match");
                         assertEquals(checkoutDate, rentalAgreement.getCheckoutDate(), "Checkout date should match");
                         assertEquals(checkoutDate.plusDays(rentalDays), rentalAgreement.getDueDate(), "Due date should match");
-                        assertEquals(expectedDailyRentalCharge, rentalAgreement.getDailyRentalCharge(), "DailyRentalCharge should match");
+                        assertEquals(expectedDailyRentalCharge, rentalAgreement.getDailyRentalChargeCents(), "DailyRentalCharge should match");
                         assertEquals(expectedChargeDays, rentalAgreement.getChargeDays(), "ChargeDays should match");
-                        assertEquals(expectedPreDiscountCharge, rentalAgreement.getPreDiscountCharge(), "PreDiscountCharge should match");
+                        assertEquals(expectedPreDiscountCharge, rentalAgreement.getPreDiscountChargeCents(), "PreDiscountCharge should match");
                         assertEquals(discount, rentalAgreement.getDiscountPercent(), "DiscountPercent should match");
-                        assertEquals(expectedDiscountAmount, rentalAgreement.getDiscountAmount(), "DiscountAmount should match");
-                        assertEquals(expectedFinalCharge, rentalAgreement.getFinalCharge(), "FinalCharge should match");
+                        assertEquals(expectedDiscountAmount, rentalAgreement.getDiscountAmountCents(), "DiscountAmount should match");
+                        assertEquals(expectedFinalCharge, rentalAgreement.getFinalChargeCents(), "FinalCharge should match");
+                        assertEquals(Money.toDouble(expectedFinalCharge), rentalAgreement.getFinalCharge(), "FinalCharge in dollars should match");
                     }
             );
         }
@@ -451,10 +529,10 @@ class CheckoutServiceTest {
             System.out.println(rentalAgreement);
 
             int expectedChargeDays = 3;
-            double expectedDailyRentalCharge = JACKHAMMER_DAILY_CHARGE;
-            double expectedPreDiscountCharge = expectedChargeDays * expectedDailyRentalCharge;
-            double expectedDiscountAmount = expectedPreDiscountCharge * (discount / 100.0);
-            double expectedFinalCharge = expectedPreDiscountCharge - expectedDiscountAmount;
+            long expectedDailyRentalCharge = JACKHAMMER_DAILY_CHARGE_CENTS;
+            long expectedPreDiscountCharge = expectedChargeDays * expectedDailyRentalCharge;
+            long expectedDiscountAmount = BigDecimal.valueOf(expectedPreDiscountCharge * discount).divide(BigDecimal.valueOf(100), 0, RoundingMode.HALF_UP).longValueExact();
+            long expectedFinalCharge = expectedPreDiscountCharge - expectedDiscountAmount;
 
             assertAll(
                     ()->{
@@ -465,12 +543,13 @@ class CheckoutServiceTest {
                         assertEquals(rentalDays, rentalAgreement.getRentalDays(), "Rental days should match");
                         assertEquals(checkoutDate, rentalAgreement.getCheckoutDate(), "Checkout date should match");
                         assertEquals(checkoutDate.plusDays(rentalDays), rentalAgreement.getDueDate(), "Due date should match");
-                        assertEquals(expectedDailyRentalCharge, rentalAgreement.getDailyRentalCharge(), "DailyRentalCharge should match");
+                        assertEquals(expectedDailyRentalCharge, rentalAgreement.getDailyRentalChargeCents(), "DailyRentalCharge should match");
                         assertEquals(expectedChargeDays, rentalAgreement.getChargeDays(), "ChargeDays should match");
-                        assertEquals(expectedPreDiscountCharge, rentalAgreement.getPreDiscountCharge(), "PreDiscountCharge should match");
+                        assertEquals(expectedPreDiscountCharge, rentalAgreement.getPreDiscountChargeCents(), "PreDiscountCharge should match");
                         assertEquals(discount, rentalAgreement.getDiscountPercent(), "DiscountPercent should match");
-                        assertEquals(expectedDiscountAmount, rentalAgreement.getDiscountAmount(), "DiscountAmount should match");
-                        assertEquals(expectedFinalCharge, rentalAgreement.getFinalCharge(), "FinalCharge should match");
+                        assertEquals(expectedDiscountAmount, rentalAgreement.getDiscountAmountCents(), "DiscountAmount should match");
+                        assertEquals(expectedFinalCharge, rentalAgreement.getFinalChargeCents(), "FinalCharge should match");
+                        assertEquals(Money.toDouble(expectedFinalCharge), rentalAgreement.getFinalCharge(), "FinalCharge in dollars should match");
                     }
             );
         }
@@ -490,10 +569,10 @@ class CheckoutServiceTest {
             System.out.println(rentalAgreement);
 
             int expectedChargeDays = 6;
-            double expectedDailyRentalCharge = JACKHAMMER_DAILY_CHARGE;
-            double expectedPreDiscountCharge = expectedChargeDays * expectedDailyRentalCharge;
-            double expectedDiscountAmount = expectedPreDiscountCharge * (discount / 100.0);
-            double expectedFinalCharge = expectedPreDiscountCharge - expectedDiscountAmount;
+            long expectedDailyRentalCharge = JACKHAMMER_DAILY_CHARGE_CENTS;
+            long expectedPreDiscountCharge = expectedChargeDays * expectedDailyRentalCharge;
+            long expectedDiscountAmount = BigDecimal.valueOf(expectedPreDiscountCharge * discount).divide(BigDecimal.valueOf(100), 0, RoundingMode.HALF_UP).longValueExact();
+            long expectedFinalCharge = expectedPreDiscountCharge - expectedDiscountAmount;
 
             assertAll(
                     ()->{
@@ -504,12 +583,13 @@ class CheckoutServiceTest {
                         assertEquals(rentalDays, rentalAgreement.getRentalDays(), "Rental days should match");
                         assertEquals(checkoutDate, rentalAgreement.getCheckoutDate(), "Checkout date should match");
                         assertEquals(checkoutDate.plusDays(rentalDays), rentalAgreement.getDueDate(), "Due date should match");
-                        assertEquals(expectedDailyRentalCharge, rentalAgreement.getDailyRentalCharge(), "DailyRentalCharge should match");
+                        assertEquals(expectedDailyRentalCharge, rentalAgreement.getDailyRentalChargeCents(), "DailyRentalCharge should match");
                         assertEquals(expectedChargeDays, rentalAgreement.getChargeDays(), "ChargeDays should match");
-                        assertEquals(expectedPreDiscountCharge, rentalAgreement.getPreDiscountCharge(), "PreDiscountCharge should match");
+                        assertEquals(expectedPreDiscountCharge, rentalAgreement.getPreDiscountChargeCents(), "PreDiscountCharge should match");
                         assertEquals(discount, rentalAgreement.getDiscountPercent(), "DiscountPercent should match");
-                        assertEquals(expectedDiscountAmount, rentalAgreement.getDiscountAmount(), "DiscountAmount should match");
-                        assertEquals(expectedFinalCharge, rentalAgreement.getFinalCharge(), "FinalCharge should match");
+                        assertEquals(expectedDiscountAmount, rentalAgreement.getDiscountAmountCents(), "DiscountAmount should match");
+                        assertEquals(expectedFinalCharge, rentalAgreement.getFinalChargeCents(), "FinalCharge should match");
+                        assertEquals(Money.toDouble(expectedFinalCharge), rentalAgreement.getFinalCharge(), "FinalCharge in dollars should match");
                     }
             );
         }
@@ -529,10 +609,10 @@ class CheckoutServiceTest {
             System.out.println(rentalAgreement);
 
             int expectedChargeDays = 1;
-            double expectedDailyRentalCharge = JACKHAMMER_DAILY_CHARGE;
-            double expectedPreDiscountCharge = expectedChargeDays * expectedDailyRentalCharge;
-            double expectedDiscountAmount = expectedPreDiscountCharge * (discount / 100.0);
-            double expectedFinalCharge = expectedPreDiscountCharge - expectedDiscountAmount;
+            long expectedDailyRentalCharge = JACKHAMMER_DAILY_CHARGE_CENTS;
+            long expectedPreDiscountCharge = expectedChargeDays * expectedDailyRentalCharge;
+            long expectedDiscountAmount = BigDecimal.valueOf(expectedPreDiscountCharge * discount).divide(BigDecimal.valueOf(100), 0, RoundingMode.HALF_UP).longValueExact();
+            long expectedFinalCharge = expectedPreDiscountCharge - expectedDiscountAmount;
 
             assertAll(
                     ()->{
@@ -543,16 +623,324 @@ class CheckoutServiceTest {
                         assertEquals(rentalDays, rentalAgreement.getRentalDays(), "Rental days should match");
                         assertEquals(checkoutDate, rentalAgreement.getCheckoutDate(), "Checkout date should match");
                         assertEquals(checkoutDate.plusDays(rentalDays), rentalAgreement.getDueDate(), "Due date should match");
-                        assertEquals(expectedDailyRentalCharge, rentalAgreement.getDailyRentalCharge(), "DailyRentalCharge should match");
+                        assertEquals(expectedDailyRentalCharge, rentalAgreement.getDailyRentalChargeCents(), "DailyRentalCharge should match");
                         assertEquals(expectedChargeDays, rentalAgreement.getChargeDays(), "ChargeDays should match");
-                        assertEquals(expectedPreDiscountCharge, rentalAgreement.getPreDiscountCharge(), "PreDiscountCharge should match");
+                        assertEquals(expectedPreDiscountCharge, rentalAgreement.getPreDiscountChargeCents(), "PreDiscountCharge should match");
                         assertEquals(discount, rentalAgreement.getDiscountPercent(), "DiscountPercent should match");
-                        assertEquals(expectedDiscountAmount, rentalAgreement.getDiscountAmount(), "DiscountAmount should match");
-                        assertEquals(expectedFinalCharge, rentalAgreement.getFinalCharge(), "FinalCharge should match");
+                        assertEquals(expectedDiscountAmount, rentalAgreement.getDiscountAmountCents(), "DiscountAmount should match");
+                        assertEquals(expectedFinalCharge, rentalAgreement.getFinalChargeCents(), "FinalCharge should match");
+                        assertEquals(Money.toDouble(expectedFinalCharge), rentalAgreement.getFinalCharge(), "FinalCharge in dollars should match");
                     }
             );
         }
 
     }
 
+    @Nested
+    @DisplayName("Checkout with inventory")
+    class CheckoutWithInventoryTests {
+
+        private static final ToolService toolService = ToolService.getInstance(TEST_TOOL_STOCK);
+        private static final HolidayService holidayService = HolidayService.getInstance();
+        private static final CheckoutService checkoutService = CheckoutService.getInstance(toolService, holidayService);
+
+        @Test
+        @DisplayName("Should reserve the unit of the tool, and reject a second checkout until it is returned")
+        void testCheckout_ReserveAndRelease() {
+            InventoryService inventoryService = InventoryService.withOneUnitPerTool(TEST_TOOL_STOCK);
+            LocalDate checkoutDate = LocalDate.of(2015, Month.JULY, 2);
+
+            RentalAgreement rentalAgreement = checkoutService.checkout(TOOL_CODE_JAKR, 9, 0, checkoutDate, CORRELATION_ID, inventoryService);
+            ApplicationException exception = assertThrows(
+                    ApplicationException.class,
+                    () -> checkoutService.checkout(TOOL_CODE_JAKR, 9, 0, checkoutDate, CORRELATION_ID, inventoryService),
+                    "Expected checkout to throw, but it didn't"
+            );
+            inventoryService.release(TOOL_CODE_JAKR, CORRELATION_ID);
+
+            assertAll(
+                    ()->{
+                        assertEquals(6, rentalAgreement.getChargeDays(), "ChargeDays should match");
+                        assertEquals(TOOL_NOT_AVAILABLE.getDisplayName(), exception.getErrorCode(), "Error code should match");
+                        assertEquals(getFormattedErrorMessage(TOOL_NOT_AVAILABLE, TOOL_CODE_JAKR), exception.getErrorMessage(), "Error message should match");
+                        assertDoesNotThrow(() -> checkoutService.checkout(TOOL_CODE_JAKR, 9, 0, checkoutDate, CORRELATION_ID, inventoryService), "Returned tool should be available");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should not reserve the unit when the checkout is rejected")
+        void testCheckout_RejectedDoesNotReserve() {
+            InventoryService inventoryService = InventoryService.withOneUnitPerTool(TEST_TOOL_STOCK);
+
+            assertThrows(ApplicationException.class,
+                    () -> checkoutService.checkout(TOOL_CODE_JAKR, 5, 101, LocalDate.of(2015, Month.SEPTEMBER, 3), CORRELATION_ID, inventoryService),
+                    "Expected checkout to throw, but it didn't"
+            );
+            assertEquals(1, inventoryService.getAvailableUnits(TOOL_CODE_JAKR), "The unit should still be available");
+        }
+    }
+
+    @Nested
+    @DisplayName("Checkout with ledger")
+    class CheckoutWithLedgerTests {
+
+        private static final ToolService toolService = ToolService.getInstance(TEST_TOOL_STOCK);
+        private static final HolidayService holidayService = HolidayService.getInstance();
+        private static final CheckoutService checkoutService = CheckoutService.getInstance(toolService, holidayService);
+
+        @Test
+        @DisplayName("Should record the agreement in the ledger and reserve its unit, and not a rejected checkout")
+        void testCheckout_Journaled() throws IOException {
+            Path directory = Files.createTempDirectory("rental-ledger");
+            List<RentalAgreement> recovered = new ArrayList<>();
+            RecordedAgreement recordedAgreement;
+            InventoryService inventoryService = InventoryService.withOneUnitPerTool(TEST_TOOL_STOCK);
+            try (RentalLedger ledger = RentalLedger.open(directory, JournalOptions.of(DurabilityModeEnum.SYNC), Duration.ofHours(1), inventoryService)) {
+                recordedAgreement = checkoutService.checkout(TOOL_CODE_LADW, 3, 10, LocalDate.of(2020, Month.JULY, 2), CORRELATION_ID, ledger);
+                assertThrows(ApplicationException.class,
+                        () -> checkoutService.checkout(TOOL_CODE_LADW, 3, 101, LocalDate.of(2020, Month.JULY, 2), CORRELATION_ID, ledger),
+                        "Expected checkout to throw, but it didn't");
+                ApplicationException exception = assertThrows(ApplicationException.class,
+                        () -> checkoutService.checkout(TOOL_CODE_LADW, 3, 10, LocalDate.of(2020, Month.JULY, 2), CORRELATION_ID, ledger),
+                        "Expected checkout to throw when the unit is rented, but it didn't");
+                assertEquals(TOOL_NOT_AVAILABLE.getDisplayName(), exception.getErrorCode(), "Error code should match");
+                assertEquals(recordedAgreement.sequence(), ledger.recordReturn(recordedAgreement.sequence()).agreementSequence(),
+                        "The rental of the recorded agreement should be open until it is returned");
+                assertEquals(1, inventoryService.getAvailableUnits(TOOL_CODE_LADW), "The unit should be released by the return");
+            }
+            try (AgreementJournal journal = AgreementJournal.open(directory, JournalOptions.of(DurabilityModeEnum.SYNC), (agreement, sequence) -> recovered.add(agreement))) {
+                assertEquals(List.of(recordedAgreement.agreement()), recovered, "Only the agreement of the successful checkout should be read back");
+            } finally {
+                try (Stream<Path> files = Files.walk(directory)) {
+                    for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                        Files.delete(file);
+                    }
+                }
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Book")
+    class BookTests {
+
+        private static final ToolService toolService = ToolService.getInstance(TEST_TOOL_STOCK);
+        private static final HolidayService holidayService = HolidayService.getInstance();
+        private static final CheckoutService checkoutService = CheckoutService.getInstance(toolService, holidayService);
+
+        @Test
+        @DisplayName("Should reserve the tool until the due date, and reject an overlapping booking")
+        void testBook_Overlap() {
+            AvailabilityService availabilityService = new AvailabilityService(TEST_TOOL_STOCK);
+            LocalDate checkoutDate = LocalDate.of(2015, Month.JULY, 2);
+
+            RentalAgreement rentalAgreement = checkoutService.book(TOOL_CODE_JAKR, 9, 0, checkoutDate, CORRELATION_ID, availabilityService);
+            ApplicationException exception = assertThrows(
+                    ApplicationException.class,
+                    () -> checkoutService.book(TOOL_CODE_JAKR, 2, 0, checkoutDate.plusDays(8), CORRELATION_ID, availabilityService),
+                    "Expected book to throw, but it didn't"
+            );
+
+            assertAll(
+                    ()->{
+                        assertEquals(6, rentalAgreement.getChargeDays(), "ChargeDays should match");
+                        assertEquals(TOOL_NOT_AVAILABLE.getDisplayName(), exception.getErrorCode(), "Error code should match");
+                        assertEquals(rentalAgreement.getDueDate(), availabilityService.findFirstAvailableDate(TOOL_CODE_JAKR, checkoutDate, 1).orElseThrow(), "Tool should be available on the due date");
+                        assertDoesNotThrow(() -> checkoutService.book(TOOL_CODE_JAKR, 2, 0, rentalAgreement.getDueDate(), CORRELATION_ID, availabilityService), "Tool should be booked from the due date");
+                    }
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Checkout Batch")
+    class CheckoutBatchTests {
+
+        private static final ToolService toolService = ToolService.getInstance(TEST_TOOL_STOCK);
+        private static final HolidayService holidayService = HolidayService.getInstance();
+        private static final CheckoutService checkoutService = CheckoutService.getInstance(toolService, holidayService);
+
+        @Test
+        @DisplayName("Should return one result per request, in the original order")
+        void testCheckoutBatch_MixedResults() {
+            List<CheckoutRequest> requests = List.of(
+                    new CheckoutRequest(TOOL_CODE_LADW, 3, 10, LocalDate.of(2020, Month.JULY, 2), UUID.randomUUID()),
+                    new CheckoutRequest(INVALID_TEST_TOOL_CODE, 3, 10, LocalDate.of(2020, Month.JULY, 2), UUID.randomUUID()),
+                    new CheckoutRequest(TOOL_CODE_JAKR, 5, 101, LocalDate.of(2015, Month.SEPTEMBER, 3), UUID.randomUUID()),
+                    new CheckoutRequest(TOOL_CODE_CHNS, 0, 25, LocalDate.of(2015, Month.JULY, 2), UUID.randomUUID()),
+                    new CheckoutRequest(TOOL_CODE_JAKR, 9, 0, LocalDate.of(2015, Month.JULY, 2), UUID.randomUUID())
+            );
+
+            List<CheckoutResult> results = checkoutService.checkoutBatch(requests);
+
+            assertEquals(requests.size(), results.size(), "There should be one result per request");
+            assertAll(
+                    ()->{
+                        for (int i = 0; i < requests.size(); i++) {
+                            assertSame(requests.get(i), results.get(i).getRequest(), "Results should keep the order of the requests");
+                        }
+                        assertTrue(results.get(0).isSuccess(), "Valid request should succeed");
+                        assertEquals(2, results.get(0).getRentalAgreement().getChargeDays(), "ChargeDays should match");
+                        assertEquals(INVALID_TOOL_CODE.getDisplayName(), results.get(1).getException().getErrorCode(), "Error code should match");
+                        assertEquals(requests.get(1).getCorrelationId(), results.get(1).getException().getCorrelationId(), "Correlation ID should match the request");
+                        assertEquals(INVALID_DISCOUNT.getDisplayName(), results.get(2).getException().getErrorCode(), "Error code should match");
+                        assertEquals(INVALID_RENTAL_DAYS.getDisplayName(), results.get(3).getException().getErrorCode(), "Error code should match");
+                        assertTrue(results.get(4).isSuccess(), "Valid request should succeed");
+                        assertEquals(6, results.get(4).getRentalAgreement().getChargeDays(), "ChargeDays should match");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should price every request like a single checkout, on the given executor")
+        void testCheckoutBatch_MatchesCheckout() {
+            List<CheckoutRequest> requests = new ArrayList<>();
+            List<String> toolCodes = List.of(TOOL_CODE_CHNS, TOOL_CODE_LADW, TOOL_CODE_JAKD, TOOL_CODE_JAKR);
+            for (int i = 0; i < 2000; i++) {
+                requests.add(new CheckoutRequest(toolCodes.get(i % toolCodes.size()), 1 + (i % MAX_RENTAL_DAYS), i % 101,
+                        LocalDate.of(2015, Month.JANUARY, 1).plusDays(i * 7L), UUID.randomUUID()));
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                List<CheckoutResult> results = checkoutService.checkoutBatch(requests, executor);
+
+                for (int i = 0; i < requests.size(); i++) {
+                    CheckoutRequest request = requests.get(i);
+                    RentalAgreement expected = checkoutService.checkout(request.getToolCode(), request.getRentalDays(),
+                            request.getDiscountPercentage(), request.getCheckoutDate(), request.getCorrelationId());
+                    assertEquals(expected, results.get(i).getRentalAgreement(), "Batch and single checkout should produce the same agreement");
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test
+        @DisplayName("Should price dates far apart without growing the calendar over them")
+        void testCheckoutBatch_FarApartDates() {
+            List<CheckoutRequest> requests = List.of(
+                    new CheckoutRequest(TOOL_CODE_LADW, 3, 10, LocalDate.of(1, Month.JULY, 2), UUID.randomUUID()),
+                    new CheckoutRequest(TOOL_CODE_JAKR, 9, 0, LocalDate.of(2015, Month.JULY, 2), UUID.randomUUID()),
+                    new CheckoutRequest(TOOL_CODE_CHNS, 5, 25, LocalDate.of(9999, Month.JULY, 2), UUID.randomUUID())
+            );
+            ChargeableDayCalendar calendar = checkoutService.getChargeableDayCalendar();
+            int firstYear = calendar.getFirstYear();
+            int lastYear = calendar.getLastYear();
+
+            List<CheckoutResult> results = checkoutService.checkoutBatch(requests);
+
+            assertAll(
+                    ()->{
+                        for (int i = 0; i < requests.size(); i++) {
+                            CheckoutRequest request = requests.get(i);
+                            RentalAgreement expected = checkoutService.checkout(request.getToolCode(), request.getRentalDays(),
+                                    request.getDiscountPercentage(), request.getCheckoutDate(), request.getCorrelationId());
+                            assertEquals(expected, results.get(i).getRentalAgreement(), "Batch and single checkout should produce the same agreement");
+                        }
+                        assertTrue(calendar.getLastYear() - calendar.getFirstYear() < CALENDAR_INDEX_MAX_YEARS, "Calendar should not grow beyond its maximum span");
+                        assertTrue(calendar.getFirstYear() <= firstYear && calendar.getLastYear() >= lastYear, "Calendar should keep its span");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should return an unexpected error of a request in its result")
+        void testCheckoutBatch_UnexpectedError() {
+            List<CheckoutRequest> requests = List.of(
+                    new CheckoutRequest(TOOL_CODE_LADW, 3, 10, LocalDate.of(2020, Month.JULY, 2), UUID.randomUUID()),
+                    new CheckoutRequest(TOOL_CODE_JAKR, 5, 0, LocalDate.MAX, UUID.randomUUID())
+            );
+
+            List<CheckoutResult> results = checkoutService.checkoutBatch(requests);
+
+            assertAll(
+                    ()->{
+                        assertTrue(results.get(0).isSuccess(), "Valid request should succeed");
+                        assertEquals(2, results.get(0).getRentalAgreement().getChargeDays(), "ChargeDays should match");
+                        assertFalse(results.get(1).isSuccess(), "Request due after LocalDate.MAX should fail");
+                        assertEquals(UNEXPECTED_ERROR.getDisplayName(), results.get(1).getException().getErrorCode(), "Error code should match");
+                        assertEquals(requests.get(1).getCorrelationId(), results.get(1).getException().getCorrelationId(), "Correlation ID should match the request");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should return an empty list for an empty batch")
+        void testCheckoutBatch_Empty() {
+            assertTrue(checkoutService.checkoutBatch(List.of()).isEmpty(), "An empty batch should have no results");
+        }
+
+        @Test
+        @DisplayName("Should throw NullPointerException when requests is null")
+        void testCheckoutBatch_nullRequests() {
+            assertThrows(NullPointerException.class,
+                    () -> checkoutService.checkoutBatch(null),
+                    "Expected checkoutBatch to throw NullPointerException for null requests"
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Quote cache")
+    class QuoteCacheTests {
+
+        private static final ToolService toolService = ToolService.getInstance(TEST_TOOL_STOCK);
+        private static final HolidayService holidayService = HolidayService.getInstance();
+        private static final CheckoutService checkoutService = CheckoutService.getInstance(toolService, holidayService);
+
+        @Test
+        @DisplayName("Should price once the checkouts of the same tool type with the same inputs")
+        void testCheckout_CachedQuote() {
+            QuoteCache quoteCache = checkoutService.getQuoteCache();
+            LocalDate checkoutDate = LocalDate.of(2031, Month.JULY, 2);
+
+            RentalAgreement dewalt = checkoutService.checkout(TOOL_CODE_JAKD, 6, 10, checkoutDate, CORRELATION_ID);
+            long hits = quoteCache.getHitCount();
+            long misses = quoteCache.getMissCount();
+            RentalAgreement ridgid = checkoutService.checkout(TOOL_CODE_JAKR, 6, 10, checkoutDate, CORRELATION_ID);
+
+            assertAll(
+                    ()->{
+                        assertEquals(hits + 1, quoteCache.getHitCount(), "The second checkout should be a hit");
+                        assertEquals(misses, quoteCache.getMissCount(), "The second checkout should not be a miss");
+                        assertEquals("Ridgid", ridgid.getToolBrand(), "Tool brand should be the one of the tool");
+                        assertEquals(TOOL_CODE_JAKR, ridgid.getToolCode(), "Tool code should be the one of the tool");
+                        assertEquals(dewalt.getChargeDays(), ridgid.getChargeDays(), "ChargeDays should match");
+                        assertEquals(dewalt.getFinalChargeCents(), ridgid.getFinalChargeCents(), "FinalCharge should match");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should price again when the default holiday calendar changes, and only then")
+        void testCheckout_HolidaysChange() {
+            // A service of its own, so the calendars registered here are not seen by the other tests
+            HolidayService holidays = new HolidayService();
+            CheckoutService checkout = new CheckoutService(toolService, holidays);
+            QuoteCache quoteCache = checkout.getQuoteCache();
+            // From Friday July 2nd 2032 to Monday July 5th, when Independence Day is observed
+            LocalDate checkoutDate = LocalDate.of(2032, Month.JULY, 2);
+
+            RentalAgreement withHoliday = checkout.checkout(TOOL_CODE_LADW, 4, 0, checkoutDate, CORRELATION_ID);
+            long misses = quoteCache.getMissCount();
+            holidays.registerCalendar("TEST-QUOTES", List.of());
+            checkout.checkout(TOOL_CODE_LADW, 4, 0, checkoutDate, CORRELATION_ID);
+            long missesAfterOtherCalendar = quoteCache.getMissCount();
+            holidays.registerCalendar(HolidayService.DEFAULT_CALENDAR_ID, List.of());
+            RentalAgreement withoutHoliday = checkout.checkout(TOOL_CODE_LADW, 4, 0, checkoutDate, CORRELATION_ID);
+
+            assertAll(
+                    ()->{
+                        assertEquals(misses, missesAfterOtherCalendar, "Registering another calendar should not drop the quotes");
+                        assertEquals(misses + 1, quoteCache.getMissCount(), "The checkout after the default calendar changed should be a miss");
+                        assertEquals(3, withHoliday.getChargeDays(), "The observed holiday should not be charged");
+                        assertEquals(4, withoutHoliday.getChargeDays(), "Every day should be charged without holidays");
+                        assertTrue(HolidayService.getInstance().isHoliday(LocalDate.of(2032, Month.JULY, 5)), "The shared calendars should not change");
+                    }
+            );
+        }
+    }
+
 }
@@ -1,13 +1,23 @@
 package com.gillab.service;
 
+import com.gillab.model.HolidayObservanceEnum;
+import com.gillab.model.HolidayRule;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.StringReader;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -71,4 +81,178 @@ class HolidayServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Get holidays between")
+    class GetHolidaysBetweenTests {
+
+        @Test
+        @DisplayName("Should return the holidays of the range in chronological order")
+        void testGetHolidaysBetween_TwoYears() {
+            List<LocalDate> holidays = holidayService.getHolidaysBetween(LocalDate.of(2020, Month.JULY, 3), LocalDate.of(2021, Month.SEPTEMBER, 6));
+
+            assertEquals(List.of(
+                    LocalDate.of(2020, Month.JULY, 3),
+                    LocalDate.of(2020, Month.SEPTEMBER, 7),
+                    LocalDate.of(2021, Month.JULY, 5)
+            ), holidays, "The range should include its start date and exclude its end date");
+        }
+
+        @Test
+        @DisplayName("Should return an empty list when end date is not after start date")
+        void testGetHolidaysBetween_EmptyRange() {
+            LocalDate date = LocalDate.of(2021, Month.JULY, 5);
+            assertTrue(holidayService.getHolidaysBetween(date, date).isEmpty(), "An empty range should not contain holidays");
+        }
+
+        @Test
+        @DisplayName("Should throw NullPointerException when start date is null")
+        void testGetHolidaysBetween_nullStartDate() {
+            assertThrows(NullPointerException.class,
+                    () -> holidayService.getHolidaysBetween(null, LocalDate.of(2021, Month.JULY, 5)),
+                    "Expected getHolidaysBetween to throw NullPointerException for null start date"
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Prewarm")
+    class PrewarmTests {
+
+        @Test
+        @DisplayName("Should calculate the holidays of the prewarmed years")
+        void testPrewarm_Years() {
+            holidayService.prewarm(1800, 1810);
+
+            assertTrue(holidayService.isHoliday(LocalDate.of(1805, Month.JULY, 4)), "July 4th 1805 was a Thursday");
+            assertTrue(holidayService.isHoliday(LocalDate.of(1810, Month.SEPTEMBER, 3)), "September 3rd 1810 was the first Monday");
+        }
+
+        @Test
+        @DisplayName("Should throw IllegalArgumentException when the years are inverted")
+        void testPrewarm_invalidYears() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> holidayService.prewarm(2100, 1990),
+                    "Expected prewarm to throw IllegalArgumentException for inverted years"
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Holiday calendars")
+    class HolidayCalendarTests {
+
+        @Test
+        @DisplayName("Should look up the holidays of a named calendar - July 1st 2023 was a Saturday, observed on Monday in CA")
+        void testIsHoliday_NamedCalendar() {
+            assertAll(
+                    ()->{
+                        assertTrue(holidayService.getCalendarIds().containsAll(List.of(HolidayService.DEFAULT_CALENDAR_ID, "CA")), "The calendars of the config file should be registered");
+                        assertTrue(holidayService.isHoliday("CA", LocalDate.of(2023, Month.JULY, 3)), "July 3rd 2023 should be a holiday in CA");
+                        assertFalse(holidayService.isHoliday("CA", LocalDate.of(2023, Month.JULY, 1)), "July 1st 2023 should not be a holiday in CA");
+                        assertFalse(holidayService.isHoliday("CA", LocalDate.of(2023, Month.JULY, 4)), "July 4th 2023 should not be a holiday in CA");
+                        assertTrue(holidayService.isHoliday(HolidayService.DEFAULT_CALENDAR_ID, LocalDate.of(2023, Month.JULY, 4)), "July 4th 2023 should be a holiday in US");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should apply fixed dates, nth weekdays and weekend observance, across the boundaries of the years")
+        void testRegisterCalendar_Rules() {
+            holidayService.registerCalendar("TEST-RULES", List.of(
+                    HolidayRule.fixedDate("New Year's Day", Month.JANUARY, 1, HolidayObservanceEnum.NEAREST_WEEKDAY),
+                    HolidayRule.fixedDate("Leap Day", Month.FEBRUARY, 29, HolidayObservanceEnum.NONE),
+                    HolidayRule.nthWeekday("Memorial Day", Month.MAY, HolidayRule.LAST, DayOfWeek.MONDAY),
+                    HolidayRule.nthWeekday("Fifth Friday", Month.JUNE, 5, DayOfWeek.FRIDAY)
+            ));
+
+            assertAll(
+                    ()->{
+                        assertEquals(List.of(LocalDate.of(2021, Month.JANUARY, 1), LocalDate.of(2021, Month.MAY, 31), LocalDate.of(2021, Month.DECEMBER, 31)),
+                                holidayService.getHolidaysBetween("TEST-RULES", LocalDate.of(2021, Month.JANUARY, 1), LocalDate.of(2022, Month.JANUARY, 1)),
+                                "January 1st 2022 was a Saturday, observed on the Friday before, and June 2021 had 4 Fridays");
+                        assertEquals(List.of(LocalDate.of(2024, Month.JANUARY, 1), LocalDate.of(2024, Month.FEBRUARY, 29), LocalDate.of(2024, Month.MAY, 27)),
+                                holidayService.getHolidaysBetween("TEST-RULES", LocalDate.of(2024, Month.JANUARY, 1), LocalDate.of(2024, Month.JUNE, 1)),
+                                "2024 was a leap year, and May 27th was its last Monday in May");
+                        assertTrue(holidayService.isHoliday("TEST-RULES", LocalDate.of(2023, Month.JUNE, 30)), "June 30th 2023 was the 5th Friday of June");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should replace a calendar registered with the same id")
+        void testRegisterCalendar_Replace() {
+            LocalDate date = LocalDate.of(2024, Month.DECEMBER, 25);
+            long defaultVersion = holidayService.getVersion();
+            holidayService.registerCalendar("TEST-REPLACE", List.of());
+            long version = holidayService.getVersion("TEST-REPLACE");
+            assertFalse(holidayService.isHoliday("TEST-REPLACE", date), "December 25th should not be a holiday of an empty calendar");
+
+            holidayService.registerCalendars(new StringReader("TEST-REPLACE,Christmas Day,FIXED_DATE,DECEMBER,25,NEXT_WEEKDAY"));
+            assertAll(
+                    ()->{
+                        assertTrue(holidayService.isHoliday("TEST-REPLACE", date), "December 25th should be a holiday of the new calendar");
+                        assertTrue(holidayService.getVersion("TEST-REPLACE") > version, "The version of the replaced calendar should grow");
+                        assertEquals(defaultVersion, holidayService.getVersion(), "The version of the default calendar should not change");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should throw IllegalArgumentException when the calendar does not exist")
+        void testIsHoliday_unknownCalendar() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> holidayService.isHoliday("NOWHERE", LocalDate.of(2024, Month.JULY, 4)),
+                    "Expected isHoliday to throw IllegalArgumentException for an unknown calendar"
+            );
+        }
+
+        @Test
+        @DisplayName("Should throw IllegalArgumentException when a holiday rule is not valid")
+        void testRegisterCalendars_invalidRules() {
+            assertAll(
+                    ()->{
+                        assertThrows(IllegalArgumentException.class, () -> holidayService.registerCalendars(new StringReader("TEST-INVALID,Day,FIXED_DATE,JULY,4")),
+                                "Expected registerCalendars to throw IllegalArgumentException for a missing field");
+                        assertThrows(IllegalArgumentException.class, () -> holidayService.registerCalendars(new StringReader("TEST-INVALID,Day,EASTER,APRIL,1,NONE")),
+                                "Expected registerCalendars to throw IllegalArgumentException for an unknown type of rule");
+                        assertThrows(IllegalArgumentException.class, () -> holidayService.registerCalendars(new StringReader("TEST-INVALID,Day,FIXED_DATE,JUNE,31,NONE")),
+                                "Expected registerCalendars to throw IllegalArgumentException for a date that does not exist");
+                        assertThrows(IllegalArgumentException.class, () -> holidayService.registerCalendars(new StringReader("TEST-INVALID,Day,NTH_WEEKDAY,JUNE,6,MONDAY")),
+                                "Expected registerCalendars to throw IllegalArgumentException for a 6th weekday");
+                        assertFalse(holidayService.getCalendarIds().contains("TEST-INVALID"), "No calendar should be registered");
+                    }
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrent lookups")
+    class ConcurrentLookupTests {
+
+        @Test
+        @DisplayName("Should find every holiday while other threads grow the cache")
+        void testIsHoliday_Concurrent() throws Exception {
+            int threads = 8;
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Callable<Integer>> tasks = new ArrayList<>();
+                for (int thread = 0; thread < threads; thread++) {
+                    int firstYear = 2200 + thread * 50;
+                    tasks.add(() -> {
+                        int holidays = 0;
+                        for (LocalDate date = LocalDate.of(firstYear, 1, 1); date.getYear() < firstYear + 50; date = date.plusDays(1)) {
+                            holidays += holidayService.isHoliday(date) ? 1 : 0;
+                        }
+                        return holidays;
+                    });
+                }
+                for (Future<Integer> result : executor.invokeAll(tasks)) {
+                    assertEquals(100, result.get(), "Every year should have 2 holidays");
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
 }
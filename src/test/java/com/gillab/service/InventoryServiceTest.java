@@ -0,0 +1,220 @@
+package com.gillab.service;
+
+import com.gillab.exception.ApplicationException;
+import com.gillab.journal.RentalState;
+import com.gillab.model.RentalAgreement;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static com.gillab.TestConstants.*;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.INVALID_TOOL_CODE;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.TOOL_NOT_AVAILABLE;
+import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.TOOL_NOT_RENTED;
+import static com.gillab.exception.ApplicationErrors.getFormattedErrorMessage;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("InventoryService Tests")
+class InventoryServiceTest {
+
+    @Nested
+    @DisplayName("Reserve and release")
+    class ReserveAndReleaseTests {
+
+        @Test
+        @DisplayName("Should reserve every unit, and then reject the reservation")
+        void testReserve_AllUnits() {
+            InventoryService inventoryService = new InventoryService(Map.of(TOOL_CODE_JAKR, 2));
+
+            inventoryService.reserve(TOOL_CODE_JAKR, CORRELATION_ID);
+            inventoryService.reserve(TOOL_CODE_JAKR, CORRELATION_ID);
+            ApplicationException exception = assertThrows(
+                    ApplicationException.class,
+                    () -> inventoryService.reserve(TOOL_CODE_JAKR, CORRELATION_ID),
+                    "Expected reserve to throw, but it didn't"
+            );
+
+            assertAll(
+                    ()->{
+                        assertEquals(TOOL_NOT_AVAILABLE.getDisplayName(), exception.getErrorCode(), "Error code should match");
+                        assertEquals(getFormattedErrorMessage(TOOL_NOT_AVAILABLE, TOOL_CODE_JAKR), exception.getErrorMessage(), "Error message should match");
+                        assertEquals(0, inventoryService.getAvailableUnits(TOOL_CODE_JAKR), "No unit should be available");
+                        assertEquals(2, inventoryService.getTotalUnits(TOOL_CODE_JAKR), "Total units should not change");
+                        assertFalse(inventoryService.tryReserve(TOOL_CODE_JAKR), "No unit should be reserved");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should release a reserved unit, and reject the release of a unit that is not rented")
+        void testRelease() {
+            InventoryService inventoryService = InventoryService.withOneUnitPerTool(TEST_TOOL_STOCK);
+
+            assertTrue(inventoryService.tryReserve(TOOL_CODE_LADW), "The unit should be reserved");
+            inventoryService.release(TOOL_CODE_LADW, CORRELATION_ID);
+            ApplicationException exception = assertThrows(
+                    ApplicationException.class,
+                    () -> inventoryService.release(TOOL_CODE_LADW, CORRELATION_ID),
+                    "Expected release to throw, but it didn't"
+            );
+
+            assertEquals(TOOL_NOT_RENTED.getDisplayName(), exception.getErrorCode(), "Error code should match");
+            assertEquals(1, inventoryService.getAvailableUnits(TOOL_CODE_LADW), "The unit should be available");
+        }
+
+        @Test
+        @DisplayName("Should reserve the units of the open rentals of a rental state")
+        void testReserveRentedUnits() {
+            RentalState rentalState = new RentalState();
+            for (int sequence = 1; sequence <= 3; sequence++) {
+                rentalState.onAgreement(sequence, new RentalAgreement(TOOL_CODE_JAKR, "Jackhammer", "Ridgid", 3,
+                        LocalDate.of(2024, Month.JULY, 1), LocalDate.of(2024, Month.JULY, 4), 299, 3, 897, 0, 0, 897));
+            }
+            rentalState.onReturn(4, 1);
+            InventoryService inventoryService = new InventoryService(Map.of(TOOL_CODE_JAKR, 3, TOOL_CODE_LADW, 1));
+
+            inventoryService.reserveRentedUnits(rentalState);
+
+            assertAll(
+                    ()->{
+                        assertEquals(1, inventoryService.getAvailableUnits(TOOL_CODE_JAKR), "The units of the open rentals should be reserved");
+                        assertEquals(1, inventoryService.getAvailableUnits(TOOL_CODE_LADW), "A tool code without open rentals should keep its units");
+                        assertThrows(IllegalStateException.class, () -> inventoryService.reserveRentedUnits(rentalState),
+                                "Expected reserveRentedUnits to throw IllegalStateException when the open rentals exceed the available units");
+                        assertTrue(inventoryService.tryRelease(TOOL_CODE_JAKR), "A reserved unit should be released");
+                        assertFalse(inventoryService.tryRelease(INVALID_TEST_TOOL_CODE), "No unit of an invalid tool code should be released");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should throw ApplicationException for an invalid tool code")
+        void testReserve_InvalidToolCode() {
+            InventoryService inventoryService = InventoryService.withOneUnitPerTool(TEST_TOOL_STOCK);
+
+            ApplicationException exception = assertThrows(
+                    ApplicationException.class,
+                    () -> inventoryService.reserve(INVALID_TEST_TOOL_CODE, CORRELATION_ID),
+                    "Expected reserve to throw, but it didn't"
+            );
+
+            assertEquals(INVALID_TOOL_CODE.getDisplayName(), exception.getErrorCode(), "Error code should match");
+            assertFalse(inventoryService.tryReserve(INVALID_TEST_TOOL_CODE), "An invalid tool code should not be reserved");
+            assertEquals(0, inventoryService.getAvailableUnits(INVALID_TEST_TOOL_CODE), "An invalid tool code should have no units");
+        }
+
+        @Test
+        @DisplayName("Should throw IllegalArgumentException when the units are negative")
+        void testInventoryService_NegativeUnits() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new InventoryService(Map.of(TOOL_CODE_JAKR, -1)),
+                    "Expected the constructor to throw IllegalArgumentException for negative units"
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrency")
+    class ConcurrencyTests {
+
+        private static final int THREADS = 64;
+        private static final int OPERATIONS_PER_THREAD = 50_000;
+
+        @Test
+        @DisplayName("Should never rent more units than in stock, with many threads reserving and releasing")
+        void testReserveAndRelease_NoDoubleBooking() throws Exception {
+            List<String> toolCodes = List.of(TOOL_CODE_CHNS, TOOL_CODE_LADW, TOOL_CODE_JAKD, TOOL_CODE_JAKR);
+            int[] totalUnits = {1, 2, 3, 5};
+            InventoryService inventoryService = new InventoryService(Map.of(
+                    TOOL_CODE_CHNS, totalUnits[0], TOOL_CODE_LADW, totalUnits[1], TOOL_CODE_JAKD, totalUnits[2], TOOL_CODE_JAKR, totalUnits[3]));
+            AtomicIntegerArray rented = new AtomicIntegerArray(toolCodes.size());
+            AtomicInteger doubleBookings = new AtomicInteger();
+            AtomicInteger reservations = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                List<Future<?>> workers = new ArrayList<>();
+                for (int thread = 0; thread < THREADS; thread++) {
+                    workers.add(executor.submit(() -> {
+                        start.await();
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                            int tool = random.nextInt(toolCodes.size());
+                            if (inventoryService.tryReserve(toolCodes.get(tool))) {
+                                reservations.incrementAndGet();
+                                // The counter is raised while holding the unit, so it can only go above the units in stock if the same unit is rented twice
+                                if (rented.incrementAndGet(tool) > totalUnits[tool]) {
+                                    doubleBookings.incrementAndGet();
+                                }
+                                rented.decrementAndGet(tool);
+                                inventoryService.release(toolCodes.get(tool), CORRELATION_ID);
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            assertEquals(0, doubleBookings.get(), "No unit should be rented twice");
+            assertTrue(reservations.get() > 0, "Some units should be reserved");
+            for (int tool = 0; tool < toolCodes.size(); tool++) {
+                assertEquals(totalUnits[tool], inventoryService.getAvailableUnits(toolCodes.get(tool)), "Every unit should be available after the releases");
+            }
+        }
+
+        @Test
+        @DisplayName("Should reserve exactly the units in stock when many threads race for them")
+        void testReserve_Race() throws Exception {
+            int totalUnits = 1_000;
+            InventoryService inventoryService = new InventoryService(Map.of(TOOL_CODE_JAKR, totalUnits));
+            AtomicInteger reservations = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                List<Future<?>> workers = new ArrayList<>();
+                for (int thread = 0; thread < THREADS; thread++) {
+                    workers.add(executor.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < totalUnits; i++) {
+                            if (inventoryService.tryReserve(TOOL_CODE_JAKR)) {
+                                reservations.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            assertEquals(totalUnits, reservations.get(), "Every unit should be reserved exactly once");
+            assertEquals(0, inventoryService.getAvailableUnits(TOOL_CODE_JAKR), "No unit should be available");
+        }
+    }
+
+}
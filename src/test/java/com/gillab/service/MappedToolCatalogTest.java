@@ -0,0 +1,136 @@
+package com.gillab.service;
+
+import com.gillab.model.Tool;
+import com.gillab.model.ToolTypeEnum;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.gillab.TestConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MappedToolCatalog Tests")
+class MappedToolCatalogTest {
+
+    /**
+     * A mapped file can not be deleted on every platform while it is mapped, so the files are deleted on exit.
+     */
+    private static Path newCatalogFile() throws IOException {
+        Path file = Files.createTempFile("tool-catalog", ".bin");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    private static MappedToolCatalog writeAndOpen(final Map<String, Tool> toolStock, final Path file) {
+        MappedToolCatalog.write(toolStock, file);
+        return MappedToolCatalog.open(file);
+    }
+
+    private static void assertSameTool(final Tool expected, final Optional<Tool> actual) {
+        assertTrue(actual.isPresent(), "The tool " + expected.getCode() + " should be found");
+        assertEquals(expected.getCode(), actual.get().getCode(), "The tool code should match");
+        assertEquals(expected.getType(), actual.get().getType(), "The tool type of " + expected.getCode() + " should match");
+        assertEquals(expected.getBrand(), actual.get().getBrand(), "The brand of " + expected.getCode() + " should match");
+    }
+
+    @Nested
+    @DisplayName("Lookup")
+    class LookupTests {
+
+        @Test
+        @DisplayName("Should find every tool of the stock by its code, and no other")
+        void testFindTool() throws IOException {
+            Path file = newCatalogFile();
+            MappedToolCatalog catalog = writeAndOpen(TEST_TOOL_STOCK, file);
+
+            assertAll(
+                    ()->{
+                        assertEquals(TEST_TOOL_STOCK.size(), catalog.size(), "Every tool should be in the catalog");
+                        for (Tool tool : TEST_TOOL_STOCK.values()) {
+                            assertSameTool(tool, catalog.findTool(tool.getCode()));
+                        }
+                        assertTrue(catalog.findTool(INVALID_TEST_TOOL_CODE).isEmpty(), "An unknown tool code should not be found");
+                        assertTrue(catalog.findTool("LADWX").isEmpty(), "A longer tool code should not be found");
+                        assertTrue(catalog.findTool("").isEmpty(), "An empty tool code should not be found");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should find every tool of a large catalog, sharing the String of every tool type and brand")
+        void testFindTool_LargeCatalog() throws IOException {
+            Map<String, Tool> toolStock = new HashMap<>();
+            for (int tool = 0; tool < 100_000; tool++) {
+                String toolCode = "T" + tool;
+                toolStock.put(toolCode, new Tool(ToolTypeEnum.values()[tool % ToolTypeEnum.values().length], toolCode, "Brañd " + tool % 13));
+            }
+            toolStock.put("SAND", new Tool("SANDER", "SAND", "Bosch"));
+            Path file = newCatalogFile();
+            MappedToolCatalog catalog = writeAndOpen(toolStock, file);
+
+            for (Tool tool : toolStock.values()) {
+                assertSameTool(tool, catalog.findTool(tool.getCode()));
+            }
+            assertAll(
+                    ()->{
+                        assertSame(catalog.findTool("T0").orElseThrow().getBrand(), catalog.findTool("T13").orElseThrow().getBrand(),
+                                "The tools of a brand should share its String");
+                        assertSame(catalog.findTool("T0").orElseThrow().getType(), catalog.findTool("T3").orElseThrow().getType(),
+                                "The tools of a tool type should share its String");
+                        assertEquals("SANDER", catalog.findTool("SAND").orElseThrow().getType(), "A tool type registered at runtime should be stored by name");
+                        assertTrue(catalog.findTool("T100000").isEmpty(), "An unknown tool code should not be found");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should be usable as the stock of the tool service, through its map view")
+        void testAsToolStock() throws IOException {
+            Path file = newCatalogFile();
+            Map<String, Tool> toolStock = writeAndOpen(TEST_TOOL_STOCK, file).asToolStock();
+
+            assertAll(
+                    ()->{
+                        assertEquals(TEST_TOOL_STOCK.size(), toolStock.size(), "The view should have every tool");
+                        assertEquals(TEST_TOOL_STOCK.keySet(), toolStock.keySet(), "Iterating the view should return every tool code");
+                        assertEquals("Werner", toolStock.get(TOOL_CODE_LADW).getBrand(), "The view should find a tool by its code");
+                        assertNull(toolStock.getOrDefault(INVALID_TEST_TOOL_CODE, null), "The view should not find an unknown tool code");
+                        assertFalse(toolStock.containsKey(INVALID_TEST_TOOL_CODE), "The view should not contain an unknown tool code");
+                        assertThrows(UnsupportedOperationException.class, () -> toolStock.put(VALID_TEST_TOOL_CODE, TEST_TOOL),
+                                "Expected put to throw UnsupportedOperationException on a read-only view");
+                    }
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Format")
+    class FormatTests {
+
+        @Test
+        @DisplayName("Should throw IllegalArgumentException when the file is not a tool catalog")
+        void testOpen_NotACatalog() throws IOException {
+            Path file = newCatalogFile();
+            Files.writeString(file, "CHNS,CHAINSAW,Stihl\nLADW,LADDER,Werner\n");
+            assertThrows(IllegalArgumentException.class, () -> MappedToolCatalog.open(file),
+                    "Expected open to throw IllegalArgumentException for a file that is not a tool catalog");
+        }
+
+        @Test
+        @DisplayName("Should throw IllegalArgumentException when a tool code is not ASCII")
+        void testWrite_NonAsciiToolCode() throws IOException {
+            Path file = newCatalogFile();
+            assertThrows(IllegalArgumentException.class,
+                    () -> MappedToolCatalog.write(Map.of("LAÑW", new Tool(ToolTypeEnum.LADDER, "LAÑW", "Werner")), file),
+                    "Expected write to throw IllegalArgumentException for a tool code that is not ASCII");
+        }
+    }
+
+}
@@ -0,0 +1,207 @@
+package com.gillab.service;
+
+import com.gillab.model.ToolTypePolicy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("QuoteCache Tests")
+class QuoteCacheTest {
+
+    private static final ToolTypePolicy LADDER_POLICY = new ToolTypePolicy(1, "LADDER", "Ladder", 199, true, true, false);
+    private static final LocalDate CHECKOUT_DATE = LocalDate.of(2024, Month.JULY, 1);
+
+    private static QuoteCache.Key key(final int rentalDays) {
+        return new QuoteCache.Key(LADDER_POLICY, CHECKOUT_DATE, rentalDays, 0);
+    }
+
+    private static QuoteCache.Quote price(final QuoteCache.Key key) {
+        long charge = key.policy().getDailyRentalChargeCents() * key.rentalDays();
+        return new QuoteCache.Quote(key.checkoutDate().plusDays(key.rentalDays()), key.rentalDays(), charge, 0, charge);
+    }
+
+    @Nested
+    @DisplayName("Get or compute")
+    class GetOrComputeTests {
+
+        @Test
+        @DisplayName("Should compute a quote once, and count the hits and misses")
+        void testGetOrCompute_HitsAndMisses() {
+            QuoteCache quoteCache = new QuoteCache(100);
+            AtomicInteger pricings = new AtomicInteger();
+
+            QuoteCache.Quote first = quoteCache.getOrCompute(key(5), 1, key -> {
+                pricings.incrementAndGet();
+                return price(key);
+            });
+            QuoteCache.Quote second = quoteCache.getOrCompute(key(5), 1, key -> {
+                pricings.incrementAndGet();
+                return price(key);
+            });
+
+            assertAll(
+                    ()->{
+                        assertSame(first, second, "The second lookup should return the cached quote");
+                        assertEquals(1, pricings.get(), "The quote should be computed once");
+                        assertEquals(1, quoteCache.getHitCount(), "There should be 1 hit");
+                        assertEquals(1, quoteCache.getMissCount(), "There should be 1 miss");
+                        assertEquals(1, quoteCache.size(), "There should be 1 quote in the cache");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should report a miss with null, and hit the quote put for it")
+        void testGet_MissThenPut() {
+            QuoteCache quoteCache = new QuoteCache(100);
+
+            QuoteCache.Quote missed = quoteCache.get(key(5), 1);
+            quoteCache.put(key(5), 1, price(key(5)));
+            QuoteCache.Quote hit = quoteCache.get(key(5), 1);
+            quoteCache.put(key(6), 0, price(key(6)));
+
+            assertAll(
+                    ()->{
+                        assertNull(missed, "The first lookup should miss");
+                        assertEquals(price(key(5)), hit, "The second lookup should hit the quote put");
+                        assertNull(quoteCache.get(key(6), 1), "A quote put with an older version should not be kept");
+                        assertEquals(1, quoteCache.getHitCount(), "There should be 1 hit");
+                        assertEquals(2, quoteCache.getMissCount(), "There should be 2 misses");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should evict the least recently used quote when the cache is full")
+        void testGetOrCompute_EvictsLeastRecentlyUsed() {
+            QuoteCache quoteCache = new QuoteCache(2, 1);
+
+            quoteCache.getOrCompute(key(1), 1, QuoteCacheTest::price);
+            quoteCache.getOrCompute(key(2), 1, QuoteCacheTest::price);
+            quoteCache.getOrCompute(key(1), 1, QuoteCacheTest::price);
+            quoteCache.getOrCompute(key(3), 1, QuoteCacheTest::price);
+            long misses = quoteCache.getMissCount();
+            quoteCache.getOrCompute(key(1), 1, QuoteCacheTest::price);
+            quoteCache.getOrCompute(key(3), 1, QuoteCacheTest::price);
+
+            assertAll(
+                    ()->{
+                        assertEquals(1, quoteCache.getEvictionCount(), "There should be 1 eviction");
+                        assertEquals(misses, quoteCache.getMissCount(), "The recently used quotes should still be cached");
+                        assertEquals(2, quoteCache.size(), "The cache should not grow over its capacity");
+                    }
+            );
+
+            quoteCache.getOrCompute(key(2), 1, QuoteCacheTest::price);
+            assertEquals(misses + 1, quoteCache.getMissCount(), "The least recently used quote should have been evicted");
+        }
+
+        @Test
+        @DisplayName("Should drop every quote when the version of the pricing data changes")
+        void testGetOrCompute_NewVersion() {
+            QuoteCache quoteCache = new QuoteCache(100);
+            quoteCache.getOrCompute(key(1), 1, QuoteCacheTest::price);
+            quoteCache.getOrCompute(key(2), 1, QuoteCacheTest::price);
+
+            QuoteCache.Quote quote = quoteCache.getOrCompute(key(1), 2, key -> new QuoteCache.Quote(CHECKOUT_DATE, 0, 0, 0, 0));
+
+            assertAll(
+                    ()->{
+                        assertEquals(0, quoteCache.getHitCount(), "A quote of the previous version should not be returned");
+                        assertEquals(0, quote.finalChargeCents(), "The quote should be computed again");
+                        assertEquals(1, quoteCache.size(), "The quotes of the previous version should be dropped");
+                        assertEquals(0, quoteCache.getEvictionCount(), "The dropped quotes should not count as evictions");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should not drop the quotes, nor keep a quote, for a version older than the current one")
+        void testGetOrCompute_OlderVersion() {
+            QuoteCache quoteCache = new QuoteCache(100);
+            quoteCache.getOrCompute(key(1), 2, QuoteCacheTest::price);
+
+            QuoteCache.Quote stale = quoteCache.getOrCompute(key(2), 1, key -> new QuoteCache.Quote(CHECKOUT_DATE, 0, 0, 0, 0));
+            QuoteCache.Quote current = quoteCache.getOrCompute(key(1), 2, QuoteCacheTest::price);
+
+            assertAll(
+                    ()->{
+                        assertEquals(0, stale.finalChargeCents(), "The quote of the older version should be computed");
+                        assertEquals(1, quoteCache.size(), "The quote of the older version should not be kept");
+                        assertEquals(1, quoteCache.getHitCount(), "The quotes of the current version should be kept");
+                        assertEquals(price(key(1)), current, "The quote of the current version should be returned");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should throw IllegalArgumentException when the capacity is not valid")
+        void testQuoteCache_invalidCapacity() {
+            assertAll(
+                    ()->{
+                        assertThrows(IllegalArgumentException.class, () -> new QuoteCache(0),
+                                "Expected the constructor to throw IllegalArgumentException for an empty cache");
+                        assertThrows(IllegalArgumentException.class, () -> new QuoteCache(8, 3),
+                                "Expected the constructor to throw IllegalArgumentException for segments that are not a power of 2");
+                        assertThrows(IllegalArgumentException.class, () -> new QuoteCache(2, 4),
+                                "Expected the constructor to throw IllegalArgumentException for more segments than capacity");
+                    }
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrent lookups")
+    class ConcurrentLookupTests {
+
+        @Test
+        @DisplayName("Should return the right quote for every key, and stay within its capacity")
+        void testGetOrCompute_Concurrent() throws Exception {
+            int threads = 8;
+            int lookups = 20_000;
+            QuoteCache quoteCache = new QuoteCache(64);
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<Integer>> results = new ArrayList<>();
+                for (int thread = 0; thread < threads; thread++) {
+                    results.add(executor.submit(() -> {
+                        int wrongQuotes = 0;
+                        for (int lookup = 0; lookup < lookups; lookup++) {
+                            QuoteCache.Key key = key(ThreadLocalRandom.current().nextInt(1, 129));
+                            if (!quoteCache.getOrCompute(key, 1, QuoteCacheTest::price).equals(price(key))) {
+                                wrongQuotes++;
+                            }
+                        }
+                        return wrongQuotes;
+                    }));
+                }
+                for (Future<Integer> result : results) {
+                    assertEquals(0, result.get(), "Every quote should match its key");
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            assertAll(
+                    ()->{
+                        assertEquals((long) threads * lookups, quoteCache.getHitCount() + quoteCache.getMissCount(), "Every lookup should be a hit or a miss");
+                        assertTrue(quoteCache.size() <= quoteCache.getCapacity(), "The cache should not grow over its capacity");
+                        assertTrue(quoteCache.getEvictionCount() > 0, "Half of the keys do not fit, so quotes should be evicted");
+                    }
+            );
+        }
+    }
+
+}
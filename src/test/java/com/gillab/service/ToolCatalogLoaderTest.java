@@ -0,0 +1,179 @@
+package com.gillab.service;
+
+import com.gillab.model.Tool;
+import com.gillab.model.ToolTypeEnum;
+import com.gillab.model.ToolTypePolicy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.gillab.TestConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ToolCatalogLoader Tests")
+class ToolCatalogLoaderTest {
+
+    private static final String CATALOG = """
+            # toolCode,toolType,brand
+            CHNS,CHAINSAW,Stihl
+            LADW,LADDER,Werner\r
+            
+            JAKD,JACKHAMMER,DeWalt
+            JAKR,JACKHAMMER,Ridgid""";
+
+    private static ToolCatalogLoader.Result load(final String catalog, final ToolCatalogLoader loader) throws IOException {
+        Path file = Files.createTempFile("tool-catalog", ".csv");
+        try {
+            Files.writeString(file, catalog, StandardCharsets.UTF_8);
+            return loader.load(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static String generateCatalog(final int toolCount) {
+        StringBuilder catalog = new StringBuilder();
+        for (int tool = 0; tool < toolCount; tool++) {
+            catalog.append("T").append(tool).append(',')
+                    .append(ToolTypeEnum.values()[tool % ToolTypeEnum.values().length].name()).append(',')
+                    .append("Brand ").append(tool % 7).append('\n');
+        }
+        return catalog.toString();
+    }
+
+    @Nested
+    @DisplayName("Load")
+    class LoadTests {
+
+        @Test
+        @DisplayName("Should load every tool, ignoring comments and blank lines, and accepting a last line without a line break")
+        void testLoad() throws IOException {
+            ToolCatalogLoader.Result result = load(CATALOG, new ToolCatalogLoader());
+
+            assertAll(
+                    ()->{
+                        assertEquals(TEST_TOOL_STOCK, result.toolStock(), "The stock should match the catalog");
+                        assertEquals(6, result.lineCount(), "Every line should be counted");
+                        assertEquals(0, result.rejectedCount(), "No row should be rejected");
+                        assertEquals("Werner", result.toolStock().get(TOOL_CODE_LADW).getBrand(), "The carriage return should not be part of the brand");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should load the same stock whatever the chunk size, with the lines split between chunks")
+        void testLoad_ChunkSizes() throws IOException {
+            String catalog = generateCatalog(10_000);
+            ToolCatalogLoader.Result expected = load(catalog, new ToolCatalogLoader());
+
+            for (int chunkSize : List.of(32, 100, 4096)) {
+                ToolCatalogLoader.Result result = load(catalog, new ToolCatalogLoader(chunkSize, (bytesRead, totalBytes, toolCount) -> { }));
+                assertEquals(10_000, result.toolStock().size(), "Every tool should be loaded with chunks of " + chunkSize + " bytes");
+                assertEquals(expected.toolStock(), result.toolStock(), "The stock should not depend on the chunk size " + chunkSize);
+            }
+        }
+
+        @Test
+        @DisplayName("Should share a single String per brand")
+        void testLoad_DeduplicatesBrands() throws IOException {
+            ToolCatalogLoader.Result result = load(generateCatalog(1_000), new ToolCatalogLoader());
+
+            Tool first = result.toolStock().get("T0");
+            Tool sameBrand = result.toolStock().get("T7");
+            assertAll(
+                    ()->{
+                        assertEquals("Brand 0", first.getBrand(), "The brand should be decoded");
+                        assertSame(first.getBrand(), sameBrand.getBrand(), "The tools of a brand should share its String");
+                        assertEquals(7, result.toolStock().values().stream().map(Tool::getBrand).distinct().count(), "There should be 7 brands");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should report the progress after every chunk, up to the whole file")
+        void testLoad_Progress() throws IOException {
+            String catalog = generateCatalog(1_000);
+            List<long[]> progress = new ArrayList<>();
+
+            load(catalog, new ToolCatalogLoader(1024, (bytesRead, totalBytes, toolCount) -> progress.add(new long[]{bytesRead, totalBytes, toolCount})));
+
+            long[] last = progress.get(progress.size() - 1);
+            assertAll(
+                    ()->{
+                        assertTrue(progress.size() > catalog.length() / 1024, "The progress should be reported after every chunk");
+                        assertEquals(catalog.length(), last[0], "The whole file should be read");
+                        assertEquals(catalog.length(), last[1], "The size of the file should be reported");
+                        assertEquals(1_000, last[2], "Every tool should be loaded");
+                    }
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Rejected rows")
+    class RejectedRowTests {
+
+        @Test
+        @DisplayName("Should skip the bad rows, and report them with their line numbers")
+        void testLoad_RejectedRows() throws IOException {
+            String catalog = CATALOG + """
+
+                    SAND,SANDER,Bosch
+                    LADW,LADDER,Little Giant
+                    LAD2,LADDER
+                    ,LADDER,Werner
+                    LAD3,LADDER,Werner,Extra
+                    LAD4,LADDER,Werner
+                    """;
+
+            ToolCatalogLoader.Result result = load(catalog, new ToolCatalogLoader());
+
+            assertAll(
+                    ()->{
+                        assertEquals(5, result.toolStock().size(), "Only the valid rows should be loaded");
+                        assertEquals("Werner", result.toolStock().get(TOOL_CODE_LADW).getBrand(), "A duplicate should not replace the first tool");
+                        assertEquals(5, result.rejectedCount(), "Every bad row should be rejected");
+                        assertEquals(List.of(7L, 8L, 9L, 10L, 11L), result.rejectedRows().stream().map(ToolCatalogLoader.RejectedRow::lineNumber).toList(),
+                                "The rejected rows should have their line numbers");
+                        assertTrue(result.rejectedRows().get(0).reason().contains("SAND,SANDER,Bosch"), "The reason should have the content of the row");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should load the tools of a tool type registered at runtime, sharing the name of the tool type")
+        void testLoad_RuntimeToolType() throws IOException {
+            ToolTypePolicyRegistry registry = ToolTypePolicyRegistry.load(new InputStreamReader(
+                    ToolTypePolicyRegistry.class.getClassLoader().getResourceAsStream(ToolTypePolicyRegistry.DEFAULT_POLICIES_RESOURCE), StandardCharsets.UTF_8));
+            ToolTypePolicy sander = registry.register("SANDER", "Sander", 99, true, false, false);
+
+            ToolCatalogLoader.Result result = load(CATALOG + "\nSAND,SANDER,Bosch", new ToolCatalogLoader(1024, (bytesRead, totalBytes, toolCount) -> { }, registry));
+
+            assertAll(
+                    ()->{
+                        assertEquals(0, result.rejectedCount(), "The tool of the new tool type should not be rejected");
+                        assertSame(sander.getName(), result.toolStock().get("SAND").getType(), "The tool should share the name of its tool type");
+                        assertEquals(sander.getId(), result.toolStock().get("SAND").getTypeId(), "The tool should carry the id of its tool type");
+                        assertSame(sander, registry.getPolicy(result.toolStock().get("SAND")), "The policy should be resolved from the id of the tool type of the tool");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should throw IllegalArgumentException when a line is longer than the chunk size")
+        void testLoad_LineTooLong() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> load(CATALOG, new ToolCatalogLoader(8, (bytesRead, totalBytes, toolCount) -> { })),
+                    "Expected load to throw IllegalArgumentException for a line longer than the chunk size");
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.gillab.service;
+
+import com.gillab.model.Tool;
+import com.gillab.model.ToolTypeEnum;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.gillab.TestConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ToolCodeIndex Tests")
+class ToolCodeIndexTest {
+
+    private static Tool ladder(final String toolCode) {
+        return new Tool(ToolTypeEnum.LADDER, toolCode, "Werner");
+    }
+
+    @Nested
+    @DisplayName("Lookup")
+    class LookupTests {
+
+        @Test
+        @DisplayName("Should find every tool of the stock by its code, and no other")
+        void testGet() {
+            ToolCodeIndex index = ToolCodeIndex.of(TEST_TOOL_STOCK);
+
+            assertAll(
+                    ()->{
+                        assertEquals(TEST_TOOL_STOCK.size(), index.size(), "Every tool should be indexed");
+                        for (Tool tool : TEST_TOOL_STOCK.values()) {
+                            assertSame(tool, index.get(tool.getCode()), "The tool " + tool.getCode() + " should be found");
+                            assertSame(tool, index.get(new String(tool.getCode().toCharArray())), "The tool " + tool.getCode() + " should be found by an equal code");
+                        }
+                        assertNull(index.get(INVALID_TEST_TOOL_CODE), "An unknown tool code should not be found");
+                        assertNull(index.get("LAD"), "A prefix of a tool code should not be found");
+                        assertNull(index.get("ALADW"), "A longer tool code should not be found");
+                        assertNull(index.get(""), "An empty tool code should not be found");
+                        assertTrue(index.findTool(INVALID_TEST_TOOL_CODE).isEmpty(), "An unknown tool code should not be found");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should find the tools with codes that can not be packed, through the fallback map, next to the packed ones")
+        void testGet_OtherCodes() {
+            Map<String, Tool> toolStock = new HashMap<>();
+            for (String toolCode : new String[]{"LADW", "LADDER-WERNER-12", "LAÑW", "LA\0W", "12345678", "123456789"}) {
+                toolStock.put(toolCode, ladder(toolCode));
+            }
+            ToolCodeIndex index = ToolCodeIndex.of(toolStock);
+
+            assertAll(
+                    ()->{
+                        for (Tool tool : toolStock.values()) {
+                            assertSame(tool, index.get(tool.getCode()), "The tool " + tool.getCode() + " should be found");
+                        }
+                        assertNull(index.get("LADDER-WERNER-13"), "An unknown long tool code should not be found");
+                        assertNull(index.get("\0LAW"), "A tool code with the NUL character elsewhere should not be found");
+                        assertNotEquals(0, ToolCodeIndex.pack("12345678"), "A code of 8 ASCII characters should be packed");
+                        assertEquals(0, ToolCodeIndex.pack("123456789"), "A code longer than 8 characters should not be packed");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should find every tool of a large stock")
+        void testGet_LargeStock() {
+            Map<String, Tool> toolStock = new HashMap<>();
+            for (int tool = 0; tool < 200_000; tool++) {
+                String toolCode = "T" + tool;
+                toolStock.put(toolCode, ladder(toolCode));
+            }
+            ToolCodeIndex index = ToolCodeIndex.of(toolStock);
+
+            for (Tool tool : toolStock.values()) {
+                assertSame(tool, index.get(tool.getCode()), "The tool " + tool.getCode() + " should be found");
+            }
+            assertNull(index.get("T200000"), "An unknown tool code should not be found");
+        }
+
+        @Test
+        @DisplayName("Should be usable as the stock of the tool service, through its map view")
+        void testAsToolStock() {
+            Map<String, Tool> toolStockWithLongCode = new HashMap<>(TEST_TOOL_STOCK);
+            toolStockWithLongCode.put("LADDER-WERNER-12", ladder("LADDER-WERNER-12"));
+            Map<String, Tool> toolStock = ToolCodeIndex.of(toolStockWithLongCode).asToolStock();
+
+            assertAll(
+                    ()->{
+                        assertEquals(toolStockWithLongCode.size(), toolStock.size(), "The view should have every tool");
+                        assertEquals(toolStockWithLongCode.keySet(), toolStock.keySet(), "Iterating the view should return every tool code");
+                        assertEquals("Werner", toolStock.get(TOOL_CODE_LADW).getBrand(), "The view should find a tool by its code");
+                        assertNull(toolStock.getOrDefault(INVALID_TEST_TOOL_CODE, null), "The view should not find an unknown tool code");
+                        assertFalse(toolStock.containsKey(INVALID_TEST_TOOL_CODE), "The view should not contain an unknown tool code");
+                        assertThrows(UnsupportedOperationException.class, () -> toolStock.put(VALID_TEST_TOOL_CODE, TEST_TOOL),
+                                "Expected put to throw UnsupportedOperationException on a read-only view");
+                    }
+            );
+        }
+    }
+
+}
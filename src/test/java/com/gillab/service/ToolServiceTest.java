@@ -3,21 +3,24 @@ package com.gillab.service;
 import com.gillab.exception.ApplicationException;
 import com.gillab.model.Tool;
 import com.gillab.model.ToolTypeEnum;
+import com.gillab.model.ToolTypePolicy;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Map;
+import java.util.Optional;
 
 import static com.gillab.TestConstants.*;
 import static com.gillab.exception.ApplicationErrors.ErrorCodesEnum.INVALID_TOOL_CODE;
 import static com.gillab.exception.ApplicationErrors.getErrorSummary;
 import static com.gillab.exception.ApplicationErrors.getFormattedErrorMessage;
-import static com.gillab.util.Constants.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -96,6 +99,65 @@ class ToolServiceTest {
 
     }
 
+    @Nested
+    @DisplayName("Find tool by code")
+    class FindToolByCodeTests {
+
+        @Test
+        @DisplayName("Should return the tool when tool code is valid")
+        void testFindToolByCode_validToolCode() {
+            when(toolStock.getOrDefault(VALID_TEST_TOOL_CODE, null)).thenReturn(TEST_TOOL);
+
+            assertEquals(Optional.of(TEST_TOOL), toolService.findToolByCode(VALID_TEST_TOOL_CODE), "Tool should be found for a valid tool code");
+
+            verify(toolStock).getOrDefault(VALID_TEST_TOOL_CODE, null);
+            verifyNoMoreInteractions(toolStock);
+        }
+
+        @Test
+        @DisplayName("Should return empty when tool code is invalid")
+        void testFindToolByCode_invalidToolCode() {
+            when(toolStock.getOrDefault(INVALID_TEST_TOOL_CODE, null)).thenReturn(null);
+
+            assertTrue(toolService.findToolByCode(INVALID_TEST_TOOL_CODE).isEmpty(), "No tool should be found for an invalid tool code");
+
+            verify(toolStock).getOrDefault(INVALID_TEST_TOOL_CODE, null);
+            verifyNoMoreInteractions(toolStock);
+        }
+    }
+
+    @Nested
+    @DisplayName("Get tool type policy")
+    class GetToolTypePolicyTests {
+
+        @ParameterizedTest
+        @EnumSource(ToolTypeEnum.class)
+        @DisplayName("Should return the charge and the chargeable days of the tool type at once")
+        void testGetToolTypePolicy(ToolTypeEnum toolType) {
+            ToolTypePolicy policy = toolService.getToolTypePolicy(toolType);
+
+            assertAll(
+                    ()->{
+                        assertEquals(toolType.name(), policy.getName(), "Policy name should match the tool type");
+                        assertEquals(toolType.getDisplayName(), policy.getDisplayName(), "Display name should match the tool type");
+                        assertEquals(toolService.getDailyRentalChargeCentsByToolType(toolType), policy.getDailyRentalChargeCents(), "Daily charge should match");
+                        assertEquals(toolService.isToolTypeWeekdayChargeable(toolType), policy.isWeekdayChargeable(), "Weekday charge should match");
+                        assertEquals(toolService.isToolTypeWeekendChargeable(toolType), policy.isWeekendChargeable(), "Weekend charge should match");
+                        assertEquals(toolService.isToolTypeHolidayChargeable(toolType), policy.isHolidayChargeable(), "Holiday charge should match");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should throw NullPointerException when tool type is null")
+        void testGetToolTypePolicy_nullToolType() {
+            assertThrows(NullPointerException.class,
+                    () -> toolService.getToolTypePolicy(null),
+                    "Expected getToolTypePolicy to throw NullPointerException for null tool type"
+            );
+        }
+    }
+
     @Nested
     @DisplayName("Get daily rental charge by tool type")
     class GetDailyRentalChargeByToolTypeTests {
@@ -121,6 +183,14 @@ class ToolServiceTest {
             assertEquals(JACKHAMMER_DAILY_CHARGE, charge, "Daily charge for JACKHAMMER should be correct");
         }
 
+        @ParameterizedTest
+        @EnumSource(ToolTypeEnum.class)
+        @DisplayName("Should return the charge in dollars from the exact charge in cents")
+        void testGetDailyRentalChargeCentsByToolType(ToolTypeEnum toolType) {
+            long cents = toolService.getDailyRentalChargeCentsByToolType(toolType);
+            assertEquals(cents / 100.0, toolService.getDailyRentalChargeByToolType(toolType), "Daily charge should match the charge in cents");
+        }
+
         @Test
         @DisplayName("Should throw NullPointerException when tool type is null")
         void testGetDailyRentalChargeByToolType_nullToolType() {
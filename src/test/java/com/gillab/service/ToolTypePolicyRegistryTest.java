@@ -0,0 +1,179 @@
+package com.gillab.service;
+
+import com.gillab.model.Tool;
+import com.gillab.model.ToolTypeEnum;
+import com.gillab.model.ToolTypePolicy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static com.gillab.TestConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ToolTypePolicyRegistry Tests")
+class ToolTypePolicyRegistryTest {
+
+    private static final String POLICIES = """
+            # name,displayName,dailyCharge,weekdayCharge,weekendCharge,holidayCharge
+            CHAINSAW,Chainsaw,1.49,true,false,true
+            LADDER,Ladder,1.99,true,true,false
+
+            JACKHAMMER,Jackhammer,1.99,true,false,false
+            """;
+
+    private static ToolTypePolicyRegistry load(final String policies) {
+        return ToolTypePolicyRegistry.load(new StringReader(policies));
+    }
+
+    @Nested
+    @DisplayName("Load")
+    class LoadTests {
+
+        @Test
+        @DisplayName("Should load the policies of the built-in tool types from the default config file")
+        void testGetInstance() {
+            ToolTypePolicyRegistry registry = ToolTypePolicyRegistry.getInstance();
+
+            assertAll(
+                    ()->{
+                        assertEquals(LADDER_DAILY_CHARGE_CENTS, registry.getPolicy(ToolTypeEnum.LADDER).getDailyRentalChargeCents(), "Daily charge for LADDER should be correct");
+                        assertEquals(CHAINSAW_DAILY_CHARGE_CENTS, registry.getPolicy(ToolTypeEnum.CHAINSAW).getDailyRentalChargeCents(), "Daily charge for CHAINSAW should be correct");
+                        assertEquals(JACKHAMMER_DAILY_CHARGE_CENTS, registry.getPolicy(ToolTypeEnum.JACKHAMMER).getDailyRentalChargeCents(), "Daily charge for JACKHAMMER should be correct");
+                        assertSame(registry, ToolTypePolicyRegistry.getInstance(), "The default registry should be loaded once");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should give dense ids in the order of the lines, skipping comments and blank lines")
+        void testLoad_denseIds() {
+            ToolTypePolicyRegistry registry = load(POLICIES);
+
+            assertAll(
+                    ()->{
+                        assertEquals(List.of("CHAINSAW", "LADDER", "JACKHAMMER"),
+                                registry.getPolicies().stream().map(ToolTypePolicy::getName).toList(), "Policies should be in the order of the lines");
+                        assertEquals(0, registry.getPolicy(ToolTypeEnum.CHAINSAW).getId(), "CHAINSAW should get the first id");
+                        assertEquals(1, registry.getPolicy(ToolTypeEnum.LADDER).getId(), "LADDER should get the second id");
+                        assertEquals(2, registry.getPolicy(ToolTypeEnum.JACKHAMMER).getId(), "JACKHAMMER should get the third id");
+                        assertSame(registry.getPolicy(ToolTypeEnum.LADDER), registry.getPolicy(1), "Lookup by id should match the lookup by tool type");
+                        assertEquals(new ToolTypePolicy(1, "LADDER", "Ladder", 199, true, true, false),
+                                registry.getPolicy(1), "Policy of LADDER should match the config file");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should throw IllegalArgumentException when a built-in tool type has no policy")
+        void testLoad_missingToolType() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> load("LADDER,Ladder,1.99,true,true,false"),
+                    "Expected load to throw IllegalArgumentException when a tool type has no policy"
+            );
+        }
+
+        @Test
+        @DisplayName("Should throw IllegalArgumentException when a line is not valid")
+        void testLoad_invalidLines() {
+            assertAll(
+                    ()->{
+                        assertThrows(IllegalArgumentException.class, () -> load(POLICIES + "SANDER,Sander,1.99,true,true"),
+                                "Expected load to throw IllegalArgumentException for a missing field");
+                        assertThrows(IllegalArgumentException.class, () -> load(POLICIES + "SANDER,Sander,one,true,true,false"),
+                                "Expected load to throw IllegalArgumentException for a daily charge that is not a number");
+                        assertThrows(IllegalArgumentException.class, () -> load(POLICIES + "SANDER,Sander,1.999,true,true,false"),
+                                "Expected load to throw IllegalArgumentException for a daily charge with fractions of cents");
+                        assertThrows(IllegalArgumentException.class, () -> load(POLICIES + "SANDER,Sander,1.99,yes,true,false"),
+                                "Expected load to throw IllegalArgumentException for a charge flag that is not true or false");
+                        assertThrows(IllegalArgumentException.class, () -> load(POLICIES + "LADDER,Ladder,2.99,true,true,false"),
+                                "Expected load to throw IllegalArgumentException for a tool type with two policies");
+                    }
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Register")
+    class RegisterTests {
+
+        @Test
+        @DisplayName("Should give a new tool type the next id")
+        void testRegister_newToolType() {
+            ToolTypePolicyRegistry registry = load(POLICIES);
+
+            ToolTypePolicy sander = registry.register("SANDER", "Sander", 99, true, false, false);
+
+            assertAll(
+                    ()->{
+                        assertEquals(3, sander.getId(), "The new tool type should get the next id");
+                        assertSame(sander, registry.getPolicy(3), "The new tool type should be found by id");
+                        assertEquals(sander, registry.findPolicy("SANDER").orElseThrow(), "The new tool type should be found by name");
+                        assertSame(sander, registry.getPolicy("SANDER"), "The new tool type should be resolved by name, without a constant in the enum");
+                        assertEquals(4, registry.getPolicies().size(), "There should be a policy per tool type");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should replace the policy of a registered tool type, keeping its id")
+        void testRegister_existingToolType() {
+            ToolTypePolicyRegistry registry = load(POLICIES);
+
+            ToolTypePolicy ladder = registry.register("LADDER", "Ladder", 249, true, true, true);
+
+            assertAll(
+                    ()->{
+                        assertEquals(1, ladder.getId(), "The tool type should keep its id");
+                        assertSame(ladder, registry.getPolicy(ToolTypeEnum.LADDER), "The lookup by tool type should return the new policy");
+                        assertEquals(249, registry.getPolicy(1).getDailyRentalChargeCents(), "The lookup by id should return the new policy");
+                        assertEquals(3, registry.getPolicies().size(), "No tool type should be added");
+                    }
+            );
+        }
+
+        @Test
+        @DisplayName("Should throw IllegalArgumentException for a negative daily charge, or an unknown id")
+        void testRegister_invalidValues() {
+            ToolTypePolicyRegistry registry = load(POLICIES);
+
+            assertAll(
+                    ()->{
+                        assertThrows(IllegalArgumentException.class, () -> registry.register("SANDER", "Sander", -1, true, true, true),
+                                "Expected register to throw IllegalArgumentException for a negative daily charge");
+                        assertThrows(IllegalArgumentException.class, () -> registry.getPolicy(3),
+                                "Expected getPolicy to throw IllegalArgumentException for an unknown id");
+                        assertTrue(registry.findPolicy("SANDER").isEmpty(), "No policy should be found for an unknown tool type");
+                        assertThrows(IllegalArgumentException.class, () -> registry.getPolicy("SANDER"),
+                                "Expected getPolicy to throw IllegalArgumentException for an unknown tool type");
+                    }
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Tool lookup")
+    class ToolLookupTests {
+
+        @Test
+        @DisplayName("Should resolve the policy of a tool by the id of its tool type, and by name for a tool of another registry")
+        void testGetPolicy_Tool() {
+            ToolTypePolicyRegistry registry = load(POLICIES);
+            ToolTypePolicy sander = registry.register("SANDER", "Sander", 99, true, false, false);
+            // JACKHAMMER has the id 2 in the registry, while the tool claims the id of LADDER
+            Tool otherRegistryTool = new Tool("JACKHAMMER", 1, "JAKX", "Bosch");
+
+            assertAll(
+                    ()->{
+                        assertSame(sander, registry.getPolicy(new Tool(sander, "SAND", "Bosch")), "The policy should be read at the id of the tool");
+                        assertSame(registry.getPolicy("JACKHAMMER"), registry.getPolicy(otherRegistryTool), "A tool with another id should be looked up by name");
+                        assertThrows(IllegalArgumentException.class, () -> registry.getPolicy(new Tool("PLANER", Tool.UNKNOWN_TYPE_ID, "PLAN", "Bosch")),
+                                "Expected getPolicy to throw IllegalArgumentException for an unknown tool type");
+                    }
+            );
+        }
+    }
+
+}
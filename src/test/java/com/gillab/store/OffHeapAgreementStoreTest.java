@@ -0,0 +1,145 @@
+package com.gillab.store;
+
+import com.gillab.model.RentalAgreement;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapAgreementStore Tests")
+class OffHeapAgreementStoreTest {
+
+    private static final LocalDate CHECKOUT_DATE = LocalDate.of(2024, Month.JULY, 1);
+    private static final String[] TOOL_CODES = {"CHNS", "LADW", "JAKD", "JAKR"};
+
+    private static RentalAgreement agreement(final int index) {
+        return new RentalAgreement(TOOL_CODES[index % TOOL_CODES.length], "Ladder", "Werner " + index % 3, 3 + index % 5,
+                CHECKOUT_DATE.plusDays(index % 30), CHECKOUT_DATE.plusDays(index % 30 + 3), 199, 2, 398, index % 20,
+                index % 80, 100L + index);
+    }
+
+    @Nested
+    @DisplayName("Records")
+    class RecordTests {
+
+        @Test
+        @DisplayName("Should read back every field of the agreements, through a view or as a new agreement")
+        void testAdd_ReadBack() {
+            try (OffHeapAgreementStore store = new OffHeapAgreementStore()) {
+                RentalAgreement first = agreement(7);
+                RentalAgreement second = agreement(8);
+                int firstIndex = store.add(first);
+                int secondIndex = store.add(second);
+                AgreementView view = store.view().moveTo(firstIndex);
+
+                assertAll(
+                        ()->{
+                            assertEquals(2, store.size(), "Both agreements should be stored");
+                            assertEquals(0, firstIndex, "The first agreement should have the first index");
+                            assertEquals("JAKR", view.getToolCode(), "The tool code should be read in place");
+                            assertEquals("Werner 1", view.getToolBrand(), "The brand should be read in place");
+                            assertEquals(CHECKOUT_DATE.plusDays(7).toEpochDay(), view.getCheckoutEpochDay(), "The checkout date should be stored as an epoch day");
+                            assertEquals(CHECKOUT_DATE.plusDays(10), view.getDueDate(), "The due date should be read back");
+                            assertEquals(107, view.getFinalChargeCents(), "The final charge should be read in place");
+                            assertEquals(first, view.toAgreement(), "The agreement should be created from its record");
+                            assertEquals(Optional.of(second), store.get(secondIndex), "The agreement should be found by its index");
+                            assertSame(view.getToolType(), store.view().moveTo(secondIndex).getToolType(), "The texts should be shared through the dictionary");
+                            assertTrue(store.get(2).isEmpty(), "There should be no agreement past the end of the store");
+                            assertThrows(IndexOutOfBoundsException.class, () -> view.moveTo(-1),
+                                    "Expected moveTo to throw IndexOutOfBoundsException for a negative index");
+                        }
+                );
+            }
+        }
+
+        @Test
+        @DisplayName("Should grow by chunks, keeping the agreements of the previous ones")
+        void testAdd_ManyChunks() {
+            int count = OffHeapAgreementStore.CHUNK_RECORDS * 3 + 17;
+            try (OffHeapAgreementStore store = new OffHeapAgreementStore()) {
+                for (int index = 0; index < count; index++) {
+                    store.add(agreement(index));
+                }
+                List<Integer> mismatches = new ArrayList<>();
+                store.forEach(view -> {
+                    if (view.getFinalChargeCents() != 100L + view.getIndex()
+                            || !view.getToolCode().equals(TOOL_CODES[view.getIndex() % TOOL_CODES.length])) {
+                        mismatches.add(view.getIndex());
+                    }
+                });
+
+                assertAll(
+                        ()->{
+                            assertEquals(count, store.size(), "Every agreement should be stored");
+                            assertEquals(4L * OffHeapAgreementStore.CHUNK_RECORDS * OffHeapAgreementStore.RECORD_BYTES, store.getAllocatedBytes(), "Four chunks should be allocated");
+                            assertEquals(List.of(), mismatches, "Every agreement should be read back in order");
+                        }
+                );
+            }
+        }
+
+        @Test
+        @DisplayName("Should not be read once closed")
+        void testClose() {
+            OffHeapAgreementStore store = new OffHeapAgreementStore();
+            store.add(agreement(0));
+            AgreementView view = store.view().moveTo(0);
+            store.close();
+
+            assertThrows(IllegalStateException.class, view::getFinalChargeCents,
+                    "Expected the view to throw IllegalStateException once the store is closed");
+        }
+    }
+
+    @Nested
+    @DisplayName("Parallel scans")
+    class ScanTests {
+
+        @Test
+        @DisplayName("Should reduce every agreement in parallel, like a sequential scan of the agreements")
+        void testCollect() {
+            int count = OffHeapAgreementStore.CHUNK_RECORDS * 5 + 123;
+            long expectedCents = 0;
+            try (OffHeapAgreementStore store = new OffHeapAgreementStore()) {
+                for (int index = 0; index < count; index++) {
+                    RentalAgreement agreement = agreement(index);
+                    store.add(agreement);
+                    if (agreement.getCheckoutDate().isBefore(CHECKOUT_DATE.plusDays(10))) {
+                        expectedCents += agreement.getFinalChargeCents();
+                    }
+                }
+                long limit = CHECKOUT_DATE.plusDays(10).toEpochDay();
+                long[] totals = store.collect(
+                        () -> new long[2],
+                        (total, view) -> {
+                            total[0]++;
+                            if (view.getCheckoutEpochDay() < limit) {
+                                total[1] += view.getFinalChargeCents();
+                            }
+                        },
+                        (left, right) -> new long[]{left[0] + right[0], left[1] + right[1]}
+                );
+
+                assertEquals(count, totals[0], "Every agreement should be visited once");
+                assertEquals(expectedCents, totals[1], "The charges of the period should be summed");
+            }
+        }
+
+        @Test
+        @DisplayName("Should return the empty result of an empty store")
+        void testCollect_Empty() {
+            try (OffHeapAgreementStore store = new OffHeapAgreementStore()) {
+                long[] totals = store.collect(() -> new long[1], (total, view) -> total[0]++, (left, right) -> left);
+                assertEquals(0, totals[0], "No agreement should be visited");
+            }
+        }
+    }
+
+}
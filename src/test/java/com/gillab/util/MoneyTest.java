@@ -0,0 +1,80 @@
+package com.gillab.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Money Tests")
+class MoneyTest {
+
+    @Nested
+    @DisplayName("Percent of an amount")
+    class PercentOfTests {
+
+        @ParameterizedTest
+        @CsvSource({"398, 10, 40", "447, 25, 112", "2990, 50, 1495", "50, 1, 1", "49, 1, 0", "-50, 1, -1", "-49, 1, 0", "0, 100, 0", "199, 100, 199", "199, 0, 0"})
+        @DisplayName("Should round half up to cents")
+        void testPercentOf(long cents, int percent, long expected) {
+            assertEquals(expected, Money.percentOf(cents, percent), "Percentage should be rounded half up");
+        }
+
+        @Test
+        @DisplayName("Should match BigDecimal rounded half up")
+        void testPercentOf_Random() {
+            Random random = new Random(42);
+            for (int i = 0; i < 100_000; i++) {
+                long cents = random.nextInt() * (long) random.nextInt(1 << 16);
+                int percent = random.nextInt(101);
+                long expected = BigDecimal.valueOf(cents).multiply(BigDecimal.valueOf(percent))
+                        .divide(BigDecimal.valueOf(100), 0, RoundingMode.HALF_UP).longValueExact();
+                assertEquals(expected, Money.percentOf(cents, percent), "Percentage should match BigDecimal");
+            }
+        }
+
+        @Test
+        @DisplayName("Should throw ArithmeticException when the amount overflows")
+        void testPercentOf_Overflow() {
+            assertThrows(ArithmeticException.class,
+                    () -> Money.percentOf(Long.MAX_VALUE / 10, 100),
+                    "Expected percentOf to throw ArithmeticException on overflow"
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("Multiply and convert")
+    class MultiplyAndConvertTests {
+
+        @Test
+        @DisplayName("Should multiply exactly where doubles do not")
+        void testMultiply() {
+            assertEquals(1495, Money.multiply(299, 5), "5 days at $2.99 should be exactly $14.95");
+            assertNotEquals(14.95, 5 * 2.99, "The double product is not exact");
+        }
+
+        @Test
+        @DisplayName("Should throw ArithmeticException when the product overflows")
+        void testMultiply_Overflow() {
+            assertThrows(ArithmeticException.class,
+                    () -> Money.multiply(Long.MAX_VALUE, 2),
+                    "Expected multiply to throw ArithmeticException on overflow"
+            );
+        }
+
+        @Test
+        @DisplayName("Should convert cents to dollars")
+        void testConvert() {
+            assertEquals(1.99, Money.toDouble(199), "Double should be the closest to the amount");
+            assertEquals(new BigDecimal("-1234.05"), Money.toBigDecimal(-123_405), "BigDecimal should be exact");
+        }
+    }
+
+}